@@ -1,23 +1,41 @@
 package org.study;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Scanner;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import org.study.exceptions.ExitMethodException;
 import org.study.exceptions.NotFoundException;
 import org.study.exceptions.UserNameAlreadyTakenException;
+import org.study.model.Animal;
 import org.study.services.AnimalService;
 import org.study.services.AttentionQueueService;
+import org.study.services.BackgroundSaveService;
+import org.study.services.CSVFileFollower;
 import org.study.services.FileService;
+import org.study.services.MetricsRegistry;
 import org.study.services.OwnerService;
+import org.study.services.Page;
+import org.study.services.ReportCache;
+import org.study.services.enums.MissingAnimalPolicyEnum;
 
 public class Main {
 
     // Define constants for default values
     private static final String DEFAULT_DELIMITER = ";";
     private static final String YES = "y";
+    private static final String NEXT_PAGE = "n";
+    private static final int ANIMALS_PAGE_SIZE = 20;
+    // The vaccines of the followed CSV file kept waiting for their animal (see option 16)
+    private static final int MAX_PENDING_VACCINE_LINES = 10_000;
     private static final String ANIMALS_CSV_DEFAULT_PATH = "src/main/resources/animals.csv";
 
     private static final String ANIMALS_CSV_REPORT_DEFAULT_PATH = "src/main/resources/animals_report.csv";
@@ -27,10 +45,23 @@ public class Main {
 
     private static final String OWNERS_CSV_DEFAULT_PATH = "src/main/resources/owners.csv";
     private static final String VACCINES_CSV_DEFAULT_PATH = "src/main/resources/vaccines.csv";
+    private static final String VACCINES_QUARANTINE_CSV_DEFAULT_PATH = "src/main/resources/vaccines_quarantine.csv";
+    private static final String METRICS_DEFAULT_PATH = "src/main/resources/metrics.prom";
+    // One of each report, and the report of animals pending on the next application of a few days
+    private static final int REPORT_CACHE_SIZE = 8;
     public static final String DO_YOU_WANT_TO_SAVE_TO_BINARY_FILE_TEMPLATE =
         "Do you want to save %s to binary file? (y/n)";
     public static final String PLEASE_ENTER_THE_PATH_OF_THE_CSV_FILE = "Please enter the path of the CSV file";
 
+    // The lines appended to the followed CSV files are loaded on another thread (see option 16),
+    // the calls of the menu options to the services and the loading of those lines hold this lock,
+    // so they do not run at the same time. The options read the input of the user before taking it,
+    // the followed lines are not held back while the menu waits for the user.
+    private static final Object SERVICES_LOCK = new Object();
+
+    // Not null while the animals and vaccines CSV files are being followed
+    private static CSVFileFollower csvFileFollower;
+
     public static void main(String[] args) {
 
         // Initialize a scanner for user input and an AnimalService instance
@@ -39,6 +70,19 @@ public class Main {
         OwnerService ownerService = new OwnerService();
         FileService fileService = new FileService();
         AttentionQueueService attentionQueueService = new AttentionQueueService();
+        // Writes the program state without blocking the menu
+        BackgroundSaveService backgroundSaveService = new BackgroundSaveService();
+
+        // How long the methods of the services take, see option 17
+        MetricsRegistry metricsRegistry = new MetricsRegistry();
+        animalService.setMetricsRegistry(metricsRegistry);
+        ownerService.setMetricsRegistry(metricsRegistry);
+        fileService.setMetricsRegistry(metricsRegistry);
+        attentionQueueService.setMetricsRegistry(metricsRegistry);
+
+        // The reports of options 6 to 10, generated again only when the animals or the owners change
+        ReportCache reportCache = new ReportCache(REPORT_CACHE_SIZE);
+        reportCache.registerMetrics(metricsRegistry);
 
         // Display a welcome message and present a menu to the user
         System.out.println("Welcome to the animal app");
@@ -61,7 +105,8 @@ public class Main {
                 //Reference: https://medium.com/@javatechie/the-evolution-of-switch-statement-from-java-7-to-java-17-4b5eee8d29b7
                 switch(option) {
 
-                    case 0 -> loadProgramStateFromBinaryFiles(scanner, animalService, ownerService, fileService);
+                    case 0 -> loadProgramStateFromBinaryFiles(
+                        scanner, animalService, ownerService, fileService, backgroundSaveService);
 
                     case 1 -> addAnimalToDatabase(scanner, animalService);
                     case 2 -> addOwnerToDatabase(scanner, ownerService);
@@ -69,17 +114,20 @@ public class Main {
                     case 4 -> addVaccineToNextAnimalInQueue(scanner, animalService, attentionQueueService);
                     case 5 -> addAnimalToAppointmentQueue(scanner, animalService, attentionQueueService);
 
-                    case 6 -> printReportOfOwnersAndTheirAnimals(ownerService, animalService);
-                    case 7 -> printReportOfAnimalsAndTheirOwners(animalService, ownerService);
-                    case 8 -> printReportOfAnimalsPendingOnNextApplication(animalService);
-                    case 9 -> printReportOfAnimalVaccines(animalService);
-                    case 10 -> printReportOfUniqueBrands(animalService);
+                    case 6 -> printReportOfOwnersAndTheirAnimals(reportCache, ownerService, animalService);
+                    case 7 -> printReportOfAnimalsAndTheirOwners(reportCache, animalService, ownerService);
+                    case 8 -> printReportOfAnimalsPendingOnNextApplication(reportCache, animalService);
+                    case 9 -> printReportOfAnimalVaccines(reportCache, animalService);
+                    case 10 -> printReportOfUniqueBrands(reportCache, animalService);
 
                     case 11 -> writeFileWithAnimalsAndNextVaccineApplication(scanner, animalService, fileService);
                     case 12 -> loadAnimalsAndVaccinesFromCSV(scanner, animalService, fileService);
                     case 13 -> loadOwnersFromCSV(scanner, ownerService, fileService);
-                    case 14 -> saveStateToBinaryFile(scanner, animalService, ownerService, fileService);
+                    case 14 -> saveStateToBinaryFile(
+                        scanner, animalService, ownerService, fileService, backgroundSaveService);
                     case 15 -> System.out.println("Exiting the program");
+                    case 16 -> followAnimalsAndVaccinesCSVFiles(scanner, animalService, fileService);
+                    case 17 -> printMetrics(scanner, metricsRegistry, fileService);
 
                 }
             } catch (InputMismatchException e) {
@@ -90,6 +138,11 @@ public class Main {
             }
         } while(option != 15); // Continue looping until the user selects option 8 (Exit)
 
+        stopFollowingCSVFiles();
+
+        // Wait for the saves that are still being written before exiting
+        backgroundSaveService.close();
+
         // Close the scanner when done
         scanner.close();
     }
@@ -117,6 +170,8 @@ public class Main {
                     14. save program state to binary file
                     
                     15. Exit
+                    16. follow animals and vaccines CSV files (start / stop)
+                    17. print metrics of the services
                     
                     Please enter your option
                     """);
@@ -127,7 +182,9 @@ public class Main {
     private static void loadProgramStateFromBinaryFiles(Scanner scanner,
                                                         AnimalService animalService,
                                                         OwnerService ownerService,
-                                                        FileService fileService) throws ExitMethodException {
+                                                        FileService fileService,
+                                                        BackgroundSaveService backgroundSaveService)
+        throws ExitMethodException {
 
         System.out.println("""
               Do you want to load state from binary file? (y/n)
@@ -139,6 +196,9 @@ public class Main {
             throw new ExitMethodException();
         }
 
+        // The files could be the ones that are being saved
+        backgroundSaveService.waitForPendingSaves();
+
         loadAnimalsFromBinaryFile(scanner, animalService, fileService);
 
         loadOwnersFromBinaryFile(scanner, ownerService, fileService);
@@ -151,8 +211,16 @@ public class Main {
         String path = getPath(scanner, ANIMALS_BIN_DEFAULT_PATH);
 
         try{
-            // Attempt to load animals from the specified binary file
-            animalService.loadAnimalsFromBinaryFileUsingTheEntireList(path,fileService);
+            // Attempt to load animals from the specified binary file,
+            // files saved by older versions of the program use Java serialization.
+            // Snapshot files are opened through their index, the animals are read when they are needed
+            synchronized (SERVICES_LOCK) {
+                if (fileService.isSnapshotFile(path)) {
+                    animalService.openAnimalsSnapshotFileLazily(path, fileService);
+                } else {
+                    animalService.loadAnimalsFromBinaryFileUsingTheEntireList(path, fileService);
+                }
+            }
 
             System.out.println("Animals loaded successfully");
 
@@ -170,8 +238,16 @@ public class Main {
         String path = getPath(scanner, OWNERS_BIN_DEFAULT_PATH);
 
         try{
-            // Attempt to load owners from the specified binary file
-            ownerService.loadOwnersFromBinaryFileUsingTheEntireList(path, fileService);
+            // Attempt to load owners from the specified binary file,
+            // files saved by older versions of the program use Java serialization.
+            // Snapshot files are opened through their index, the owners are read when they are needed
+            synchronized (SERVICES_LOCK) {
+                if (fileService.isSnapshotFile(path)) {
+                    ownerService.openOwnersSnapshotFileLazily(path, fileService);
+                } else {
+                    ownerService.loadOwnersFromBinaryFileUsingTheEntireList(path, fileService);
+                }
+            }
 
             System.out.println("Owners loaded successfully");
 
@@ -188,7 +264,9 @@ public class Main {
             String name = scanner.nextLine();
             System.out.println("Please enter the age of the animal");
             int age = Integer.valueOf(scanner.nextLine());
-            animalService.addAnimalToDatabase(name, age);
+            synchronized (SERVICES_LOCK) {
+                animalService.addAnimalToDatabase(name, age);
+            }
         } catch (IllegalArgumentException e) {
             System.out.println("Error creating animal due to :" + e.getMessage());
         }
@@ -234,17 +312,19 @@ public class Main {
             System.out.println("Please enter the country of the owner");
             String country = scanner.nextLine();
 
-            ownerService.addOwnerToDatabase(name,
-                username,
-                email,
-                password,
-                age,
-                phone,
-                address,
-                city,
-                state,
-                zip,
-                country);
+            synchronized (SERVICES_LOCK) {
+                ownerService.addOwnerToDatabase(name,
+                    username,
+                    email,
+                    password,
+                    age,
+                    phone,
+                    address,
+                    city,
+                    state,
+                    zip,
+                    country);
+            }
 
 
 
@@ -257,7 +337,7 @@ public class Main {
     //===========CASE 3 - ADD OWNER TO EXISTING ANIMAL===========
     private static void addOwnerToExistingAnimal(Scanner scanner, AnimalService animalService, OwnerService ownerService) {
 
-        printAnimalsForSelection(animalService);
+        Page<Animal> page = selectPageOfAnimals(scanner, animalService);
 
         System.out.println("Enter the number of the animal you want to add the owner to");
         try {
@@ -265,8 +345,10 @@ public class Main {
             System.out.println("Enter the username of the owner");
             String username = scanner.nextLine();
 
-            UUID animalId = animalService.addOwnerToAnimal(animalNumber, username, ownerService);
-            ownerService.addAnimalIdToOwner(username, animalId);
+            synchronized (SERVICES_LOCK) {
+                UUID animalId = animalService.addOwnerToAnimal(page, animalNumber, username, ownerService);
+                ownerService.addAnimalIdToOwner(username, animalId);
+            }
 
         } catch (NumberFormatException | IndexOutOfBoundsException | NotFoundException e) {
             System.out.println("Error adding owner to animal due to error: " + e.getMessage());
@@ -299,7 +381,9 @@ public class Main {
         System.out.println("Please enter the volume in ml");
         int volume = Integer.parseInt(scanner.nextLine());
 
-        animalService.addVaccineToAnimalInQueue(attentionQueueService, brand, volume);
+        synchronized (SERVICES_LOCK) {
+            animalService.addVaccineToAnimalInQueue(attentionQueueService, brand, volume);
+        }
 
         System.out.println("Vaccine added successfully");
 
@@ -310,13 +394,16 @@ public class Main {
                                                     AnimalService animalService,
                                                     AttentionQueueService attentionQueueService) {
 
-        printAnimalsForSelection(animalService);
+        Page<Animal> page = selectPageOfAnimals(scanner, animalService);
 
         System.out.println("Enter the number of the animal you want to add to the appointment queue");
         try {
             int animalNumber = Integer.parseInt(scanner.nextLine());
 
-            boolean isAnimalInQueue =  animalService.addAnimalToAppointmentQueue(animalNumber, attentionQueueService);
+            boolean isAnimalInQueue;
+            synchronized (SERVICES_LOCK) {
+                isAnimalInQueue = animalService.addAnimalToAppointmentQueue(page, animalNumber, attentionQueueService);
+            }
 
             if (isAnimalInQueue) {
                 System.out.println("Animal added to appointment queue successfully");
@@ -330,60 +417,100 @@ public class Main {
     }
 
     //=========CASE 6 - PRINT REPORT OF OWNERS AND THEIR ANIMALS==========
-    private static void printReportOfOwnersAndTheirAnimals(OwnerService ownerService,
+    private static void printReportOfOwnersAndTheirAnimals(ReportCache reportCache,
+                                                           OwnerService ownerService,
                                                            AnimalService animalService) {
 
-        List<String> reportOfOwnersAndTheirAnimals =
-            ownerService.getOwnersAndTheirAnimalsReport(animalService);
         System.out.println("The report of owners and their animals is:");
-        printReport(reportOfOwnersAndTheirAnimals);
+        List<String> report;
+        synchronized (SERVICES_LOCK) {
+            report = reportCache.getOwnersAndTheirAnimalsReport(ownerService, animalService);
+        }
+        printReport(report::forEach);
 
 
 
     }
 
     //===========CASE 7 - PRINT REPORT OF ANIMALS AND THEIR OWNERS=========
-    private static void printReportOfAnimalsAndTheirOwners(AnimalService animalService,
+    private static void printReportOfAnimalsAndTheirOwners(ReportCache reportCache,
+                                                           AnimalService animalService,
                                                            OwnerService ownerService) {
 
-        List<String> reportOfAnimalsAndTheirOwners =
-            animalService.getAnimalsAndTheirOwnersReport(ownerService);
         System.out.println("The report of animals and their owners is:");
-        printReport(reportOfAnimalsAndTheirOwners);
+        List<String> report;
+        synchronized (SERVICES_LOCK) {
+            report = reportCache.getAnimalsAndTheirOwnersReport(animalService, ownerService);
+        }
+        printReport(report::forEach);
 
     }
 
     //===============CASE 8 - PRINT REPORT OF ANIMALS PENDING ON NEXT APPLICATION======
     // Helper method to print a report of animals pending on the next application
-    private static void printReportOfAnimalsPendingOnNextApplication(AnimalService animalService) {
-        List<String> reportOfAnimalsPendingOnNextApplication =
-            animalService.getAnimalsPendingOnNextApplicationReport();
+    private static void printReportOfAnimalsPendingOnNextApplication(ReportCache reportCache,
+                                                                     AnimalService animalService) {
         System.out.println("The animals pending on the next application are:");
-        printReport(reportOfAnimalsPendingOnNextApplication);
+        List<String> report;
+        synchronized (SERVICES_LOCK) {
+            report = reportCache.getAnimalsPendingOnNextApplicationReport(animalService);
+        }
+        printReport(report::forEach);
     }
 
     //==============CASE 9 - PRINT REPORT OF ANIMAL VACCINES=============
     // Helper method to print a report of animal vaccines
-    private static void printReportOfAnimalVaccines(AnimalService animalService) {
-        List<String> reportOfAnimalVaccines =
-            animalService.getAnimalReport();
+    private static void printReportOfAnimalVaccines(ReportCache reportCache, AnimalService animalService) {
         System.out.println("The report of animal vaccines is:");
-        printReport(reportOfAnimalVaccines);
+        List<String> report;
+        synchronized (SERVICES_LOCK) {
+            report = reportCache.getAnimalReport(animalService);
+        }
+        printReport(report::forEach);
     }
 
     //=================CASE 10 - PRINT REPORT OF UNIQUE BRANDS==============
     // Helper method to print a report of unique brands
-    private static void printReportOfUniqueBrands(AnimalService animalService) {
-        List<String> reportOfUniqueBrands = animalService.getUniqueBrandsReport();
+    private static void printReportOfUniqueBrands(ReportCache reportCache, AnimalService animalService) {
         System.out.println("The unique brands are:");
-        printReport(reportOfUniqueBrands);
+        List<String> report;
+        synchronized (SERVICES_LOCK) {
+            report = reportCache.getUniqueBrandsReport(animalService);
+        }
+        printReport(report::forEach);
     }
-    private static void printAnimalsForSelection(AnimalService animalService) {
+    // Helper method to show the animals one page at a time, until the user wants to select an animal of the page
+    // The numbers of the animals start at 0 on every page
+    private static Page<Animal> selectPageOfAnimals(Scanner scanner, AnimalService animalService) {
 
-        List<String> animalNames = animalService.getAnimalNamesInList();
+        Page<Animal> page;
+        synchronized (SERVICES_LOCK) {
+            page = animalService.getAnimalsPage(null, ANIMALS_PAGE_SIZE);
+        }
         System.out.println("The current animals are:");
-        for(int i = 0; i < animalNames.size(); i++) {
-            System.out.println(i + ". " + animalNames.get(i));
+        printAnimalsForSelection(page);
+
+        while (page.hasNextPage()) {
+            System.out.println("Enter " + NEXT_PAGE + " to see the next animals, "
+                + "or press enter to select an animal of this page");
+            if (!scanner.nextLine().equalsIgnoreCase(NEXT_PAGE)) {
+                break;
+            }
+
+            synchronized (SERVICES_LOCK) {
+                page = animalService.getAnimalsPage(page.getNextPageToken(), ANIMALS_PAGE_SIZE);
+            }
+            printAnimalsForSelection(page);
+        }
+
+        return page;
+    }
+
+    private static void printAnimalsForSelection(Page<Animal> page) {
+
+        List<Animal> animals = page.getItems();
+        for(int i = 0; i < animals.size(); i++) {
+            System.out.println(i + ". " + animals.get(i).getName());
         }
     }
 
@@ -403,7 +530,9 @@ public class Main {
         try{
             // Attempt to save animals to the specified file
             //If something is wrong it will throw an exception
-            animalService.writeFileWithAnimalsAndNextVaccineApplication(path, fileService);
+            synchronized (SERVICES_LOCK) {
+                animalService.writeFileWithAnimalsAndNextVaccineApplication(path, fileService);
+            }
 
             System.out.println("File with animals and next vaccine application saved successfully");
 
@@ -443,7 +572,10 @@ public class Main {
         //Reference: https://www.geeksforgeeks.org/try-catch-throw-and-throws-in-java/
         try{
             // Attempt to load animals from the specified CSV file
-            boolean loaded = animalService.loadAnimalsFromCSVFile(path, delimiter, fileService);
+            boolean loaded;
+            synchronized (SERVICES_LOCK) {
+                loaded = animalService.loadAnimalsFromCSVFile(path, delimiter, fileService);
+            }
             if (loaded) {
                 System.out.println("Animals loaded successfully");
             } else {
@@ -462,15 +594,22 @@ public class Main {
                                             FileService fileService) throws ExitMethodException {
         String path = getPath(scanner, VACCINES_CSV_DEFAULT_PATH);
         String delimiter = getDelimiter(scanner);
+        MissingAnimalPolicyEnum missingAnimalPolicy = getMissingAnimalPolicy(scanner);
+
+        String quarantinePath = null;
+        if (missingAnimalPolicy == MissingAnimalPolicyEnum.QUARANTINE) {
+            System.out.println("Please enter the path of the quarantine file");
+            quarantinePath = getPath(scanner, VACCINES_QUARANTINE_CSV_DEFAULT_PATH);
+        }
 
         try{
             // Attempt to load vaccines from the specified CSV file
-            boolean loaded = animalService.loadVaccinesFromCSVFile(path, delimiter, fileService );
-            if (loaded) {
-                System.out.println("Vaccines loaded successfully");
-            } else {
-                System.out.println("Vaccines not loaded");
+            int vaccinesAdded;
+            synchronized (SERVICES_LOCK) {
+                vaccinesAdded = animalService.loadVaccinesFromCSVFile(
+                    path, delimiter, missingAnimalPolicy, quarantinePath, fileService);
             }
+            System.out.println(vaccinesAdded + " vaccines loaded successfully");
         } catch (IOException | NotFoundException | IllegalArgumentException e) {
             System.out.println("Error loading vaccines due to error: " + e.getMessage());
             throw new ExitMethodException();
@@ -496,7 +635,10 @@ public class Main {
 
         try{
             // Attempt to load owners from the specified CSV file
-            boolean loaded = ownerService.loadOwnersFromCSVFile(path, delimiter, fileService);
+            boolean loaded;
+            synchronized (SERVICES_LOCK) {
+                loaded = ownerService.loadOwnersFromCSVFile(path, delimiter, fileService);
+            }
             if (loaded) {
                 System.out.println("Owners loaded successfully");
             } else {
@@ -512,7 +654,8 @@ public class Main {
     private static void saveStateToBinaryFile(Scanner scanner,
                                               AnimalService animalService,
                                               OwnerService ownerService,
-                                              FileService fileService) throws ExitMethodException {
+                                              FileService fileService,
+                                              BackgroundSaveService backgroundSaveService) throws ExitMethodException {
         System.out.println("""
               Do you want to save state from binary file? (y/n)
               THIS OPERATION WILL OVERWRITE THE CURRENT LIST OF ANIMALS AND OWNERS THAT IS SAVED 
@@ -523,67 +666,168 @@ public class Main {
             throw new ExitMethodException();
         }
 
-        saveOwnersToBinaryFile(scanner, ownerService, fileService);
-        saveAnimalsToBinaryFile(scanner, animalService, fileService);
+        String ownersPath = getBinaryFilePathToSave(scanner, "owners", OWNERS_BIN_DEFAULT_PATH);
+        String animalsPath = getBinaryFilePathToSave(scanner, "animals", ANIMALS_BIN_DEFAULT_PATH);
+
+        // The animals and owners are copied now, the files are written in the background,
+        // so the menu can be used while they are saved
+        CompletableFuture<Void> save;
+        synchronized (SERVICES_LOCK) {
+            save = backgroundSaveService.saveInBackground(animalsPath, ownersPath, animalService, ownerService, fileService);
+        }
+        save.whenComplete((result, error) -> {
+            if (error == null) {
+                System.out.println("Animals and owners saved successfully");
+            } else {
+                System.out.println("Error saving animals and owners due to error: " + error.getMessage());
+            }
+        });
+
+        System.out.println("Saving animals and owners in the background");
 
     }
 
-    private static void saveOwnersToBinaryFile(Scanner scanner,
-                                               OwnerService ownerService,
-                                               FileService fileService) throws ExitMethodException {
+    private static String getBinaryFilePathToSave(Scanner scanner,
+                                                  String recordName,
+                                                  String defaultPath) throws ExitMethodException {
 
         System.out.println(
-            String.format(DO_YOU_WANT_TO_SAVE_TO_BINARY_FILE_TEMPLATE, "owners"));
-        String saveOwners = scanner.nextLine();
+            String.format(DO_YOU_WANT_TO_SAVE_TO_BINARY_FILE_TEMPLATE, recordName));
+        String save = scanner.nextLine();
 
-        if(!saveOwners.equalsIgnoreCase(YES)) {
+        if(!save.equalsIgnoreCase(YES)) {
             throw new ExitMethodException();
         }
 
         System.out.println("Please enter the path of the binary file");
-        String path = getPath(scanner, OWNERS_BIN_DEFAULT_PATH);
+        return getPath(scanner, defaultPath);
+    }
 
-        try{
-            // Attempt to save owners to the specified binary file
-            //If something is wrong it will throw an exception
-            ownerService.saveOwnersToBinaryFileUsingTheEntireList(path, fileService);
+    //=========CASE 16 - FOLLOW ANIMALS AND VACCINES CSV FILES============
+    private static void followAnimalsAndVaccinesCSVFiles(Scanner scanner,
+                                                         AnimalService animalService,
+                                                         FileService fileService) throws ExitMethodException {
+
+        if (csvFileFollower != null) {
+            System.out.println("Do you want to stop following the CSV files? (y/n)");
+            if (!scanner.nextLine().equalsIgnoreCase(YES)) {
+                throw new ExitMethodException();
+            }
 
-            System.out.println("Owners saved successfully");
+            stopFollowingCSVFiles();
+            System.out.println("Stopped following the CSV files");
+            return;
+        }
 
+        System.out.println("Do you want to follow " + ANIMALS_CSV_DEFAULT_PATH + " and " + VACCINES_CSV_DEFAULT_PATH
+            + "? The lines appended to them will be loaded as soon as they are written (y/n)");
+        if (!scanner.nextLine().equalsIgnoreCase(YES)) {
+            throw new ExitMethodException();
+        }
+
+        System.out.println("Do you want to load the lines already in the files too? (y/n)");
+        boolean fromBeginning = scanner.nextLine().equalsIgnoreCase(YES);
+
+        // Vaccines whose animal was not appended yet, they are added when it is.
+        // At most MAX_PENDING_VACCINE_LINES are kept, the oldest ones are dropped (and printed) first.
+        List<String> pendingVaccineLines = new ArrayList<>();
+
+        try {
+            // The animals file goes first, so the animals of new vaccines are loaded before them
+            csvFileFollower = fileService.followCSVFiles(
+                List.of(ANIMALS_CSV_DEFAULT_PATH, VACCINES_CSV_DEFAULT_PATH),
+                fromBeginning,
+                (path, lines) -> {
+                    synchronized (SERVICES_LOCK) {
+                        loadFollowedLines(path, lines, pendingVaccineLines, animalService, fileService);
+                    }
+                },
+                (path, e) -> System.out.println("Error following " + path + " due to error: " + e.getMessage()));
+
+            System.out.println("Following the CSV files");
 
         } catch (IOException e) {
-            System.out.println("Error saving owners due to error: " + e.getMessage());
+            System.out.println("Error following the CSV files due to error: " + e.getMessage());
+            throw new ExitMethodException();
         }
     }
 
-    private static void saveAnimalsToBinaryFile(Scanner scanner,
-                                                AnimalService animalService,
-                                                FileService fileService) throws ExitMethodException {
+    // Called on the thread of the follower, holding SERVICES_LOCK
+    private static void loadFollowedLines(String path,
+                                          List<String> lines,
+                                          List<String> pendingVaccineLines,
+                                          AnimalService animalService,
+                                          FileService fileService) {
+        try {
+            if (path.equals(ANIMALS_CSV_DEFAULT_PATH)) {
+                int animalsAdded = animalService.addAnimalsFromCSVLines(
+                    lines, DEFAULT_DELIMITER, fileService, invalidFollowedLineHandler(path));
+                System.out.println(animalsAdded + " animals loaded from " + path);
+
+                // Only the new animals can be the animals of the pending vaccines
+                if (animalsAdded > 0 && !pendingVaccineLines.isEmpty()) {
+                    List<String> retriedLines = new ArrayList<>(pendingVaccineLines);
+                    pendingVaccineLines.clear();
+                    pendingVaccineLines.addAll(loadFollowedVaccineLines(retriedLines, animalService, fileService));
+                }
+            } else {
+                pendingVaccineLines.addAll(loadFollowedVaccineLines(lines, animalService, fileService));
+            }
 
-        System.out.println(
-            String.format(DO_YOU_WANT_TO_SAVE_TO_BINARY_FILE_TEMPLATE, "animals"));
-        String saveAnimals = scanner.nextLine();
+            dropOldestPendingVaccineLines(pendingVaccineLines);
+        } catch (RuntimeException e) {
+            // The invalid lines are skipped one at a time, this is only for unexpected errors
+            System.out.println("Error loading lines of " + path + " due to error: " + e.getMessage());
+        }
+    }
 
-        if(!saveAnimals.equalsIgnoreCase(YES)) {
-            throw new ExitMethodException();
+    // Returns the lines whose animal was not loaded yet
+    private static List<String> loadFollowedVaccineLines(List<String> lines,
+                                                         AnimalService animalService,
+                                                         FileService fileService) {
+        int[] invalidLines = {0};
+        List<String> linesWithoutAnimal = animalService.addVaccinesFromCSVLines(
+            lines, DEFAULT_DELIMITER, fileService,
+            invalidFollowedLineHandler(VACCINES_CSV_DEFAULT_PATH).andThen((line, e) -> invalidLines[0]++));
+
+        // The invalid lines are neither added nor returned
+        int vaccinesAdded = lines.size() - linesWithoutAnimal.size() - invalidLines[0];
+        if (vaccinesAdded > 0) {
+            System.out.println(vaccinesAdded + " vaccines loaded from " + VACCINES_CSV_DEFAULT_PATH);
         }
 
-        System.out.println("Please enter the path of the binary file");
-        String path = getPath(scanner, ANIMALS_BIN_DEFAULT_PATH);
+        return linesWithoutAnimal;
+    }
 
-        try{
-            // Attempt to save animals to the specified binary file
-            //If something is wrong it will throw an exception
-            animalService.saveAnimalsToBinaryFileUsingTheEntireList(path, fileService);
+    private static BiConsumer<String, RuntimeException> invalidFollowedLineHandler(String path) {
+        return (line, e) -> System.out.println(
+            "Skipped invalid line of " + path + " due to error: " + e.getMessage() + System.lineSeparator() + line);
+    }
 
-            System.out.println("Animals saved successfully");
+    private static void dropOldestPendingVaccineLines(List<String> pendingVaccineLines) {
+        int linesToDrop = pendingVaccineLines.size() - MAX_PENDING_VACCINE_LINES;
+        if (linesToDrop <= 0) {
+            return;
+        }
 
+        List<String> droppedLines = pendingVaccineLines.subList(0, linesToDrop);
+        System.out.println("Dropped " + linesToDrop + " lines of " + VACCINES_CSV_DEFAULT_PATH
+            + " whose animal was not loaded:");
+        droppedLines.forEach(System.out::println);
+        droppedLines.clear();
+    }
 
-        } catch (IOException e) {
-            System.out.println("Error saving animals due to error: " + e.getMessage());
+    private static void stopFollowingCSVFiles() {
+        if (csvFileFollower == null) {
+            return;
         }
 
-
+        try {
+            csvFileFollower.close();
+        } catch (IOException e) {
+            System.out.println("Error closing the CSV files follower due to error: " + e.getMessage());
+        }
+        csvFileFollower = null;
     }
 
     //OTHER METHODS
@@ -602,6 +846,20 @@ public class Main {
             : scanner.nextLine();
     }
 
+    // Helper method to choose what to do with the vaccines whose animal does not exist
+    private static MissingAnimalPolicyEnum getMissingAnimalPolicy(Scanner scanner) {
+        System.out.println("What should be done with the vaccines whose animal does not exist? "
+            + "(fail/skip/quarantine) fail is the default");
+        String policy = scanner.nextLine().trim();
+
+        for (MissingAnimalPolicyEnum missingAnimalPolicy : MissingAnimalPolicyEnum.values()) {
+            if (missingAnimalPolicy.name().equalsIgnoreCase(policy)) {
+                return missingAnimalPolicy;
+            }
+        }
+        return MissingAnimalPolicyEnum.FAIL;
+    }
+
     // Helper method to get the delimiter for CSV files
     private static String getDelimiter(Scanner scanner) {
         System.out.println("Load using default delimiter? (y/n) " + DEFAULT_DELIMITER + " is the default");
@@ -629,19 +887,50 @@ public class Main {
 
 
     // Helper method to print the names of current animals
+    // The names are read one page at a time, so they are never copied into a single list
     private static void printAnimalNames(AnimalService animalService) {
         System.out.println("The current animals are:");
-        for(String animalName : animalService.getAnimalNamesInList()) {
-            System.out.println(animalName);
-        }
+        String pageToken = null;
+        do {
+            Page<Animal> page = animalService.getAnimalsPage(pageToken, ANIMALS_PAGE_SIZE);
+            for (Animal animal : page.getItems()) {
+                System.out.println(animal.getName());
+            }
+            pageToken = page.getNextPageToken();
+        } while (pageToken != null);
     }
 
 
 
-    // Helper method to print a report
-    private static void printReport(List<String> report) {
-        for(String reportValue : report) {
-            System.out.println(reportValue);
+    //=========CASE 17 - PRINT METRICS OF THE SERVICES============
+    private static void printMetrics(Scanner scanner, MetricsRegistry metricsRegistry, FileService fileService) {
+
+        printReport(metricsRegistry::writeTextExposition);
+
+        System.out.println("Do you want to save the metrics to a file? (y/n)");
+        if (!scanner.nextLine().equalsIgnoreCase(YES)) {
+            return;
+        }
+
+        System.out.println("Please enter the path of the metrics file");
+        String path = getPath(scanner, METRICS_DEFAULT_PATH);
+
+        try {
+            metricsRegistry.saveToFile(path, fileService);
+            System.out.println("Metrics saved successfully");
+        } catch (IOException e) {
+            System.out.println("Error saving metrics due to error: " + e.getMessage());
         }
     }
+
+    // Helper method to print a report
+    // Each line is printed as soon as it is produced, the reports of options 6 to 10 come from the ReportCache
+    // and the metrics are never stored in a list.
+    // System.out flushes on every println, so the lines go through a buffer that is flushed at the end.
+    // Reference: https://docs.oracle.com/javase/8/docs/api/java/io/PrintStream.html#println--
+    private static void printReport(Consumer<Consumer<String>> reportProducer) {
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+        reportProducer.accept(out::println);
+        out.flush();
+    }
 }
@@ -1,5 +1,7 @@
 package org.study.model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -9,6 +11,11 @@ import java.util.UUID;
 
 public class Animal implements Serializable {
 
+    // Fixed to the value of the first version of the class, so binary files saved with Java serialization
+    // can still be loaded after adding methods or transient fields.
+    // Reference: https://www.baeldung.com/java-serial-version-uid
+    private static final long serialVersionUID = -4181826134618736681L;
+
     // Attributes of the Animal class
     private UUID id;
     private String name;
@@ -17,8 +24,15 @@ public class Animal implements Serializable {
 
     private Set<UUID> ownerIds;
 
+    // True if the animal changed since it was last saved to (or loaded from) a snapshot file.
+    // New animals are dirty. Transient: it is not part of the state of the animal.
+    private transient boolean dirty = true;
+
+    // Called every time the animal changes, so the service that holds it knows its indexes and cached reports
+    // are old. Transient: it is not part of the state of the animal.
+    private transient Runnable changeListener;
+
     // Constants
-    private final static int MINIMUM_AGE = 0; // Minimum allowed age
     private static final String DEFAULT_NAME = "No nombre"; // Default name for an animal
 
     // Constructors
@@ -36,8 +50,68 @@ public class Animal implements Serializable {
         this.ownerIds = new HashSet<>();
     }
 
+    // Constructor with an already parsed UUID, name, and age provided (Constructor Overloading)
+    // This constructor is used by the loaders that parse the UUID themselves (i.e. from the bytes of a file),
+    // so the id does not need to be converted into a String and back.
+    public Animal(UUID id, String name, int age) {
+        validateConstructor(name, age); // Validate the provided parameters
+
+        if (id == null) {
+            throw new IllegalArgumentException("Id cannot be null");
+        }
+
+        this.id = id;
+        this.name = name;
+        this.age = age;
+        this.vaccines = new ArrayList<>();
+        this.ownerIds = new HashSet<>();
+    }
+
+    // Copy constructor (Constructor Overloading)
+    // Creates an independent copy of another animal, with copies of its vaccines and owner ids,
+    // so the copy does not change when the original animal changes (i.e. while it is saved from another thread).
+    public Animal(Animal other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.age = other.age;
+        this.vaccines = new ArrayList<>(other.vaccines.size());
+        for (Vaccine vaccine : other.vaccines) {
+            Vaccine copy = new Vaccine(vaccine);
+            copy.setAnimal(this);
+            this.vaccines.add(copy);
+        }
+        this.ownerIds = new HashSet<>(other.ownerIds);
+        this.dirty = other.dirty;
+    }
+
     public void addOwnerId(UUID owner) {
-        ownerIds.add(owner);
+        if (ownerIds.add(owner)) {
+            markDirty();
+        }
+    }
+
+    // Also called by the vaccines of the animal when they change
+    void markDirty() {
+        dirty = true;
+        if (changeListener != null) {
+            changeListener.run();
+        }
+    }
+
+    /**
+     * @param changeListener Called every time the animal, or one of its vaccines, changes. Null to stop calling it.
+     */
+    public void setChangeListener(Runnable changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    // Called once the animal was saved to (or loaded from) a snapshot file.
+    public void markClean() {
+        dirty = false;
     }
 
     public Set<UUID> getOwnerIds() {
@@ -60,37 +134,15 @@ public class Animal implements Serializable {
     }
 
     private void validateId(String id) {
-        // Step 1: Check if the provided id is null
-        if (id == null) {
-            throw new IllegalArgumentException("Id cannot be null");
-        }
-
-        // Step 2: Check if the provided id is empty
-        if (id.isEmpty()) {
-            throw new IllegalArgumentException("Id cannot be empty");
-        }
-
+        Validators.throwIfInvalid(Validators.checkId(id));
     }
 
     private void validateName(String name) {
-        // Step 1: Check if the provided name is null
-        if (name == null) {
-            throw new IllegalArgumentException("Name cannot be null");
-        }
-
-        // Step 2: Check if the provided name is empty
-        if (name.isEmpty()) {
-            throw new IllegalArgumentException("Name cannot be empty");
-        }
-
+        Validators.throwIfInvalid(Validators.checkName(name));
     }
 
     private void validateAge(int age) {
-        // Step 1: Check if the provided age is less than the minimum allowed age
-        if (age < MINIMUM_AGE) {
-            throw new IllegalArgumentException("Age cannot be less than " + MINIMUM_AGE);
-        }
-
+        Validators.throwIfInvalid(Validators.checkAge(age, Validators.MINIMUM_ANIMAL_AGE));
     }
 
     // Constructor with random UUID, name, and age provided (Constructor Overloading)
@@ -103,6 +155,7 @@ public class Animal implements Serializable {
         this.name = name;
         this.age = age;
         this.vaccines = new ArrayList<>();
+        this.ownerIds = new HashSet<>();
     }
 
 
@@ -114,25 +167,37 @@ public class Animal implements Serializable {
     public Animal() {
         this.id = UUID.randomUUID();
         this.name = DEFAULT_NAME;
-        this.age = MINIMUM_AGE;
+        this.age = Validators.MINIMUM_ANIMAL_AGE;
         this.vaccines = new ArrayList<>();
+        this.ownerIds = new HashSet<>();
     }
 
 
     // Method to add a vaccine with volume and brand
     public void addVaccine(int volume, String brand) {
         Vaccine vaccine = new Vaccine(volume, brand); // Create a new Vaccine object, if volume and brand are valid, otherwise throw an exception
+        vaccine.setAnimal(this);
         this.vaccines.add(vaccine); // Add the vaccine to the list
+        markDirty();
     }
 
     public boolean addVaccines(List<Vaccine> vaccines) {
-        return this.vaccines.addAll(vaccines);
+        for (Vaccine vaccine : vaccines) {
+            vaccine.setAnimal(this);
+        }
+        boolean added = this.vaccines.addAll(vaccines);
+        if (added) {
+            markDirty();
+        }
+        return added;
     }
 
     // Method to add a vaccine with UUID, volume, brand, and date of application
     public void addVaccine(String id, int volume, String brand, String dateOfApplication) {
         Vaccine vaccine = new Vaccine(id, volume, brand, dateOfApplication); // Create a new Vaccine object, if volume, brand and dates are valid, otherwise throw an exception
+        vaccine.setAnimal(this);
         this.vaccines.add(vaccine); // Add the vaccine to the list
+        markDirty();
     }
 
     // Getter method to retrieve a copy of the list of vaccines
@@ -140,6 +205,11 @@ public class Animal implements Serializable {
         return new ArrayList<>(vaccines); // Return a copy of the vaccines list to prevent external modification
     }
 
+    // Getter method to retrieve the number of vaccines without copying the list
+    public int getNumberOfVaccines() {
+        return vaccines.size();
+    }
+
     // Getter method to retrieve the name of the animal
     public String getName() {
         return this.name;
@@ -150,6 +220,7 @@ public class Animal implements Serializable {
 
         validateName(name); // Validate the provided name
         this.name = name;
+        markDirty();
     }
 
     // Getter method to retrieve the age of the animal
@@ -164,6 +235,7 @@ public class Animal implements Serializable {
 
         validateAge(age);
         this.age = age;
+        markDirty();
     }
 
     // Getter method to retrieve the UUID of the animal
@@ -188,6 +260,15 @@ public class Animal implements Serializable {
         return "id: " + id + " nombre: '" + name + "' edad: " + age;
     }
 
+    // The vaccines do not save the animal they belong to, so they are linked again after reading the animal.
+    // Reference: https://docs.oracle.com/javase/8/docs/platform/serialization/spec/input.html#a2971
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        for (Vaccine vaccine : vaccines) {
+            vaccine.setAnimal(this);
+        }
+    }
+
     public String toCSV(String delimiter) {
         String[] ownerIdsArray = this.ownerIds.stream()
             .map(UUID::toString)
@@ -0,0 +1,257 @@
+package org.study.model;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * Dates stored as an int: the number of days since 1970-01-01 (the "epoch day" of LocalDate.toEpochDay).
+ *
+ * Comparing two dates is a single int comparison, and storing them takes 4 bytes instead of a LocalDate object.
+ * The conversions between year/month/day and epoch days are done with integer arithmetic,
+ * so parsing a date does not create any object. LocalDate is only created when a date is given to the caller.
+ *
+ * Reference: https://howardhinnant.github.io/date_algorithms.html
+ * Reference: https://docs.oracle.com/javase/8/docs/api/java/time/LocalDate.html#toEpochDay--
+ */
+public final class EpochDays {
+
+    private static final int DATE_LENGTH = "dd/MM/yyyy".length();
+    private static final int ISO_DATE_LENGTH = "yyyy-MM-dd".length();
+
+    // Days between 0000-03-01 and 1970-01-01, and in a cycle of 400 years of the Gregorian calendar
+    private static final int DAYS_FROM_YEAR_ZERO_TO_EPOCH = 719468;
+    private static final int DAYS_PER_400_YEARS = 146097;
+
+    private EpochDays() {
+    }
+
+    /**
+     * Parses a date with the fixed format dd/MM/yyyy, reading the digits directly.
+     *
+     * A day of month that does not exist in the month (i.e. 31/04/2023) is changed to the last day of the month,
+     * the same as LocalDate.parse with DateTimeFormatter.ofPattern("dd/MM/yyyy") (the SMART resolver style).
+     *
+     * @param date The date, in the format dd/MM/yyyy.
+     * @return The epoch day of the date.
+     * @throws IllegalArgumentException If the date is not in the format dd/MM/yyyy, or is not a valid date.
+     */
+    public static int parse(String date) {
+        if (date == null
+            || date.length() != DATE_LENGTH
+            || date.charAt(2) != '/'
+            || date.charAt(5) != '/') {
+            throw new IllegalArgumentException("Date of application must be in the format dd/MM/yyyy");
+        }
+
+        int day = parseDigits(date, 0, 2);
+        int month = parseDigits(date, 3, 5);
+        int year = parseDigits(date, 6, 10);
+
+        if (day < 0 || month < 0 || year < 0) {
+            throw new IllegalArgumentException("Date of application must be in the format dd/MM/yyyy");
+        }
+
+        return resolve(year, month, day);
+    }
+
+    /**
+     * Resolves the fields of a date read from a file into an epoch day, like parse does with a String.
+     * A day of month that does not exist in the month is changed to the last day of the month.
+     *
+     * @return The epoch day of the date.
+     * @throws IllegalArgumentException If the year is before 1, the month is not 1 to 12, or the day is not 1 to 31.
+     */
+    public static int resolve(int year, int month, int dayOfMonth) {
+        if (year < 1 || year > 9999 || month < 1 || month > 12 || dayOfMonth < 1 || dayOfMonth > 31) {
+            throw new IllegalArgumentException(
+                "Date of application is not a valid date: " + dayOfMonth + "/" + month + "/" + year);
+        }
+
+        return of(year, month, Math.min(dayOfMonth, lengthOfMonth(year, month)));
+    }
+
+    /**
+     * @return The epoch day of a date, that must be valid.
+     */
+    public static int of(int year, int month, int dayOfMonth) {
+        // The year starts in March, so the leap day is the last day of the year
+        int marchYear = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(marchYear, 400);
+        int yearOfEra = marchYear - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + dayOfMonth - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+
+        return era * DAYS_PER_400_YEARS + dayOfEra - DAYS_FROM_YEAR_ZERO_TO_EPOCH;
+    }
+
+    /**
+     * Adds months to a date, like LocalDate.plusMonths: if the day of month does not exist in the resulting month,
+     * the last day of that month is used (i.e. 31/08/2023 plus 6 months is 29/02/2024).
+     */
+    public static int plusMonths(int epochDay, int months) {
+        // Step 1: From epoch day to year/month/day
+        int date = toYearMonthDay(epochDay);
+        int year = yearOf(date);
+        int month = monthOf(date);
+        int dayOfMonth = dayOf(date);
+
+        // Step 2: Add the months
+        int monthsFromYearZero = year * 12 + (month - 1) + months;
+        int newYear = Math.floorDiv(monthsFromYearZero, 12);
+        int newMonth = Math.floorMod(monthsFromYearZero, 12) + 1;
+
+        // Step 3: Keep the day of month, if the new month has it
+        return of(newYear, newMonth, Math.min(dayOfMonth, lengthOfMonth(newYear, newMonth)));
+    }
+
+    /**
+     * Parses a date with the ISO format yyyy-MM-dd (the format of LocalDate.toString), reading the digits directly.
+     * Unlike parse, a day of month that does not exist in the month is not valid, the same as LocalDate.parse.
+     *
+     * @param date The date, in the format yyyy-MM-dd.
+     * @return The epoch day of the date.
+     * @throws IllegalArgumentException If the date is not in the format yyyy-MM-dd, or is not a valid date.
+     */
+    public static int parseIso(String date) {
+        if (date == null
+            || date.length() != ISO_DATE_LENGTH
+            || date.charAt(4) != '-'
+            || date.charAt(7) != '-') {
+            throw new IllegalArgumentException("Date must be in the format yyyy-MM-dd");
+        }
+
+        int year = parseDigits(date, 0, 4);
+        int month = parseDigits(date, 5, 7);
+        int day = parseDigits(date, 8, 10);
+
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            throw new IllegalArgumentException("Date is not a valid date: " + date);
+        }
+
+        return of(year, month, day);
+    }
+
+    /**
+     * Formats a date with the ISO format yyyy-MM-dd, the same as LocalDate.toString.
+     *
+     * @param epochDay The epoch day of the date.
+     * @return The date in the format yyyy-MM-dd.
+     */
+    public static String formatIso(int epochDay) {
+        int date = toYearMonthDay(epochDay);
+        int year = yearOf(date);
+
+        // LocalDate adds a sign to the years that do not have 4 digits
+        if (year < 0 || year > 9999) {
+            return toLocalDate(epochDay).toString();
+        }
+
+        char[] characters = new char[ISO_DATE_LENGTH];
+        writeDigits(characters, 0, 4, year);
+        characters[4] = '-';
+        writeDigits(characters, 5, 2, monthOf(date));
+        characters[7] = '-';
+        writeDigits(characters, 8, 2, dayOf(date));
+
+        return new String(characters);
+    }
+
+    public static LocalDate toLocalDate(int epochDay) {
+        return LocalDate.ofEpochDay(epochDay);
+    }
+
+    public static int fromLocalDate(LocalDate date) {
+        return Math.toIntExact(date.toEpochDay());
+    }
+
+    /**
+     * @return The epoch day of the current date, in the default time zone.
+     */
+    public static int today() {
+        return fromLocalDate(LocalDate.now());
+    }
+
+    /**
+     * @return The epoch day of the current date of the clock, in the time zone of the clock.
+     */
+    public static int today(Clock clock) {
+        return fromLocalDate(LocalDate.now(clock));
+    }
+
+    /**
+     * @return The month of the date as the number of months since January of year 0 (year * 12 + month - 1),
+     * so all the dates of a month have the same number and the numbers keep the order of the months.
+     */
+    public static int toEpochMonth(int epochDay) {
+        int date = toYearMonthDay(epochDay);
+        return yearOf(date) * 12 + monthOf(date) - 1;
+    }
+
+    /**
+     * From epoch day to year/month/day (the inverse of of).
+     * The three numbers are packed into an int, read them with yearOf, monthOf and dayOf.
+     */
+    private static int toYearMonthDay(int epochDay) {
+        int daysFromYearZero = epochDay + DAYS_FROM_YEAR_ZERO_TO_EPOCH;
+        int era = Math.floorDiv(daysFromYearZero, DAYS_PER_400_YEARS);
+        int dayOfEra = daysFromYearZero - era * DAYS_PER_400_YEARS;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int marchMonth = (5 * dayOfYear + 2) / 153;
+
+        int dayOfMonth = dayOfYear - (153 * marchMonth + 2) / 5 + 1;
+        int month = marchMonth < 10 ? marchMonth + 3 : marchMonth - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        return year << 9 | month << 5 | dayOfMonth;
+    }
+
+    private static int yearOf(int yearMonthDay) {
+        return yearMonthDay >> 9;
+    }
+
+    private static int monthOf(int yearMonthDay) {
+        return (yearMonthDay >> 5) & 0xF;
+    }
+
+    private static int dayOf(int yearMonthDay) {
+        return yearMonthDay & 0x1F;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> isLeapYear(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /**
+     * @return The number, or -1 if a character is not a digit.
+     */
+    private static int parseDigits(String value, int start, int end) {
+        int result = 0;
+
+        for (int i = start; i < end; i++) {
+            int digit = value.charAt(i) - '0';
+
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            result = result * 10 + digit;
+        }
+
+        return result;
+    }
+
+    private static void writeDigits(char[] characters, int start, int numberOfDigits, int value) {
+        for (int i = start + numberOfDigits - 1; i >= start; i--) {
+            characters[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -6,18 +6,13 @@ import java.util.List;
 import java.util.UUID;
 
 public class Owner implements Serializable {
-    private static final String PASSWORD_PATTERN = "^(?=.*?[A-Z])(?=.*?[a-z])(?=.*?[0-9])(?=.*?[#?!@$ %^&*-]).{8,}$";
 
-    private final static int MINIMUM_AGE = 18; // Minimum allowed age
-
-    private static final String EMAIL_PATTERN = "[^@ \\t\\r\\n]+@[^@ \\t\\r\\n]+\\.[^@ \\t\\r\\n]++";
-
-    private static final String PHONE_PATTERN = "^[0-9]{10}$";
+    // Fixed to the value of the first version of the class, so binary files saved with Java serialization
+    // can still be loaded after adding methods or transient fields.
+    private static final long serialVersionUID = 461880932882837324L;
 
+    // The formats of the username, email, password, phone and zip are checked by Validators
     //ZIP CODE REGEX: https://stackoverflow.com/questions/578406/what-is-the-ultimate-postal-code-and-zip-regex
-    private static final String ZIP_PATTERN = "^[0-9]{5}(?:-[0-9]{4})?$";
-
-    private static final String USERNAME_PATTERN = "^[a-zA-Z][a-zA-Z0-9_]{7,30}$";
 
     // Attributes of the Owner class
     private UUID id;
@@ -36,6 +31,14 @@ public class Owner implements Serializable {
 
     List<UUID> animalIds;
 
+    // True if the owner changed since it was last saved to (or loaded from) a snapshot file.
+    // New owners are dirty. Transient: it is not part of the state of the owner.
+    private transient boolean dirty = true;
+
+    // Called every time the owner changes, so the service that holds it knows its indexes and cached reports
+    // are old. Transient: it is not part of the state of the owner.
+    private transient Runnable changeListener;
+
 
     public Owner (String id,
                   String name,
@@ -79,6 +82,72 @@ public class Owner implements Serializable {
         this.animalIds = new ArrayList<>();
     }
 
+    // Used by the loaders that parse the UUID themselves (i.e. from the bytes of a file)
+    public Owner (UUID id,
+                  String name,
+                  String username,
+                  String email,
+                  String password,
+                  int age,
+                  String phone,
+                  String address,
+                  String city,
+                  String state,
+                  String country,
+                  String zip) {
+
+        if (id == null) {
+            throw new IllegalArgumentException("Id cannot be null");
+        }
+
+        validateConstructor(
+            name,
+            username,
+            email,
+            password,
+            age,
+            phone,
+            address,
+            city,
+            state,
+            zip,
+            country);
+
+        this.id = id;
+        this.name = name;
+        this.username = username;
+        this.email = email;
+        this.password = password;
+        this.age = age;
+        this.phone = phone;
+        this.address = address;
+        this.city = city;
+        this.state = state;
+        this.zip = zip;
+        this.country = country;
+        this.animalIds = new ArrayList<>();
+    }
+
+
+    // Copy constructor
+    // Creates an independent copy of another owner, so the copy does not change when the original owner changes
+    // (i.e. while it is saved from another thread). The other owner was already validated.
+    public Owner(Owner other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.username = other.username;
+        this.email = other.email;
+        this.password = other.password;
+        this.age = other.age;
+        this.phone = other.phone;
+        this.address = other.address;
+        this.city = other.city;
+        this.state = other.state;
+        this.zip = other.zip;
+        this.country = other.country;
+        this.animalIds = new ArrayList<>(other.animalIds);
+        this.dirty = other.dirty;
+    }
 
     public Owner(String name,
                  String username,
@@ -177,176 +246,52 @@ public class Owner implements Serializable {
     }
 
     private void validateAge(int age) {
-        // Step 1: Check if the provided age is less than the minimum allowed age
-        if (age < MINIMUM_AGE) {
-            throw new IllegalArgumentException("Age cannot be less than " + MINIMUM_AGE);
-        }
+        Validators.throwIfInvalid(Validators.checkAge(age, Validators.MINIMUM_OWNER_AGE));
     }
 
 
     private void validateUsername(String username) {
-        // Step 1: Check if the provided username is null
-        if (username == null) {
-            throw new IllegalArgumentException("Username cannot be null");
-        }
-
-        // Step 2: Check if the provided username is empty
-        if (username.isEmpty()) {
-            throw new IllegalArgumentException("Username cannot be empty");
-        }
-
-        // Step 3: Check if the provided username is in the correct format
-        if (!username.matches(USERNAME_PATTERN)) {
-            throw new IllegalArgumentException("Username must be in the appropriate format");
-        }
+        Validators.throwIfInvalid(Validators.checkUsername(username));
     }
 
     private void validateId(String id) {
-        // Step 1: Check if the provided id is null
-        if (id == null) {
-            throw new IllegalArgumentException("Id cannot be null");
-        }
-
-        // Step 2: Check if the provided id is empty
-        if (id.isEmpty()) {
-            throw new IllegalArgumentException("Id cannot be empty");
-        }
-
+        Validators.throwIfInvalid(Validators.checkId(id));
     }
 
     private void validateName(String name) {
-        // Step 1: Check if the provided name is null
-        if (name == null) {
-            throw new IllegalArgumentException("Name cannot be null");
-        }
-
-        // Step 2: Check if the provided name is empty
-        if (name.isEmpty()) {
-            throw new IllegalArgumentException("Name cannot be empty");
-        }
+        Validators.throwIfInvalid(Validators.checkName(name));
     }
 
     private void validateEmail(String email) {
-        // Step 1: Check if the provided email is null
-        if (email == null) {
-            throw new IllegalArgumentException("Email cannot be null");
-        }
-
-        // Step 2: Check if the provided email is empty
-        if (email.isEmpty()) {
-            throw new IllegalArgumentException("Email cannot be empty");
-        }
-
-        // Step 3: Check if the provided email is in the correct format
-        if (!email.matches(EMAIL_PATTERN)) {
-            throw new IllegalArgumentException("Email must be in the appropriate format");
-        }
+        Validators.throwIfInvalid(Validators.checkEmail(email));
     }
 
     private void validatePhone(String phone) {
-        // Step 1: Check if the provided phone is null
-        if (phone == null) {
-            throw new IllegalArgumentException("Phone cannot be null");
-        }
-
-        // Step 2: Check if the provided phone is empty
-        if (phone.isEmpty()) {
-            throw new IllegalArgumentException("Phone cannot be empty");
-        }
-
-        // Step 3: Check if the provided phone is in the correct format
-        if (!phone.matches(PHONE_PATTERN)) {
-            throw new IllegalArgumentException("Phone must be in the appropriate format");
-        }
+        Validators.throwIfInvalid(Validators.checkPhone(phone));
     }
 
     private void validatePassword(String password) {
-        // Step 1: Check if the provided password is null
-        if (password == null) {
-            throw new IllegalArgumentException("Password cannot be null");
-        }
-
-        // Step 2: Check if the provided password is empty
-        if (password.isEmpty()) {
-            throw new IllegalArgumentException("Password cannot be empty");
-        }
-
-        // Step 3: Check if the provided password is less than 8 characters and includes at least one number and one letter and one special character and one uppercase letter
-        if (!password.matches(PASSWORD_PATTERN)) {
-            throw new IllegalArgumentException(
-                """
-                    At least one upper case English letter
-                    At least one lower case English letter
-                    At least one digit
-                    At least one special character or space from the following: #?!@$ %^&*-
-                    Minimum eight in length
-                    """);
-        }
+        Validators.throwIfInvalid(Validators.checkPassword(password));
     }
 
     private void validateAddress(String address) {
-        // Step 1: Check if the provided address is null
-        if (address == null) {
-            throw new IllegalArgumentException("Address cannot be null");
-        }
-
-        // Step 2: Check if the provided address is empty
-        if (address.isEmpty()) {
-            throw new IllegalArgumentException("Address cannot be empty");
-        }
+        Validators.throwIfInvalid(Validators.checkAddress(address));
     }
 
     private void validateCity(String city) {
-        // Step 1: Check if the provided city is null
-        if (city == null) {
-            throw new IllegalArgumentException("City cannot be null");
-        }
-
-        // Step 2: Check if the provided city is empty
-        if (city.isEmpty()) {
-            throw new IllegalArgumentException("City cannot be empty");
-        }
+        Validators.throwIfInvalid(Validators.checkCity(city));
     }
 
     private void validateState(String state) {
-        // Step 1: Check if the provided state is null
-        if (state == null) {
-            throw new IllegalArgumentException("State cannot be null");
-        }
-
-        // Step 2: Check if the provided state is empty
-        if (state.isEmpty()) {
-            throw new IllegalArgumentException("State cannot be empty");
-        }
+        Validators.throwIfInvalid(Validators.checkState(state));
     }
 
     private void validateZip(String zip) {
-        // Step 1: Check if the provided zip is null
-        if (zip == null) {
-            throw new IllegalArgumentException("Zip cannot be null");
-        }
-
-        // Step 2: Check if the provided zip is empty
-        if (zip.isEmpty()) {
-            throw new IllegalArgumentException("Zip cannot be empty");
-        }
-
-        // Step 3: Check if the provided zip is in the correct format
-        if (!zip.matches(ZIP_PATTERN)) {
-            throw new IllegalArgumentException("Zip must be in the appropriate format");
-        }
+        Validators.throwIfInvalid(Validators.checkZip(zip));
     }
 
     private void validateCountry(String country) {
-        // Step 1: Check if the provided country is null
-        if (country == null) {
-            throw new IllegalArgumentException("Country cannot be null");
-        }
-
-        // Step 2: Check if the provided country is empty
-        if (country.isEmpty()) {
-            throw new IllegalArgumentException("Country cannot be empty");
-        }
+        Validators.throwIfInvalid(Validators.checkCountry(country));
     }
 
 
@@ -396,6 +341,10 @@ public class Owner implements Serializable {
         return new ArrayList<>(animalIds);
     }
 
+    public int getNumberOfAnimals() {
+        return animalIds.size();
+    }
+
     public String getUsername() {
         return username;
     }
@@ -403,56 +352,67 @@ public class Owner implements Serializable {
     public void setUsername(String username) {
         validateUsername(username);
         this.username = username;
+        markDirty();
     }
 
     public void setEmail(String email) {
         validateEmail(email);
         this.email = email;
+        markDirty();
     }
 
     public void setPassword(String password) {
         validatePassword(password);
         this.password = password;
+        markDirty();
     }
 
     public void setPhone(String phone) {
         validatePhone(phone);
         this.phone = phone;
+        markDirty();
     }
 
     public void setAddress(String address) {
         validateAddress(address);
         this.address = address;
+        markDirty();
     }
 
     public void setCity(String city) {
         validateCity(city);
         this.city = city;
+        markDirty();
     }
 
     public void setState(String state) {
         validateState(state);
         this.state = state;
+        markDirty();
     }
 
     public void setZip(String zip) {
         validateZip(zip);
         this.zip = zip;
+        markDirty();
     }
 
     public void setCountry(String country) {
         validateCountry(country);
         this.country = country;
+        markDirty();
     }
 
     public void setName(String name) {
         validateName(name);
         this.name = name;
+        markDirty();
     }
 
     public void setId(String id) {
         validateId(id);
         this.id = UUID.fromString(id);
+        markDirty();
     }
 
 
@@ -460,6 +420,7 @@ public class Owner implements Serializable {
     public void setAge(int age) {
         validateAge(age);
         this.age = age;
+        markDirty();
     }
 
     public int getAge() {
@@ -468,11 +429,37 @@ public class Owner implements Serializable {
 
     public void addAnimalId(UUID animal) {
         animalIds.add(animal);
+        markDirty();
 
     }
 
     public void removeAnimalId(UUID animal) {
-        animalIds.remove(animal);
+        if (animalIds.remove(animal)) {
+            markDirty();
+        }
+    }
+
+    private void markDirty() {
+        dirty = true;
+        if (changeListener != null) {
+            changeListener.run();
+        }
+    }
+
+    /**
+     * @param changeListener Called every time the owner changes. Null to stop calling it.
+     */
+    public void setChangeListener(Runnable changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    // Called once the owner was saved to (or loaded from) a snapshot file.
+    public void markClean() {
+        dirty = false;
     }
 
     @Override
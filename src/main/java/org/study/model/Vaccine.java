@@ -1,32 +1,55 @@
 package org.study.model;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.text.ParseException;
+import java.time.Clock;
 import java.time.LocalDate;
 import java.time.chrono.ChronoLocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.UUID;
 
 public class Vaccine implements Serializable {
 
+    // Fixed to the value of the first version of the class, so binary files saved with Java serialization
+    // can still be loaded after adding methods.
+    private static final long serialVersionUID = 7556920479509621883L;
+
 
     private UUID id;
     private int volumeInMl;
     private String brand;
 
+    // The dates are stored as epoch days (see EpochDays), the date of the next application is calculated once,
+    // when the date of application is set, so checking if a vaccine expired is a comparison of two ints.
+    // LocalDate objects are only created by the getters.
     // Reference: https://www.baeldung.com/java-date-to-localdate-and-localdatetime
     // Reference: https://docs.oracle.com/javase/8/docs/api/java/time/LocalDate.html
-    private LocalDate dateOfApplication;
+    private int dateOfApplication;
+    private int dateOfNextApplication;
+
+    // The animal the vaccine was added to, marked dirty when the vaccine changes, so the change is saved
+    // (see Animal.isDirty). Transient: the animal links its vaccines again when it is read.
+    private transient Animal animal;
+
+    // The fields written with Java serialization: the same ones of the first version of the class,
+    // where the date of application was a LocalDate, so the binary files saved before can still be loaded.
+    // Reference: https://docs.oracle.com/javase/8/docs/platform/serialization/spec/serial-arch.html#a6250
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("id", UUID.class),
+        new ObjectStreamField("volumeInMl", int.class),
+        new ObjectStreamField("brand", String.class),
+        new ObjectStreamField("dateOfApplication", LocalDate.class)
+    };
 
     // Reference: https://www.geeksforgeeks.org/static-keyword-java/
     // Reference: https://www.geeksforgeeks.org/final-keyword-java/
     // Reference: https://www.baeldung.com/java-static
     // Reference: https://www.baeldung.com/java-final
-    private static final long SIX_MONTHS = 6;
-
-    // Reference: https://docs.oracle.com/javase/8/docs/api/java/time/format/DateTimeFormatter.html
-    // Reference: https://www.baeldung.com/java-datetimeformatter
-    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final int SIX_MONTHS = 6;
 
 
     // Constructor 1: Takes four parameters (overloaded)
@@ -42,14 +65,58 @@ public class Vaccine implements Serializable {
         this.volumeInMl = volumeInMl;
         this.brand = brand;
 
-        // Step 3: Parse the 'dateOfApplication' string into a LocalDate using LocalDate.parse().
-        // The date format is defined in DATE_FORMAT, and it's used to parse the string into a date object.
-        // The parsed date is assigned to the 'dateOfApplication' attribute.
-        // Reference: https://www.geeksforgeeks.org/localdate-parse-method-in-java-with-examples/
-        this.dateOfApplication = LocalDate.parse(dateOfApplication, DATE_FORMAT);
+        // Step 3: Parse the 'dateOfApplication' string (dd/MM/yyyy) into an epoch day.
+        // The digits are read directly, without a DateTimeFormatter (see EpochDays.parse).
+        setDateOfApplication(EpochDays.parse(dateOfApplication));
+    }
+
+
+
+    // Constructor 4: Takes an already parsed id and date (overloaded)
+    // Used by the loaders that parse the UUID and the date themselves (i.e. from the bytes of a file).
+    public Vaccine(UUID id, int volumeInMl, String brand, LocalDate dateOfApplication) {
+        validateVolumeInMl(volumeInMl);
+        validateBrand(brand);
+
+        if (id == null) {
+            throw new IllegalArgumentException("Id cannot be null");
+        }
+
+        if (dateOfApplication == null) {
+            throw new IllegalArgumentException("Date of application cannot be null");
+        }
+
+        this.id = id;
+        this.volumeInMl = volumeInMl;
+        this.brand = brand;
+        setDateOfApplication(EpochDays.fromLocalDate(dateOfApplication));
     }
 
+    // Constructor 6: Takes an already parsed id and the date as an epoch day (overloaded)
+    // Used by the loaders that read the date as an int (i.e. from a snapshot file), so no LocalDate is created.
+    public Vaccine(UUID id, int volumeInMl, String brand, int dateOfApplication) {
+        validateVolumeInMl(volumeInMl);
+        validateBrand(brand);
+
+        if (id == null) {
+            throw new IllegalArgumentException("Id cannot be null");
+        }
+
+        this.id = id;
+        this.volumeInMl = volumeInMl;
+        this.brand = brand;
+        setDateOfApplication(dateOfApplication);
+    }
 
+    // Constructor 5: Copy constructor (overloaded)
+    // The other vaccine was already validated, so its attributes are copied as they are.
+    public Vaccine(Vaccine other) {
+        this.id = other.id;
+        this.volumeInMl = other.volumeInMl;
+        this.brand = other.brand;
+        this.dateOfApplication = other.dateOfApplication;
+        this.dateOfNextApplication = other.dateOfNextApplication;
+    }
 
     // Constructor 2: Takes two parameters (overloaded)
     public Vaccine(int volumeInMl, String brand) {
@@ -63,7 +130,7 @@ public class Vaccine implements Serializable {
 
         // Step 2: Set the 'dateOfApplication' to the current date using LocalDate.now().
         // This constructor assumes that the date of application is the current date.
-        this.dateOfApplication = LocalDate.now();
+        setDateOfApplication(EpochDays.today());
     }
 
 
@@ -77,12 +144,9 @@ public class Vaccine implements Serializable {
         this.volumeInMl = volumeInMl;
         this.brand = brand;
 
-        // Step 2: Parse the 'dateOfApplication' string into a LocalDate using LocalDate.parse().
-        // The date format is defined in DATE_FORMAT, and it's used to parse the string into a date object.
-        // The parsed date is assigned to the 'dateOfApplication' attribute.
-        // Reference: https://www.geeksforgeeks.org/localdate-parse-method-in-java-with-examples/
-        // Note: This constructor can throw a ParseException if the date string is not in the expected format.
-        this.dateOfApplication = LocalDate.parse(dateOfApplication, DATE_FORMAT);
+        // Step 2: Parse the 'dateOfApplication' string (dd/MM/yyyy) into an epoch day.
+        // Note: An invalid date throws an IllegalArgumentException, the ParseException is kept for the callers.
+        setDateOfApplication(EpochDays.parse(dateOfApplication));
     }
 
     private void validateConstructor(String id, int volumeInMl, String brand, String dateOfApplication) {
@@ -106,30 +170,11 @@ public class Vaccine implements Serializable {
     }
 
     private void validateDateOfApplication(String dateOfApplication) {
-
-        //throws IllegalArgumentException if dateOfApplication is null, empty or not in the expected format
-        if(dateOfApplication == null) {
-            throw new IllegalArgumentException("Date of application cannot be null");
-
-        }
-
-        if (dateOfApplication.isEmpty()) {
-            throw new IllegalArgumentException("Date of application cannot be empty");
-        }
-
-        if (!dateOfApplication.matches("\\d{2}/\\d{2}/\\d{4}")) {
-            throw new IllegalArgumentException("Date of application must be in the format dd/MM/yyyy");
-        }
-
+        Validators.throwIfInvalid(Validators.checkDateOfApplication(dateOfApplication));
     }
 
     private void validateBrand(String brand) {
-        if (brand == null ) {
-            throw new IllegalArgumentException("Brand cannot be null");
-        }
-        if(brand.isEmpty()) {
-            throw new IllegalArgumentException("Brand cannot be empty");
-        }
+        Validators.throwIfInvalid(Validators.checkBrand(brand));
     }
 
     private void validateId(String id) {
@@ -140,11 +185,7 @@ public class Vaccine implements Serializable {
     }
 
     private void validateVolumeInMl(int volumeInMl) {
-
-        if( volumeInMl < 0) {
-            throw new IllegalArgumentException("Volume in ml cannot be negative or zero");
-        }
-
+        Validators.throwIfInvalid(Validators.checkVolumeInMl(volumeInMl));
     }
 
 
@@ -157,6 +198,7 @@ public class Vaccine implements Serializable {
 
         validateVolumeInMl(volumeInMl);
         this.volumeInMl = volumeInMl;
+        changed();
     }
 
     public String getBrand() {
@@ -167,14 +209,49 @@ public class Vaccine implements Serializable {
 
         validateBrand(brand);
         this.brand = brand;
+        changed();
     }
 
     public LocalDate getDateOfApplication() {
-        return dateOfApplication;
+        return EpochDays.toLocalDate(dateOfApplication);
     }
 
     public void setDateOfApplication(LocalDate dateOfApplication) {
+        if (dateOfApplication == null) {
+            throw new IllegalArgumentException("Date of application cannot be null");
+        }
+        setDateOfApplication(EpochDays.fromLocalDate(dateOfApplication));
+        changed();
+    }
+
+    /**
+     * @return The date of application as an epoch day (see EpochDays).
+     */
+    public int getDateOfApplicationEpochDay() {
+        return dateOfApplication;
+    }
+
+    /**
+     * @return The date of the next application as an epoch day (see EpochDays).
+     */
+    public int getDateOfNextApplicationEpochDay() {
+        return dateOfNextApplication;
+    }
+
+    private void setDateOfApplication(int dateOfApplication) {
         this.dateOfApplication = dateOfApplication;
+        this.dateOfNextApplication = EpochDays.plusMonths(dateOfApplication, SIX_MONTHS);
+    }
+
+    // Called by the animal the vaccine is added to
+    void setAnimal(Animal animal) {
+        this.animal = animal;
+    }
+
+    private void changed() {
+        if (animal != null) {
+            animal.markDirty();
+        }
     }
 
     public UUID getID() {
@@ -182,26 +259,82 @@ public class Vaccine implements Serializable {
     }
 
     public static boolean isVaccineExpired(Vaccine vaccine) {
-        // Step 1: Get the current date using the LocalDate.now() method.
-        // LocalDate represents a date (year, month, day) without a time zone.
+        // Step 1: Get the current date as an epoch day.
+        // LocalDate.now() represents a date (year, month, day) in the default time zone.
         //https://www.geeksforgeeks.org/localdate-now-method-in-java-with-examples/
-        LocalDate currentDate = LocalDate.now();
+        return vaccine.isExpiredOn(EpochDays.today());
+    }
 
-        // Step 2: Check if the current date is after the date of the next application.
-        // The isAfter() method of LocalDate is used to compare two LocalDate objects.
-        // It returns true if the current date is chronologically after the dateOfNextApplication.
-        // In this context, if the current date is later than the dateOfNextApplication,
-        // it means the vaccine has expired.
-        //https://www.geeksforgeeks.org/localdate-isafter-method-in-java-with-examples/
-        return currentDate.isAfter(vaccine.getDateOfNextApplication());
+    /**
+     * Same as isVaccineExpired, with the current date of a clock (i.e. a fixed clock, to get the same result every time).
+     *
+     * @param vaccine The vaccine.
+     * @param clock   The clock that gives the current date.
+     * @return True if the current date of the clock is after the date of the next application.
+     * @throws IllegalArgumentException If the clock is null.
+     */
+    public static boolean isVaccineExpired(Vaccine vaccine, Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        return vaccine.isExpiredOn(EpochDays.today(clock));
+    }
+
+    /**
+     * Checks if the vaccine expired on a date: if the date is after the date of the next application.
+     *
+     * @param date The date.
+     * @return True if the date is after the date of the next application.
+     * @throws IllegalArgumentException If the date is null.
+     */
+    public boolean isExpiredOn(LocalDate date) {
+        if (date == null) {
+            throw new IllegalArgumentException("Date cannot be null");
+        }
+        return isExpiredOn(EpochDays.fromLocalDate(date));
     }
+
+    /**
+     * Checks if the vaccine expired on a day: if the day is after the date of the next application.
+     * The callers that check many vaccines get the current day once and pass it to each vaccine.
+     *
+     * @param epochDay The day, as an epoch day (see EpochDays).
+     * @return True if the day is after the date of the next application.
+     */
+    public boolean isExpiredOn(int epochDay) {
+        return epochDay > dateOfNextApplication;
+    }
+
     public ChronoLocalDate getDateOfNextApplication() {
-        // Step 1: Calculate the date of the next application.
-        // The date of the next application is obtained by adding six months to the
-        // date of the current application (dateOfApplication).
-        // The plusMonths() method is used to add a specified number of months to a date.
-        // In this case, SIX_MONTHS (a constant representing six months) is added.
-        return this.dateOfApplication.plusMonths(SIX_MONTHS);
+        // The date of the next application is six months after the date of application (SIX_MONTHS),
+        // it was already calculated when the date of application was set.
+        return EpochDays.toLocalDate(dateOfNextApplication);
+    }
+
+    // Step 1: Write the date of application as a LocalDate, the field of the first version of the class.
+    // Reference: https://docs.oracle.com/javase/8/docs/api/java/io/ObjectOutputStream.PutField.html
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("id", id);
+        fields.put("volumeInMl", volumeInMl);
+        fields.put("brand", brand);
+        fields.put("dateOfApplication", getDateOfApplication());
+        out.writeFields();
+    }
+
+    // Step 2: Read the LocalDate back and convert it to epoch days.
+    // Reference: https://docs.oracle.com/javase/8/docs/api/java/io/ObjectInputStream.GetField.html
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        id = (UUID) fields.get("id", null);
+        volumeInMl = fields.get("volumeInMl", 0);
+        brand = (String) fields.get("brand", null);
+
+        LocalDate date = (LocalDate) fields.get("dateOfApplication", null);
+        if (date == null) {
+            throw new InvalidObjectException("Date of application cannot be null");
+        }
+        setDateOfApplication(EpochDays.fromLocalDate(date));
     }
 
     @Override
@@ -209,7 +342,7 @@ public class Vaccine implements Serializable {
         return "Vaccine{" +
             " volume in ml =" + volumeInMl +
             ", brand ='" + brand + '\'' +
-            ", date of application =" + dateOfApplication +
+            ", date of application =" + getDateOfApplication() +
             ", date of next application =" + getDateOfNextApplication() +
             '}';
     }
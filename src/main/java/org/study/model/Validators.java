@@ -0,0 +1,265 @@
+package org.study.model;
+
+/**
+ * The validation rules of the attributes of Owner, Animal and Vaccine.
+ *
+ * Each check returns the error message of the value, or null if the value is valid, so the same rules can be used
+ * by the constructors (that throw an IllegalArgumentException with the message) and by the services
+ * that validate whole batches of rows without throwing an exception per invalid value (see ValidationService).
+ *
+ * The formats used to be checked with String.matches, which compiles the regular expression every time it is called.
+ * The checks below are hand-written: they look at each character once, without compiling or allocating anything,
+ * and accept exactly the same values as the regular expression written in their comments.
+ *
+ * Reference: https://docs.oracle.com/javase/8/docs/api/java/lang/String.html#matches-java.lang.String-
+ * Reference: https://docs.oracle.com/javase/8/docs/api/java/util/regex/Pattern.html
+ */
+public final class Validators {
+
+    public static final int MINIMUM_OWNER_AGE = 18;
+    public static final int MINIMUM_ANIMAL_AGE = 0;
+
+    private static final int MINIMUM_PASSWORD_LENGTH = 8;
+    private static final String PASSWORD_SPECIAL_CHARACTERS = "#?!@$ %^&*-";
+
+    private static final String PASSWORD_MESSAGE = """
+        At least one upper case English letter
+        At least one lower case English letter
+        At least one digit
+        At least one special character or space from the following: #?!@$ %^&*-
+        Minimum eight in length
+        """;
+
+    private Validators() {
+    }
+
+    /**
+     * @return The error message, or null if the id is not null nor empty.
+     */
+    public static String checkId(String id) {
+        return checkNotEmpty(id, "Id");
+    }
+
+    /**
+     * @return The error message, or null if the name is not null nor empty.
+     */
+    public static String checkName(String name) {
+        return checkNotEmpty(name, "Name");
+    }
+
+    public static String checkAddress(String address) {
+        return checkNotEmpty(address, "Address");
+    }
+
+    public static String checkCity(String city) {
+        return checkNotEmpty(city, "City");
+    }
+
+    public static String checkState(String state) {
+        return checkNotEmpty(state, "State");
+    }
+
+    public static String checkCountry(String country) {
+        return checkNotEmpty(country, "Country");
+    }
+
+    public static String checkBrand(String brand) {
+        return checkNotEmpty(brand, "Brand");
+    }
+
+    /**
+     * @return The error message, or null if the age is at least the minimum age.
+     */
+    public static String checkAge(int age, int minimumAge) {
+        return age < minimumAge ? "Age cannot be less than " + minimumAge : null;
+    }
+
+    public static String checkVolumeInMl(int volumeInMl) {
+        return volumeInMl < 0 ? "Volume in ml cannot be negative or zero" : null;
+    }
+
+    /**
+     * Same as ^[a-zA-Z][a-zA-Z0-9_]{7,30}$
+     */
+    public static String checkUsername(String username) {
+        String error = checkNotEmpty(username, "Username");
+        if (error != null) {
+            return error;
+        }
+
+        int length = username.length();
+        boolean valid = length >= 8 && length <= 31 && isLetter(username.charAt(0));
+
+        for (int i = 1; valid && i < length; i++) {
+            char character = username.charAt(i);
+            valid = isLetter(character) || isDigit(character) || character == '_';
+        }
+
+        return valid ? null : "Username must be in the appropriate format";
+    }
+
+    /**
+     * Same as [^@ \t\r\n]+@[^@ \t\r\n]+\.[^@ \t\r\n]++
+     * That is: a single @ that is not the first character, no spaces, tabs or new lines,
+     * and a dot after the @ with at least one character on each side.
+     */
+    public static String checkEmail(String email) {
+        String error = checkNotEmpty(email, "Email");
+        if (error != null) {
+            return error;
+        }
+
+        int length = email.length();
+        int at = -1;
+        int lastDot = -1;
+        boolean valid = true;
+
+        for (int i = 0; valid && i < length; i++) {
+            char character = email.charAt(i);
+
+            if (character == '@') {
+                // Only one @
+                valid = at < 0;
+                at = i;
+            } else if (character == ' ' || character == '\t' || character == '\r' || character == '\n') {
+                valid = false;
+            } else if (character == '.' && i < length - 1) {
+                // A dot followed by at least one character
+                lastDot = i;
+            }
+        }
+
+        // Something before the @, and between the @ and the dot
+        valid = valid && at > 0 && lastDot > at + 1;
+
+        return valid ? null : "Email must be in the appropriate format";
+    }
+
+    /**
+     * Same as ^[0-9]{10}$
+     */
+    public static String checkPhone(String phone) {
+        String error = checkNotEmpty(phone, "Phone");
+        if (error != null) {
+            return error;
+        }
+
+        boolean valid = phone.length() == 10 && areDigits(phone, 0, 10);
+
+        return valid ? null : "Phone must be in the appropriate format";
+    }
+
+    /**
+     * Same as ^[0-9]{5}(?:-[0-9]{4})?$
+     */
+    public static String checkZip(String zip) {
+        String error = checkNotEmpty(zip, "Zip");
+        if (error != null) {
+            return error;
+        }
+
+        boolean valid = (zip.length() == 5 && areDigits(zip, 0, 5))
+            || (zip.length() == 10 && areDigits(zip, 0, 5) && zip.charAt(5) == '-' && areDigits(zip, 6, 10));
+
+        return valid ? null : "Zip must be in the appropriate format";
+    }
+
+    /**
+     * Same as ^(?=.*?[A-Z])(?=.*?[a-z])(?=.*?[0-9])(?=.*?[#?!@$ %^&*-]).{8,}$
+     * The dot of a regular expression does not match line terminators, so they are not allowed,
+     * and the length is counted in code points (a character outside the BMP counts once).
+     */
+    public static String checkPassword(String password) {
+        String error = checkNotEmpty(password, "Password");
+        if (error != null) {
+            return error;
+        }
+
+        boolean upperCase = false;
+        boolean lowerCase = false;
+        boolean digit = false;
+        boolean special = false;
+        boolean lineTerminator = false;
+
+        for (int i = 0; i < password.length(); i++) {
+            char character = password.charAt(i);
+
+            upperCase |= character >= 'A' && character <= 'Z';
+            lowerCase |= character >= 'a' && character <= 'z';
+            digit |= isDigit(character);
+            special |= PASSWORD_SPECIAL_CHARACTERS.indexOf(character) >= 0;
+            lineTerminator |= character == '\n' || character == '\r'
+                || character == '\u0085' || character == '\u2028' || character == '\u2029';
+        }
+
+        boolean valid = upperCase && lowerCase && digit && special && !lineTerminator
+            && password.codePointCount(0, password.length()) >= MINIMUM_PASSWORD_LENGTH;
+
+        return valid ? null : PASSWORD_MESSAGE;
+    }
+
+    /**
+     * Same as \d{2}/\d{2}/\d{4} (the format dd/MM/yyyy, the date itself is checked when it is parsed)
+     */
+    public static String checkDateOfApplication(String dateOfApplication) {
+        if (dateOfApplication == null) {
+            return "Date of application cannot be null";
+        }
+        if (dateOfApplication.isEmpty()) {
+            return "Date of application cannot be empty";
+        }
+
+        boolean valid = dateOfApplication.length() == 10
+            && areDigits(dateOfApplication, 0, 2)
+            && dateOfApplication.charAt(2) == '/'
+            && areDigits(dateOfApplication, 3, 5)
+            && dateOfApplication.charAt(5) == '/'
+            && areDigits(dateOfApplication, 6, 10);
+
+        return valid ? null : "Date of application must be in the format dd/MM/yyyy";
+    }
+
+    /**
+     * Throws the error returned by a check.
+     *
+     * @param error The error message, or null if the value is valid.
+     * @throws IllegalArgumentException If there is an error.
+     */
+    static void throwIfInvalid(String error) {
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+    }
+
+    private static String checkNotEmpty(String value, String attributeName) {
+        // Step 1: Check if the provided value is null
+        if (value == null) {
+            return attributeName + " cannot be null";
+        }
+
+        // Step 2: Check if the provided value is empty
+        if (value.isEmpty()) {
+            return attributeName + " cannot be empty";
+        }
+
+        return null;
+    }
+
+    // Only ASCII letters and digits, like [a-zA-Z] and [0-9] (Character.isLetter accepts any alphabet)
+    private static boolean isLetter(char character) {
+        return (character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z');
+    }
+
+    private static boolean isDigit(char character) {
+        return character >= '0' && character <= '9';
+    }
+
+    private static boolean areDigits(String value, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,90 @@
+package org.study.services;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import org.study.model.Animal;
+import org.study.model.Vaccine;
+
+/**
+ * The indexes of the animals of an AnimalService, used by the animal queries (see AnimalQuery).
+ *
+ * The animals are only appended to the list of the service, so new animals are added to the indexes as they are.
+ * Any other change to an animal (see Animal.setChangeListener) means the indexes must be built again.
+ */
+final class AnimalIndexes {
+
+    final Map<UUID, Animal> byId = new HashMap<>();
+    final NavigableMap<String, List<Animal>> byName = new TreeMap<>();
+    final NavigableMap<Integer, List<Animal>> byAge = new TreeMap<>();
+    final Map<String, List<Animal>> byBrand = new HashMap<>();
+    // The first date of next application of the vaccines of each animal (an epoch day): an animal has a vaccine
+    // expired on a date if, and only if, its first date of next application is before that date
+    final NavigableMap<Integer, List<Animal>> byFirstDateOfNextApplication = new TreeMap<>();
+    final Map<UUID, List<Animal>> byOwnerId = new HashMap<>();
+
+    // The position of each animal in the list, so the result of a query has the order of the list
+    private final Map<Animal, Integer> positions = new IdentityHashMap<>();
+
+    private final long modificationCount;
+
+    /**
+     * @param modificationCount The number of changes made to the animals of the service.
+     */
+    AnimalIndexes(List<Animal> animals, long modificationCount) {
+        this.modificationCount = modificationCount;
+        addAnimals(animals);
+    }
+
+    /**
+     * @return False if an animal changed since the indexes were built, or the list is not the one of the indexes.
+     */
+    boolean isValidFor(List<Animal> animals, long modificationCount) {
+        int lastPosition = positions.size() - 1;
+        return this.modificationCount == modificationCount
+            && lastPosition < animals.size()
+            && (lastPosition < 0 || Integer.valueOf(lastPosition).equals(positions.get(animals.get(lastPosition))));
+    }
+
+    /**
+     * Adds the animals appended to the list since the indexes were built.
+     */
+    void addAnimals(List<Animal> animals) {
+        for (int position = positions.size(); position < animals.size(); position++) {
+            add(animals.get(position), position);
+        }
+    }
+
+    Comparator<Animal> order() {
+        return Comparator.comparingInt(positions::get);
+    }
+
+    private void add(Animal animal, int position) {
+        positions.put(animal, position);
+        byId.put(animal.getId(), animal);
+        QueryIndexes.addToBucket(byName, animal.getName(), animal);
+        QueryIndexes.addToBucket(byAge, animal.getAge(), animal);
+
+        List<Vaccine> vaccines = animal.getVaccines();
+        int firstDateOfNextApplication = Integer.MAX_VALUE;
+        for (Vaccine vaccine : vaccines) {
+            firstDateOfNextApplication = Math.min(firstDateOfNextApplication,
+                vaccine.getDateOfNextApplicationEpochDay());
+        }
+        if (!vaccines.isEmpty()) {
+            QueryIndexes.addToBucket(byFirstDateOfNextApplication, firstDateOfNextApplication, animal);
+        }
+
+        for (String brand : animal.getUniqueBrands()) {
+            QueryIndexes.addToBucket(byBrand, brand, animal);
+        }
+        for (UUID ownerId : animal.getOwnerIds()) {
+            QueryIndexes.addToBucket(byOwnerId, ownerId, animal);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package org.study.services;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.study.model.Animal;
+import org.study.model.EpochDays;
+import org.study.model.Owner;
+import org.study.model.Vaccine;
+
+/**
+ * The conditions of the animal queries (see AnimalService.findAnimals), combined with QueryPredicate.and/or:
+ *
+ *  animalService.findAnimals(AnimalQuery.hasBrand("Pfizer").and(AnimalQuery.ageBetween(2, 5)))
+ *
+ * Every condition has an index, so a query reads the animals of its most selective condition instead of all of them.
+ */
+public final class AnimalQuery {
+
+    private AnimalQuery() {
+    }
+
+    /**
+     * @throws IllegalArgumentException If the id is null.
+     */
+    public static QueryPredicate<Animal> idEquals(UUID id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Id cannot be null");
+        }
+        return new IdEquals(id);
+    }
+
+    /**
+     * @param prefix The start of the name, case sensitive.
+     * @throws IllegalArgumentException If the prefix is null.
+     */
+    public static QueryPredicate<Animal> nameStartsWith(String prefix) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("Prefix cannot be null");
+        }
+        return new NameStartsWith(prefix);
+    }
+
+    /**
+     * @param min The minimum age, included.
+     * @param max The maximum age, included.
+     * @throws IllegalArgumentException If min is greater than max.
+     */
+    public static QueryPredicate<Animal> ageBetween(int min, int max) {
+        if (min > max) {
+            throw new IllegalArgumentException("The minimum age cannot be greater than the maximum age");
+        }
+        return new AgeBetween(min, max);
+    }
+
+    /**
+     * @return A condition that matches the animals with at least one vaccine of the brand.
+     * @throws IllegalArgumentException If the brand is null.
+     */
+    public static QueryPredicate<Animal> hasBrand(String brand) {
+        if (brand == null) {
+            throw new IllegalArgumentException("Brand cannot be null");
+        }
+        return new HasBrand(brand);
+    }
+
+    /**
+     * @return A condition that matches the animals with at least one vaccine expired on the date
+     * (see Vaccine.isExpiredOn).
+     * @throws IllegalArgumentException If the date is null.
+     */
+    public static QueryPredicate<Animal> hasExpiredVaccine(LocalDate asOf) {
+        if (asOf == null) {
+            throw new IllegalArgumentException("Date cannot be null");
+        }
+        return new HasExpiredVaccine(EpochDays.fromLocalDate(asOf));
+    }
+
+    /**
+     * @return A condition that matches the animals with an owner who lives in the city. The query needs the owners,
+     * see AnimalService.findAnimals(predicate, ownerService).
+     * @throws IllegalArgumentException If the city is null.
+     */
+    public static QueryPredicate<Animal> ownerCity(String city) {
+        if (city == null) {
+            throw new IllegalArgumentException("City cannot be null");
+        }
+        return new OwnerCity(city);
+    }
+
+    private static final class IdEquals extends QueryPredicate.Indexed<Animal> {
+
+        private final UUID id;
+
+        private IdEquals(UUID id) {
+            this.id = id;
+        }
+
+        @Override
+        boolean matches(Animal animal, QueryIndexes indexes) {
+            return animal.getId().equals(id);
+        }
+
+        @Override
+        Collection<List<Animal>> buckets(QueryIndexes indexes) {
+            Animal animal = indexes.animals().byId.get(id);
+            return animal == null ? List.of() : List.of(List.of(animal));
+        }
+    }
+
+    private static final class NameStartsWith extends QueryPredicate.Indexed<Animal> {
+
+        private final String prefix;
+
+        private NameStartsWith(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        boolean matches(Animal animal, QueryIndexes indexes) {
+            return animal.getName().startsWith(prefix);
+        }
+
+        @Override
+        Collection<List<Animal>> buckets(QueryIndexes indexes) {
+            return QueryIndexes.valuesWithPrefix(indexes.animals().byName, prefix);
+        }
+    }
+
+    private static final class AgeBetween extends QueryPredicate.Indexed<Animal> {
+
+        private final int min;
+        private final int max;
+
+        private AgeBetween(int min, int max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        boolean matches(Animal animal, QueryIndexes indexes) {
+            return animal.getAge() >= min && animal.getAge() <= max;
+        }
+
+        @Override
+        Collection<List<Animal>> buckets(QueryIndexes indexes) {
+            return indexes.animals().byAge.subMap(min, true, max, true).values();
+        }
+    }
+
+    private static final class HasBrand extends QueryPredicate.Indexed<Animal> {
+
+        private final String brand;
+
+        private HasBrand(String brand) {
+            this.brand = brand;
+        }
+
+        @Override
+        boolean matches(Animal animal, QueryIndexes indexes) {
+            return animal.getUniqueBrands().contains(brand);
+        }
+
+        @Override
+        Collection<List<Animal>> buckets(QueryIndexes indexes) {
+            List<Animal> animals = indexes.animals().byBrand.get(brand);
+            return animals == null ? List.of() : List.of(animals);
+        }
+    }
+
+    private static final class HasExpiredVaccine extends QueryPredicate.Indexed<Animal> {
+
+        private final int asOfEpochDay;
+
+        private HasExpiredVaccine(int asOfEpochDay) {
+            this.asOfEpochDay = asOfEpochDay;
+        }
+
+        @Override
+        boolean matches(Animal animal, QueryIndexes indexes) {
+            for (Vaccine vaccine : animal.getVaccines()) {
+                if (vaccine.isExpiredOn(asOfEpochDay)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        Collection<List<Animal>> buckets(QueryIndexes indexes) {
+            // A vaccine is expired on the days after its date of next application
+            return indexes.animals().byFirstDateOfNextApplication.headMap(asOfEpochDay, false).values();
+        }
+    }
+
+    private static final class OwnerCity extends QueryPredicate.Indexed<Animal> {
+
+        private final String city;
+
+        private OwnerCity(String city) {
+            this.city = city;
+        }
+
+        @Override
+        boolean matches(Animal animal, QueryIndexes indexes) {
+            for (UUID ownerId : animal.getOwnerIds()) {
+                Owner owner = indexes.owners().byId.get(ownerId);
+                if (owner != null && city.equals(owner.getCity())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * The owners of the city, from the index of the owners, and their animals, from the index of the animals.
+         */
+        @Override
+        Collection<List<Animal>> buckets(QueryIndexes indexes) {
+            List<Owner> owners = indexes.owners().byCity.getOrDefault(city, List.of());
+
+            List<List<Animal>> buckets = new ArrayList<>(owners.size());
+            for (Owner owner : owners) {
+                List<Animal> animals = indexes.animals().byOwnerId.get(owner.getId());
+                if (animals != null) {
+                    buckets.add(animals);
+                }
+            }
+            return buckets;
+        }
+    }
+}
@@ -1,25 +1,183 @@
 package org.study.services;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.study.exceptions.NotFoundException;
 import org.study.model.Animal;
+import org.study.model.EpochDays;
+import org.study.model.Owner;
 import org.study.model.Vaccine;
+import org.study.services.enums.MissingAnimalPolicyEnum;
+import org.study.services.enums.VaccineGroupingEnum;
 
 
 public class AnimalService {
 
     private List<Animal> animalList ;
 
+    // The animals of the list by id, kept up to date as animals are added, so finding an animal by id
+    // does not go through the list. If two animals have the same id, the first one is kept.
+    private final Map<UUID, Animal> animalsById = new HashMap<>();
+
+    // The snapshot file whose animals are read on demand (see openAnimalsSnapshotFileLazily),
+    // null once all its animals were read
+    private LazySnapshotFile<Animal> lazySnapshot;
+
+    // The snapshot file the animals were last saved to (or loaded from), deltas can only be appended to it
+    // Volatile: a failed background save resets it from another thread
+    private volatile String snapshotFilePath;
+
+    // The number of animals removed from the list, plus one for every time it was cleared.
+    // The list only grows between two clears, so removedAnimals + the size of the list grows with every change.
+    private long removedAnimals;
+
+    // The number of changes made to the animals of the list (and their vaccines), so the indexes of the queries
+    // and the cached reports know when they are old (see getDataVersion)
+    private long modificationCount;
+
+    // Set on every animal added to the list (see Animal.setChangeListener)
+    private final Runnable animalChanged = () -> modificationCount++;
+
+    // The indexes of the animal queries (see findAnimals), built by the first query
+    private AnimalIndexes animalIndexes;
+
+    // Gives the current date of the reports that check if the vaccines expired.
+    // Reference: https://docs.oracle.com/javase/8/docs/api/java/time/Clock.html
+    private final Clock clock;
+
+    // How long the public methods take, nothing is recorded until a registry is set (see setMetricsRegistry)
+    private ServiceMetrics metrics = ServiceMetrics.DISABLED;
+
+    // The timed methods (see setMetricsRegistry), overloads share their histogram
+    private static final ServiceMetrics.TimedMethods TIMED_METHODS =
+        new ServiceMetrics.TimedMethods("AnimalService");
+    private static final ServiceMetrics.TimedMethod ADD_ANIMAL_TO_DATABASE = TIMED_METHODS.add("addAnimalToDatabase");
+    private static final ServiceMetrics.TimedMethod ADD_VACCINE_TO_ANIMAL = TIMED_METHODS.add("addVaccineToAnimal");
+    private static final ServiceMetrics.TimedMethod FIND_ANIMAL_BY_ID = TIMED_METHODS.add("findAnimalById");
+    private static final ServiceMetrics.TimedMethod GET_ANIMAL_REPORT = TIMED_METHODS.add("getAnimalReport");
+    private static final ServiceMetrics.TimedMethod WRITE_ANIMAL_REPORT = TIMED_METHODS.add("writeAnimalReport");
+    private static final ServiceMetrics.TimedMethod FIND_ANIMALS = TIMED_METHODS.add("findAnimals");
+    private static final ServiceMetrics.TimedMethod GET_ANIMALS_WITH_MOST_VACCINES =
+        TIMED_METHODS.add("getAnimalsWithMostVaccines");
+    private static final ServiceMetrics.TimedMethod GET_MOST_USED_BRANDS_THIS_MONTH =
+        TIMED_METHODS.add("getMostUsedBrandsThisMonth");
+    private static final ServiceMetrics.TimedMethod GET_MOST_USED_BRANDS = TIMED_METHODS.add("getMostUsedBrands");
+    private static final ServiceMetrics.TimedMethod AGGREGATE_VACCINES = TIMED_METHODS.add("aggregateVaccines");
+    private static final ServiceMetrics.TimedMethod GET_UNIQUE_BRANDS_REPORT =
+        TIMED_METHODS.add("getUniqueBrandsReport");
+    private static final ServiceMetrics.TimedMethod WRITE_UNIQUE_BRANDS_REPORT =
+        TIMED_METHODS.add("writeUniqueBrandsReport");
+    private static final ServiceMetrics.TimedMethod GET_ANIMAL_NAMES_IN_LIST =
+        TIMED_METHODS.add("getAnimalNamesInList");
+    private static final ServiceMetrics.TimedMethod GET_ANIMALS_PENDING_ON_NEXT_APPLICATION_REPORT =
+        TIMED_METHODS.add("getAnimalsPendingOnNextApplicationReport");
+    private static final ServiceMetrics.TimedMethod WRITE_ANIMALS_PENDING_ON_NEXT_APPLICATION_REPORT =
+        TIMED_METHODS.add("writeAnimalsPendingOnNextApplicationReport");
+    private static final ServiceMetrics.TimedMethod LOAD_VACCINES_FROM_CSV_FILE =
+        TIMED_METHODS.add("loadVaccinesFromCSVFile");
+    private static final ServiceMetrics.TimedMethod LOAD_VACCINES_FROM_CSV_FILE_IN_PARALLEL =
+        TIMED_METHODS.add("loadVaccinesFromCSVFileInParallel");
+    private static final ServiceMetrics.TimedMethod ADD_ANIMALS_FROM_CSV_LINES =
+        TIMED_METHODS.add("addAnimalsFromCSVLines");
+    private static final ServiceMetrics.TimedMethod ADD_VACCINES_FROM_CSV_LINES =
+        TIMED_METHODS.add("addVaccinesFromCSVLines");
+    private static final ServiceMetrics.TimedMethod LOAD_ANIMALS_FROM_CSV_FILE =
+        TIMED_METHODS.add("loadAnimalsFromCSVFile");
+    private static final ServiceMetrics.TimedMethod LOAD_ANIMALS_FROM_CSV_FILE_IN_PARALLEL =
+        TIMED_METHODS.add("loadAnimalsFromCSVFileInParallel");
+    private static final ServiceMetrics.TimedMethod LOAD_ANIMALS_FROM_BINARY_FILE_USING_THE_ENTIRE_LIST =
+        TIMED_METHODS.add("loadAnimalsFromBinaryFileUsingTheEntireList");
+    private static final ServiceMetrics.TimedMethod LOAD_ANIMALS_FROM_SNAPSHOT_FILE =
+        TIMED_METHODS.add("loadAnimalsFromSnapshotFile");
+    private static final ServiceMetrics.TimedMethod OPEN_ANIMALS_SNAPSHOT_FILE_LAZILY =
+        TIMED_METHODS.add("openAnimalsSnapshotFileLazily");
+    private static final ServiceMetrics.TimedMethod SAVE_ANIMALS_TO_SNAPSHOT_FILE =
+        TIMED_METHODS.add("saveAnimalsToSnapshotFile");
+    private static final ServiceMetrics.TimedMethod SAVE_ANIMALS_TO_SNAPSHOT_FILE_INCREMENTALLY =
+        TIMED_METHODS.add("saveAnimalsToSnapshotFileIncrementally");
+    private static final ServiceMetrics.TimedMethod SAVE_ANIMALS_TO_BINARY_FILE_USING_THE_ENTIRE_LIST =
+        TIMED_METHODS.add("saveAnimalsToBinaryFileUsingTheEntireList");
+    private static final ServiceMetrics.TimedMethod SAVE_ANIMALS_TO_CSV_FILE =
+        TIMED_METHODS.add("saveAnimalsToCSVFile");
+    private static final ServiceMetrics.TimedMethod SAVE_ANIMALS_TO_NDJSON_FILE =
+        TIMED_METHODS.add("saveAnimalsToNDJSONFile");
+    private static final ServiceMetrics.TimedMethod LOAD_ANIMALS_FROM_NDJSON_FILE =
+        TIMED_METHODS.add("loadAnimalsFromNDJSONFile");
+    private static final ServiceMetrics.TimedMethod SAVE_ANIMALS_TO_COLUMNAR_FILES =
+        TIMED_METHODS.add("saveAnimalsToColumnarFiles");
+    private static final ServiceMetrics.TimedMethod GET_ANIMALS_PAGE = TIMED_METHODS.add("getAnimalsPage");
+    private static final ServiceMetrics.TimedMethod ADD_OWNER_TO_ANIMAL = TIMED_METHODS.add("addOwnerToAnimal");
+    private static final ServiceMetrics.TimedMethod ADD_ANIMAL_TO_APPOINTMENT_QUEUE =
+        TIMED_METHODS.add("addAnimalToAppointmentQueue");
+    private static final ServiceMetrics.TimedMethod WRITE_FILE_WITH_ANIMALS_AND_NEXT_VACCINE_APPLICATION =
+        TIMED_METHODS.add("writeFileWithAnimalsAndNextVaccineApplication");
+    private static final ServiceMetrics.TimedMethod GET_ANIMALS_AND_THEIR_OWNERS_REPORT =
+        TIMED_METHODS.add("getAnimalsAndTheirOwnersReport");
+    private static final ServiceMetrics.TimedMethod WRITE_ANIMALS_AND_THEIR_OWNERS_REPORT =
+        TIMED_METHODS.add("writeAnimalsAndTheirOwnersReport");
+    private static final ServiceMetrics.TimedMethod ADD_VACCINE_TO_ANIMAL_IN_QUEUE =
+        TIMED_METHODS.add("addVaccineToAnimalInQueue");
+
+    // The number of vaccines is kept by each animal, so comparing two animals does not copy their vaccines
+    private static final Comparator<Animal> MOST_VACCINES_FIRST =
+        Comparator.comparingInt(Animal::getNumberOfVaccines).reversed()
+            .thenComparing(Animal::getName)
+            .thenComparing(Animal::getId);
+
+    // Shown in the reports for an owner id without owner
+    static final String UNKNOWN_OWNER = "Unknown owner ";
+
     public AnimalService() {
 
+        this(Clock.systemDefaultZone());
+
+    }
+
+    /**
+     * @param clock The clock that gives the current date of the reports (i.e. a fixed clock, to reproduce a report).
+     * @throws IllegalArgumentException If the clock is null.
+     */
+    public AnimalService(Clock clock) {
+
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+
         this.animalList = new ArrayList<>();
+        this.clock = clock;
+
+    }
 
+    /**
+     * Records how long the public methods of this service take in a registry (see MetricsRegistry),
+     * and the number of animals of the list as the gauge animals_in_memory.
+     * getAnimalList and getDataVersion are not timed, timing them would cost more than they do.
+     *
+     * @param metricsRegistry The registry, or null to stop recording.
+     */
+    public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        this.metrics = ServiceMetrics.of(metricsRegistry, TIMED_METHODS);
+        if (metricsRegistry != null) {
+            metricsRegistry.gauge("animals_in_memory", "The animals in the list of the service.",
+                () -> animalList.size(), "service", "AnimalService");
+        }
     }
 
     /**
@@ -29,11 +187,20 @@ public class AnimalService {
      * @param age  The age of the animal.
      */
     public void addAnimalToDatabase(String name, int age) {
+        long startTime = metrics.start(ADD_ANIMAL_TO_DATABASE);
+        try {
+            doAddAnimalToDatabase(name, age);
+        } finally {
+            metrics.stop(ADD_ANIMAL_TO_DATABASE, startTime);
+        }
+    }
+
+    private void doAddAnimalToDatabase(String name, int age) {
         // Create a new Animal object with the given name and age.
         Animal animal = new Animal(name, age);
 
         // Add the newly created animal to the animal list.
-        this.animalList.add(animal);
+        addToAnimalList(animal);
     }
 
 
@@ -59,6 +226,16 @@ public class AnimalService {
      * This separation of concerns reduces code complexity and helps avoid unintended side effects when making changes.
      */
     public void addVaccineToAnimal(String nameOfAnimal, int volume, String brand)
+        throws NotFoundException {
+        long startTime = metrics.start(ADD_VACCINE_TO_ANIMAL);
+        try {
+            doAddVaccineToAnimal(nameOfAnimal, volume, brand);
+        } finally {
+            metrics.stop(ADD_VACCINE_TO_ANIMAL, startTime);
+        }
+    }
+
+    private void doAddVaccineToAnimal(String nameOfAnimal, int volume, String brand)
         throws NotFoundException {
         // This is implying that the name of the animal is unique.
 
@@ -88,7 +265,7 @@ public class AnimalService {
      * Reference: https://www.baeldung.com/java-optional
      */
     private Animal findAnimalByName(String nameOfAnimal) {
-        for (Animal animal : animalList) {
+        for (Animal animal : loadedAnimalList()) {
             if (animal.getName().equals(nameOfAnimal)) {
                 return animal;
             }
@@ -100,7 +277,7 @@ public class AnimalService {
 
 
     private Animal findAnimalByNameUsingStreams(String nameOfAnimal) throws NotFoundException {
-        return animalList.stream()
+        return loadedAnimalList().stream()
             .filter(animal -> animal.getName().equals(nameOfAnimal))
             .findFirst()
             .orElseThrow(
@@ -111,7 +288,7 @@ public class AnimalService {
     private List<String> findAnimalsByName(String nameOfAnimal) {
         List<String> animalsFound = new ArrayList<>();
 
-        for (Animal animal : animalList) {
+        for (Animal animal : loadedAnimalList()) {
             if (animal.getName().equalsIgnoreCase(nameOfAnimal)) {
                 animalsFound.add(animal.getName());
             }
@@ -121,7 +298,7 @@ public class AnimalService {
     }
 
     private List<String> findAnimalsByNameUsingStreams(String nameOfAnimal) {
-        return animalList.stream()
+        return loadedAnimalList().stream()
             .filter(animal -> animal.getName().equalsIgnoreCase(nameOfAnimal))
             .map(Animal::getName)
             .toList();
@@ -131,7 +308,7 @@ public class AnimalService {
     * i.e {animalId1: {ownerId1, ownerId2}, animalId2: {ownerId1, ownerId3}}
     * */
     private Map<UUID, Set<UUID>> findAnimalOwnersByName(String nameOfAnimal) {
-        return animalList.stream()
+        return loadedAnimalList().stream()
             .filter(animal -> animal.getName().equalsIgnoreCase(nameOfAnimal))
             .collect(Collectors.toMap(Animal::getId, Animal::getOwnerIds));
     }
@@ -149,14 +326,17 @@ public class AnimalService {
      * Reference: https://www.baeldung.com/java-optional
      */
     public Animal findAnimalById(UUID id) {
-        for (Animal animal : animalList) {
-            if (animal.getId().equals(id)) {
-                return animal;
-            }
+        long startTime = metrics.start(FIND_ANIMAL_BY_ID);
+        try {
+            return doFindAnimalById(id);
+        } finally {
+            metrics.stop(FIND_ANIMAL_BY_ID, startTime);
         }
+    }
 
+    private Animal doFindAnimalById(UUID id) {
         // This implementation could be improved using Optional.
-        return null;
+        return findAnimal(id);
     }
 
 
@@ -172,7 +352,7 @@ public class AnimalService {
 
         // Reference: https://web.mit.edu/6.031/www/sp17/classes/09-immutability/
 
-        return new ArrayList<>(this.animalList);
+        return new ArrayList<>(loadedAnimalList());
     }
 
 
@@ -183,22 +363,303 @@ public class AnimalService {
      * @return A list of strings describing each animal's name and the number of vaccines it has.
      */
     public List<String> getAnimalReport() {
+        long startTime = metrics.start(GET_ANIMAL_REPORT);
+        try {
+            return doGetAnimalReport();
+        } finally {
+            metrics.stop(GET_ANIMAL_REPORT, startTime);
+        }
+    }
+
+    private List<String> doGetAnimalReport() {
         List<String> report = new ArrayList<>();
 
+        doWriteAnimalReport(report::add);
+
+        return report;
+    }
+
+    /**
+     * Generates the report of getAnimalReport, handing each line to the consumer as soon as it is produced.
+     *
+     * @param reportLineConsumer Receives every line of the report.
+     */
+    public void writeAnimalReport(Consumer<String> reportLineConsumer) {
+        long startTime = metrics.start(WRITE_ANIMAL_REPORT);
+        try {
+            doWriteAnimalReport(reportLineConsumer);
+        } finally {
+            metrics.stop(WRITE_ANIMAL_REPORT, startTime);
+        }
+    }
+
+    private void doWriteAnimalReport(Consumer<String> reportLineConsumer) {
         // Iterate through each animal in the animalList.
-        for (Animal animal : animalList) {
+        for (Animal animal : loadedAnimalList()) {
             // Create a report string describing the animal's name and the number of vaccines it has.
             String animalReportValue = animal.getName()
                 + " Number of vaccines: "
                 + animal.getVaccines().size();
 
-            // Add the report string to the list.
-            report.add(animalReportValue);
+            // Hand the report string to the consumer.
+            reportLineConsumer.accept(animalReportValue);
         }
+    }
 
-        return report;
+    /**
+     * Appends the report of getAnimalReport, one line at a time.
+     *
+     * @param appendable Where the lines are appended (for example a Writer). It is not flushed nor closed.
+     * @throws IOException If the appendable throws an IOException.
+     */
+    public void writeAnimalReport(Appendable appendable) throws IOException {
+        long startTime = metrics.start(WRITE_ANIMAL_REPORT);
+        try {
+            doWriteAnimalReport(appendable);
+        } finally {
+            metrics.stop(WRITE_ANIMAL_REPORT, startTime);
+        }
+    }
+
+    private void doWriteAnimalReport(Appendable appendable) throws IOException {
+        ReportAppender.appendLines(appendable, this::doWriteAnimalReport);
+    }
+
+
+    /**
+     * The version of the data of the service: it grows every time one of its animals is added, removed or changed,
+     * including its vaccines (see Animal.setChangeListener), so two reports generated with the same version
+     * have the same lines. Each service has its own version, the changes made to the animals of another service
+     * do not change it.
+     *
+     * @return The data version.
+     */
+    public long getDataVersion() {
+        return removedAnimals + animalList.size() + modificationCount;
+    }
+
+    /**
+     * Finds the animals that match a query, reading only the animals of its most selective index
+     * (see QueryPredicate and AnimalQuery). To query by owner city use findAnimals(predicate, ownerService).
+     *
+     * @param predicate The query, i.e. AnimalQuery.hasBrand("Pfizer").and(AnimalQuery.ageBetween(2, 5)).
+     * @return The animals that match the query, in the order of the list.
+     * @throws IllegalArgumentException If the predicate is null, or it needs the owners.
+     */
+    public List<Animal> findAnimals(QueryPredicate<Animal> predicate) {
+        long startTime = metrics.start(FIND_ANIMALS);
+        try {
+            return doFindAnimals(predicate);
+        } finally {
+            metrics.stop(FIND_ANIMALS, startTime);
+        }
+    }
+
+    private List<Animal> doFindAnimals(QueryPredicate<Animal> predicate) {
+        return findAnimals(predicate, (OwnerIndexes) null);
+    }
+
+    /**
+     * Finds the animals that match a query, like findAnimals(predicate), with the owners to query by owner city.
+     *
+     * @param predicate    The query, i.e. AnimalQuery.ownerCity("Chicago").and(AnimalQuery.hasExpiredVaccine(today)).
+     * @param ownerService The service with the owners of the animals.
+     * @return The animals that match the query, in the order of the list.
+     * @throws IllegalArgumentException If the predicate or the owner service is null.
+     */
+    public List<Animal> findAnimals(QueryPredicate<Animal> predicate, OwnerService ownerService) {
+        long startTime = metrics.start(FIND_ANIMALS);
+        try {
+            return doFindAnimals(predicate, ownerService);
+        } finally {
+            metrics.stop(FIND_ANIMALS, startTime);
+        }
+    }
+
+    private List<Animal> doFindAnimals(QueryPredicate<Animal> predicate, OwnerService ownerService) {
+        if (ownerService == null) {
+            throw new IllegalArgumentException("Owner service cannot be null");
+        }
+        return findAnimals(predicate, ownerService.ownerIndexes());
+    }
+
+    private List<Animal> findAnimals(QueryPredicate<Animal> predicate, OwnerIndexes ownerIndexes) {
+        List<Animal> animals = loadedAnimalList();
+
+        // New animals are added to the indexes, any other change builds them again
+        if (animalIndexes == null || !animalIndexes.isValidFor(animals, modificationCount)) {
+            animalIndexes = new AnimalIndexes(animals, modificationCount);
+        } else {
+            animalIndexes.addAnimals(animals);
+        }
+
+        return QueryPredicate.select(predicate, new QueryIndexes(animalIndexes, ownerIndexes), animals,
+            animalIndexes.order());
+    }
+
+    /**
+     * Gets the animals with the most vaccines, without sorting the whole list (see TopK).
+     *
+     * @param k The maximum number of animals to return.
+     * @return The animals, the one with the most vaccines first. Animals with the same number of vaccines
+     * are sorted by name.
+     * @throws IllegalArgumentException If k is not positive.
+     */
+    public List<Animal> getAnimalsWithMostVaccines(int k) {
+        long startTime = metrics.start(GET_ANIMALS_WITH_MOST_VACCINES);
+        try {
+            return doGetAnimalsWithMostVaccines(k);
+        } finally {
+            metrics.stop(GET_ANIMALS_WITH_MOST_VACCINES, startTime);
+        }
+    }
+
+    private List<Animal> doGetAnimalsWithMostVaccines(int k) {
+        return TopK.select(loadedAnimalList(), k, MOST_VACCINES_FIRST);
+    }
+
+    /**
+     * Gets the brands most used in the current month (see getMostUsedBrands).
+     *
+     * @param k The maximum number of brands to return.
+     * @return The brands and the number of vaccines of each one applied this month, the most used first.
+     * @throws IllegalArgumentException If k is not positive.
+     */
+    public Map<String, Integer> getMostUsedBrandsThisMonth(int k) {
+        long startTime = metrics.start(GET_MOST_USED_BRANDS_THIS_MONTH);
+        try {
+            return doGetMostUsedBrandsThisMonth(k);
+        } finally {
+            metrics.stop(GET_MOST_USED_BRANDS_THIS_MONTH, startTime);
+        }
+    }
+
+    private Map<String, Integer> doGetMostUsedBrandsThisMonth(int k) {
+        return doGetMostUsedBrands(YearMonth.now(clock), k);
+    }
+
+    /**
+     * Gets the brands of the most vaccines applied in a month.
+     * The vaccines of each brand are counted in a map, and only the K brands with the highest counts are sorted.
+     *
+     * @param month The month the vaccines were applied in.
+     * @param k     The maximum number of brands to return.
+     * @return The brands and their number of vaccines, the most used first (brands with the same number of
+     * vaccines are sorted by name). Brands without vaccines in the month are not included.
+     * @throws IllegalArgumentException If the month is null or k is not positive.
+     */
+    public Map<String, Integer> getMostUsedBrands(YearMonth month, int k) {
+        long startTime = metrics.start(GET_MOST_USED_BRANDS);
+        try {
+            return doGetMostUsedBrands(month, k);
+        } finally {
+            metrics.stop(GET_MOST_USED_BRANDS, startTime);
+        }
+    }
+
+    private Map<String, Integer> doGetMostUsedBrands(YearMonth month, int k) {
+        if (month == null) {
+            throw new IllegalArgumentException("Month cannot be null");
+        }
+        if (k <= 0) {
+            throw new IllegalArgumentException("K must be greater than 0");
+        }
+
+        int firstDay = EpochDays.of(month.getYear(), month.getMonthValue(), 1);
+        int lastDay = firstDay + month.lengthOfMonth() - 1;
+
+        // Step 1: Count the vaccines of each brand applied in the month.
+        // The counts are mutable arrays, so each vaccine only needs one lookup in the map.
+        Map<String, int[]> vaccinesByBrand = new HashMap<>();
+        for (Animal animal : loadedAnimalList()) {
+            for (Vaccine vaccine : animal.getVaccines()) {
+                int dateOfApplication = vaccine.getDateOfApplicationEpochDay();
+                if (dateOfApplication >= firstDay && dateOfApplication <= lastDay) {
+                    vaccinesByBrand.computeIfAbsent(vaccine.getBrand(), brand -> new int[1])[0]++;
+                }
+            }
+        }
+
+        // Step 2: Select the K brands with the most vaccines.
+        Comparator<Map.Entry<String, int[]>> mostUsedFirst =
+            Comparator.comparingInt((Map.Entry<String, int[]> brandCount) -> brandCount.getValue()[0]).reversed()
+                .thenComparing(Map.Entry::getKey);
+
+        Map<String, Integer> mostUsedBrands = new LinkedHashMap<>();
+        for (Map.Entry<String, int[]> brandCount : TopK.select(vaccinesByBrand.entrySet(), k, mostUsedFirst)) {
+            mostUsedBrands.put(brandCount.getKey(), brandCount.getValue()[0]);
+        }
+
+        return mostUsedBrands;
+    }
+
+    /**
+     * Computes the number of vaccines, their total and average volume and their first and last date of application,
+     * for each group of vaccines. All the vaccines are read once, on several threads (see VaccineAggregator).
+     * To group by OWNER_CITY use aggregateVaccines(grouping, ownerService).
+     *
+     * @param grouping How the vaccines are grouped.
+     * @return The totals of each group, sorted by group (the months as yyyy-MM).
+     * @throws IllegalArgumentException If the grouping is null or OWNER_CITY.
+     */
+    public Map<String, VaccineAggregate> aggregateVaccines(VaccineGroupingEnum grouping) {
+        long startTime = metrics.start(AGGREGATE_VACCINES);
+        try {
+            return doAggregateVaccines(grouping);
+        } finally {
+            metrics.stop(AGGREGATE_VACCINES, startTime);
+        }
+    }
+
+    private Map<String, VaccineAggregate> doAggregateVaccines(VaccineGroupingEnum grouping) {
+        if (grouping == VaccineGroupingEnum.OWNER_CITY) {
+            throw new IllegalArgumentException("The owners are needed to group the vaccines by owner city");
+        }
+        return aggregateVaccines(grouping, Map.of());
+    }
+
+    /**
+     * Computes the totals of each group of vaccines, like aggregateVaccines(grouping), with the owners to group
+     * the vaccines by owner city. A vaccine is counted in every city of the owners of its animal, and the vaccines
+     * of animals without known owners are grouped under "No owner".
+     *
+     * @param grouping     How the vaccines are grouped.
+     * @param ownerService The service with the owners of the animals.
+     * @return The totals of each group, sorted by group (the months as yyyy-MM).
+     * @throws IllegalArgumentException If the grouping or the owner service is null.
+     */
+    public Map<String, VaccineAggregate> aggregateVaccines(VaccineGroupingEnum grouping, OwnerService ownerService) {
+        long startTime = metrics.start(AGGREGATE_VACCINES);
+        try {
+            return doAggregateVaccines(grouping, ownerService);
+        } finally {
+            metrics.stop(AGGREGATE_VACCINES, startTime);
+        }
+    }
+
+    private Map<String, VaccineAggregate> doAggregateVaccines(VaccineGroupingEnum grouping, OwnerService ownerService) {
+        if (ownerService == null) {
+            throw new IllegalArgumentException("Owner service cannot be null");
+        }
+
+        Map<UUID, String> cityByOwnerId = new HashMap<>();
+        if (grouping == VaccineGroupingEnum.OWNER_CITY) {
+            // The owners are read before the threads start, the OwnerService is not thread safe
+            for (Owner owner : ownerService.getOwnersById().values()) {
+                cityByOwnerId.put(owner.getId(), owner.getCity());
+            }
+        }
+
+        return aggregateVaccines(grouping, cityByOwnerId);
     }
 
+    private Map<String, VaccineAggregate> aggregateVaccines(VaccineGroupingEnum grouping,
+                                                            Map<UUID, String> cityByOwnerId) {
+        if (grouping == null) {
+            throw new IllegalArgumentException("Grouping cannot be null");
+        }
+        return new VaccineAggregator(grouping, cityByOwnerId).aggregate(loadedAnimalList());
+    }
 
     /**
      * Generates a report of unique vaccine brands across all animals.
@@ -206,22 +667,71 @@ public class AnimalService {
      * @return A list of unique vaccine brands.
      */
     public List<String> getUniqueBrandsReport() {
+        long startTime = metrics.start(GET_UNIQUE_BRANDS_REPORT);
+        try {
+            return doGetUniqueBrandsReport();
+        } finally {
+            metrics.stop(GET_UNIQUE_BRANDS_REPORT, startTime);
+        }
+    }
+
+    private List<String> doGetUniqueBrandsReport() {
         List<String> reportOfUniqueBrands = new ArrayList<>();
 
+        doWriteUniqueBrandsReport(reportOfUniqueBrands::add);
+
+        return reportOfUniqueBrands;
+    }
+
+    /**
+     * Generates the report of getUniqueBrandsReport, handing each brand to the consumer the first time it is found.
+     *
+     * @param reportLineConsumer Receives every brand of the report.
+     */
+    public void writeUniqueBrandsReport(Consumer<String> reportLineConsumer) {
+        long startTime = metrics.start(WRITE_UNIQUE_BRANDS_REPORT);
+        try {
+            doWriteUniqueBrandsReport(reportLineConsumer);
+        } finally {
+            metrics.stop(WRITE_UNIQUE_BRANDS_REPORT, startTime);
+        }
+    }
+
+    private void doWriteUniqueBrandsReport(Consumer<String> reportLineConsumer) {
+        // The brands already handed to the consumer, so each one is checked in constant time
+        Set<String> brandsInReport = new HashSet<>();
+
         // Iterate through each animal in the animalList.
-        for (Animal animal : animalList) {
+        for (Animal animal : loadedAnimalList()) {
             List<String> uniqueBrands = animal.getUniqueBrands();
 
             // Iterate through unique brands for the current animal.
             for (String brand : uniqueBrands) {
-                // Check if the brand is not already in the report list to avoid duplicates.
-                if (!reportOfUniqueBrands.contains(brand)) {
-                    reportOfUniqueBrands.add(brand);
+                // Check if the brand is not already in the report to avoid duplicates.
+                if (brandsInReport.add(brand)) {
+                    reportLineConsumer.accept(brand);
                 }
             }
         }
+    }
 
-        return reportOfUniqueBrands;
+    /**
+     * Appends the report of getUniqueBrandsReport, one brand per line.
+     *
+     * @param appendable Where the lines are appended (for example a Writer). It is not flushed nor closed.
+     * @throws IOException If the appendable throws an IOException.
+     */
+    public void writeUniqueBrandsReport(Appendable appendable) throws IOException {
+        long startTime = metrics.start(WRITE_UNIQUE_BRANDS_REPORT);
+        try {
+            doWriteUniqueBrandsReport(appendable);
+        } finally {
+            metrics.stop(WRITE_UNIQUE_BRANDS_REPORT, startTime);
+        }
+    }
+
+    private void doWriteUniqueBrandsReport(Appendable appendable) throws IOException {
+        ReportAppender.appendLines(appendable, this::doWriteUniqueBrandsReport);
     }
 
     /**
@@ -230,10 +740,19 @@ public class AnimalService {
      * @return A list of animal names.
      */
     public List<String> getAnimalNamesInList() {
+        long startTime = metrics.start(GET_ANIMAL_NAMES_IN_LIST);
+        try {
+            return doGetAnimalNamesInList();
+        } finally {
+            metrics.stop(GET_ANIMAL_NAMES_IN_LIST, startTime);
+        }
+    }
+
+    private List<String> doGetAnimalNamesInList() {
         List<String> animalsInList = new ArrayList<>();
 
         // Iterate through each animal in the animalList and add its name to the list.
-        for (Animal animal : animalList) {
+        for (Animal animal : loadedAnimalList()) {
             animalsInList.add(animal.getName());
         }
 
@@ -247,14 +766,121 @@ public class AnimalService {
      * @return A list of strings describing animals with expired vaccines.
      */
     public List<String> getAnimalsPendingOnNextApplicationReport() {
+        long startTime = metrics.start(GET_ANIMALS_PENDING_ON_NEXT_APPLICATION_REPORT);
+        try {
+            return doGetAnimalsPendingOnNextApplicationReport(LocalDate.now(clock));
+        } finally {
+            metrics.stop(GET_ANIMALS_PENDING_ON_NEXT_APPLICATION_REPORT, startTime);
+        }
+    }
+
+    /**
+     * Generates a report of animals with vaccines expired on a date.
+     * Every vaccine is checked against the same date, so the report is consistent even if it takes until the next day.
+     *
+     * @param asOf The date the vaccines are checked on.
+     * @return A list of strings describing animals with vaccines expired on the date.
+     * @throws IllegalArgumentException If the date is null.
+     */
+    public List<String> getAnimalsPendingOnNextApplicationReport(LocalDate asOf) {
+        long startTime = metrics.start(GET_ANIMALS_PENDING_ON_NEXT_APPLICATION_REPORT);
+        try {
+            return doGetAnimalsPendingOnNextApplicationReport(asOf);
+        } finally {
+            metrics.stop(GET_ANIMALS_PENDING_ON_NEXT_APPLICATION_REPORT, startTime);
+        }
+    }
+
+    private List<String> doGetAnimalsPendingOnNextApplicationReport(LocalDate asOf) {
+        int asOfEpochDay = toEpochDay(asOf);
         List<String> reportOfAnimalsPendingOnNextApplication = new ArrayList<>();
 
+        forEachAnimalPendingOnNextApplication(asOfEpochDay, reportOfAnimalsPendingOnNextApplication::add);
+
+        return reportOfAnimalsPendingOnNextApplication;
+    }
+
+    /**
+     * Generates the report of getAnimalsPendingOnNextApplicationReport, handing each line to the consumer
+     * as soon as it is produced.
+     *
+     * @param reportLineConsumer Receives every line of the report.
+     */
+    public void writeAnimalsPendingOnNextApplicationReport(Consumer<String> reportLineConsumer) {
+        long startTime = metrics.start(WRITE_ANIMALS_PENDING_ON_NEXT_APPLICATION_REPORT);
+        try {
+            doWriteAnimalsPendingOnNextApplicationReport(LocalDate.now(clock), reportLineConsumer);
+        } finally {
+            metrics.stop(WRITE_ANIMALS_PENDING_ON_NEXT_APPLICATION_REPORT, startTime);
+        }
+    }
+
+    /**
+     * Generates the report of getAnimalsPendingOnNextApplicationReport(asOf), handing each line to the consumer
+     * as soon as it is produced.
+     *
+     * @param asOf               The date the vaccines are checked on.
+     * @param reportLineConsumer Receives every line of the report.
+     * @throws IllegalArgumentException If the date is null.
+     */
+    public void writeAnimalsPendingOnNextApplicationReport(LocalDate asOf, Consumer<String> reportLineConsumer) {
+        long startTime = metrics.start(WRITE_ANIMALS_PENDING_ON_NEXT_APPLICATION_REPORT);
+        try {
+            doWriteAnimalsPendingOnNextApplicationReport(asOf, reportLineConsumer);
+        } finally {
+            metrics.stop(WRITE_ANIMALS_PENDING_ON_NEXT_APPLICATION_REPORT, startTime);
+        }
+    }
+
+    private void doWriteAnimalsPendingOnNextApplicationReport(LocalDate asOf, Consumer<String> reportLineConsumer) {
+        forEachAnimalPendingOnNextApplication(toEpochDay(asOf), reportLineConsumer);
+    }
+
+    /**
+     * Appends the report of getAnimalsPendingOnNextApplicationReport(asOf), one line at a time.
+     *
+     * @param asOf       The date the vaccines are checked on.
+     * @param appendable Where the lines are appended (for example a Writer). It is not flushed nor closed.
+     * @throws IOException If the appendable throws an IOException.
+     * @throws IllegalArgumentException If the date is null.
+     */
+    public void writeAnimalsPendingOnNextApplicationReport(LocalDate asOf, Appendable appendable) throws IOException {
+        long startTime = metrics.start(WRITE_ANIMALS_PENDING_ON_NEXT_APPLICATION_REPORT);
+        try {
+            doWriteAnimalsPendingOnNextApplicationReport(asOf, appendable);
+        } finally {
+            metrics.stop(WRITE_ANIMALS_PENDING_ON_NEXT_APPLICATION_REPORT, startTime);
+        }
+    }
+
+    private void doWriteAnimalsPendingOnNextApplicationReport(LocalDate asOf, Appendable appendable) throws IOException {
+        int asOfEpochDay = toEpochDay(asOf);
+        ReportAppender.appendLines(appendable,
+            reportLineConsumer -> forEachAnimalPendingOnNextApplication(asOfEpochDay, reportLineConsumer));
+    }
+
+    /**
+     * @return The current date of the clock of the service.
+     */
+    LocalDate today() {
+        return LocalDate.now(clock);
+    }
+
+    private static int toEpochDay(LocalDate asOf) {
+        if (asOf == null) {
+            throw new IllegalArgumentException("Date cannot be null");
+        }
+        return EpochDays.fromLocalDate(asOf);
+    }
+
+    private void forEachAnimalPendingOnNextApplication(int asOfEpochDay, Consumer<String> reportLineConsumer) {
+
         // Iterate through each animal in the animalList.
-        for (Animal animal : animalList) {
+        for (Animal animal : loadedAnimalList()) {
             // Iterate through the vaccines of the current animal.
             for (Vaccine vaccine : animal.getVaccines()) {
-                // Check if the vaccine is expired using the Vaccine.isVaccineExpired method.
-                if (Vaccine.isVaccineExpired(vaccine)) {
+                // Check if the vaccine is expired on the current day.
+                if (vaccine.isExpiredOn(asOfEpochDay)) {
                     // Create a report string describing the expired vaccine for the current animal.
                     String animalReportValue = animal.getName()
                         + " has "
@@ -265,19 +891,18 @@ public class AnimalService {
                         + " expired on "
                         + vaccine.getDateOfNextApplication();
 
-                    // Add the report string to the list.
-                    reportOfAnimalsPendingOnNextApplication.add(animalReportValue);
+                    // Hand the report string to the consumer.
+                    reportLineConsumer.accept(animalReportValue);
                 }
             }
         }
-
-        return reportOfAnimalsPendingOnNextApplication;
     }
 
 
 
     /**
      * Loads vaccine data from a CSV file with the specified format.
+     * If the animal of a vaccine does not exist, the load stops with a NotFoundException.
      *
      * @param path      The file path to the CSV file containing vaccine data.
      * @param delimiter The delimiter used in the CSV file to separate values.
@@ -289,13 +914,105 @@ public class AnimalService {
                                            String delimiter,
                                            FileService fileService)
         throws IOException, NotFoundException {
+        long startTime = metrics.start(LOAD_VACCINES_FROM_CSV_FILE);
+        try {
+            doLoadVaccinesFromCSVFile(path, delimiter, MissingAnimalPolicyEnum.FAIL, null, fileService);
+        } finally {
+            metrics.stop(LOAD_VACCINES_FROM_CSV_FILE, startTime);
+        }
+
+        // Every row was added, otherwise a NotFoundException was thrown
+        return true;
+    }
+
+    /**
+     * Loads vaccine data from a CSV file, adding each vaccine to its animal as the file is read.
+     *
+     * Step 1: A map of the animals by id is built, so finding the animal of a row does not go through the whole list.
+     * Step 2: The file is read once, and every vaccine is added to its animal right away
+     *         (no map of vaccines by animal is built first).
+     *
+     * @param path                The file path to the CSV file containing vaccine data.
+     * @param delimiter           The delimiter used in the CSV file to separate values.
+     * @param missingAnimalPolicy What to do with the rows whose animal does not exist.
+     * @param quarantinePath      The file where the rows whose animal does not exist are written,
+     *                            only used with MissingAnimalPolicyEnum.QUARANTINE.
+     * @param fileService         The FileService object used to read the file.
+     * @return The number of vaccines added to the animals.
+     * @throws IOException       If an I/O error occurs while reading the file.
+     * @throws NotFoundException If the animal of a row does not exist and the policy is MissingAnimalPolicyEnum.FAIL.
+     */
+    public int loadVaccinesFromCSVFile(String path,
+                                       String delimiter,
+                                       MissingAnimalPolicyEnum missingAnimalPolicy,
+                                       String quarantinePath,
+                                       FileService fileService)
+        throws IOException, NotFoundException {
+        long startTime = metrics.start(LOAD_VACCINES_FROM_CSV_FILE);
+        try {
+            return doLoadVaccinesFromCSVFile(path, delimiter, missingAnimalPolicy, quarantinePath, fileService);
+        } finally {
+            metrics.stop(LOAD_VACCINES_FROM_CSV_FILE, startTime);
+        }
+    }
+
+    private int doLoadVaccinesFromCSVFile(String path,
+                                          String delimiter,
+                                          MissingAnimalPolicyEnum missingAnimalPolicy,
+                                          String quarantinePath,
+                                          FileService fileService)
+        throws IOException, NotFoundException {
+        if (missingAnimalPolicy == null) {
+            throw new IllegalArgumentException("Missing animal policy cannot be null");
+        }
+
+        // Step 1
+        Map<UUID, Animal> animalsById = getAnimalsById();
+
+        // Step 2
+        return fileService.loadVaccinesFromCSVFileIntoAnimals(
+            path, delimiter, animalsById::get, missingAnimalPolicy, quarantinePath);
+    }
+
+    /**
+     * Loads vaccine data from a CSV file, parsing the file in parallel.
+     * The vaccines are assigned exactly like in loadVaccinesFromCSVFile.
+     *
+     * @param path      The file path to the CSV file containing vaccine data.
+     * @param delimiter The delimiter used in the CSV file to separate values, it must be a single character.
+     * @param fileService The FileService object used to read the file.
+     * @return True if vaccines were loaded successfully, false otherwise.
+     * @throws IOException If an I/O error occurs while reading the file.
+     */
+    public boolean loadVaccinesFromCSVFileInParallel(String path,
+                                                     String delimiter,
+                                                     FileService fileService)
+        throws IOException, NotFoundException {
+        long startTime = metrics.start(LOAD_VACCINES_FROM_CSV_FILE_IN_PARALLEL);
+        try {
+            return doLoadVaccinesFromCSVFileInParallel(path, delimiter, fileService);
+        } finally {
+            metrics.stop(LOAD_VACCINES_FROM_CSV_FILE_IN_PARALLEL, startTime);
+        }
+    }
 
+    private boolean doLoadVaccinesFromCSVFileInParallel(String path,
+                                                        String delimiter,
+                                                        FileService fileService)
+        throws IOException, NotFoundException {
         Map<UUID, List<Vaccine>> vaccinesByAnimalId =
-            fileService.loadVaccinesFromCSVFile(path, delimiter);
+            fileService.loadVaccinesFromCSVFileInParallel(path, delimiter);
+
+        return addVaccinesToAnimals(vaccinesByAnimalId);
+    }
+
+    private boolean addVaccinesToAnimals(Map<UUID, List<Vaccine>> vaccinesByAnimalId) throws NotFoundException {
+
+        Map<UUID, Animal> animalsById = getAnimalsById();
 
         // search animal by id and add vaccines to the animal
         for (Map.Entry<UUID, List<Vaccine>> entry : vaccinesByAnimalId.entrySet()) {
-            Animal animal = findAnimalById(entry.getKey());
+            Animal animal = animalsById.get(entry.getKey());
 
             if (animal == null) {
                 throw new NotFoundException(String.format("Error while assigning vaccines to animal: " +
@@ -313,24 +1030,158 @@ public class AnimalService {
         return true;
     }
 
-
     /**
-     * Loads animals data from a CSV file with the specified format.
-     *  THIS METHOD DOES NOT OVERWRITE THE ANIMAL LIST. IT ADDS TO THE EXISTING LIST.
-     * @param path      The file path to the CSV file containing animals data.
-     * @param delimiter The delimiter used in the CSV file to separate values.
-     * @param fileService The FileService object used to read the file.
-     * @return True if vaccines were loaded successfully, false otherwise.
+     * Adds the animals of lines appended to an animals CSV file (see FileService.followCSVFiles).
+     * Unlike loadAnimalsFromCSVFile, the animals whose id is already in the list are not added again.
+     * The animals are found by id in the map of the service (and the lazy snapshot, one block at a time),
+     * so the work done is proportional to the number of lines, not to the number of animals.
+     *
+     * @param lines              Lines with the columns defined in AnimalAttributesEnum.
+     * @param delimiter          The delimiter used in the lines to separate values.
+     * @param fileService        The FileService object used to parse the lines.
+     * @param invalidLineHandler Receives every line that cannot be parsed and the error, the line is skipped
+     *                           and the next lines are still added.
+     * @return The number of animals added.
+     */
+    public int addAnimalsFromCSVLines(List<String> lines,
+                                      String delimiter,
+                                      FileService fileService,
+                                      BiConsumer<String, RuntimeException> invalidLineHandler) {
+        long startTime = metrics.start(ADD_ANIMALS_FROM_CSV_LINES);
+        try {
+            return doAddAnimalsFromCSVLines(lines, delimiter, fileService, invalidLineHandler);
+        } finally {
+            metrics.stop(ADD_ANIMALS_FROM_CSV_LINES, startTime);
+        }
+    }
+
+    private int doAddAnimalsFromCSVLines(List<String> lines,
+                                         String delimiter,
+                                         FileService fileService,
+                                         BiConsumer<String, RuntimeException> invalidLineHandler) {
+        int animalsAdded = 0;
+
+        for (String line : lines) {
+            try {
+                Animal animal = fileService.parseAnimal(line, delimiter);
+
+                if (findAnimal(animal.getId()) == null) {
+                    addToAnimalList(animal);
+                    animalsAdded++;
+                }
+            } catch (RuntimeException e) {
+                invalidLineHandler.accept(line, e);
+            }
+        }
+
+        return animalsAdded;
+    }
+
+    /**
+     * Adds the vaccines of lines appended to a vaccines CSV file to their animals (see FileService.followCSVFiles).
+     * The animals are found as in addAnimalsFromCSVLines, without going through the list.
+     *
+     * @param lines              Lines with the columns defined in VaccineAttributesEnum.
+     * @param delimiter          The delimiter used in the lines to separate values.
+     * @param fileService        The FileService object used to parse the lines.
+     * @param invalidLineHandler Receives every line that cannot be parsed and the error, the line is skipped
+     *                           and the next lines are still added.
+     * @return The lines whose animal does not exist (yet), their vaccines were not added.
+     */
+    public List<String> addVaccinesFromCSVLines(List<String> lines,
+                                                String delimiter,
+                                                FileService fileService,
+                                                BiConsumer<String, RuntimeException> invalidLineHandler) {
+        long startTime = metrics.start(ADD_VACCINES_FROM_CSV_LINES);
+        try {
+            return doAddVaccinesFromCSVLines(lines, delimiter, fileService, invalidLineHandler);
+        } finally {
+            metrics.stop(ADD_VACCINES_FROM_CSV_LINES, startTime);
+        }
+    }
+
+    private List<String> doAddVaccinesFromCSVLines(List<String> lines,
+                                                   String delimiter,
+                                                   FileService fileService,
+                                                   BiConsumer<String, RuntimeException> invalidLineHandler) {
+        return fileService.addVaccinesToAnimals(lines, delimiter, this::findAnimal, invalidLineHandler);
+    }
+
+    /**
+     * A map of all the animals by id, after reading the animals of the lazy snapshot that were not read yet.
+     * If two animals have the same id, the first one is kept, as findAnimalById does.
+     * It is also the build side of the join of OwnerService.writeOwnersAndTheirAnimalsReport.
+     * The map is kept up to date by the service, so it is not built again on every call.
+     *
+     * @return A read-only view of the map.
+     */
+    Map<UUID, Animal> getAnimalsById() {
+        loadedAnimalList();
+        return Collections.unmodifiableMap(animalsById);
+    }
+
+
+    /**
+     * Loads animals data from a CSV file with the specified format.
+     *  THIS METHOD DOES NOT OVERWRITE THE ANIMAL LIST. IT ADDS TO THE EXISTING LIST.
+     * @param path      The file path to the CSV file containing animals data.
+     * @param delimiter The delimiter used in the CSV file to separate values.
+     * @param fileService The FileService object used to read the file.
+     * @return True if vaccines were loaded successfully, false otherwise.
      * @throws IOException If an I/O error occurs while reading the file.
      */
     public boolean loadAnimalsFromCSVFile(String path,
                                           String delimiter,
                                           FileService fileService)
         throws IOException, NotFoundException {
+        long startTime = metrics.start(LOAD_ANIMALS_FROM_CSV_FILE);
+        try {
+            return doLoadAnimalsFromCSVFile(path, delimiter, fileService);
+        } finally {
+            metrics.stop(LOAD_ANIMALS_FROM_CSV_FILE, startTime);
+        }
+    }
 
+    private boolean doLoadAnimalsFromCSVFile(String path,
+                                             String delimiter,
+                                             FileService fileService)
+        throws IOException, NotFoundException {
         List<Animal> animals = fileService.loadAnimalsFromCSVFile(path, delimiter);
 
-        return animalList.addAll(animals);
+        loadedAnimalList();
+        return addAllToAnimalList(animals);
+    }
+
+    /**
+     * Loads animals data from a CSV file, parsing the file in parallel.
+     *  THIS METHOD DOES NOT OVERWRITE THE ANIMAL LIST. IT ADDS TO THE EXISTING LIST,
+     *  in the same order the animals have in the file.
+     * @param path      The file path to the CSV file containing animals data.
+     * @param delimiter The delimiter used in the CSV file to separate values, it must be a single character.
+     * @param fileService The FileService object used to read the file.
+     * @return True if animals were loaded successfully, false otherwise.
+     * @throws IOException If an I/O error occurs while reading the file.
+     */
+    public boolean loadAnimalsFromCSVFileInParallel(String path,
+                                                    String delimiter,
+                                                    FileService fileService)
+        throws IOException {
+        long startTime = metrics.start(LOAD_ANIMALS_FROM_CSV_FILE_IN_PARALLEL);
+        try {
+            return doLoadAnimalsFromCSVFileInParallel(path, delimiter, fileService);
+        } finally {
+            metrics.stop(LOAD_ANIMALS_FROM_CSV_FILE_IN_PARALLEL, startTime);
+        }
+    }
+
+    private boolean doLoadAnimalsFromCSVFileInParallel(String path,
+                                                       String delimiter,
+                                                       FileService fileService)
+        throws IOException {
+        List<Animal> animals = fileService.loadAnimalsFromCSVFileInParallel(path, delimiter);
+
+        loadedAnimalList();
+        return addAllToAnimalList(animals);
     }
 
 
@@ -344,16 +1195,265 @@ public class AnimalService {
      * @throws ClassNotFoundException If the class of a serialized object cannot be found.
      */
     public void loadAnimalsFromBinaryFileUsingTheEntireList(String filePath, FileService fileService) throws IOException, ClassNotFoundException {
+        long startTime = metrics.start(LOAD_ANIMALS_FROM_BINARY_FILE_USING_THE_ENTIRE_LIST);
+        try {
+            doLoadAnimalsFromBinaryFileUsingTheEntireList(filePath, fileService);
+        } finally {
+            metrics.stop(LOAD_ANIMALS_FROM_BINARY_FILE_USING_THE_ENTIRE_LIST, startTime);
+        }
+    }
 
+    private void doLoadAnimalsFromBinaryFileUsingTheEntireList(String filePath, FileService fileService) throws IOException, ClassNotFoundException {
         List<Animal> animals =
             fileService.loadAnimalsFromBinaryFileUsingTheEntireList(filePath);
         clearAnimalList();
-        animalList.addAll(animals);
+        addAllToAnimalList(animals);
 
+        // The animals are not synchronized with any snapshot file anymore
+        snapshotFilePath = null;
+    }
+
+    /**
+     * Loads animals from a snapshot file, replacing the current animal list.
+     *
+     * @param filePath The path to the snapshot file containing the animals.
+     * @param fileService The FileService object used to read the file.
+     * @throws IOException If an I/O error occurs while reading the file, or if the file is corrupted.
+     */
+    public void loadAnimalsFromSnapshotFile(String filePath, FileService fileService) throws IOException {
+        long startTime = metrics.start(LOAD_ANIMALS_FROM_SNAPSHOT_FILE);
+        try {
+            doLoadAnimalsFromSnapshotFile(filePath, fileService);
+        } finally {
+            metrics.stop(LOAD_ANIMALS_FROM_SNAPSHOT_FILE, startTime);
+        }
+    }
+
+    private void doLoadAnimalsFromSnapshotFile(String filePath, FileService fileService) throws IOException {
+        List<Animal> animals = fileService.loadAnimalsFromSnapshotFile(filePath);
+        clearAnimalList();
+        addAllToAnimalList(animals);
+
+        markAnimalsAsSaved(filePath);
+    }
+
+    /**
+     * Opens a snapshot file without reading all its animals, replacing the current animal list.
+     *
+     * Only the index saved with the snapshot and the deltas are read, so the animals can be used right away.
+     * findAnimalById reads the block of the snapshot that has the animal the first time it is needed,
+     * the methods that need every animal (reports, saves, selection by position...) read the rest
+     * of the snapshot the first time they are called.
+     * If the snapshot has no index, all the animals are loaded, as loadAnimalsFromSnapshotFile does.
+     *
+     * @param filePath The path to the snapshot file containing the animals.
+     * @param fileService The FileService object used to read the file.
+     * @throws IOException If an I/O error occurs while reading the file, or if the file is corrupted.
+     */
+    public void openAnimalsSnapshotFileLazily(String filePath, FileService fileService) throws IOException {
+        long startTime = metrics.start(OPEN_ANIMALS_SNAPSHOT_FILE_LAZILY);
+        try {
+            doOpenAnimalsSnapshotFileLazily(filePath, fileService);
+        } finally {
+            metrics.stop(OPEN_ANIMALS_SNAPSHOT_FILE_LAZILY, startTime);
+        }
+    }
+
+    private void doOpenAnimalsSnapshotFileLazily(String filePath, FileService fileService) throws IOException {
+        LazySnapshotFile<Animal> snapshot = fileService.openAnimalsSnapshotFileLazily(filePath);
+
+        if (snapshot == null) {
+            doLoadAnimalsFromSnapshotFile(filePath, fileService);
+            return;
+        }
+
+        clearAnimalList();
+        lazySnapshot = snapshot;
+        addAllToAnimalList(snapshot.getDeltaRecords());
+
+        markAnimalsAsSaved(filePath);
+    }
+
+    /**
+     * Saves the list of animals to a snapshot file.
+     *
+     * @param filePath The path to the snapshot file where the list of animals will be saved.
+     * @param fileService The FileService object used to write the file.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    public void saveAnimalsToSnapshotFile(String filePath, FileService fileService) throws IOException {
+        long startTime = metrics.start(SAVE_ANIMALS_TO_SNAPSHOT_FILE);
+        try {
+            doSaveAnimalsToSnapshotFile(filePath, fileService);
+        } finally {
+            metrics.stop(SAVE_ANIMALS_TO_SNAPSHOT_FILE, startTime);
+        }
+    }
+
+    private void doSaveAnimalsToSnapshotFile(String filePath, FileService fileService) throws IOException {
+        fileService.saveAnimalsToSnapshotFile(filePath, loadedAnimalList());
+
+        markAnimalsAsSaved(filePath);
+    }
+
+    /**
+     * Saves only the animals that were added or changed since the last save, as a delta of the snapshot file.
+     * If the animals were not saved to (or loaded from) this file before, the whole list is saved.
+     * When the deltas grow too much, the whole list is saved again, so the deltas are merged into the snapshot.
+     *
+     * @param filePath The path to the snapshot file where the list of animals will be saved.
+     * @param fileService The FileService object used to write the file.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    public void saveAnimalsToSnapshotFileIncrementally(String filePath, FileService fileService) throws IOException {
+        long startTime = metrics.start(SAVE_ANIMALS_TO_SNAPSHOT_FILE_INCREMENTALLY);
+        try {
+            doSaveAnimalsToSnapshotFileIncrementally(filePath, fileService);
+        } finally {
+            metrics.stop(SAVE_ANIMALS_TO_SNAPSHOT_FILE_INCREMENTALLY, startTime);
+        }
+    }
+
+    private void doSaveAnimalsToSnapshotFileIncrementally(String filePath, FileService fileService) throws IOException {
+        if (!filePath.equals(snapshotFilePath) || !fileService.snapshotFileExists(filePath)) {
+            doSaveAnimalsToSnapshotFile(filePath, fileService);
+            return;
+        }
+
+        List<Animal> changedAnimals = animalList.stream()
+            .filter(Animal::isDirty)
+            .toList();
+
+        if (changedAnimals.isEmpty()) {
+            return;
+        }
+
+        fileService.appendAnimalsToSnapshotDelta(filePath, changedAnimals);
+        changedAnimals.forEach(Animal::markClean);
+
+        if (fileService.shouldMergeSnapshotDeltas(filePath)) {
+            // Writing the list we already have in memory gives the same result as merging the files,
+            // without reading them again.
+            doSaveAnimalsToSnapshotFile(filePath, fileService);
+        }
+    }
+
+    /**
+     * Copies the animals so they can be saved to a snapshot file from another thread
+     * while the list keeps changing (see BackgroundSaveService).
+     * The animals are marked as saved to that file. If the save fails, snapshotSaveFailed must be called,
+     * so the next incremental save writes all the animals again.
+     *
+     * @param filePath The path to the snapshot file where the copies will be saved.
+     * @return Independent copies of the animals.
+     */
+    List<Animal> captureAnimalsForSnapshotSave(String filePath) {
+
+        List<Animal> copies = new ArrayList<>();
+        for (Animal animal : loadedAnimalList()) {
+            copies.add(new Animal(animal));
+        }
+
+        markAnimalsAsSaved(filePath);
+        return copies;
+    }
+
+    /**
+     * Called when saving the copies returned by captureAnimalsForSnapshotSave failed.
+     *
+     * @param filePath The path to the snapshot file that could not be saved.
+     */
+    void snapshotSaveFailed(String filePath) {
+        if (filePath.equals(snapshotFilePath)) {
+            snapshotFilePath = null;
+        }
+    }
+
+    private void markAnimalsAsSaved(String filePath) {
+        animalList.forEach(Animal::markClean);
+        snapshotFilePath = filePath;
     }
 
     private void clearAnimalList() {
+        removedAnimals += animalList.size() + 1;
         animalList.clear();
+        animalsById.clear();
+        animalIndexes = null;
+        closeLazySnapshot();
+    }
+
+    /**
+     * The animal list, after reading the animals of the lazy snapshot that were not read yet.
+     * The methods of the service do not declare IOException, so an I/O error is thrown as an UncheckedIOException.
+     */
+    private List<Animal> loadedAnimalList() {
+        if (lazySnapshot != null) {
+            try {
+                lazySnapshot.readRemainingRecords(this::addFaultedAnimal);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            closeLazySnapshot();
+        }
+
+        return animalList;
+    }
+
+    private void addFaultedAnimals(List<Animal> animals) {
+        for (Animal animal : animals) {
+            addFaultedAnimal(animal);
+        }
+    }
+
+    // The animals read from the snapshot are already saved in it, they are not dirty
+    private void addFaultedAnimal(Animal animal) {
+        animal.markClean();
+        addToAnimalList(animal);
+    }
+
+    private boolean addAllToAnimalList(List<Animal> animals) {
+        for (Animal animal : animals) {
+            addToAnimalList(animal);
+        }
+        return !animals.isEmpty();
+    }
+
+    private void addToAnimalList(Animal animal) {
+        animal.setChangeListener(animalChanged);
+        animalList.add(animal);
+        animalsById.putIfAbsent(animal.getId(), animal);
+    }
+
+    /**
+     * Finds an animal in the map of the animals by id, or in the block of the lazy snapshot that has it,
+     * without reading the rest of the snapshot.
+     */
+    private Animal findAnimal(UUID id) {
+        Animal animal = animalsById.get(id);
+
+        // The animal may be in a block of the snapshot that was not read yet
+        if (animal == null && lazySnapshot != null) {
+            try {
+                addFaultedAnimals(lazySnapshot.faultInBlockOf(id));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            animal = animalsById.get(id);
+        }
+
+        return animal;
+    }
+
+    private void closeLazySnapshot() {
+        if (lazySnapshot != null) {
+            try {
+                lazySnapshot.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                lazySnapshot = null;
+            }
+        }
     }
 
 
@@ -365,45 +1465,280 @@ public class AnimalService {
      * @throws IOException If an I/O error occurs while writing the file.
      */
     public void saveAnimalsToBinaryFileUsingTheEntireList(String filePath, FileService fileService) throws IOException {
+        long startTime = metrics.start(SAVE_ANIMALS_TO_BINARY_FILE_USING_THE_ENTIRE_LIST);
+        try {
+            doSaveAnimalsToBinaryFileUsingTheEntireList(filePath, fileService);
+        } finally {
+            metrics.stop(SAVE_ANIMALS_TO_BINARY_FILE_USING_THE_ENTIRE_LIST, startTime);
+        }
+    }
 
-        fileService.saveAnimalsToBinaryFileUsingTheEntireList(filePath, animalList);
-
+    private void doSaveAnimalsToBinaryFileUsingTheEntireList(String filePath, FileService fileService) throws IOException {
+        fileService.saveAnimalsToBinaryFileUsingTheEntireList(filePath, loadedAnimalList());
     }
 
     /**
-     * Saves the list of animals to a binary file.
+     * Saves the list of animals to a CSV file.
+     * The animals are written one by one, without building the list of lines first.
      *
-     * @param filePath The path to the binary file where the list of animals will be saved.
+     * @param filePath The path to the CSV file where the list of animals will be saved.
      * @param fileService The FileService object used to write the file.
      * @throws IOException If an I/O error occurs while writing the file.
      */
     public void saveAnimalsToCSVFile(String filePath, FileService fileService) throws IOException {
+        long startTime = metrics.start(SAVE_ANIMALS_TO_CSV_FILE);
+        try {
+            doSaveAnimalsToCSVFile(filePath, fileService);
+        } finally {
+            metrics.stop(SAVE_ANIMALS_TO_CSV_FILE, startTime);
+        }
+    }
 
-        List<String> animalsListToCSV = this.animalList.stream()
-            .map(animal -> animal.toCSV(";"))
-            .toList();
+    private void doSaveAnimalsToCSVFile(String filePath, FileService fileService) throws IOException {
+        fileService.saveAnimalsToCSVFile(filePath, ";", loadedAnimalList());
+    }
+
+    /**
+     * Saves the animals, with their vaccines, to a newline delimited JSON file (one animal per line).
+     *
+     * @param filePath    The path of the file.
+     * @param fileService The service used to write the file.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    public void saveAnimalsToNDJSONFile(String filePath, FileService fileService) throws IOException {
+        long startTime = metrics.start(SAVE_ANIMALS_TO_NDJSON_FILE);
+        try {
+            doSaveAnimalsToNDJSONFile(filePath, fileService);
+        } finally {
+            metrics.stop(SAVE_ANIMALS_TO_NDJSON_FILE, startTime);
+        }
+    }
+
+    private void doSaveAnimalsToNDJSONFile(String filePath, FileService fileService) throws IOException {
+        fileService.saveAnimalsToNDJSONFile(filePath, loadedAnimalList());
+    }
+
+    /**
+     * Loads animals, with their vaccines, from a newline delimited JSON file.
+     *  THIS METHOD DOES NOT OVERWRITE THE ANIMAL LIST. IT ADDS TO THE EXISTING LIST.
+     * Each animal is added as soon as its line is read.
+     *
+     * @param filePath    The path of the file.
+     * @param fileService The service used to read the file.
+     * @return The number of animals loaded.
+     * @throws IOException If an I/O error occurs while reading the file, or the file is not valid JSON.
+     */
+    public int loadAnimalsFromNDJSONFile(String filePath, FileService fileService) throws IOException {
+        long startTime = metrics.start(LOAD_ANIMALS_FROM_NDJSON_FILE);
+        try {
+            return doLoadAnimalsFromNDJSONFile(filePath, fileService);
+        } finally {
+            metrics.stop(LOAD_ANIMALS_FROM_NDJSON_FILE, startTime);
+        }
+    }
 
-        fileService.writeTextFile(filePath, animalsListToCSV);
+    private int doLoadAnimalsFromNDJSONFile(String filePath, FileService fileService) throws IOException {
+        // The animals of the lazy snapshot go first, so the loaded animals are appended after them
+        loadedAnimalList();
+        return fileService.loadAnimalsFromNDJSONFile(filePath, this::addToAnimalList);
+    }
+
+    /**
+     * Exports the animals and their vaccines to two columnar files for analysis, see FileService.openColumnarFile.
+     *
+     * @param animalsFilePath  The path of the file with the animals.
+     * @param vaccinesFilePath The path of the file with the vaccines, one row per vaccine.
+     * @param fileService      The service used to write the files.
+     * @throws IOException If an I/O error occurs while writing the files.
+     */
+    public void saveAnimalsToColumnarFiles(String animalsFilePath,
+                                           String vaccinesFilePath,
+                                           FileService fileService) throws IOException {
+        long startTime = metrics.start(SAVE_ANIMALS_TO_COLUMNAR_FILES);
+        try {
+            doSaveAnimalsToColumnarFiles(animalsFilePath, vaccinesFilePath, fileService);
+        } finally {
+            metrics.stop(SAVE_ANIMALS_TO_COLUMNAR_FILES, startTime);
+        }
+    }
+
+    private void doSaveAnimalsToColumnarFiles(String animalsFilePath,
+                                              String vaccinesFilePath,
+                                              FileService fileService) throws IOException {
+        List<Animal> animals = loadedAnimalList();
+        fileService.saveAnimalsToColumnarFile(animalsFilePath, animals);
+        fileService.saveVaccinesToColumnarFile(vaccinesFilePath, animals);
+    }
 
+    /**
+     * Gets a page of the animals, in the order they were added to the list.
+     * Each call only copies the animals of the page, however many animals there are.
+     *
+     * @param pageToken The token of the previous page (see Page.getNextPageToken), or null for the first page.
+     * @param pageSize  The maximum number of animals in the page.
+     * @return The page of animals.
+     * @throws IllegalArgumentException If the page size is not positive, or the token does not belong to the animals
+     *                                  of this service (i.e. the list was loaded again from a snapshot file).
+     */
+    public Page<Animal> getAnimalsPage(String pageToken, int pageSize) {
+        long startTime = metrics.start(GET_ANIMALS_PAGE);
+        try {
+            return doGetAnimalsPage(pageToken, pageSize);
+        } finally {
+            metrics.stop(GET_ANIMALS_PAGE, startTime);
+        }
+    }
+
+    private Page<Animal> doGetAnimalsPage(String pageToken, int pageSize) {
+        Page.checkPageSize(pageSize);
+
+        List<Animal> animals = loadedAnimalList();
+
+        // The animals are only appended to the list, so the position where the previous page ended is a stable key
+        int firstPosition = pageToken == null ? 0 : decodeAnimalsPageToken(pageToken, animals);
+        int endPosition = (int) Math.min((long) firstPosition + pageSize, animals.size());
+
+        String nextPageToken = endPosition < animals.size()
+            ? encodeAnimalsPageToken(endPosition, animals.get(endPosition - 1))
+            : null;
+
+        return new Page<>(new ArrayList<>(animals.subList(firstPosition, endPosition)), nextPageToken);
+    }
+
+    /**
+     * The token stores the position where the next page starts and the id of the animal before it,
+     * so a token of a list that was replaced is rejected instead of returning other animals.
+     */
+    private static String encodeAnimalsPageToken(int endPosition, Animal lastAnimalInPage) {
+        ByteBuffer key = ByteBuffer.allocate(Integer.BYTES + 2 * Long.BYTES);
+        key.putInt(endPosition)
+            .putLong(lastAnimalInPage.getId().getMostSignificantBits())
+            .putLong(lastAnimalInPage.getId().getLeastSignificantBits());
+
+        return Page.encodeToken(Page.ANIMALS_TOKEN, key.array());
+    }
+
+    private static int decodeAnimalsPageToken(String pageToken, List<Animal> animals) {
+        ByteBuffer key = Page.decodeToken(Page.ANIMALS_TOKEN, pageToken);
+        if (key.remaining() != Integer.BYTES + 2 * Long.BYTES) {
+            throw new IllegalArgumentException("Invalid page token " + pageToken);
+        }
+
+        int position = key.getInt();
+        UUID lastAnimalId = new UUID(key.getLong(), key.getLong());
+
+        if (position <= 0 || position > animals.size() || !animals.get(position - 1).getId().equals(lastAnimalId)) {
+            throw new IllegalArgumentException("The page token does not belong to the current list of animals");
+        }
+
+        return position;
     }
 
     public UUID addOwnerToAnimal(int animalNumber,
                                  String userName,
                                  OwnerService ownerService)
         throws NotFoundException {
+        long startTime = metrics.start(ADD_OWNER_TO_ANIMAL);
+        try {
+            return doAddOwnerToAnimal(animalNumber, userName, ownerService);
+        } finally {
+            metrics.stop(ADD_OWNER_TO_ANIMAL, startTime);
+        }
+    }
 
+    private UUID doAddOwnerToAnimal(int animalNumber,
+                                    String userName,
+                                    OwnerService ownerService)
+        throws NotFoundException {
+        Animal animal = loadedAnimalList().get(animalNumber);
+        return addOwnerToAnimal(animal, userName, ownerService);
+    }
+
+    /**
+     * Adds an owner to an animal of a page returned by getAnimalsPage.
+     *
+     * @param page               The page shown to the user.
+     * @param animalNumberInPage The position of the animal in the page, starting at 0.
+     * @param userName           The username of the owner.
+     * @param ownerService       The service with the owners.
+     * @return The id of the animal.
+     * @throws IndexOutOfBoundsException If the page has no animal at that position.
+     * @throws NotFoundException If the owner does not exist.
+     */
+    public UUID addOwnerToAnimal(Page<Animal> page,
+                                 int animalNumberInPage,
+                                 String userName,
+                                 OwnerService ownerService)
+        throws NotFoundException {
+        long startTime = metrics.start(ADD_OWNER_TO_ANIMAL);
+        try {
+            return doAddOwnerToAnimal(page, animalNumberInPage, userName, ownerService);
+        } finally {
+            metrics.stop(ADD_OWNER_TO_ANIMAL, startTime);
+        }
+    }
+
+    private UUID doAddOwnerToAnimal(Page<Animal> page,
+                                    int animalNumberInPage,
+                                    String userName,
+                                    OwnerService ownerService)
+        throws NotFoundException {
+        Animal animal = page.getItems().get(animalNumberInPage);
+        return addOwnerToAnimal(animal, userName, ownerService);
+    }
+
+    private UUID addOwnerToAnimal(Animal animal, String userName, OwnerService ownerService)
+        throws NotFoundException {
 
-        Animal animal = this.animalList.get(animalNumber);
         UUID ownerId = ownerService.getOwnerByUsername(userName).getId();
         animal.addOwnerId(ownerId);
 
         return animal.getId();
-
     }
 
     public boolean addAnimalToAppointmentQueue(int animalNumber, AttentionQueueService attentionQueueService) {
+        long startTime = metrics.start(ADD_ANIMAL_TO_APPOINTMENT_QUEUE);
+        try {
+            return doAddAnimalToAppointmentQueue(animalNumber, attentionQueueService);
+        } finally {
+            metrics.stop(ADD_ANIMAL_TO_APPOINTMENT_QUEUE, startTime);
+        }
+    }
+
+    private boolean doAddAnimalToAppointmentQueue(int animalNumber, AttentionQueueService attentionQueueService) {
+        Animal animal = loadedAnimalList().get(animalNumber);
+        return addAnimalToAppointmentQueue(animal, attentionQueueService);
+    }
+
+    /**
+     * Adds an animal of a page returned by getAnimalsPage to the appointment queue.
+     *
+     * @param page                  The page shown to the user.
+     * @param animalNumberInPage    The position of the animal in the page, starting at 0.
+     * @param attentionQueueService The appointment queue.
+     * @return False if the animal was already in the queue.
+     * @throws IndexOutOfBoundsException If the page has no animal at that position.
+     */
+    public boolean addAnimalToAppointmentQueue(Page<Animal> page,
+                                               int animalNumberInPage,
+                                               AttentionQueueService attentionQueueService) {
+        long startTime = metrics.start(ADD_ANIMAL_TO_APPOINTMENT_QUEUE);
+        try {
+            return doAddAnimalToAppointmentQueue(page, animalNumberInPage, attentionQueueService);
+        } finally {
+            metrics.stop(ADD_ANIMAL_TO_APPOINTMENT_QUEUE, startTime);
+        }
+    }
+
+    private boolean doAddAnimalToAppointmentQueue(Page<Animal> page,
+                                                  int animalNumberInPage,
+                                                  AttentionQueueService attentionQueueService) {
+        Animal animal = page.getItems().get(animalNumberInPage);
+        return addAnimalToAppointmentQueue(animal, attentionQueueService);
+    }
+
+    private boolean addAnimalToAppointmentQueue(Animal animal, AttentionQueueService attentionQueueService) {
 
-        Animal animal = this.animalList.get(animalNumber);
         if(attentionQueueService.isAnimalInQueue(animal)) {
             return false;
         }
@@ -414,21 +1749,56 @@ public class AnimalService {
     }
 
     public void writeFileWithAnimalsAndNextVaccineApplication(String path, FileService fileService) throws IOException {
+        long startTime = metrics.start(WRITE_FILE_WITH_ANIMALS_AND_NEXT_VACCINE_APPLICATION);
+        try {
+            doWriteFileWithAnimalsAndNextVaccineApplication(path, LocalDate.now(clock), fileService);
+        } finally {
+            metrics.stop(WRITE_FILE_WITH_ANIMALS_AND_NEXT_VACCINE_APPLICATION, startTime);
+        }
+    }
 
-            fileService.writeTextFile(path, getAnimalsPendingOnNextApplicationReport());
+    /**
+     * Writes the report of animals with vaccines expired on a date (see getAnimalsPendingOnNextApplicationReport).
+     *
+     * @param path        The path of the file.
+     * @param asOf        The date the vaccines are checked on.
+     * @param fileService The service used to write the file.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeFileWithAnimalsAndNextVaccineApplication(String path, LocalDate asOf, FileService fileService)
+        throws IOException {
+        long startTime = metrics.start(WRITE_FILE_WITH_ANIMALS_AND_NEXT_VACCINE_APPLICATION);
+        try {
+            doWriteFileWithAnimalsAndNextVaccineApplication(path, asOf, fileService);
+        } finally {
+            metrics.stop(WRITE_FILE_WITH_ANIMALS_AND_NEXT_VACCINE_APPLICATION, startTime);
+        }
+    }
 
+    private void doWriteFileWithAnimalsAndNextVaccineApplication(String path, LocalDate asOf, FileService fileService)
+        throws IOException {
+            int asOfEpochDay = toEpochDay(asOf);
+
+            // Each line is written as soon as it is produced, the report is never stored in a list.
+            fileService.writeTextFileLineByLine(path,
+                reportLineConsumer -> forEachAnimalPendingOnNextApplication(asOfEpochDay, reportLineConsumer));
     }
 
     public List<String> getAnimalsAndTheirOwnersReport(OwnerService ownerService) {
+        long startTime = metrics.start(GET_ANIMALS_AND_THEIR_OWNERS_REPORT);
+        try {
+            return doGetAnimalsAndTheirOwnersReport(ownerService);
+        } finally {
+            metrics.stop(GET_ANIMALS_AND_THEIR_OWNERS_REPORT, startTime);
+        }
+    }
 
+    private List<String> doGetAnimalsAndTheirOwnersReport(OwnerService ownerService) {
+        List<String> animalsAndTheirOwnersReport = new ArrayList<>();
 
-        return animalList.stream()
-            .map(
-                animal -> animal.getName()
-                    + " Owners: " + animal.getOwnerIds().stream()
-                        .map(ownerId -> ownerService.getOwnerById(ownerId).getName())
-                        .collect(Collectors.joining(", ")))
-            .toList();
+        doWriteAnimalsAndTheirOwnersReport(ownerService, animalsAndTheirOwnersReport::add);
+
+        return animalsAndTheirOwnersReport;
         /*
         List<String> animalsAndTheirOwnersReport = new ArrayList<>();
         // Iterate through each animal in the animalList.
@@ -451,8 +1821,70 @@ public class AnimalService {
          */
     }
 
+    /**
+     * Generates the report of getAnimalsAndTheirOwnersReport, handing each line to the consumer
+     * as soon as it is produced.
+     *
+     * @param ownerService       The service with the owners of the animals.
+     * @param reportLineConsumer Receives every line of the report.
+     */
+    public void writeAnimalsAndTheirOwnersReport(OwnerService ownerService, Consumer<String> reportLineConsumer) {
+        long startTime = metrics.start(WRITE_ANIMALS_AND_THEIR_OWNERS_REPORT);
+        try {
+            doWriteAnimalsAndTheirOwnersReport(ownerService, reportLineConsumer);
+        } finally {
+            metrics.stop(WRITE_ANIMALS_AND_THEIR_OWNERS_REPORT, startTime);
+        }
+    }
+
+    private void doWriteAnimalsAndTheirOwnersReport(OwnerService ownerService, Consumer<String> reportLineConsumer) {
+        loadedAnimalList().stream()
+            .map(
+                animal -> animal.getName()
+                    + " Owners: " + animal.getOwnerIds().stream()
+                        .map(ownerId -> {
+                            Owner owner = ownerService.getOwnerById(ownerId);
+                            // An owner id without owner is shown instead of failing the whole report
+                            return owner == null ? UNKNOWN_OWNER + ownerId : owner.getName();
+                        })
+                        .collect(Collectors.joining(", ")))
+            .forEachOrdered(reportLineConsumer);
+    }
+
+    /**
+     * Appends the report of getAnimalsAndTheirOwnersReport, one line at a time.
+     *
+     * @param ownerService The service with the owners of the animals.
+     * @param appendable   Where the lines are appended (for example a Writer). It is not flushed nor closed.
+     * @throws IOException If the appendable throws an IOException.
+     */
+    public void writeAnimalsAndTheirOwnersReport(OwnerService ownerService, Appendable appendable)
+        throws IOException {
+        long startTime = metrics.start(WRITE_ANIMALS_AND_THEIR_OWNERS_REPORT);
+        try {
+            doWriteAnimalsAndTheirOwnersReport(ownerService, appendable);
+        } finally {
+            metrics.stop(WRITE_ANIMALS_AND_THEIR_OWNERS_REPORT, startTime);
+        }
+    }
+
+    private void doWriteAnimalsAndTheirOwnersReport(OwnerService ownerService, Appendable appendable)
+        throws IOException {
+
+        ReportAppender.appendLines(appendable,
+            reportLineConsumer -> doWriteAnimalsAndTheirOwnersReport(ownerService, reportLineConsumer));
+    }
+
     public void addVaccineToAnimalInQueue(AttentionQueueService attentionQueueService, String brand, int volume) {
+        long startTime = metrics.start(ADD_VACCINE_TO_ANIMAL_IN_QUEUE);
+        try {
+            doAddVaccineToAnimalInQueue(attentionQueueService, brand, volume);
+        } finally {
+            metrics.stop(ADD_VACCINE_TO_ANIMAL_IN_QUEUE, startTime);
+        }
+    }
 
+    private void doAddVaccineToAnimalInQueue(AttentionQueueService attentionQueueService, String brand, int volume) {
             Animal animal = attentionQueueService.attendAnimal();
             animal.addVaccine(volume, brand);
     }
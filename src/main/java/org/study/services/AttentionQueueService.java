@@ -1,7 +1,9 @@
 package org.study.services;
 
+import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.Deque;
+import org.study.exceptions.NotFoundException;
 import org.study.model.Animal;
 
 public class AttentionQueueService {
@@ -11,10 +13,37 @@ public class AttentionQueueService {
     // Reference: https://www.geeksforgeeks.org/deque-interface-java-example/
     private Deque<Animal> animalsToAttend;
 
+    // Times the methods that read the whole queue (see setMetricsRegistry)
+    private ServiceMetrics metrics = ServiceMetrics.DISABLED;
+
+    // The timed methods (see setMetricsRegistry), overloads share their histogram
+    private static final ServiceMetrics.TimedMethods TIMED_METHODS =
+        new ServiceMetrics.TimedMethods("AttentionQueueService");
+    private static final ServiceMetrics.TimedMethod IS_ANIMAL_IN_QUEUE = TIMED_METHODS.add("isAnimalInQueue");
+    private static final ServiceMetrics.TimedMethod SAVE_QUEUE_TO_NDJSON_FILE =
+        TIMED_METHODS.add("saveQueueToNDJSONFile");
+    private static final ServiceMetrics.TimedMethod LOAD_QUEUE_FROM_NDJSON_FILE =
+        TIMED_METHODS.add("loadQueueFromNDJSONFile");
+
     public AttentionQueueService() {
         this.animalsToAttend = new ArrayDeque<>();
     }
 
+    /**
+     * Records how long the public methods of this service take in a registry (see MetricsRegistry),
+     * and the length of the queue as the gauge animals_to_attend.
+     * Adding, attending and peeking take a few nanoseconds, so only the methods that read the whole queue are timed.
+     *
+     * @param metricsRegistry The registry, or null to stop recording.
+     */
+    public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        this.metrics = ServiceMetrics.of(metricsRegistry, TIMED_METHODS);
+        if (metricsRegistry != null) {
+            metricsRegistry.gauge("animals_to_attend", "The animals waiting in the attention queue.",
+                () -> animalsToAttend.size(), "service", "AttentionQueueService");
+        }
+    }
+
     public boolean addAnimalToAttend(Animal animal) {
         //Inserts the specified element into the queue represented by this deque
         return animalsToAttend.add(animal);
@@ -40,9 +69,69 @@ public class AttentionQueueService {
     }
 
     public boolean isAnimalInQueue(Animal animal) {
+        long startTime = metrics.start(IS_ANIMAL_IN_QUEUE);
+        try {
+            return doIsAnimalInQueue(animal);
+        } finally {
+            metrics.stop(IS_ANIMAL_IN_QUEUE, startTime);
+        }
+    }
+
+    private boolean doIsAnimalInQueue(Animal animal) {
         return animalsToAttend.contains(animal);
     }
 
+    /**
+     * Saves the ids of the animals in the queue to a newline delimited JSON file, in the order they will be attended.
+     *
+     * @param filePath    The path of the file.
+     * @param fileService The service used to write the file.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    public void saveQueueToNDJSONFile(String filePath, FileService fileService) throws IOException {
+        long startTime = metrics.start(SAVE_QUEUE_TO_NDJSON_FILE);
+        try {
+            doSaveQueueToNDJSONFile(filePath, fileService);
+        } finally {
+            metrics.stop(SAVE_QUEUE_TO_NDJSON_FILE, startTime);
+        }
+    }
+
+    private void doSaveQueueToNDJSONFile(String filePath, FileService fileService) throws IOException {
+        fileService.saveAttentionQueueToNDJSONFile(filePath, animalsToAttend);
+    }
+
+    /**
+     * Replaces the queue with the animals of a newline delimited JSON file saved by saveQueueToNDJSONFile.
+     * The queue does not change if the file cannot be loaded.
+     *
+     * @param filePath      The path of the file.
+     * @param animalService The service with the animals of the queue.
+     * @param fileService   The service used to read the file.
+     * @return The number of animals in the queue.
+     * @throws IOException If an I/O error occurs while reading the file, or the file is not valid JSON.
+     * @throws NotFoundException If an animal of the file does not exist.
+     */
+    public int loadQueueFromNDJSONFile(String filePath, AnimalService animalService, FileService fileService)
+        throws IOException, NotFoundException {
+        long startTime = metrics.start(LOAD_QUEUE_FROM_NDJSON_FILE);
+        try {
+            return doLoadQueueFromNDJSONFile(filePath, animalService, fileService);
+        } finally {
+            metrics.stop(LOAD_QUEUE_FROM_NDJSON_FILE, startTime);
+        }
+    }
+
+    private int doLoadQueueFromNDJSONFile(String filePath, AnimalService animalService, FileService fileService)
+        throws IOException, NotFoundException {
+        Deque<Animal> loadedAnimalsToAttend = new ArrayDeque<>();
+        fileService.loadAttentionQueueFromNDJSONFile(
+            filePath, animalService::findAnimalById, loadedAnimalsToAttend::add);
+
+        animalsToAttend = loadedAnimalsToAttend;
+        return animalsToAttend.size();
+    }
+
 
 
 
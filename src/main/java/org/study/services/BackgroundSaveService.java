@@ -0,0 +1,234 @@
+package org.study.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.study.model.Animal;
+import org.study.model.Owner;
+
+/**
+ * Saves the animals and the owners to snapshot files on background threads,
+ * so the caller (i.e. the menu loop) does not have to wait for the files to be written.
+ *
+ * Step 1: On the caller thread, the animals and owners are copied. Copying objects in memory is much
+ *         faster than writing them, and the copies are a consistent picture of both services at that moment.
+ * Step 2: On the background threads, the owners and the animals are written at the same time, each one
+ *         to its own file, with FileService.saveOwnersToSnapshotFile and FileService.saveAnimalsToSnapshotFile.
+ *
+ * Only one save per pair of files runs at a time. A save requested while another one is running waits for it,
+ * and if several saves of the same files are requested meanwhile, they are coalesced: only the most recent
+ * copy is written, and all of them get the same future.
+ *
+ * Do not save the same files synchronously (i.e. with AnimalService.saveAnimalsToSnapshotFileIncrementally)
+ * while a background save is running.
+ *
+ * Reference: https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/CompletableFuture.html
+ * Reference: https://docs.oracle.com/javase/tutorial/essential/concurrency/pools.html
+ */
+public class BackgroundSaveService implements Closeable {
+
+    // One thread for the owners and one for the animals
+    private static final int NUMBER_OF_THREADS = 2;
+
+    // Separates the two paths in the keys of the maps, it cannot be part of a file name
+    private static final String PATH_SEPARATOR = "\0";
+
+    private final ExecutorService executor;
+
+    // Saves that are being written, by pair of files
+    private final Map<String, CompletableFuture<Void>> runningSaves = new LinkedHashMap<>();
+
+    // Saves waiting for the running save of the same files, by pair of files
+    private final Map<String, PendingSave> pendingSaves = new LinkedHashMap<>();
+
+    private boolean closed;
+
+    public BackgroundSaveService() {
+        this.executor = Executors.newFixedThreadPool(NUMBER_OF_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "background-save");
+            // Daemon threads do not keep the program alive, close() waits for the pending saves instead
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Copies the animals and the owners and saves them to snapshot files in the background.
+     *
+     * @param animalsFilePath The path to the snapshot file where the animals will be saved.
+     * @param ownersFilePath  The path to the snapshot file where the owners will be saved.
+     * @param animalService   The AnimalService with the animals to save.
+     * @param ownerService    The OwnerService with the owners to save.
+     * @param fileService     The FileService object used to write the files.
+     * @return A future completed when both files are written, or completed exceptionally
+     *         with the IOException that stopped the save.
+     * @throws IllegalStateException If the service was closed.
+     */
+    public synchronized CompletableFuture<Void> saveInBackground(String animalsFilePath,
+                                                                 String ownersFilePath,
+                                                                 AnimalService animalService,
+                                                                 OwnerService ownerService,
+                                                                 FileService fileService) {
+        if (closed) {
+            throw new IllegalStateException("The background save service is closed");
+        }
+
+        // Step 1: the copies are taken now, on the caller thread
+        PendingSave save = new PendingSave(
+            animalsFilePath,
+            ownersFilePath,
+            animalService.captureAnimalsForSnapshotSave(animalsFilePath),
+            ownerService.captureOwnersForSnapshotSave(ownersFilePath),
+            animalService,
+            ownerService,
+            fileService);
+
+        String key = animalsFilePath + PATH_SEPARATOR + ownersFilePath;
+
+        if (!runningSaves.containsKey(key)) {
+            return start(key, save);
+        }
+
+        // Coalesce: a newer copy replaces the one that was waiting, the callers share the same future
+        PendingSave waitingSave = pendingSaves.get(key);
+        if (waitingSave != null) {
+            save.future = waitingSave.future;
+        }
+        pendingSaves.put(key, save);
+
+        return save.future;
+    }
+
+    /**
+     * Waits until all the saves requested so far are written.
+     * The saves that failed are ignored here, their futures were already completed with the error.
+     */
+    public void waitForPendingSaves() {
+        while (true) {
+            List<CompletableFuture<Void>> futures;
+
+            synchronized (this) {
+                futures = new ArrayList<>(runningSaves.values());
+                pendingSaves.values().forEach(save -> futures.add(save.future));
+            }
+
+            if (futures.isEmpty()) {
+                return;
+            }
+
+            CompletableFuture.allOf(futures.toArray(CompletableFuture<?>[]::new))
+                .exceptionally(error -> null)
+                .join();
+        }
+    }
+
+    /**
+     * Waits for the pending saves and stops the background threads.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+
+        waitForPendingSaves();
+        executor.shutdown();
+    }
+
+    // Always called holding the lock of this object
+    private CompletableFuture<Void> start(String key, PendingSave save) {
+
+        // Step 2: owners and animals are written at the same time
+        CompletableFuture<Void> owners = CompletableFuture.runAsync(() -> save.writeOwners(), executor);
+        CompletableFuture<Void> animals = CompletableFuture.runAsync(() -> save.writeAnimals(), executor);
+
+        runningSaves.put(key, save.future);
+
+        CompletableFuture.allOf(owners, animals).whenComplete((result, error) -> {
+            // The future is completed before the save leaves runningSaves, so waitForPendingSaves never misses it
+            if (error == null) {
+                save.future.complete(null);
+            } else {
+                // Unwrap the CompletionException and the UncheckedIOException to give the IOException to the caller
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                save.future.completeExceptionally(
+                    cause instanceof UncheckedIOException ? cause.getCause() : cause);
+            }
+
+            // The next save of the same files can start once this one finished
+            synchronized (this) {
+                runningSaves.remove(key);
+
+                PendingSave next = pendingSaves.remove(key);
+                if (next != null) {
+                    start(key, next);
+                }
+            }
+        });
+
+        return save.future;
+    }
+
+    /**
+     * The copies of a save and where they must be written.
+     */
+    private static final class PendingSave {
+
+        private final String animalsFilePath;
+        private final String ownersFilePath;
+        private final List<Animal> animals;
+        private final List<Owner> owners;
+        private final AnimalService animalService;
+        private final OwnerService ownerService;
+        private final FileService fileService;
+
+        private CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private PendingSave(String animalsFilePath,
+                            String ownersFilePath,
+                            List<Animal> animals,
+                            List<Owner> owners,
+                            AnimalService animalService,
+                            OwnerService ownerService,
+                            FileService fileService) {
+            this.animalsFilePath = animalsFilePath;
+            this.ownersFilePath = ownersFilePath;
+            this.animals = animals;
+            this.owners = owners;
+            this.animalService = animalService;
+            this.ownerService = ownerService;
+            this.fileService = fileService;
+        }
+
+        private void writeAnimals() {
+            try {
+                fileService.saveAnimalsToSnapshotFile(animalsFilePath, animals);
+            } catch (IOException e) {
+                animalService.snapshotSaveFailed(animalsFilePath);
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException e) {
+                animalService.snapshotSaveFailed(animalsFilePath);
+                throw e;
+            }
+        }
+
+        private void writeOwners() {
+            try {
+                fileService.saveOwnersToSnapshotFile(ownersFilePath, owners);
+            } catch (IOException e) {
+                ownerService.snapshotSaveFailed(ownersFilePath);
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException e) {
+                ownerService.snapshotSaveFailed(ownersFilePath);
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.study.services;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.study.services.enums.CompressionEnum;
+
+/**
+ * Compresses and decompresses the blocks of the snapshot files.
+ *
+ * Every block is compressed on its own, so it can be decompressed without the previous blocks.
+ * The Deflater and the Inflater are reused for all the blocks, remember to call end() to release them.
+ *
+ * Reference: https://docs.oracle.com/javase/8/docs/api/java/util/zip/Deflater.html
+ * Reference: https://docs.oracle.com/javase/8/docs/api/java/util/zip/Inflater.html
+ */
+class BlockCompressor {
+
+    private final Deflater deflater = new Deflater();
+    private final Inflater inflater = new Inflater();
+    private final LZBlockCodec lzCodec = new LZBlockCodec();
+
+    private byte[] compressedBytes = new byte[0];
+    private int compressedLength;
+
+    /**
+     * Compresses a block. If the compressed block is not smaller than the original one,
+     * the block is not compressed and NONE is returned.
+     *
+     * @return The compression that must be written in the block.
+     */
+    CompressionEnum compress(CompressionEnum compression, byte[] block, int length) {
+        switch (compression) {
+            case DEFLATE -> compressedLength = deflate(block, length);
+            case LZ -> {
+                ensureCapacity(LZBlockCodec.maxCompressedLength(length));
+                compressedLength = lzCodec.compress(block, length, compressedBytes);
+            }
+            default -> {
+                return CompressionEnum.NONE;
+            }
+        }
+
+        return compressedLength < length ? compression : CompressionEnum.NONE;
+    }
+
+    /**
+     * The bytes written by the last call to compress, valid up to getCompressedLength().
+     */
+    byte[] getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    int getCompressedLength() {
+        return compressedLength;
+    }
+
+    /**
+     * Decompresses a block written with the given compression.
+     *
+     * @throws IOException If the block is corrupted.
+     */
+    void decompress(CompressionEnum compression,
+                    byte[] source,
+                    int length,
+                    byte[] destination,
+                    int uncompressedLength) throws IOException {
+
+        switch (compression) {
+            case NONE -> {
+                if (length != uncompressedLength) {
+                    throw new IOException("Corrupted block: unexpected length");
+                }
+                System.arraycopy(source, 0, destination, 0, length);
+            }
+            case DEFLATE -> inflate(source, length, destination, uncompressedLength);
+            case LZ -> lzCodec.decompress(source, length, destination, uncompressedLength);
+        }
+    }
+
+    /**
+     * Releases the native memory used by the Deflater and the Inflater.
+     */
+    void end() {
+        deflater.end();
+        inflater.end();
+    }
+
+    private int deflate(byte[] block, int length) {
+        deflater.reset();
+        deflater.setInput(block, 0, length);
+        deflater.finish();
+
+        ensureCapacity(length + 64);
+
+        int written = 0;
+        while (!deflater.finished()) {
+            if (written == compressedBytes.length) {
+                compressedBytes = Arrays.copyOf(compressedBytes, compressedBytes.length * 2);
+            }
+            written += deflater.deflate(compressedBytes, written, compressedBytes.length - written);
+        }
+
+        return written;
+    }
+
+    private void inflate(byte[] source, int length, byte[] destination, int uncompressedLength) throws IOException {
+        inflater.reset();
+        inflater.setInput(source, 0, length);
+
+        try {
+            int inflated = inflater.inflate(destination, 0, uncompressedLength);
+
+            if (inflated != uncompressedLength || !inflater.finished()) {
+                throw new IOException("Corrupted deflate block: unexpected length");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted deflate block", e);
+        }
+    }
+
+    private void ensureCapacity(int length) {
+        if (compressedBytes.length < length) {
+            compressedBytes = new byte[length];
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.study.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a gzip file made of several independent gzip members, one per block of BLOCK_SIZE bytes.
+ *
+ * Any gzip tool (and GZIPInputStream) reads the members one after the other as a single file,
+ * but each block can also be decompressed on its own, and each one carries its own CRC32.
+ *
+ * Reference: https://www.rfc-editor.org/rfc/rfc1952#section-2.2
+ * Reference: https://docs.oracle.com/javase/8/docs/api/java/util/zip/GZIPOutputStream.html
+ */
+class BlockGZIPOutputStream extends OutputStream {
+
+    static final int BLOCK_SIZE = 256 * 1024;
+
+    private final OutputStream output;
+    private final byte[] block = new byte[BLOCK_SIZE];
+    private int blockSize;
+
+    private final ByteArrayOutputStream compressedBlock = new ByteArrayOutputStream(BLOCK_SIZE / 4);
+
+    BlockGZIPOutputStream(OutputStream output) {
+        this.output = output;
+    }
+
+    @Override
+    public void write(int value) throws IOException {
+        if (blockSize == BLOCK_SIZE) {
+            flushBlock();
+        }
+        block[blockSize++] = (byte) value;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (blockSize == BLOCK_SIZE) {
+                flushBlock();
+            }
+
+            int bytesToCopy = Math.min(length, BLOCK_SIZE - blockSize);
+            System.arraycopy(bytes, offset, block, blockSize, bytesToCopy);
+
+            blockSize += bytesToCopy;
+            offset += bytesToCopy;
+            length -= bytesToCopy;
+        }
+    }
+
+    /**
+     * Does not close the current block, a block is only written when it is full or when the stream is closed.
+     */
+    @Override
+    public void flush() throws IOException {
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBlock();
+        } finally {
+            output.close();
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (blockSize == 0) {
+            return;
+        }
+
+        compressedBlock.reset();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressedBlock)) {
+            gzip.write(block, 0, blockSize);
+        }
+
+        compressedBlock.writeTo(output);
+        blockSize = 0;
+    }
+}
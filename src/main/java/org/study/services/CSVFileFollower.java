@@ -0,0 +1,249 @@
+package org.study.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Follows text files that keep growing (like "tail -f"), giving the lines appended to them to a consumer.
+ *
+ * For every file, the follower remembers the offset (in bytes) up to where the file was already read,
+ * so only the new bytes are read each time the file grows. A line is given to the consumer only once
+ * it is complete (ends with a new line), the start of a line still being written waits for the rest.
+ *
+ * Step 1: A WatchService tells when the directories of the files change, so the files are read right after
+ *         they are written.
+ * Step 2: Some file systems do not send events (or send them late), so the size of the files is also checked
+ *         every POLL_INTERVAL_MILLIS. Checking the size does not read the file.
+ * Step 3: If a file becomes smaller than the offset, it was replaced or truncated, and it is read again from the start.
+ *
+ * The files are read, and the consumer is called, on a background thread. The files are always read in the
+ * order they were given, so the consumer gets the new lines of the first file before the ones of the second.
+ * Compressed (gzip) files cannot be followed.
+ *
+ * Reference: https://docs.oracle.com/javase/tutorial/essential/io/notification.html
+ * Reference: https://man7.org/linux/man-pages/man1/tail.1.html
+ */
+public class CSVFileFollower implements Closeable {
+
+    // Maximum time between a change of a file and the moment it is read, if the watch service missed it
+    static final long POLL_INTERVAL_MILLIS = 500;
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final List<FollowedFile> files = new ArrayList<>();
+    private final WatchService watchService;
+    private final BiConsumer<String, List<String>> newLinesConsumer;
+    private final BiConsumer<String, IOException> errorConsumer;
+    private final Thread thread;
+
+    private volatile boolean closed;
+
+    /**
+     * @param paths            The files to follow, in the order they must be read.
+     * @param fromBeginning    True to give the lines already in the files too, false to give only the new ones.
+     * @param newLinesConsumer Receives the path of a file and its new lines.
+     * @param errorConsumer    Receives the path of a file and the error that happened while reading it.
+     *                         The file is read again on the next change.
+     */
+    CSVFileFollower(List<String> paths,
+                    boolean fromBeginning,
+                    BiConsumer<String, List<String>> newLinesConsumer,
+                    BiConsumer<String, IOException> errorConsumer) throws IOException {
+
+        if (paths.isEmpty()) {
+            throw new IllegalArgumentException("There must be at least one file to follow");
+        }
+
+        this.newLinesConsumer = newLinesConsumer;
+        this.errorConsumer = errorConsumer;
+        this.watchService = FileSystems.getDefault().newWatchService();
+
+        try {
+            Set<Path> directories = new HashSet<>();
+
+            for (String path : paths) {
+                Path file = Path.of(path).toAbsolutePath();
+
+                if (!Files.isRegularFile(file)) {
+                    throw new IOException(String.format("File %s not found", path));
+                }
+
+                files.add(new FollowedFile(path, file, fromBeginning ? 0 : Files.size(file)));
+
+                // Step 1: the events are sent for the directory, not for the file
+                if (directories.add(file.getParent())) {
+                    file.getParent().register(
+                        watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            watchService.close();
+            throw e;
+        }
+
+        this.thread = new Thread(this::run, "csv-file-follower");
+        // A daemon thread does not keep the program alive
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Stops following the files. The consumer may still be running with the last lines read:
+     * close does not wait for it, because the consumer may be waiting for a lock held by the caller of close.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        watchService.close();
+    }
+
+    private void run() {
+        // The lines already in the files, when following from the beginning
+        readNewLines();
+
+        while (!closed) {
+            try {
+                // Step 2: wake up at least every POLL_INTERVAL_MILLIS
+                WatchKey key = watchService.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+                if (key != null) {
+                    // Any event means the files are checked, the events themselves are not needed
+                    key.pollEvents();
+                    key.reset();
+                }
+            } catch (ClosedWatchServiceException e) {
+                return;
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            readNewLines();
+        }
+    }
+
+    private void readNewLines() {
+        for (FollowedFile file : files) {
+            if (closed) {
+                return;
+            }
+
+            try {
+                List<String> lines = file.readNewLines();
+
+                if (!lines.isEmpty()) {
+                    newLinesConsumer.accept(file.path, lines);
+                }
+            } catch (IOException e) {
+                errorConsumer.accept(file.path, e);
+            }
+        }
+    }
+
+    /**
+     * A followed file and how much of it was already read.
+     */
+    private static final class FollowedFile {
+
+        private final String path;
+        private final Path file;
+
+        // Bytes of the file already read, including the bytes of the incomplete line
+        private long offset;
+
+        // The last line read, while it does not end with a new line yet
+        private final ByteArrayOutputStream incompleteLine = new ByteArrayOutputStream();
+
+        private FollowedFile(String path, Path file, long offset) {
+            this.path = path;
+            this.file = file;
+            this.offset = offset;
+        }
+
+        private List<String> readNewLines() throws IOException {
+            List<String> lines = new ArrayList<>();
+
+            if (!Files.isRegularFile(file)) {
+                // It may be being replaced, it is read when it is created again
+                return lines;
+            }
+
+            long size = Files.size(file);
+
+            // Step 3
+            if (size < offset) {
+                offset = 0;
+                incompleteLine.reset();
+            }
+
+            if (size == offset) {
+                return lines;
+            }
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+                channel.position(offset);
+
+                int read;
+                while ((read = channel.read(buffer)) > 0) {
+                    offset += read;
+                    buffer.flip();
+                    splitLines(buffer, lines);
+                    buffer.clear();
+                }
+            }
+
+            return lines;
+        }
+
+        private void splitLines(ByteBuffer buffer, List<String> lines) {
+            byte[] bytes = buffer.array();
+            int start = 0;
+            int limit = buffer.limit();
+
+            for (int i = 0; i < limit; i++) {
+                if (bytes[i] != '\n') {
+                    continue;
+                }
+
+                incompleteLine.write(bytes, start, i - start);
+                start = i + 1;
+
+                // The bytes are decoded once the line is complete, so a character split between two reads is kept whole
+                String line = incompleteLine.toString(StandardCharsets.UTF_8);
+                incompleteLine.reset();
+
+                if (line.endsWith("\r")) {
+                    line = line.substring(0, line.length() - 1);
+                }
+                if (!line.isEmpty()) {
+                    lines.add(line);
+                }
+            }
+
+            incompleteLine.write(bytes, start, limit - start);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.study.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Writes CSV records field by field into a Writer (usually a BufferedWriter).
+ *
+ * Each record is encoded directly into the writer, so there is no need to build the
+ * whole line (or the whole list of lines) before writing it.
+ * Numbers and UUIDs are encoded into a small char array that is reused for every field.
+ *
+ * Reference: https://docs.oracle.com/javase/8/docs/api/java/io/BufferedWriter.html
+ */
+class CSVRecordWriter implements Closeable {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    // Enough for the 36 characters of a UUID and for the 11 characters of Integer.MIN_VALUE
+    private final char[] fieldBuffer = new char[36];
+
+    private final Writer writer;
+    private final String delimiter;
+    private final String lineSeparator;
+
+    private boolean isFirstField = true;
+
+    CSVRecordWriter(Writer writer, String delimiter) {
+        this.writer = writer;
+        this.delimiter = delimiter;
+        // Files.write(path, lines) uses the line separator of the system, we keep the same behaviour
+        this.lineSeparator = System.lineSeparator();
+    }
+
+    CSVRecordWriter writeField(String value) throws IOException {
+        writeDelimiterIfNeeded();
+        writer.write(value);
+        return this;
+    }
+
+    CSVRecordWriter writeField(int value) throws IOException {
+        writeDelimiterIfNeeded();
+
+        int position = encodeInt(value, fieldBuffer);
+        writer.write(fieldBuffer, position, fieldBuffer.length - position);
+        return this;
+    }
+
+    CSVRecordWriter writeField(UUID value) throws IOException {
+        writeDelimiterIfNeeded();
+        writeUUID(value);
+        return this;
+    }
+
+    /**
+     * Writes a set of ids with the format {id1,id2,id3}.
+     */
+    CSVRecordWriter writeUUIDSet(Collection<UUID> ids) throws IOException {
+        writeDelimiterIfNeeded();
+        writer.write('{');
+
+        boolean isFirstId = true;
+        for (UUID id : ids) {
+            if (!isFirstId) {
+                writer.write(',');
+            }
+            writeUUID(id);
+            isFirstId = false;
+        }
+
+        writer.write('}');
+        return this;
+    }
+
+    /**
+     * Finishes the current record, the next field will start a new line.
+     */
+    void endRecord() throws IOException {
+        writer.write(lineSeparator);
+        isFirstField = true;
+    }
+
+    /**
+     * Writes an already built line, i.e. a line of a report.
+     */
+    void writeLine(String line) throws IOException {
+        writer.write(line);
+        endRecord();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void writeDelimiterIfNeeded() throws IOException {
+        if (!isFirstField) {
+            writer.write(delimiter);
+        }
+        isFirstField = false;
+    }
+
+    private void writeUUID(UUID id) throws IOException {
+        encodeUUID(id, fieldBuffer);
+        writer.write(fieldBuffer, 0, 36);
+    }
+
+    /**
+     * Encodes the digits of a number at the end of a buffer (of at least 11 characters).
+     * Also used by NDJSONWriter.
+     *
+     * @return The position of the first character of the number in the buffer.
+     */
+    static int encodeInt(int value, char[] buffer) {
+        // Digits are written from the end of the buffer to the beginning.
+        // We work with the negative value so Integer.MIN_VALUE does not overflow.
+        int position = buffer.length;
+        boolean negative = value < 0;
+        int remaining = negative ? value : -value;
+
+        do {
+            buffer[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+
+        if (negative) {
+            buffer[--position] = '-';
+        }
+
+        return position;
+    }
+
+    /**
+     * Encodes the canonical form of a UUID (8-4-4-4-12 hexadecimal digits) into the first 36 characters of a buffer.
+     * Also used by NDJSONWriter.
+     */
+    static void encodeUUID(UUID id, char[] buffer) {
+        encodeHex(id.getMostSignificantBits() >>> 32, buffer, 0, 8);
+        buffer[8] = '-';
+        encodeHex(id.getMostSignificantBits() >>> 16, buffer, 9, 4);
+        buffer[13] = '-';
+        encodeHex(id.getMostSignificantBits(), buffer, 14, 4);
+        buffer[18] = '-';
+        encodeHex(id.getLeastSignificantBits() >>> 48, buffer, 19, 4);
+        buffer[23] = '-';
+        encodeHex(id.getLeastSignificantBits(), buffer, 24, 12);
+    }
+
+    private static void encodeHex(long value, char[] buffer, int offset, int numberOfDigits) {
+        for (int i = offset + numberOfDigits - 1; i >= offset; i--) {
+            buffer[i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,542 @@
+package org.study.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+import org.study.model.EpochDays;
+import org.study.services.enums.ColumnEncodingEnum;
+
+/**
+ * Reads the columns of a columnar file, see ColumnarFormat.
+ *
+ * Only the footer is read when the file is opened. A scan reads only the column chunks of the requested columns,
+ * and skips the chunks whose statistics show that no row can match the predicate.
+ * The columns used by the predicate are read first, the other columns of a chunk are only read if some row matched.
+ *
+ * The reader can be used from several threads at the same time.
+ *
+ * Reference: https://docs.oracle.com/javase/8/docs/api/java/nio/channels/FileChannel.html#read-java.nio.ByteBuffer-long-
+ * Reference: https://en.wikipedia.org/wiki/Block_Range_Index
+ */
+public class ColumnarFileReader implements Closeable {
+
+    private final FileChannel channel;
+    private final byte tableType;
+
+    private final List<String> columnNames;
+    private final Map<String, Integer> columnPositions = new HashMap<>();
+    private final ColumnEncodingEnum[] encodings;
+
+    private final int numberOfRows;
+    private final int[] rowsInChunk;
+
+    // The column chunks of every chunk: columnChunks[chunk][column position]
+    private final ColumnChunk[][] columnChunks;
+
+    ColumnarFileReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            ByteBuffer header = readFully(0, Integer.BYTES + Short.BYTES + Byte.BYTES);
+            if (header.getInt() != ColumnarFormat.MAGIC) {
+                throw new IOException("The file is not a columnar file");
+            }
+
+            int version = header.getShort() & 0xFFFF;
+            if (version > ColumnarFormat.VERSION) {
+                throw new IOException(String.format(
+                    "Columnar file version %d is not supported, the latest supported version is %d",
+                    version, ColumnarFormat.VERSION));
+            }
+            this.tableType = header.get();
+
+            ByteBuffer trailer = readFully(channel.size() - ColumnarFormat.TRAILER_SIZE, ColumnarFormat.TRAILER_SIZE);
+            long footerOffset = trailer.getLong();
+
+            if (trailer.getInt() != ColumnarFormat.MAGIC) {
+                throw new IOException("Corrupted columnar file: the file is truncated");
+            }
+
+            long footerLength = channel.size() - ColumnarFormat.TRAILER_SIZE - footerOffset;
+            if (footerOffset < 0 || footerLength < 0 || footerLength > Integer.MAX_VALUE) {
+                throw new IOException("Corrupted columnar file: invalid footer offset");
+            }
+
+            ByteBuffer footer = readFully(footerOffset, (int) footerLength);
+
+            // Step 1: The columns
+            int numberOfColumns = footer.getInt();
+            List<String> names = new ArrayList<>(numberOfColumns);
+            this.encodings = new ColumnEncodingEnum[numberOfColumns];
+
+            for (int i = 0; i < numberOfColumns; i++) {
+                String name = readFooterString(footer, version);
+                names.add(name);
+                columnPositions.put(name, i);
+                encodings[i] = ColumnEncodingEnum.fromCode(footer.get());
+            }
+            this.columnNames = Collections.unmodifiableList(names);
+
+            // Step 2: The chunks, with the position and statistics of each column chunk
+            this.numberOfRows = footer.getInt();
+            int numberOfChunks = footer.getInt();
+            this.rowsInChunk = new int[numberOfChunks];
+            this.columnChunks = new ColumnChunk[numberOfChunks][numberOfColumns];
+
+            for (int chunk = 0; chunk < numberOfChunks; chunk++) {
+                rowsInChunk[chunk] = footer.getInt();
+
+                for (int column = 0; column < numberOfColumns; column++) {
+                    columnChunks[chunk][column] = readColumnChunk(footer, encodings[column], version);
+                }
+            }
+
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return True if the file was written by FileService.saveAnimalsToColumnarFile.
+     */
+    public boolean isAnimalsFile() {
+        return tableType == ColumnarFormat.ANIMALS_TABLE;
+    }
+
+    /**
+     * @return True if the file was written by FileService.saveVaccinesToColumnarFile.
+     */
+    public boolean isVaccinesFile() {
+        return tableType == ColumnarFormat.VACCINES_TABLE;
+    }
+
+    /**
+     * @return True if the file was written by FileService.saveOwnersToColumnarFile.
+     */
+    public boolean isOwnersFile() {
+        return tableType == ColumnarFormat.OWNERS_TABLE;
+    }
+
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    public int getNumberOfRows() {
+        return numberOfRows;
+    }
+
+    public int getNumberOfChunks() {
+        return rowsInChunk.length;
+    }
+
+    /**
+     * Counts the chunks that a scan with the predicate would read, the other ones are skipped by their statistics.
+     *
+     * @param predicate The predicate of the scan.
+     * @return The number of chunks whose statistics do not rule out the predicate.
+     * @throws IllegalArgumentException If the predicate uses a column that is not in the file or has another type.
+     */
+    public int countChunksToRead(ColumnarPredicate predicate) {
+        predicate.validate(this::getEncoding);
+
+        int chunksToRead = 0;
+        for (int chunk = 0; chunk < rowsInChunk.length; chunk++) {
+            if (mightMatch(predicate, chunk)) {
+                chunksToRead++;
+            }
+        }
+        return chunksToRead;
+    }
+
+    /**
+     * Reads all the rows of some columns.
+     *
+     * @see #scan(List, ColumnarPredicate, Consumer)
+     */
+    public int scan(List<String> columns, Consumer<Row> rowConsumer) throws IOException {
+        return scan(columns, ColumnarPredicate.all(), rowConsumer);
+    }
+
+    /**
+     * Reads the rows that match a predicate, only reading the requested columns and the columns of the predicate.
+     *
+     * The same Row object is handed to the consumer for every row, with the values of the next row each time,
+     * so the consumer must copy the values it wants to keep.
+     *
+     * @param columns     The columns that the consumer reads.
+     * @param predicate   The rows handed to the consumer (use ColumnarPredicate.all() for all the rows).
+     * @param rowConsumer Receives the matching rows, in the order they were written.
+     * @return The number of matching rows.
+     * @throws IOException If an I/O error occurs while reading the file, or a column chunk is corrupted.
+     * @throws IllegalArgumentException If a column is not in the file, or the predicate uses a column of another type.
+     */
+    public int scan(List<String> columns, ColumnarPredicate predicate, Consumer<Row> rowConsumer) throws IOException {
+        for (String column : columns) {
+            getEncoding(column);
+        }
+        predicate.validate(this::getEncoding);
+
+        Set<String> predicateColumns = new LinkedHashSet<>();
+        predicate.addColumns(predicateColumns);
+
+        int matchingRows = 0;
+
+        for (int chunk = 0; chunk < rowsInChunk.length; chunk++) {
+            // Step 1: Skip the chunk if the statistics rule out the predicate
+            if (!mightMatch(predicate, chunk)) {
+                continue;
+            }
+
+            // Step 2: Read only the columns of the predicate and find the matching rows
+            Row row = new Row();
+            for (String column : predicateColumns) {
+                row.columns.put(column, readColumn(chunk, column));
+            }
+
+            boolean[] matches = new boolean[rowsInChunk[chunk]];
+            int matchesInChunk = 0;
+
+            for (int i = 0; i < matches.length; i++) {
+                row.position = i;
+                matches[i] = predicate.matches(row);
+                if (matches[i]) {
+                    matchesInChunk++;
+                }
+            }
+
+            if (matchesInChunk == 0) {
+                continue;
+            }
+
+            // Step 3: Read the other columns, now that some row matched
+            for (String column : columns) {
+                if (!row.columns.containsKey(column)) {
+                    row.columns.put(column, readColumn(chunk, column));
+                }
+            }
+
+            for (int i = 0; i < matches.length; i++) {
+                if (matches[i]) {
+                    row.position = i;
+                    rowConsumer.accept(row);
+                }
+            }
+            matchingRows += matchesInChunk;
+        }
+
+        return matchingRows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    ColumnEncodingEnum getEncoding(String column) {
+        Integer position = columnPositions.get(column);
+
+        if (position == null) {
+            throw new IllegalArgumentException("The file has no column " + column);
+        }
+        return encodings[position];
+    }
+
+    private boolean mightMatch(ColumnarPredicate predicate, int chunk) {
+        return predicate.mightMatch(column -> columnChunks[chunk][columnPositions.get(column)]);
+    }
+
+    private static ColumnChunk readColumnChunk(ByteBuffer footer, ColumnEncodingEnum encoding, int version)
+        throws IOException {
+        ColumnChunk columnChunk = new ColumnChunk(footer.getLong(), footer.getInt(), footer.getInt());
+
+        if (footer.get() == 0) {
+            return columnChunk;
+        }
+
+        columnChunk.hasStatistics = true;
+
+        if (encoding.isInt()) {
+            columnChunk.minInt = footer.getInt();
+            columnChunk.maxInt = footer.getInt();
+        } else if (encoding == ColumnEncodingEnum.DICTIONARY) {
+            columnChunk.minString = readFooterString(footer, version);
+            columnChunk.maxString = readFooterString(footer, version);
+        } else if (encoding == ColumnEncodingEnum.UUID) {
+            columnChunk.minUUID = new UUID(footer.getLong(), footer.getLong());
+            columnChunk.maxUUID = new UUID(footer.getLong(), footer.getLong());
+        } else {
+            throw new IOException("Corrupted columnar file: statistics of a column without statistics");
+        }
+
+        return columnChunk;
+    }
+
+    /**
+     * Reads a column chunk, checks its checksum and decodes its values.
+     */
+    private Column readColumn(int chunk, String columnName) throws IOException {
+        int position = columnPositions.get(columnName);
+        ColumnChunk columnChunk = columnChunks[chunk][position];
+        ColumnEncodingEnum encoding = encodings[position];
+        int rows = rowsInChunk[chunk];
+
+        ByteBuffer bytes = readFully(columnChunk.offset, columnChunk.length);
+
+        CRC32C checksum = new CRC32C();
+        checksum.update(bytes.array(), 0, columnChunk.length);
+        if ((int) checksum.getValue() != columnChunk.checksum) {
+            throw new IOException(String.format(
+                "Corrupted columnar file: wrong checksum of the column %s in chunk %d", columnName, chunk));
+        }
+
+        Column column = new Column();
+
+        try {
+            switch (encoding) {
+                case UUID -> {
+                    column.uuids = new long[2 * rows];
+                    for (int i = 0; i < column.uuids.length; i++) {
+                        column.uuids[i] = bytes.getLong();
+                    }
+                }
+                case VAR_INT -> {
+                    column.ints = new int[rows];
+                    for (int i = 0; i < rows; i++) {
+                        column.ints[i] = readZigZagVarInt(bytes);
+                    }
+                }
+                case DELTA -> {
+                    column.ints = new int[rows];
+                    int previous = 0;
+                    for (int i = 0; i < rows; i++) {
+                        previous += readZigZagVarInt(bytes);
+                        column.ints[i] = previous;
+                    }
+                }
+                case PLAIN_STRING -> {
+                    column.strings = new String[rows];
+                    for (int i = 0; i < rows; i++) {
+                        column.strings[i] = readString(bytes);
+                    }
+                }
+                case DICTIONARY -> {
+                    // Every value is the same String object as its dictionary entry
+                    String[] dictionary = new String[readVarInt(bytes)];
+                    for (int i = 0; i < dictionary.length; i++) {
+                        dictionary[i] = readString(bytes);
+                    }
+
+                    column.strings = new String[rows];
+                    for (int i = 0; i < rows; i++) {
+                        column.strings[i] = dictionary[readVarInt(bytes)];
+                    }
+                }
+                case UUID_LIST -> {
+                    column.uuidLists = new ArrayList<>(rows);
+                    for (int i = 0; i < rows; i++) {
+                        int numberOfIds = readVarInt(bytes);
+                        List<UUID> ids = new ArrayList<>(numberOfIds);
+
+                        for (int j = 0; j < numberOfIds; j++) {
+                            ids.add(new UUID(bytes.getLong(), bytes.getLong()));
+                        }
+                        column.uuidLists.add(Collections.unmodifiableList(ids));
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // i.e. a dictionary reference out of bounds, or a chunk shorter than its values
+            throw new IOException(String.format(
+                "Corrupted columnar file: invalid values of the column %s in chunk %d", columnName, chunk), e);
+        }
+
+        return column;
+    }
+
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        if (position < 0 || length < 0 || position + length > channel.size()) {
+            throw new EOFException("Corrupted columnar file: read outside of the file");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Corrupted columnar file: the file is truncated");
+            }
+        }
+
+        return buffer.flip();
+    }
+
+    private static int readVarInt(ByteBuffer buffer) throws IOException {
+        int result = 0;
+
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte current = buffer.get();
+            result |= (current & 0x7F) << shift;
+
+            if ((current & 0x80) == 0) {
+                return result;
+            }
+        }
+
+        throw new IOException("Corrupted columnar file: variable length int too long");
+    }
+
+    private static int readZigZagVarInt(ByteBuffer buffer) throws IOException {
+        int value = readVarInt(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static String readString(ByteBuffer buffer) throws IOException {
+        int length = readVarInt(buffer);
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static String readFooterString(ByteBuffer footer, int version) throws IOException {
+        if (version >= ColumnarFormat.UTF_8_FOOTER_STRINGS_VERSION) {
+            return readString(footer);
+        }
+
+        // Version 1 wrote the strings with DataOutputStream.writeUTF: modified UTF-8 prefixed by an unsigned short
+        int length = Short.BYTES + (footer.getShort(footer.position()) & 0xFFFF);
+        String value = DataInputStream.readUTF(
+            new DataInputStream(new ByteArrayInputStream(footer.array(), footer.position(), length)));
+        footer.position(footer.position() + length);
+        return value;
+    }
+
+    /**
+     * The position, checksum and statistics of the values of a column in a chunk.
+     * Used by ColumnarPredicate to decide if the chunk can have matching rows.
+     */
+    static final class ColumnChunk {
+
+        private final long offset;
+        private final int length;
+        private final int checksum;
+
+        boolean hasStatistics;
+        int minInt;
+        int maxInt;
+        String minString;
+        String maxString;
+        UUID minUUID;
+        UUID maxUUID;
+
+        private ColumnChunk(long offset, int length, int checksum) {
+            this.offset = offset;
+            this.length = length;
+            this.checksum = checksum;
+        }
+    }
+
+    /**
+     * The decoded values of a column in a chunk, only one of the arrays is used, depending on the encoding.
+     */
+    private static final class Column {
+
+        private int[] ints;
+        private String[] strings;
+        // The most and the least significant bits of every UUID, one after the other
+        private long[] uuids;
+        private List<List<UUID>> uuidLists;
+    }
+
+    /**
+     * A row of a scan: gives the values of the row in the columns requested to the scan.
+     */
+    public static final class Row {
+
+        private final Map<String, Column> columns = new HashMap<>();
+        private int position;
+
+        private Row() {
+        }
+
+        /**
+         * @return The value of a VAR_INT or DELTA column (dates are epoch days, see EpochDays).
+         */
+        public int getInt(String column) {
+            Column values = getColumn(column);
+            if (values.ints == null) {
+                throw new IllegalArgumentException("The column " + column + " is not an int column");
+            }
+            return values.ints[position];
+        }
+
+        /**
+         * @return The value of a date column (a DELTA column of epoch days).
+         */
+        public LocalDate getDate(String column) {
+            return EpochDays.toLocalDate(getInt(column));
+        }
+
+        public String getString(String column) {
+            Column values = getColumn(column);
+            if (values.strings == null) {
+                throw new IllegalArgumentException("The column " + column + " is not a string column");
+            }
+            return values.strings[position];
+        }
+
+        public UUID getUUID(String column) {
+            Column values = getColumn(column);
+            if (values.uuids == null) {
+                throw new IllegalArgumentException("The column " + column + " is not a UUID column");
+            }
+            return new UUID(values.uuids[2 * position], values.uuids[2 * position + 1]);
+        }
+
+        /**
+         * @return The ids of a UUID_LIST column, the list cannot be modified.
+         */
+        public List<UUID> getUUIDs(String column) {
+            Column values = getColumn(column);
+            if (values.uuidLists == null) {
+                throw new IllegalArgumentException("The column " + column + " is not a UUID list column");
+            }
+            return values.uuidLists.get(position);
+        }
+
+        /**
+         * Compares the UUID of a column with an id without creating a UUID object.
+         */
+        boolean uuidEquals(String column, UUID id) {
+            Column values = getColumn(column);
+            return values.uuids[2 * position] == id.getMostSignificantBits()
+                && values.uuids[2 * position + 1] == id.getLeastSignificantBits();
+        }
+
+        private Column getColumn(String column) {
+            Column values = columns.get(column);
+
+            if (values == null) {
+                throw new IllegalArgumentException("The column " + column + " was not requested to the scan");
+            }
+            return values;
+        }
+    }
+}
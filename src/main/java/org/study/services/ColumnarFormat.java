@@ -0,0 +1,63 @@
+package org.study.services;
+
+import java.util.UUID;
+
+/**
+ * Constants of the columnar format, a read-only export of animals, vaccines or owners for analytical queries.
+ *
+ * The rows are divided into chunks of ROWS_PER_CHUNK rows, and every chunk stores each column on its own,
+ * so a query that reads one or two columns only reads the bytes of those columns:
+ *
+ *  MAGIC (int) VERSION (short) TABLE TYPE (byte)
+ *  COLUMN CHUNKS: the values of chunk 0 column 0, chunk 0 column 1, ..., chunk 1 column 0, ...
+ *  FOOTER: NUMBER OF COLUMNS (int) (NAME (string) ENCODING (byte))*
+ *          NUMBER OF ROWS (int) NUMBER OF CHUNKS (int)
+ *          for every chunk: NUMBER OF ROWS (int)
+ *              for every column: OFFSET (long) LENGTH (int) CRC32C (int) HAS STATISTICS (byte) STATISTICS
+ *  TRAILER: FOOTER OFFSET (long) MAGIC (int)
+ *
+ * The values of a column chunk are encoded as described in ColumnEncodingEnum. The statistics are the minimum
+ * and the maximum value of the column chunk: two ints for int columns, two strings for dictionary columns
+ * and two UUIDs (four longs) for UUID columns. Other columns have no statistics.
+ * The strings of the footer are written like the strings of the column chunks: UTF-8 bytes prefixed by their length
+ * (a variable length int). Version 1 files wrote them with DataOutputStream.writeUTF, in modified UTF-8.
+ * A reader compares a predicate with the statistics to skip the chunks that cannot have matching rows.
+ *
+ * Reference: https://parquet.apache.org/docs/file-format/
+ * Reference: https://en.wikipedia.org/wiki/Column-oriented_DBMS
+ */
+final class ColumnarFormat {
+
+    // "COLS" in ASCII
+    static final int MAGIC = 0x434F4C53;
+
+    static final int VERSION = 2;
+
+    // First version with the strings of the footer in UTF-8
+    static final int UTF_8_FOOTER_STRINGS_VERSION = 2;
+
+    static final byte ANIMALS_TABLE = 1;
+    static final byte VACCINES_TABLE = 2;
+    static final byte OWNERS_TABLE = 3;
+
+    static final int ROWS_PER_CHUNK = 16 * 1024;
+
+    static final int TRAILER_SIZE = Long.BYTES + Integer.BYTES;
+
+    private ColumnarFormat() {
+    }
+
+    /**
+     * The order of the UUID statistics: the most significant bits first, compared as signed longs.
+     */
+    static int compare(UUID id1, UUID id2) {
+        return compare(id1.getMostSignificantBits(), id1.getLeastSignificantBits(),
+            id2.getMostSignificantBits(), id2.getLeastSignificantBits());
+    }
+
+    static int compare(long mostSignificantBits1, long leastSignificantBits1,
+                       long mostSignificantBits2, long leastSignificantBits2) {
+        int comparison = Long.compare(mostSignificantBits1, mostSignificantBits2);
+        return comparison != 0 ? comparison : Long.compare(leastSignificantBits1, leastSignificantBits2);
+    }
+}
@@ -0,0 +1,269 @@
+package org.study.services;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import org.study.model.EpochDays;
+import org.study.services.enums.ColumnEncodingEnum;
+
+/**
+ * The rows read by a scan of a columnar file (see ColumnarFileReader.scan).
+ *
+ * Besides checking each row, a predicate checks the statistics of every chunk (the minimum and maximum value
+ * of each column), so the reader skips the chunks that cannot have matching rows without reading them.
+ */
+public abstract class ColumnarPredicate {
+
+    private static final ColumnarPredicate ALL = new All();
+
+    ColumnarPredicate() {
+    }
+
+    /**
+     * @return A predicate that matches every row.
+     */
+    public static ColumnarPredicate all() {
+        return ALL;
+    }
+
+    /**
+     * @param column The name of a VAR_INT or DELTA column.
+     * @param min    The minimum value, included.
+     * @param max    The maximum value, included.
+     * @return A predicate that matches the rows with a value between min and max.
+     */
+    public static ColumnarPredicate intBetween(String column, int min, int max) {
+        return new IntBetween(column, min, max);
+    }
+
+    /**
+     * @param column The name of a date column (a DELTA column of epoch days).
+     * @param from   The first date, included.
+     * @param to     The last date, included.
+     * @return A predicate that matches the rows with a date between from and to.
+     * @throws IllegalArgumentException If a date is null.
+     */
+    public static ColumnarPredicate dateBetween(String column, LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Dates cannot be null");
+        }
+        return new IntBetween(column, EpochDays.fromLocalDate(from), EpochDays.fromLocalDate(to));
+    }
+
+    /**
+     * @param column The name of a PLAIN_STRING or DICTIONARY column.
+     * @param value  The value.
+     * @return A predicate that matches the rows with that value.
+     * @throws IllegalArgumentException If the value is null.
+     */
+    public static ColumnarPredicate stringEquals(String column, String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value cannot be null");
+        }
+        return new StringEquals(column, value);
+    }
+
+    /**
+     * @param column The name of a UUID column.
+     * @param id     The id.
+     * @return A predicate that matches the rows with that id.
+     * @throws IllegalArgumentException If the id is null.
+     */
+    public static ColumnarPredicate uuidEquals(String column, UUID id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Id cannot be null");
+        }
+        return new UUIDEquals(column, id);
+    }
+
+    /**
+     * @return A predicate that matches the rows matched by both predicates.
+     */
+    public ColumnarPredicate and(ColumnarPredicate other) {
+        if (other == null) {
+            throw new IllegalArgumentException("Predicate cannot be null");
+        }
+        return new And(this, other);
+    }
+
+    /**
+     * Adds the columns read by the predicate.
+     */
+    abstract void addColumns(Set<String> columns);
+
+    /**
+     * @throws IllegalArgumentException If a column is not in the file, or its values have another type.
+     */
+    abstract void validate(Function<String, ColumnEncodingEnum> encodings);
+
+    /**
+     * @param columnChunks The statistics of each column in the chunk.
+     * @return False if no row of the chunk can match.
+     */
+    abstract boolean mightMatch(Function<String, ColumnarFileReader.ColumnChunk> columnChunks);
+
+    abstract boolean matches(ColumnarFileReader.Row row);
+
+    private static final class All extends ColumnarPredicate {
+
+        @Override
+        void addColumns(Set<String> columns) {
+        }
+
+        @Override
+        void validate(Function<String, ColumnEncodingEnum> encodings) {
+        }
+
+        @Override
+        boolean mightMatch(Function<String, ColumnarFileReader.ColumnChunk> columnChunks) {
+            return true;
+        }
+
+        @Override
+        boolean matches(ColumnarFileReader.Row row) {
+            return true;
+        }
+    }
+
+    private static final class IntBetween extends ColumnarPredicate {
+
+        private final String column;
+        private final int min;
+        private final int max;
+
+        private IntBetween(String column, int min, int max) {
+            this.column = column;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        void addColumns(Set<String> columns) {
+            columns.add(column);
+        }
+
+        @Override
+        void validate(Function<String, ColumnEncodingEnum> encodings) {
+            if (!encodings.apply(column).isInt()) {
+                throw new IllegalArgumentException("The column " + column + " is not an int column");
+            }
+        }
+
+        @Override
+        boolean mightMatch(Function<String, ColumnarFileReader.ColumnChunk> columnChunks) {
+            ColumnarFileReader.ColumnChunk columnChunk = columnChunks.apply(column);
+            return !columnChunk.hasStatistics || (columnChunk.maxInt >= min && columnChunk.minInt <= max);
+        }
+
+        @Override
+        boolean matches(ColumnarFileReader.Row row) {
+            int value = row.getInt(column);
+            return value >= min && value <= max;
+        }
+    }
+
+    private static final class StringEquals extends ColumnarPredicate {
+
+        private final String column;
+        private final String value;
+
+        private StringEquals(String column, String value) {
+            this.column = column;
+            this.value = value;
+        }
+
+        @Override
+        void addColumns(Set<String> columns) {
+            columns.add(column);
+        }
+
+        @Override
+        void validate(Function<String, ColumnEncodingEnum> encodings) {
+            if (!encodings.apply(column).isString()) {
+                throw new IllegalArgumentException("The column " + column + " is not a string column");
+            }
+        }
+
+        @Override
+        boolean mightMatch(Function<String, ColumnarFileReader.ColumnChunk> columnChunks) {
+            ColumnarFileReader.ColumnChunk columnChunk = columnChunks.apply(column);
+            return !columnChunk.hasStatistics
+                || (value.compareTo(columnChunk.minString) >= 0 && value.compareTo(columnChunk.maxString) <= 0);
+        }
+
+        @Override
+        boolean matches(ColumnarFileReader.Row row) {
+            return value.equals(row.getString(column));
+        }
+    }
+
+    private static final class UUIDEquals extends ColumnarPredicate {
+
+        private final String column;
+        private final UUID id;
+
+        private UUIDEquals(String column, UUID id) {
+            this.column = column;
+            this.id = id;
+        }
+
+        @Override
+        void addColumns(Set<String> columns) {
+            columns.add(column);
+        }
+
+        @Override
+        void validate(Function<String, ColumnEncodingEnum> encodings) {
+            if (encodings.apply(column) != ColumnEncodingEnum.UUID) {
+                throw new IllegalArgumentException("The column " + column + " is not a UUID column");
+            }
+        }
+
+        @Override
+        boolean mightMatch(Function<String, ColumnarFileReader.ColumnChunk> columnChunks) {
+            ColumnarFileReader.ColumnChunk columnChunk = columnChunks.apply(column);
+            return !columnChunk.hasStatistics
+                || (ColumnarFormat.compare(id, columnChunk.minUUID) >= 0
+                    && ColumnarFormat.compare(id, columnChunk.maxUUID) <= 0);
+        }
+
+        @Override
+        boolean matches(ColumnarFileReader.Row row) {
+            return row.uuidEquals(column, id);
+        }
+    }
+
+    private static final class And extends ColumnarPredicate {
+
+        private final ColumnarPredicate first;
+        private final ColumnarPredicate second;
+
+        private And(ColumnarPredicate first, ColumnarPredicate second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        void addColumns(Set<String> columns) {
+            first.addColumns(columns);
+            second.addColumns(columns);
+        }
+
+        @Override
+        void validate(Function<String, ColumnEncodingEnum> encodings) {
+            first.validate(encodings);
+            second.validate(encodings);
+        }
+
+        @Override
+        boolean mightMatch(Function<String, ColumnarFileReader.ColumnChunk> columnChunks) {
+            return first.mightMatch(columnChunks) && second.mightMatch(columnChunks);
+        }
+
+        @Override
+        boolean matches(ColumnarFileReader.Row row) {
+            return first.matches(row) && second.matches(row);
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package org.study.services;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.zip.CRC32C;
+import org.study.services.enums.ColumnEncodingEnum;
+
+/**
+ * Writes rows with the columnar format described in ColumnarFormat.
+ *
+ * The rows are kept until a chunk is complete, then every column of the chunk is encoded and written,
+ * and the position, checksum and statistics of each column chunk are kept for the footer.
+ * Remember to call finish() after the last row, otherwise the file will be detected as truncated.
+ *
+ * @param <T> The type of the rows (i.e. Animal).
+ */
+class ColumnarWriter<T> implements Closeable {
+
+    private final DataOutputStream output;
+    private final List<Column<T>> columns;
+    private final CRC32C checksum = new CRC32C();
+
+    private final List<T> rowsInChunk = new ArrayList<>(ColumnarFormat.ROWS_PER_CHUNK);
+
+    private byte[] chunk = new byte[64 * 1024];
+    private int chunkSize;
+
+    // The footer entries of the chunks already written
+    private final ByteArrayOutputStream chunkEntriesBytes = new ByteArrayOutputStream();
+    private final DataOutputStream chunkEntries = new DataOutputStream(chunkEntriesBytes);
+    private int numberOfChunks;
+    private int numberOfRows;
+
+    // Bytes written to the file so far, it is the offset of the next column chunk
+    private long position;
+
+    ColumnarWriter(OutputStream outputStream, byte tableType, List<Column<T>> columns) throws IOException {
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("A columnar file must have at least one column");
+        }
+
+        this.output = new DataOutputStream(new BufferedOutputStream(outputStream));
+        this.columns = List.copyOf(columns);
+
+        output.writeInt(ColumnarFormat.MAGIC);
+        output.writeShort(ColumnarFormat.VERSION);
+        output.writeByte(tableType);
+        position = Integer.BYTES + Short.BYTES + Byte.BYTES;
+    }
+
+    void writeRow(T row) throws IOException {
+        rowsInChunk.add(row);
+
+        if (rowsInChunk.size() == ColumnarFormat.ROWS_PER_CHUNK) {
+            flushChunk();
+        }
+    }
+
+    /**
+     * Writes the last chunk, the footer and the trailer.
+     */
+    void finish() throws IOException {
+        flushChunk();
+
+        long footerOffset = position;
+
+        output.writeInt(columns.size());
+        for (Column<T> column : columns) {
+            writeFooterString(output, column.name);
+            output.writeByte(column.encoding.getCode());
+        }
+
+        output.writeInt(numberOfRows);
+        output.writeInt(numberOfChunks);
+        chunkEntries.flush();
+        chunkEntriesBytes.writeTo(output);
+
+        output.writeLong(footerOffset);
+        output.writeInt(ColumnarFormat.MAGIC);
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+
+    private void flushChunk() throws IOException {
+        if (rowsInChunk.isEmpty()) {
+            return;
+        }
+
+        chunkEntries.writeInt(rowsInChunk.size());
+
+        for (Column<T> column : columns) {
+            chunkSize = 0;
+
+            switch (column.encoding) {
+                case UUID -> encodeUUIDs(column);
+                case VAR_INT, DELTA -> encodeInts(column);
+                case PLAIN_STRING -> encodePlainStrings(column);
+                case DICTIONARY -> encodeDictionaryStrings(column);
+                case UUID_LIST -> encodeUUIDLists(column);
+            }
+
+            // The encode methods already wrote the footer entry of the column chunk
+            output.write(chunk, 0, chunkSize);
+            position += chunkSize;
+        }
+
+        numberOfRows += rowsInChunk.size();
+        numberOfChunks++;
+        rowsInChunk.clear();
+    }
+
+    private void writeChunkEntry(boolean hasStatistics) throws IOException {
+        checksum.reset();
+        checksum.update(chunk, 0, chunkSize);
+
+        chunkEntries.writeLong(position);
+        chunkEntries.writeInt(chunkSize);
+        chunkEntries.writeInt((int) checksum.getValue());
+        chunkEntries.writeBoolean(hasStatistics);
+    }
+
+    private void encodeUUIDs(Column<T> column) throws IOException {
+        UUID min = null;
+        UUID max = null;
+
+        for (T row : rowsInChunk) {
+            UUID id = (UUID) column.valueOf(row);
+            writeLong(id.getMostSignificantBits());
+            writeLong(id.getLeastSignificantBits());
+
+            if (min == null || ColumnarFormat.compare(id, min) < 0) {
+                min = id;
+            }
+            if (max == null || ColumnarFormat.compare(id, max) > 0) {
+                max = id;
+            }
+        }
+
+        writeChunkEntry(true);
+        chunkEntries.writeLong(min.getMostSignificantBits());
+        chunkEntries.writeLong(min.getLeastSignificantBits());
+        chunkEntries.writeLong(max.getMostSignificantBits());
+        chunkEntries.writeLong(max.getLeastSignificantBits());
+    }
+
+    /**
+     * VAR_INT writes every value, DELTA writes the difference with the previous value (0 for the first one).
+     * A difference that overflows an int wraps around, and the reader wraps it back the same way.
+     */
+    private void encodeInts(Column<T> column) throws IOException {
+        boolean isDelta = column.encoding == ColumnEncodingEnum.DELTA;
+        int previous = 0;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+
+        for (T row : rowsInChunk) {
+            int value = (Integer) column.valueOf(row);
+
+            writeZigZagVarInt(isDelta ? value - previous : value);
+            previous = value;
+
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        writeChunkEntry(true);
+        chunkEntries.writeInt(min);
+        chunkEntries.writeInt(max);
+    }
+
+    private void encodePlainStrings(Column<T> column) throws IOException {
+        for (T row : rowsInChunk) {
+            writeString((String) column.valueOf(row));
+        }
+
+        writeChunkEntry(false);
+    }
+
+    private void encodeDictionaryStrings(Column<T> column) throws IOException {
+        // Step 1: Find the different strings of the chunk, in the order they first appear
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        int[] references = new int[rowsInChunk.size()];
+        String min = null;
+        String max = null;
+
+        for (int i = 0; i < references.length; i++) {
+            String value = (String) column.valueOf(rowsInChunk.get(i));
+            references[i] = dictionary.computeIfAbsent(value, newValue -> dictionary.size());
+
+            if (min == null || value.compareTo(min) < 0) {
+                min = value;
+            }
+            if (max == null || value.compareTo(max) > 0) {
+                max = value;
+            }
+        }
+
+        // Step 2: Write the dictionary, then the position of every value in the dictionary
+        writeVarInt(dictionary.size());
+        for (String value : dictionary.keySet()) {
+            writeString(value);
+        }
+        for (int reference : references) {
+            writeVarInt(reference);
+        }
+
+        writeChunkEntry(true);
+        writeFooterString(chunkEntries, min);
+        writeFooterString(chunkEntries, max);
+    }
+
+    private void encodeUUIDLists(Column<T> column) throws IOException {
+        for (T row : rowsInChunk) {
+            @SuppressWarnings("unchecked")
+            Collection<UUID> ids = (Collection<UUID>) column.valueOf(row);
+
+            writeVarInt(ids.size());
+            for (UUID id : ids) {
+                writeLong(id.getMostSignificantBits());
+                writeLong(id.getLeastSignificantBits());
+            }
+        }
+
+        writeChunkEntry(false);
+    }
+
+    private void ensureCapacity(int extraBytes) {
+        if (chunkSize + extraBytes > chunk.length) {
+            chunk = Arrays.copyOf(chunk, Math.max(chunk.length * 2, chunkSize + extraBytes));
+        }
+    }
+
+    private void writeLong(long value) {
+        ensureCapacity(Long.BYTES);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            chunk[chunkSize++] = (byte) (value >>> shift);
+        }
+    }
+
+    /**
+     * Writes 7 bits per byte, the highest bit tells if there are more bytes.
+     */
+    private void writeVarInt(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            chunk[chunkSize++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        chunk[chunkSize++] = (byte) value;
+    }
+
+    /**
+     * Moves the sign to the lowest bit, so small negative numbers also take few bytes (-1 is 1, 1 is 2).
+     * Reference: https://protobuf.dev/programming-guides/encoding/#signed-ints
+     */
+    private void writeZigZagVarInt(int value) {
+        writeVarInt((value << 1) ^ (value >> 31));
+    }
+
+    private void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length);
+
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, chunk, chunkSize, bytes.length);
+        chunkSize += bytes.length;
+    }
+
+    /**
+     * Same format as writeString, for the strings of the footer.
+     * DataOutputStream.writeUTF is not used: it writes modified UTF-8 and fails with strings over 65535 bytes.
+     */
+    private static void writeFooterString(DataOutputStream footer, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        int length = bytes.length;
+        while ((length & ~0x7F) != 0) {
+            footer.writeByte((length & 0x7F) | 0x80);
+            length >>>= 7;
+        }
+        footer.writeByte(length);
+
+        footer.write(bytes);
+    }
+
+    /**
+     * A column of the file: its name, its encoding and how to get its value from a row.
+     */
+    static final class Column<T> {
+
+        private final String name;
+        private final ColumnEncodingEnum encoding;
+        private final Function<T, ?> value;
+
+        private Column(String name, ColumnEncodingEnum encoding, Function<T, ?> value) {
+            this.name = name;
+            this.encoding = encoding;
+            this.value = value;
+        }
+
+        static <T> Column<T> uuid(String name, Function<T, UUID> value) {
+            return new Column<>(name, ColumnEncodingEnum.UUID, value);
+        }
+
+        static <T> Column<T> varInt(String name, ToIntFunction<T> value) {
+            return new Column<>(name, ColumnEncodingEnum.VAR_INT, value::applyAsInt);
+        }
+
+        static <T> Column<T> delta(String name, ToIntFunction<T> value) {
+            return new Column<>(name, ColumnEncodingEnum.DELTA, value::applyAsInt);
+        }
+
+        static <T> Column<T> plainString(String name, Function<T, String> value) {
+            return new Column<>(name, ColumnEncodingEnum.PLAIN_STRING, value);
+        }
+
+        static <T> Column<T> dictionary(String name, Function<T, String> value) {
+            return new Column<>(name, ColumnEncodingEnum.DICTIONARY, value);
+        }
+
+        static <T> Column<T> uuidList(String name, Function<T, Collection<UUID>> value) {
+            return new Column<>(name, ColumnEncodingEnum.UUID_LIST, value);
+        }
+
+        private Object valueOf(T row) {
+            Object result = value.apply(row);
+
+            if (result == null) {
+                throw new IllegalArgumentException("The column " + name + " cannot have null values");
+            }
+            return result;
+        }
+    }
+}
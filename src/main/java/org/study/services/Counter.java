@@ -0,0 +1,41 @@
+package org.study.services;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A number that only grows, i.e. the number of times something happened (see MetricsRegistry.counter).
+ *
+ * The count is a LongAdder: the threads that increment it at the same time add to different cells, so they do not
+ * wait for each other, and the cells are only summed when the count is read.
+ *
+ * Reference: https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/atomic/LongAdder.html
+ */
+public final class Counter {
+
+    private final LongAdder count = new LongAdder();
+
+    Counter() {
+    }
+
+    public void increment() {
+        count.increment();
+    }
+
+    /**
+     * @param amount The amount to add.
+     * @throws IllegalArgumentException If the amount is negative, a counter cannot go down.
+     */
+    public void add(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Amount cannot be negative");
+        }
+        count.add(amount);
+    }
+
+    /**
+     * @return The count. It is not an atomic snapshot if the counter is being incremented.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+}
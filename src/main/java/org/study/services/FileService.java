@@ -1,24 +1,48 @@
 package org.study.services;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
 import org.study.exceptions.NotFoundException;
 import org.study.model.Animal;
 import org.study.model.Owner;
 import org.study.model.Vaccine;
 import org.study.services.enums.AnimalAttributesEnum;
+import org.study.services.enums.CompressionEnum;
+import org.study.services.enums.MissingAnimalPolicyEnum;
 import org.study.services.enums.OwnerAttributesEnum;
 import org.study.services.enums.VaccineAttributesEnum;
 
@@ -29,6 +53,149 @@ public class FileService {
     public static final String OPEN_CURLY_BRACE = "{";
     public static final String CLOSE_CURLY_BRACE = "}";
     public static final String EMPTY_STRING = "";
+    public static final String TEMPORARY_FILE_EXTENSION = ".tmp";
+
+    // The deltas of a snapshot are merged when they are bigger than half of the snapshot
+    public static final double MAX_DELTA_TO_SNAPSHOT_RATIO = 0.5;
+
+    // Compression used when saving snapshots and CSV files, loading detects it from the file
+    private CompressionEnum compression;
+
+    // Times the loads and saves, it records nothing until setMetricsRegistry is called
+    private ServiceMetrics metrics = ServiceMetrics.DISABLED;
+
+    // The timed methods (see setMetricsRegistry), overloads share their histogram
+    private static final ServiceMetrics.TimedMethods TIMED_METHODS =
+        new ServiceMetrics.TimedMethods("FileService");
+    private static final ServiceMetrics.TimedMethod SAVE_ANIMALS_TO_BINARY_FILE_USING_THE_ENTIRE_LIST =
+        TIMED_METHODS.add("saveAnimalsToBinaryFileUsingTheEntireList");
+    private static final ServiceMetrics.TimedMethod LOAD_ANIMALS_FROM_BINARY_FILE_USING_THE_ENTIRE_LIST =
+        TIMED_METHODS.add("loadAnimalsFromBinaryFileUsingTheEntireList");
+    private static final ServiceMetrics.TimedMethod LOAD_ANIMALS_FROM_CSV_FILE =
+        TIMED_METHODS.add("loadAnimalsFromCSVFile");
+    private static final ServiceMetrics.TimedMethod LOAD_VACCINES_FROM_CSV_FILE =
+        TIMED_METHODS.add("loadVaccinesFromCSVFile");
+    private static final ServiceMetrics.TimedMethod LOAD_VACCINES_FROM_CSV_FILE_INTO_ANIMALS =
+        TIMED_METHODS.add("loadVaccinesFromCSVFileIntoAnimals");
+    private static final ServiceMetrics.TimedMethod FOLLOW_CSV_FILES = TIMED_METHODS.add("followCSVFiles");
+    private static final ServiceMetrics.TimedMethod WRITE_TEXT_FILE = TIMED_METHODS.add("writeTextFile");
+    private static final ServiceMetrics.TimedMethod WRITE_TEXT_FILE_LINE_BY_LINE =
+        TIMED_METHODS.add("writeTextFileLineByLine");
+    private static final ServiceMetrics.TimedMethod SAVE_ANIMALS_TO_CSV_FILE =
+        TIMED_METHODS.add("saveAnimalsToCSVFile");
+    private static final ServiceMetrics.TimedMethod SAVE_OWNERS_TO_CSV_FILE = TIMED_METHODS.add("saveOwnersToCSVFile");
+    private static final ServiceMetrics.TimedMethod SAVE_ANIMALS_TO_NDJSON_FILE =
+        TIMED_METHODS.add("saveAnimalsToNDJSONFile");
+    private static final ServiceMetrics.TimedMethod LOAD_ANIMALS_FROM_NDJSON_FILE =
+        TIMED_METHODS.add("loadAnimalsFromNDJSONFile");
+    private static final ServiceMetrics.TimedMethod SAVE_OWNERS_TO_NDJSON_FILE =
+        TIMED_METHODS.add("saveOwnersToNDJSONFile");
+    private static final ServiceMetrics.TimedMethod LOAD_OWNERS_FROM_NDJSON_FILE =
+        TIMED_METHODS.add("loadOwnersFromNDJSONFile");
+    private static final ServiceMetrics.TimedMethod SAVE_ATTENTION_QUEUE_TO_NDJSON_FILE =
+        TIMED_METHODS.add("saveAttentionQueueToNDJSONFile");
+    private static final ServiceMetrics.TimedMethod LOAD_ATTENTION_QUEUE_FROM_NDJSON_FILE =
+        TIMED_METHODS.add("loadAttentionQueueFromNDJSONFile");
+    private static final ServiceMetrics.TimedMethod LOAD_OWNERS_FROM_CSV_FILE =
+        TIMED_METHODS.add("loadOwnersFromCSVFile");
+    private static final ServiceMetrics.TimedMethod LOAD_ANIMALS_FROM_CSV_FILE_USING_MEMORY_MAP =
+        TIMED_METHODS.add("loadAnimalsFromCSVFileUsingMemoryMap");
+    private static final ServiceMetrics.TimedMethod LOAD_VACCINES_FROM_CSV_FILE_USING_MEMORY_MAP =
+        TIMED_METHODS.add("loadVaccinesFromCSVFileUsingMemoryMap");
+    private static final ServiceMetrics.TimedMethod LOAD_OWNERS_FROM_CSV_FILE_USING_MEMORY_MAP =
+        TIMED_METHODS.add("loadOwnersFromCSVFileUsingMemoryMap");
+    private static final ServiceMetrics.TimedMethod LOAD_ANIMALS_FROM_CSV_FILE_IN_PARALLEL =
+        TIMED_METHODS.add("loadAnimalsFromCSVFileInParallel");
+    private static final ServiceMetrics.TimedMethod LOAD_VACCINES_FROM_CSV_FILE_IN_PARALLEL =
+        TIMED_METHODS.add("loadVaccinesFromCSVFileInParallel");
+    private static final ServiceMetrics.TimedMethod LOAD_OWNERS_FROM_CSV_FILE_IN_PARALLEL =
+        TIMED_METHODS.add("loadOwnersFromCSVFileInParallel");
+    private static final ServiceMetrics.TimedMethod LOAD_OWNERS_FROM_BINARY_FILE_USING_THE_ENTIRE_LIST =
+        TIMED_METHODS.add("loadOwnersFromBinaryFileUsingTheEntireList");
+    private static final ServiceMetrics.TimedMethod SAVE_OWNERS_TO_BINARY_FILE_USING_THE_ENTIRE_LIST =
+        TIMED_METHODS.add("saveOwnersToBinaryFileUsingTheEntireList");
+    private static final ServiceMetrics.TimedMethod SAVE_ANIMALS_TO_SNAPSHOT_FILE =
+        TIMED_METHODS.add("saveAnimalsToSnapshotFile");
+    private static final ServiceMetrics.TimedMethod LOAD_ANIMALS_FROM_SNAPSHOT_FILE =
+        TIMED_METHODS.add("loadAnimalsFromSnapshotFile");
+    private static final ServiceMetrics.TimedMethod APPEND_ANIMALS_TO_SNAPSHOT_DELTA =
+        TIMED_METHODS.add("appendAnimalsToSnapshotDelta");
+    private static final ServiceMetrics.TimedMethod MERGE_ANIMALS_SNAPSHOT_DELTAS =
+        TIMED_METHODS.add("mergeAnimalsSnapshotDeltas");
+    private static final ServiceMetrics.TimedMethod SAVE_OWNERS_TO_SNAPSHOT_FILE =
+        TIMED_METHODS.add("saveOwnersToSnapshotFile");
+    private static final ServiceMetrics.TimedMethod LOAD_OWNERS_FROM_SNAPSHOT_FILE =
+        TIMED_METHODS.add("loadOwnersFromSnapshotFile");
+    private static final ServiceMetrics.TimedMethod APPEND_OWNERS_TO_SNAPSHOT_DELTA =
+        TIMED_METHODS.add("appendOwnersToSnapshotDelta");
+    private static final ServiceMetrics.TimedMethod MERGE_OWNERS_SNAPSHOT_DELTAS =
+        TIMED_METHODS.add("mergeOwnersSnapshotDeltas");
+    private static final ServiceMetrics.TimedMethod SNAPSHOT_FILE_EXISTS = TIMED_METHODS.add("snapshotFileExists");
+    private static final ServiceMetrics.TimedMethod SHOULD_MERGE_SNAPSHOT_DELTAS =
+        TIMED_METHODS.add("shouldMergeSnapshotDeltas");
+    private static final ServiceMetrics.TimedMethod SAVE_PAGED_ARCHIVE_FILE = TIMED_METHODS.add("savePagedArchiveFile");
+    private static final ServiceMetrics.TimedMethod OPEN_PAGED_ARCHIVE_FILE = TIMED_METHODS.add("openPagedArchiveFile");
+    private static final ServiceMetrics.TimedMethod SAVE_ANIMALS_TO_COLUMNAR_FILE =
+        TIMED_METHODS.add("saveAnimalsToColumnarFile");
+    private static final ServiceMetrics.TimedMethod SAVE_VACCINES_TO_COLUMNAR_FILE =
+        TIMED_METHODS.add("saveVaccinesToColumnarFile");
+    private static final ServiceMetrics.TimedMethod SAVE_OWNERS_TO_COLUMNAR_FILE =
+        TIMED_METHODS.add("saveOwnersToColumnarFile");
+    private static final ServiceMetrics.TimedMethod OPEN_COLUMNAR_FILE = TIMED_METHODS.add("openColumnarFile");
+    private static final ServiceMetrics.TimedMethod IS_SNAPSHOT_FILE = TIMED_METHODS.add("isSnapshotFile");
+
+    /**
+     * Constructor for FileService, files are saved without compression.
+     */
+    public FileService() {
+        this(CompressionEnum.NONE);
+    }
+
+    /**
+     * Constructor for FileService.
+     *
+     * Snapshot files are compressed block by block with the given compression.
+     * CSV exports are saved as gzip files made of independent blocks, DEFLATE is used for them
+     * whatever compression is chosen, so any gzip tool can read them.
+     * Reports, metrics, quarantine and NDJSON files are always saved as plain text.
+     *
+     * @param compression The compression used when saving snapshot and CSV files.
+     */
+    public FileService(CompressionEnum compression) {
+        setCompression(compression);
+    }
+
+    /**
+     * Records how long the loads and saves of this service take in a registry (see MetricsRegistry).
+     * The service may be used by a background save, so set it before the first save.
+     *
+     * @param metricsRegistry The registry, or null to stop recording.
+     */
+    public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        this.metrics = ServiceMetrics.of(metricsRegistry, TIMED_METHODS);
+    }
+
+    /**
+     * Get the compression used when saving snapshot and CSV files.
+     *
+     * @return The compression used when saving files.
+     */
+    public CompressionEnum getCompression() {
+        return compression;
+    }
+
+    /**
+     * Set the compression used when saving snapshot and CSV files.
+     *
+     * @param compression The compression used when saving files.
+     * @throws IllegalArgumentException If the compression is null.
+     */
+    public void setCompression(CompressionEnum compression) {
+        if (compression == null) {
+            throw new IllegalArgumentException("The compression cannot be null, use CompressionEnum.NONE instead");
+        }
+        this.compression = compression;
+    }
 
     /**
      * Saves the list of animals to a binary file.
@@ -37,6 +204,15 @@ public class FileService {
      * @throws IOException If an I/O error occurs while writing the file.
      */
     public void saveAnimalsToBinaryFileUsingTheEntireList(String filePath, List<Animal> animalList) throws IOException {
+        long startTime = metrics.start(SAVE_ANIMALS_TO_BINARY_FILE_USING_THE_ENTIRE_LIST);
+        try {
+            doSaveAnimalsToBinaryFileUsingTheEntireList(filePath, animalList);
+        } finally {
+            metrics.stop(SAVE_ANIMALS_TO_BINARY_FILE_USING_THE_ENTIRE_LIST, startTime);
+        }
+    }
+
+    private void doSaveAnimalsToBinaryFileUsingTheEntireList(String filePath, List<Animal> animalList) throws IOException {
         // Create a file object representing the binary file to be written.
         File file = new File(filePath);
 
@@ -56,6 +232,16 @@ public class FileService {
      * @throws ClassNotFoundException If the class of the serialized object cannot be found.
      */
     public List<Animal> loadAnimalsFromBinaryFileUsingTheEntireList(String filePath)
+        throws IOException, ClassNotFoundException {
+        long startTime = metrics.start(LOAD_ANIMALS_FROM_BINARY_FILE_USING_THE_ENTIRE_LIST);
+        try {
+            return doLoadAnimalsFromBinaryFileUsingTheEntireList(filePath);
+        } finally {
+            metrics.stop(LOAD_ANIMALS_FROM_BINARY_FILE_USING_THE_ENTIRE_LIST, startTime);
+        }
+    }
+
+    private List<Animal> doLoadAnimalsFromBinaryFileUsingTheEntireList(String filePath)
         throws IOException, ClassNotFoundException {
         // Create a file object representing the binary file to be read.
         File file = new File(filePath);
@@ -67,7 +253,6 @@ public class FileService {
             return (ArrayList<Animal>) ois.readObject();
 
         }
-
     }
 
     /**
@@ -79,63 +264,63 @@ public class FileService {
      * @throws IOException If an I/O error occurs while reading the file.
      */
     public List<Animal> loadAnimalsFromCSVFile(String path, String delimiter) throws IOException {
+        long startTime = metrics.start(LOAD_ANIMALS_FROM_CSV_FILE);
+        try {
+            return doLoadAnimalsFromCSVFile(path, delimiter);
+        } finally {
+            metrics.stop(LOAD_ANIMALS_FROM_CSV_FILE, startTime);
+        }
+    }
 
+    private List<Animal> doLoadAnimalsFromCSVFile(String path, String delimiter) throws IOException {
         File file = new File(path);
 
-        // Reference: https://funnelgarden.com/java_read_file/#1b_FilesreadAllLines_Explicit_Encoding
-        List<String> lines =
-            Files.readAllLines(file.toPath(),
-                StandardCharsets.UTF_8);
+        // Compressed (gzip) files are decompressed while they are read
+        List<String> lines = readAllLines(file);
 
         List<Animal> animalList = new ArrayList<>();
 
         // Iterate through each line in the CSV file and parse animal data.
         for (String line : lines) {
-            // Split the line into values using the specified delimiter.
-            String[] values = line.split(delimiter);
-
-            // Extract animal data from the CSV line.
-            String id =
-                values[AnimalAttributesEnum.ID.getIndex()];
-            String name =
-                values[AnimalAttributesEnum.NAME.getIndex()];
-            int age =
-                Integer.valueOf(values[AnimalAttributesEnum.AGE.getIndex()]);
-
-            // Create an Animal object and add it to the animalList.
-            Animal animal = new Animal(id, name, age);
-
-            // Extract owner IDs from the CSV line.
-            // ids in the CSV file: {id1,id2,id3}
-            String ownerIds =
-                extractElementsBetweenCurlyBraces(values[AnimalAttributesEnum.OWNERS.getIndex()]);
-
-            String [] ownerIdsArray = splitAndDeleteSpaces(ownerIds, COMMA_DELIMITER);
-
-            for(String ownerId : ownerIdsArray){
-                animal.addOwnerId(UUID.fromString(ownerId));
-            }
-
-            animalList.add(animal);
+            animalList.add(parseAnimal(line, delimiter));
         }
 
         // Check if new animals were added by comparing the list size before and after loading.
         return animalList;
     }
 
-    private String extractElementsBetweenCurlyBraces(String setString){
-
-        return setString
-            // Remove the curly braces from the string
-            .replace(OPEN_CURLY_BRACE, EMPTY_STRING)
-            .replace(CLOSE_CURLY_BRACE, EMPTY_STRING);
-    }
-
-    private String[] splitAndDeleteSpaces(String stringToSplit, String delimiter){
-
-        return  Arrays.stream(stringToSplit.split(delimiter))
-            .map(String::trim)
-            .toArray(String[]::new);
+    /**
+     * Parses a line of an animals CSV file.
+     *
+     * @param line      A line with the columns defined in AnimalAttributesEnum.
+     * @param delimiter The delimiter used to separate values.
+     * @return The animal of the line.
+     */
+    Animal parseAnimal(String line, String delimiter) {
+        // Split the line into values using the specified delimiter.
+        String[] values = line.split(delimiter);
+
+        // Extract animal data from the CSV line.
+        String id =
+            values[AnimalAttributesEnum.ID.getIndex()];
+        String name =
+            values[AnimalAttributesEnum.NAME.getIndex()];
+        int age =
+            Integer.valueOf(values[AnimalAttributesEnum.AGE.getIndex()]);
+
+        // Create an Animal object.
+        Animal animal = new Animal(id, name, age);
+
+        // Extract owner IDs from the CSV line.
+        // ids in the CSV file: {id1,id2,id3}
+        // The ids are decoded directly from the characters of the column,
+        // without removing the braces or splitting the ids into new Strings.
+        UUIDSetDecoder.decode(
+            values[AnimalAttributesEnum.OWNERS.getIndex()],
+            (mostSignificantBits, leastSignificantBits) ->
+                animal.addOwnerId(new UUID(mostSignificantBits, leastSignificantBits)));
+
+        return animal;
     }
 
     /**
@@ -147,11 +332,21 @@ public class FileService {
      * @throws IOException If an I/O error occurs while reading the file.
      */
     public Map<UUID, List<Vaccine>> loadVaccinesFromCSVFile(String path, String delimiter)
+        throws IOException, NotFoundException {
+        long startTime = metrics.start(LOAD_VACCINES_FROM_CSV_FILE);
+        try {
+            return doLoadVaccinesFromCSVFile(path, delimiter);
+        } finally {
+            metrics.stop(LOAD_VACCINES_FROM_CSV_FILE, startTime);
+        }
+    }
+
+    private Map<UUID, List<Vaccine>> doLoadVaccinesFromCSVFile(String path, String delimiter)
         throws IOException, NotFoundException {
         File file = new File(path);
 
-        // Reference: https://funnelgarden.com/java_read_file/#1b_FilesreadAllLines_Explicit_Encoding
-        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        // Compressed (gzip) files are decompressed while they are read
+        List<String> lines = readAllLines(file);
 
 
         Map<UUID, List<Vaccine>> vaccinesByAnimalId = new HashMap<>();
@@ -168,20 +363,189 @@ public class FileService {
             String dateOfApplication = values[VaccineAttributesEnum.DATE_OF_APPLICATION.getIndex()];
             String animalId = values[VaccineAttributesEnum.ANIMAL_ID.getIndex()];
 
-            if(!vaccinesByAnimalId.containsKey(animalId)){
-                vaccinesByAnimalId.put(UUID.fromString(animalId), new ArrayList<>());
+            // Create a Vaccine object and add it to the list of vaccines of its animal.
+            // The keys are UUIDs, so the id must be parsed before looking for the list
+            Vaccine vaccine = new Vaccine(id, volume, brand, dateOfApplication);
+
+            vaccinesByAnimalId
+                .computeIfAbsent(UUID.fromString(animalId), key -> new ArrayList<>())
+                .add(vaccine);
+        }
+
+        return vaccinesByAnimalId;
+    }
+
+    /**
+     * Reads a vaccines CSV file line by line and adds every vaccine directly to its animal,
+     * without collecting the vaccines of the file first.
+     *
+     * Step 1: Each line is parsed as it is read, only the current line is kept in memory.
+     * Step 2: The animal of the vaccine is found with animalFinder (i.e. the get method of a map of animals by id).
+     * Step 3: If the animal does not exist, the row is handled with the missingAnimalPolicy.
+     *
+     * @param path                The file path to the CSV file containing vaccine data.
+     * @param delimiter           The delimiter used in the CSV file to separate values.
+     * @param animalFinder        Returns the animal with an id, or null if it does not exist.
+     * @param missingAnimalPolicy What to do with the rows whose animal does not exist.
+     * @param quarantinePath      The file where the rows whose animal does not exist are written,
+     *                            only used with MissingAnimalPolicyEnum.QUARANTINE. It is only created
+     *                            if there is at least one of those rows.
+     * @return The number of vaccines added to the animals.
+     * @throws IOException       If an I/O error occurs while reading the file or writing the quarantine file.
+     * @throws NotFoundException If the animal of a row does not exist and the policy is MissingAnimalPolicyEnum.FAIL.
+     * @throws IllegalArgumentException If the policy is MissingAnimalPolicyEnum.QUARANTINE and there is no quarantine path.
+     */
+    public int loadVaccinesFromCSVFileIntoAnimals(String path,
+                                                  String delimiter,
+                                                  Function<UUID, Animal> animalFinder,
+                                                  MissingAnimalPolicyEnum missingAnimalPolicy,
+                                                  String quarantinePath)
+        throws IOException, NotFoundException {
+        long startTime = metrics.start(LOAD_VACCINES_FROM_CSV_FILE_INTO_ANIMALS);
+        try {
+            return doLoadVaccinesFromCSVFileIntoAnimals(
+                path, delimiter, animalFinder, missingAnimalPolicy, quarantinePath);
+        } finally {
+            metrics.stop(LOAD_VACCINES_FROM_CSV_FILE_INTO_ANIMALS, startTime);
+        }
+    }
+
+    private int doLoadVaccinesFromCSVFileIntoAnimals(String path,
+                                                     String delimiter,
+                                                     Function<UUID, Animal> animalFinder,
+                                                     MissingAnimalPolicyEnum missingAnimalPolicy,
+                                                     String quarantinePath)
+        throws IOException, NotFoundException {
+        if (missingAnimalPolicy == MissingAnimalPolicyEnum.QUARANTINE && quarantinePath == null) {
+            throw new IllegalArgumentException("The quarantine file path cannot be null");
+        }
+
+        int vaccinesAdded = 0;
+        int lineNumber = 0;
+        CSVRecordWriter quarantine = null;
+
+        try (BufferedReader reader = openTextFile(new File(path))) {
+            String line;
+
+            // Step 1: one line at a time
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String[] values = line.split(delimiter);
+
+                // Step 2
+                if (addVaccineToAnimal(values, animalFinder)) {
+                    vaccinesAdded++;
+                    continue;
+                }
+
+                // Step 3: the animal does not exist
+                switch (missingAnimalPolicy) {
+                    case FAIL -> throw new NotFoundException(String.format(
+                        "Error while assigning vaccines to animal: Animal with id %s not found (line %d)",
+                        values[VaccineAttributesEnum.ANIMAL_ID.getIndex()], lineNumber));
+                    case SKIP -> {
+                        // Nothing to do
+                    }
+                    case QUARANTINE -> {
+                        if (quarantine == null) {
+                            quarantine = openCSVWriter(quarantinePath, EMPTY_STRING);
+                        }
+                        quarantine.writeLine(line);
+                    }
+                }
+            }
+        } finally {
+            if (quarantine != null) {
+                quarantine.close();
             }
+        }
 
-            // Create a Vaccine object and add it to the map of vaccines.
-            Vaccine vaccine = new Vaccine(id, volume, brand, dateOfApplication);
+        return vaccinesAdded;
+    }
+
+    /**
+     * Adds the vaccines of lines of a vaccines CSV file to their animals.
+     * Every line is added on its own: an invalid line is given to invalidLineHandler and skipped,
+     * the vaccines of the other lines are still added, and a line is never both added and returned.
+     *
+     * @param lines              Lines with the columns defined in VaccineAttributesEnum.
+     * @param delimiter          The delimiter used to separate values.
+     * @param animalFinder       Returns the animal with an id, or null if it does not exist.
+     * @param invalidLineHandler Receives every line that cannot be parsed and the error.
+     * @return The lines whose animal does not exist, their vaccines were not added.
+     */
+    List<String> addVaccinesToAnimals(List<String> lines,
+                                      String delimiter,
+                                      Function<UUID, Animal> animalFinder,
+                                      BiConsumer<String, RuntimeException> invalidLineHandler) {
+        List<String> linesWithoutAnimal = new ArrayList<>();
 
-            vaccinesByAnimalId.get(UUID.fromString(animalId)).add(vaccine);
+        for (String line : lines) {
+            try {
+                if (!addVaccineToAnimal(line.split(delimiter), animalFinder)) {
+                    linesWithoutAnimal.add(line);
+                }
+            } catch (RuntimeException e) {
+                // The vaccine is created (and validated) before it is added, so nothing was added
+                invalidLineHandler.accept(line, e);
+            }
+        }
 
+        return linesWithoutAnimal;
+    }
 
+    /**
+     * Adds the vaccine of a split line to its animal, found with a map lookup instead of a search in the list of animals.
+     *
+     * @return False if the animal does not exist.
+     */
+    private boolean addVaccineToAnimal(String[] values, Function<UUID, Animal> animalFinder) {
+        UUID animalId = UUID.fromString(values[VaccineAttributesEnum.ANIMAL_ID.getIndex()]);
+        Animal animal = animalFinder.apply(animalId);
 
+        if (animal == null) {
+            return false;
         }
 
-        return vaccinesByAnimalId;
+        animal.addVaccine(
+            values[VaccineAttributesEnum.ID.getIndex()],
+            Integer.parseInt(values[VaccineAttributesEnum.VOLUME.getIndex()]),
+            values[VaccineAttributesEnum.BRAND.getIndex()],
+            values[VaccineAttributesEnum.DATE_OF_APPLICATION.getIndex()]);
+        return true;
+    }
+
+    /**
+     * Follows CSV files that other programs keep appending lines to, and gives the new lines to a consumer
+     * as soon as they are written (see CSVFileFollower). Only the bytes appended since the last read are read.
+     * The consumer is called on a background thread, until the returned follower is closed.
+     *
+     * @param paths            The files to follow, the new lines of each file are given in this order.
+     * @param fromBeginning    True to give the lines already in the files too, false to give only the new ones.
+     * @param newLinesConsumer Receives the path of a file and its new lines.
+     * @param errorConsumer    Receives the path of a file and the error that happened while reading it.
+     * @return The follower, it must be closed to stop following the files.
+     * @throws IOException If a file does not exist or cannot be watched.
+     */
+    public CSVFileFollower followCSVFiles(List<String> paths,
+                                          boolean fromBeginning,
+                                          BiConsumer<String, List<String>> newLinesConsumer,
+                                          BiConsumer<String, IOException> errorConsumer) throws IOException {
+        long startTime = metrics.start(FOLLOW_CSV_FILES);
+        try {
+            return doFollowCSVFiles(paths, fromBeginning, newLinesConsumer, errorConsumer);
+        } finally {
+            metrics.stop(FOLLOW_CSV_FILES, startTime);
+        }
+    }
+
+    private CSVFileFollower doFollowCSVFiles(List<String> paths,
+                                             boolean fromBeginning,
+                                             BiConsumer<String, List<String>> newLinesConsumer,
+                                             BiConsumer<String, IOException> errorConsumer) throws IOException {
+        CSVFileFollower follower = new CSVFileFollower(paths, fromBeginning, newLinesConsumer, errorConsumer);
+        follower.start();
+        return follower;
     }
 
     /**
@@ -194,13 +558,388 @@ public class FileService {
     public void writeTextFile(String path,
                                      List<String> linesToWrite)
         throws IOException {
+        long startTime = metrics.start(WRITE_TEXT_FILE);
+        try {
+            doWriteTextFile(path, linesToWrite);
+        } finally {
+            metrics.stop(WRITE_TEXT_FILE, startTime);
+        }
+    }
 
+    private void doWriteTextFile(String path,
+                                        List<String> linesToWrite)
+        throws IOException {
         //https://www.baeldung.com/java-write-to-file
         File file = new File(path);
 
         Files.write(file.toPath(), linesToWrite, StandardCharsets.UTF_8);
     }
 
+    /**
+     * Writes a text file line by line, as the lines are produced.
+     * Unlike writeTextFile, the lines do not need to be collected into a list first.
+     * The file is plain text, it is not compressed whatever compression was chosen.
+     *
+     * @param path          The file path of the text file.
+     * @param lineProducer  Receives the consumer to call for every line that must be written.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    public void writeTextFileLineByLine(String path, Consumer<Consumer<String>> lineProducer)
+        throws IOException {
+        long startTime = metrics.start(WRITE_TEXT_FILE_LINE_BY_LINE);
+        try {
+            doWriteTextFileLineByLine(path, lineProducer);
+        } finally {
+            metrics.stop(WRITE_TEXT_FILE_LINE_BY_LINE, startTime);
+        }
+    }
+
+    private void doWriteTextFileLineByLine(String path, Consumer<Consumer<String>> lineProducer)
+        throws IOException {
+        try (CSVRecordWriter writer = openCSVWriter(path, EMPTY_STRING)) {
+            lineProducer.accept(line -> {
+                try {
+                    writer.writeLine(line);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Saves animals to a CSV file, with the columns defined in AnimalAttributesEnum.
+     * Each animal is encoded directly into the file, so no list of lines is built in memory.
+     *
+     * @param path      The file path of the CSV file.
+     * @param delimiter The delimiter used to separate values.
+     * @param animals   The animals to save.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    public void saveAnimalsToCSVFile(String path, String delimiter, Iterable<Animal> animals)
+        throws IOException {
+        long startTime = metrics.start(SAVE_ANIMALS_TO_CSV_FILE);
+        try {
+            doSaveAnimalsToCSVFile(path, delimiter, animals);
+        } finally {
+            metrics.stop(SAVE_ANIMALS_TO_CSV_FILE, startTime);
+        }
+    }
+
+    private void doSaveAnimalsToCSVFile(String path, String delimiter, Iterable<Animal> animals)
+        throws IOException {
+        try (CSVRecordWriter writer = openCompressedCSVWriter(path, delimiter)) {
+            for (Animal animal : animals) {
+                writer.writeField(animal.getId())
+                    .writeField(animal.getName())
+                    .writeField(animal.getAge())
+                    .writeUUIDSet(animal.getOwnerIds())
+                    .endRecord();
+            }
+        }
+    }
+
+    /**
+     * Saves owners to a CSV file, with the columns defined in OwnerAttributesEnum,
+     * so the file can be loaded again with loadOwnersFromCSVFile.
+     * Each owner is encoded directly into the file, so no list of lines is built in memory.
+     *
+     * @param path      The file path of the CSV file.
+     * @param delimiter The delimiter used to separate values.
+     * @param owners    The owners to save.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    public void saveOwnersToCSVFile(String path, String delimiter, Iterable<Owner> owners)
+        throws IOException {
+        long startTime = metrics.start(SAVE_OWNERS_TO_CSV_FILE);
+        try {
+            doSaveOwnersToCSVFile(path, delimiter, owners);
+        } finally {
+            metrics.stop(SAVE_OWNERS_TO_CSV_FILE, startTime);
+        }
+    }
+
+    private void doSaveOwnersToCSVFile(String path, String delimiter, Iterable<Owner> owners)
+        throws IOException {
+        try (CSVRecordWriter writer = openCompressedCSVWriter(path, delimiter)) {
+            for (Owner owner : owners) {
+                writer.writeField(owner.getId())
+                    .writeField(owner.getName())
+                    .writeField(owner.getUsername())
+                    .writeField(owner.getEmail())
+                    .writeField(owner.getPassword())
+                    .writeField(owner.getAge())
+                    .writeField(owner.getPhone())
+                    .writeField(owner.getAddress())
+                    .writeField(owner.getCity())
+                    .writeField(owner.getState())
+                    .writeField(owner.getCountry())
+                    .writeField(owner.getZip())
+                    .writeUUIDSet(owner.getAnimalIds())
+                    .endRecord();
+            }
+        }
+    }
+
+    /**
+     * Opens a CSV export to write it, see openCompressedTextWriter.
+     */
+    private CSVRecordWriter openCompressedCSVWriter(String path, String delimiter) throws IOException {
+        return new CSVRecordWriter(openCompressedTextWriter(path), delimiter);
+    }
+
+    private CSVRecordWriter openCSVWriter(String path, String delimiter) throws IOException {
+        return new CSVRecordWriter(openTextWriter(path), delimiter);
+    }
+
+    /**
+     * Opens a text file to write it as plain text, whatever compression was chosen:
+     * reports, metrics and NDJSON files are read by people and other tools that do not expect gzip.
+     */
+    private Writer openTextWriter(String path) throws IOException {
+        // Reference: https://docs.oracle.com/javase/8/docs/api/java/nio/file/Files.html#newBufferedWriter-java.nio.file.Path-java.nio.charset.Charset-java.nio.file.OpenOption...-
+        return Files.newBufferedWriter(new File(path).toPath(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Opens a CSV export to write it, compressing it while it is written if a compression was chosen.
+     */
+    private Writer openCompressedTextWriter(String path) throws IOException {
+        if (compression == CompressionEnum.NONE) {
+            return openTextWriter(path);
+        }
+
+        // Reference: https://docs.oracle.com/javase/8/docs/api/java/io/OutputStreamWriter.html
+        return new BufferedWriter(new OutputStreamWriter(
+            new BlockGZIPOutputStream(new FileOutputStream(path)), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Saves animals, with their vaccines, to a newline delimited JSON file (one JSON object per line),
+     * see NDJSONReader for the members of each object.
+     * Each animal is encoded directly into the file, so no list of lines is built in memory.
+     *
+     * @param path    The file path of the NDJSON file.
+     * @param animals The animals to save.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    public void saveAnimalsToNDJSONFile(String path, Iterable<Animal> animals) throws IOException {
+        long startTime = metrics.start(SAVE_ANIMALS_TO_NDJSON_FILE);
+        try {
+            doSaveAnimalsToNDJSONFile(path, animals);
+        } finally {
+            metrics.stop(SAVE_ANIMALS_TO_NDJSON_FILE, startTime);
+        }
+    }
+
+    private void doSaveAnimalsToNDJSONFile(String path, Iterable<Animal> animals) throws IOException {
+        try (NDJSONWriter writer = new NDJSONWriter(openTextWriter(path))) {
+            for (Animal animal : animals) {
+                writer.writeAnimal(animal);
+            }
+        }
+    }
+
+    /**
+     * Loads animals, with their vaccines, from a newline delimited JSON file written by saveAnimalsToNDJSONFile.
+     * Each animal is handed to the consumer as soon as its line is decoded, the file is never kept in memory.
+     *
+     * @param path           The file path of the NDJSON file (it can be compressed with gzip).
+     * @param animalConsumer Receives every animal, in the order they have in the file.
+     * @return The number of animals read.
+     * @throws IOException If an I/O error occurs while reading the file, or the file is not valid JSON.
+     * @throws IllegalArgumentException If an animal or a vaccine of the file is not valid.
+     */
+    public int loadAnimalsFromNDJSONFile(String path, Consumer<Animal> animalConsumer) throws IOException {
+        long startTime = metrics.start(LOAD_ANIMALS_FROM_NDJSON_FILE);
+        try {
+            return doLoadAnimalsFromNDJSONFile(path, animalConsumer);
+        } finally {
+            metrics.stop(LOAD_ANIMALS_FROM_NDJSON_FILE, startTime);
+        }
+    }
+
+    private int doLoadAnimalsFromNDJSONFile(String path, Consumer<Animal> animalConsumer) throws IOException {
+        return readNDJSONFile(path, NDJSONReader::readAnimal, animalConsumer);
+    }
+
+    /**
+     * Saves owners to a newline delimited JSON file (one JSON object per line),
+     * see NDJSONReader for the members of each object.
+     *
+     * @param path   The file path of the NDJSON file.
+     * @param owners The owners to save.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    public void saveOwnersToNDJSONFile(String path, Iterable<Owner> owners) throws IOException {
+        long startTime = metrics.start(SAVE_OWNERS_TO_NDJSON_FILE);
+        try {
+            doSaveOwnersToNDJSONFile(path, owners);
+        } finally {
+            metrics.stop(SAVE_OWNERS_TO_NDJSON_FILE, startTime);
+        }
+    }
+
+    private void doSaveOwnersToNDJSONFile(String path, Iterable<Owner> owners) throws IOException {
+        try (NDJSONWriter writer = new NDJSONWriter(openTextWriter(path))) {
+            for (Owner owner : owners) {
+                writer.writeOwner(owner);
+            }
+        }
+    }
+
+    /**
+     * Loads owners from a newline delimited JSON file written by saveOwnersToNDJSONFile.
+     * Each owner is handed to the consumer as soon as its line is decoded, the file is never kept in memory.
+     *
+     * @param path          The file path of the NDJSON file (it can be compressed with gzip).
+     * @param ownerConsumer Receives every owner, in the order they have in the file.
+     * @return The number of owners read.
+     * @throws IOException If an I/O error occurs while reading the file, or the file is not valid JSON.
+     * @throws IllegalArgumentException If an owner of the file is not valid.
+     */
+    public int loadOwnersFromNDJSONFile(String path, Consumer<Owner> ownerConsumer) throws IOException {
+        long startTime = metrics.start(LOAD_OWNERS_FROM_NDJSON_FILE);
+        try {
+            return doLoadOwnersFromNDJSONFile(path, ownerConsumer);
+        } finally {
+            metrics.stop(LOAD_OWNERS_FROM_NDJSON_FILE, startTime);
+        }
+    }
+
+    private int doLoadOwnersFromNDJSONFile(String path, Consumer<Owner> ownerConsumer) throws IOException {
+        return readNDJSONFile(path, NDJSONReader::readOwner, ownerConsumer);
+    }
+
+    /**
+     * Saves the ids of the animals of the attention queue to a newline delimited JSON file,
+     * one {"animalId":"..."} object per line, in the order they will be attended.
+     *
+     * @param path            The file path of the NDJSON file.
+     * @param animalsToAttend The animals of the queue, from the first to the last.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    public void saveAttentionQueueToNDJSONFile(String path, Iterable<Animal> animalsToAttend) throws IOException {
+        long startTime = metrics.start(SAVE_ATTENTION_QUEUE_TO_NDJSON_FILE);
+        try {
+            doSaveAttentionQueueToNDJSONFile(path, animalsToAttend);
+        } finally {
+            metrics.stop(SAVE_ATTENTION_QUEUE_TO_NDJSON_FILE, startTime);
+        }
+    }
+
+    private void doSaveAttentionQueueToNDJSONFile(String path, Iterable<Animal> animalsToAttend) throws IOException {
+        try (NDJSONWriter writer = new NDJSONWriter(openTextWriter(path))) {
+            for (Animal animal : animalsToAttend) {
+                writer.writeQueuedAnimal(animal);
+            }
+        }
+    }
+
+    /**
+     * Loads the attention queue from a newline delimited JSON file written by saveAttentionQueueToNDJSONFile.
+     *
+     * @param path           The file path of the NDJSON file (it can be compressed with gzip).
+     * @param animalFinder   Returns the animal with an id, or null if there is no animal with that id.
+     * @param animalConsumer Receives every animal of the queue, from the first to the last.
+     * @return The number of animals read.
+     * @throws IOException If an I/O error occurs while reading the file, or the file is not valid JSON.
+     * @throws NotFoundException If there is no animal with one of the ids, the animals before it were already consumed.
+     */
+    public int loadAttentionQueueFromNDJSONFile(String path,
+                                                Function<UUID, Animal> animalFinder,
+                                                Consumer<Animal> animalConsumer)
+        throws IOException, NotFoundException {
+        long startTime = metrics.start(LOAD_ATTENTION_QUEUE_FROM_NDJSON_FILE);
+        try {
+            return doLoadAttentionQueueFromNDJSONFile(path, animalFinder, animalConsumer);
+        } finally {
+            metrics.stop(LOAD_ATTENTION_QUEUE_FROM_NDJSON_FILE, startTime);
+        }
+    }
+
+    private int doLoadAttentionQueueFromNDJSONFile(String path,
+                                                   Function<UUID, Animal> animalFinder,
+                                                   Consumer<Animal> animalConsumer)
+        throws IOException, NotFoundException {
+        int numberOfAnimals = 0;
+
+        try (NDJSONReader reader = new NDJSONReader(openTextFile(new File(path)))) {
+            while (reader.nextRecord()) {
+                UUID animalId = reader.readQueuedAnimalId();
+                Animal animal = animalFinder.apply(animalId);
+
+                if (animal == null) {
+                    throw new NotFoundException(String.format(
+                        "Animal with id %s (line %d) not found", animalId, reader.getRecordLine()));
+                }
+
+                animalConsumer.accept(animal);
+                numberOfAnimals++;
+            }
+        }
+
+        return numberOfAnimals;
+    }
+
+    private <T> int readNDJSONFile(String path,
+                                   NDJSONReader.RecordDecoder<T> recordDecoder,
+                                   Consumer<T> recordConsumer) throws IOException {
+        int numberOfRecords = 0;
+
+        try (NDJSONReader reader = new NDJSONReader(openTextFile(new File(path)))) {
+            while (reader.nextRecord()) {
+                T record;
+
+                try {
+                    record = recordDecoder.read(reader);
+                } catch (IllegalArgumentException e) {
+                    // The validations of the model do not know the line of the value
+                    throw new IllegalArgumentException(
+                        String.format("Invalid record at line %d: %s", reader.getRecordLine(), e.getMessage()), e);
+                }
+
+                recordConsumer.accept(record);
+                numberOfRecords++;
+            }
+        }
+
+        return numberOfRecords;
+    }
+
+    /**
+     * Reads all the lines of a text file, like Files.readAllLines, decompressing it first
+     * if it starts with the gzip magic number.
+     */
+    private List<String> readAllLines(File file) throws IOException {
+        try (BufferedReader reader = openTextFile(file)) {
+            return reader.lines().collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Opens a text file to read it line by line, decompressing it while it is read
+     * if it starts with the gzip magic number.
+     */
+    private BufferedReader openTextFile(File file) throws IOException {
+        BufferedInputStream input = new BufferedInputStream(new FileInputStream(file));
+
+        // Look at the first two bytes and go back to the beginning of the file
+        input.mark(2);
+        int magic = input.read() | input.read() << 8;
+        input.reset();
+
+        // GZIPInputStream reads all the members (blocks) of the file one after the other
+        InputStream content = magic == GZIPInputStream.GZIP_MAGIC ? new GZIPInputStream(input) : input;
+
+        // newDecoder() reports malformed input, the same as Files.readAllLines
+        return new BufferedReader(new InputStreamReader(content, StandardCharsets.UTF_8.newDecoder()));
+    }
+
     /**
      * Loads Owner data from a CSV file with the specified format.
      *
@@ -210,13 +949,19 @@ public class FileService {
      * @throws IOException If an I/O error occurs while reading the file.
      */
     public List<Owner> loadOwnersFromCSVFile(String path, String delimiter) throws IOException {
+        long startTime = metrics.start(LOAD_OWNERS_FROM_CSV_FILE);
+        try {
+            return doLoadOwnersFromCSVFile(path, delimiter);
+        } finally {
+            metrics.stop(LOAD_OWNERS_FROM_CSV_FILE, startTime);
+        }
+    }
 
+    private List<Owner> doLoadOwnersFromCSVFile(String path, String delimiter) throws IOException {
         File file = new File(path);
 
-        // Reference: https://funnelgarden.com/java_read_file/#1b_FilesreadAllLines_Explicit_Encoding
-        List<String> lines =
-            Files.readAllLines(file.toPath(),
-                StandardCharsets.UTF_8);
+        // Compressed (gzip) files are decompressed while they are read
+        List<String> lines = readAllLines(file);
 
         List<Owner> ownersList = new ArrayList<>();
 
@@ -268,14 +1013,12 @@ public class FileService {
 
             // Extract animal IDs from the CSV line.
             // animal ids in the CSV file: {id1,id2,id3}
-            String animalIds =
-                extractElementsBetweenCurlyBraces(values[OwnerAttributesEnum.ANIMAL_IDS.getIndex()]);
-
-            String [] animalIdsArray = splitAndDeleteSpaces(animalIds, COMMA_DELIMITER);
-
-            for(String ownerId : animalIdsArray){
-                owner.addAnimalId(UUID.fromString(ownerId));
-            }
+            // The ids are decoded directly from the characters of the column,
+            // without removing the braces or splitting the ids into new Strings.
+            UUIDSetDecoder.decode(
+                values[OwnerAttributesEnum.ANIMAL_IDS.getIndex()],
+                (mostSignificantBits, leastSignificantBits) ->
+                    owner.addAnimalId(new UUID(mostSignificantBits, leastSignificantBits)));
 
             ownersList.add(owner);
         }
@@ -285,24 +1028,275 @@ public class FileService {
     }
 
 
-    public List<Owner> loadOwnersFromBinaryFileUsingTheEntireList(String filePath)
-        throws IOException, ClassNotFoundException {
+    /**
+     * Loads animal data from a CSV file using a memory mapped buffer.
+     * The columns are located by their byte offsets and the ids and ages are parsed
+     * directly from the mapped bytes, without creating a String per line or the array of line.split.
+     *
+     * @param path      The file path to the CSV file containing animal data.
+     * @param delimiter The delimiter used in the CSV file to separate values, it must be a single character.
+     * @return The list of animals in the file.
+     * @throws IOException If an I/O error occurs while mapping the file.
+     */
+    public List<Animal> loadAnimalsFromCSVFileUsingMemoryMap(String path, String delimiter) throws IOException {
+        long startTime = metrics.start(LOAD_ANIMALS_FROM_CSV_FILE_USING_MEMORY_MAP);
+        try {
+            return doLoadAnimalsFromCSVFileUsingMemoryMap(path, delimiter);
+        } finally {
+            metrics.stop(LOAD_ANIMALS_FROM_CSV_FILE_USING_MEMORY_MAP, startTime);
+        }
+    }
 
-        File file = new File(filePath);
+    private List<Animal> doLoadAnimalsFromCSVFileUsingMemoryMap(String path, String delimiter) throws IOException {
+        List<Animal> animalList = new ArrayList<>();
 
-        //Here we are not using try with resources
+        MappedCSVReader.readFile(
+            new File(path).toPath(),
+            MappedCSVReader.toDelimiterByte(delimiter),
+            AnimalAttributesEnum.values().length,
+            row -> animalList.add(parseAnimal(row)));
+
+        return animalList;
+    }
+
+    private Animal parseAnimal(MappedCSVReader.Row row) {
+        Animal animal = new Animal(
+            row.getUUID(AnimalAttributesEnum.ID.getIndex()),
+            row.getString(AnimalAttributesEnum.NAME.getIndex()),
+            row.getInt(AnimalAttributesEnum.AGE.getIndex()));
+
+        // owner ids in the CSV file: {id1,id2,id3}
+        row.forEachUUIDInSet(
+            AnimalAttributesEnum.OWNERS.getIndex(),
+            (mostSignificantBits, leastSignificantBits) ->
+                animal.addOwnerId(new UUID(mostSignificantBits, leastSignificantBits)));
+
+        return animal;
+    }
+
+    /**
+     * Loads vaccine data from a CSV file using a memory mapped buffer.
+     * The ids, volumes and dates are parsed directly from the mapped bytes.
+     *
+     * @param path      The file path to the CSV file containing vaccine data.
+     * @param delimiter The delimiter used in the CSV file to separate values, it must be a single character.
+     * @return A map of animal IDs to vaccines.
+     * @throws IOException If an I/O error occurs while mapping the file.
+     */
+    public Map<UUID, List<Vaccine>> loadVaccinesFromCSVFileUsingMemoryMap(String path, String delimiter)
+        throws IOException {
+        long startTime = metrics.start(LOAD_VACCINES_FROM_CSV_FILE_USING_MEMORY_MAP);
+        try {
+            return doLoadVaccinesFromCSVFileUsingMemoryMap(path, delimiter);
+        } finally {
+            metrics.stop(LOAD_VACCINES_FROM_CSV_FILE_USING_MEMORY_MAP, startTime);
+        }
+    }
+
+    private Map<UUID, List<Vaccine>> doLoadVaccinesFromCSVFileUsingMemoryMap(String path, String delimiter)
+        throws IOException {
+        Map<UUID, List<Vaccine>> vaccinesByAnimalId = new HashMap<>();
+
+        MappedCSVReader.readFile(
+            new File(path).toPath(),
+            MappedCSVReader.toDelimiterByte(delimiter),
+            VaccineAttributesEnum.values().length,
+            row -> vaccinesByAnimalId
+                .computeIfAbsent(row.getUUID(VaccineAttributesEnum.ANIMAL_ID.getIndex()), animalId -> new ArrayList<>())
+                .add(parseVaccine(row)));
+
+        return vaccinesByAnimalId;
+    }
+
+    private Vaccine parseVaccine(MappedCSVReader.Row row) {
+        return new Vaccine(
+            row.getUUID(VaccineAttributesEnum.ID.getIndex()),
+            row.getInt(VaccineAttributesEnum.VOLUME.getIndex()),
+            row.getString(VaccineAttributesEnum.BRAND.getIndex()),
+            row.getEpochDay(VaccineAttributesEnum.DATE_OF_APPLICATION.getIndex()));
+    }
+
+    /**
+     * Loads owner data from a CSV file using a memory mapped buffer.
+     * The ids and ages are parsed directly from the mapped bytes.
+     *
+     * @param path      The file path to the CSV file containing owner data.
+     * @param delimiter The delimiter used in the CSV file to separate values, it must be a single character.
+     * @return The list of owners in the file.
+     * @throws IOException If an I/O error occurs while mapping the file.
+     */
+    public List<Owner> loadOwnersFromCSVFileUsingMemoryMap(String path, String delimiter) throws IOException {
+        long startTime = metrics.start(LOAD_OWNERS_FROM_CSV_FILE_USING_MEMORY_MAP);
+        try {
+            return doLoadOwnersFromCSVFileUsingMemoryMap(path, delimiter);
+        } finally {
+            metrics.stop(LOAD_OWNERS_FROM_CSV_FILE_USING_MEMORY_MAP, startTime);
+        }
+    }
+
+    private List<Owner> doLoadOwnersFromCSVFileUsingMemoryMap(String path, String delimiter) throws IOException {
+        List<Owner> ownersList = new ArrayList<>();
+
+        MappedCSVReader.readFile(
+            new File(path).toPath(),
+            MappedCSVReader.toDelimiterByte(delimiter),
+            OwnerAttributesEnum.values().length,
+            row -> ownersList.add(parseOwner(row)));
+
+        return ownersList;
+    }
+
+    private Owner parseOwner(MappedCSVReader.Row row) {
+        Owner owner = new Owner(
+            row.getUUID(OwnerAttributesEnum.ID.getIndex()),
+            row.getString(OwnerAttributesEnum.NAME.getIndex()),
+            row.getString(OwnerAttributesEnum.USERNAME.getIndex()),
+            row.getString(OwnerAttributesEnum.EMAIL.getIndex()),
+            row.getString(OwnerAttributesEnum.PASSWORD.getIndex()),
+            row.getInt(OwnerAttributesEnum.AGE.getIndex()),
+            row.getString(OwnerAttributesEnum.PHONE.getIndex()),
+            row.getString(OwnerAttributesEnum.ADDRESS.getIndex()),
+            row.getString(OwnerAttributesEnum.CITY.getIndex()),
+            row.getString(OwnerAttributesEnum.STATE.getIndex()),
+            row.getString(OwnerAttributesEnum.COUNTRY.getIndex()),
+            row.getString(OwnerAttributesEnum.ZIPCODE.getIndex()));
+
+        // animal ids in the CSV file: {id1,id2,id3}
+        row.forEachUUIDInSet(
+            OwnerAttributesEnum.ANIMAL_IDS.getIndex(),
+            (mostSignificantBits, leastSignificantBits) ->
+                owner.addAnimalId(new UUID(mostSignificantBits, leastSignificantBits)));
+
+        return owner;
+    }
+
+
+    /**
+     * Loads animal data from a CSV file splitting the file between all the available processors.
+     * The animals are returned in the same order they have in the file.
+     *
+     * @param path      The file path to the CSV file containing animal data.
+     * @param delimiter The delimiter used in the CSV file to separate values, it must be a single character.
+     * @return The list of animals in the file.
+     * @throws IOException If an I/O error occurs while reading the file.
+     */
+    public List<Animal> loadAnimalsFromCSVFileInParallel(String path, String delimiter) throws IOException {
+        long startTime = metrics.start(LOAD_ANIMALS_FROM_CSV_FILE_IN_PARALLEL);
+        try {
+            return doLoadAnimalsFromCSVFileInParallel(path, delimiter);
+        } finally {
+            metrics.stop(LOAD_ANIMALS_FROM_CSV_FILE_IN_PARALLEL, startTime);
+        }
+    }
+
+    private List<Animal> doLoadAnimalsFromCSVFileInParallel(String path, String delimiter) throws IOException {
+        return MappedCSVReader.readFileInParallel(
+            new File(path).toPath(),
+            MappedCSVReader.toDelimiterByte(delimiter),
+            AnimalAttributesEnum.values().length,
+            this::parseAnimal);
+    }
+
+    /**
+     * Loads vaccine data from a CSV file splitting the file between all the available processors.
+     * The vaccines of each animal keep the order they have in the file.
+     *
+     * @param path      The file path to the CSV file containing vaccine data.
+     * @param delimiter The delimiter used in the CSV file to separate values, it must be a single character.
+     * @return A map of animal IDs to vaccines.
+     * @throws IOException If an I/O error occurs while reading the file.
+     */
+    public Map<UUID, List<Vaccine>> loadVaccinesFromCSVFileInParallel(String path, String delimiter)
+        throws IOException {
+        long startTime = metrics.start(LOAD_VACCINES_FROM_CSV_FILE_IN_PARALLEL);
+        try {
+            return doLoadVaccinesFromCSVFileInParallel(path, delimiter);
+        } finally {
+            metrics.stop(LOAD_VACCINES_FROM_CSV_FILE_IN_PARALLEL, startTime);
+        }
+    }
+
+    private Map<UUID, List<Vaccine>> doLoadVaccinesFromCSVFileInParallel(String path, String delimiter)
+        throws IOException {
+        List<Map.Entry<UUID, Vaccine>> vaccinesWithAnimalId = MappedCSVReader.readFileInParallel(
+            new File(path).toPath(),
+            MappedCSVReader.toDelimiterByte(delimiter),
+            VaccineAttributesEnum.values().length,
+            row -> Map.entry(row.getUUID(VaccineAttributesEnum.ANIMAL_ID.getIndex()), parseVaccine(row)));
+
+        Map<UUID, List<Vaccine>> vaccinesByAnimalId = new HashMap<>();
+
+        for (Map.Entry<UUID, Vaccine> entry : vaccinesWithAnimalId) {
+            vaccinesByAnimalId
+                .computeIfAbsent(entry.getKey(), animalId -> new ArrayList<>())
+                .add(entry.getValue());
+        }
+
+        return vaccinesByAnimalId;
+    }
+
+    /**
+     * Loads owner data from a CSV file splitting the file between all the available processors.
+     * The validations of each owner run on the thread that parses its line.
+     *
+     * @param path      The file path to the CSV file containing owner data.
+     * @param delimiter The delimiter used in the CSV file to separate values, it must be a single character.
+     * @return The list of owners in the file, in the same order they have in the file.
+     * @throws IOException If an I/O error occurs while reading the file.
+     */
+    public List<Owner> loadOwnersFromCSVFileInParallel(String path, String delimiter) throws IOException {
+        long startTime = metrics.start(LOAD_OWNERS_FROM_CSV_FILE_IN_PARALLEL);
+        try {
+            return doLoadOwnersFromCSVFileInParallel(path, delimiter);
+        } finally {
+            metrics.stop(LOAD_OWNERS_FROM_CSV_FILE_IN_PARALLEL, startTime);
+        }
+    }
+
+    private List<Owner> doLoadOwnersFromCSVFileInParallel(String path, String delimiter) throws IOException {
+        return MappedCSVReader.readFileInParallel(
+            new File(path).toPath(),
+            MappedCSVReader.toDelimiterByte(delimiter),
+            OwnerAttributesEnum.values().length,
+            this::parseOwner);
+    }
+
+
+    public List<Owner> loadOwnersFromBinaryFileUsingTheEntireList(String filePath)
+        throws IOException, ClassNotFoundException {
+        long startTime = metrics.start(LOAD_OWNERS_FROM_BINARY_FILE_USING_THE_ENTIRE_LIST);
+        try {
+            return doLoadOwnersFromBinaryFileUsingTheEntireList(filePath);
+        } finally {
+            metrics.stop(LOAD_OWNERS_FROM_BINARY_FILE_USING_THE_ENTIRE_LIST, startTime);
+        }
+    }
+
+    private List<Owner> doLoadOwnersFromBinaryFileUsingTheEntireList(String filePath)
+        throws IOException, ClassNotFoundException {
+        File file = new File(filePath);
+
+        //Here we are not using try with resources
         try(FileInputStream fis = new FileInputStream(file);
             ObjectInputStream ois = new ObjectInputStream(fis)) {
             // Read the list of animals from the file.
             return (ArrayList<Owner>) ois.readObject();
 
         }
-
     }
 
     public void saveOwnersToBinaryFileUsingTheEntireList(String filePath, List<Owner> owners)
         throws IOException {
+        long startTime = metrics.start(SAVE_OWNERS_TO_BINARY_FILE_USING_THE_ENTIRE_LIST);
+        try {
+            doSaveOwnersToBinaryFileUsingTheEntireList(filePath, owners);
+        } finally {
+            metrics.stop(SAVE_OWNERS_TO_BINARY_FILE_USING_THE_ENTIRE_LIST, startTime);
+        }
+    }
 
+    private void doSaveOwnersToBinaryFileUsingTheEntireList(String filePath, List<Owner> owners)
+        throws IOException {
         File file = new File(filePath);
 
         //try with resources will close the file automatically
@@ -311,11 +1305,770 @@ public class FileService {
             // Write the list of animals to the file.
             oos.writeObject(owners);
         }
+    }
+
+    /**
+     * Saves animals to a snapshot file (see SnapshotFormat).
+     * Unlike saveAnimalsToBinaryFileUsingTheEntireList, the file does not depend on the Java classes,
+     * UUIDs and dates are written as numbers and every block of the file is protected by a checksum.
+     * The deltas appended to a previous version of the file are discarded.
+     *
+     * @param filePath The path to the snapshot file where the animals will be saved.
+     * @param animals  The animals to save.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    public void saveAnimalsToSnapshotFile(String filePath, Iterable<Animal> animals) throws IOException {
+        long startTime = metrics.start(SAVE_ANIMALS_TO_SNAPSHOT_FILE);
+        try {
+            doSaveAnimalsToSnapshotFile(filePath, animals);
+        } finally {
+            metrics.stop(SAVE_ANIMALS_TO_SNAPSHOT_FILE, startTime);
+        }
+    }
+
+    private void doSaveAnimalsToSnapshotFile(String filePath, Iterable<Animal> animals) throws IOException {
+        File temporaryFile = new File(filePath + TEMPORARY_FILE_EXTENSION);
+        File temporaryIndexFile = new File(filePath + SnapshotFormat.INDEX_EXTENSION + TEMPORARY_FILE_EXTENSION);
+
+        SnapshotWriter writer = new SnapshotWriter(
+            new FileOutputStream(temporaryFile),
+            SnapshotFormat.ANIMALS_RECORD_TYPE,
+            compression);
+
+        try (writer) {
+            for (Animal animal : animals) {
+                writer.writeAnimal(animal);
+            }
+            writer.finish();
+        }
+
+        // The index is written once the snapshot is closed, it records the final size of the file
+        writer.writeIndexFile(temporaryIndexFile, temporaryFile);
+
+        replaceSnapshotFile(temporaryFile, temporaryIndexFile, filePath);
+    }
+
+    /**
+     * Loads animals from a snapshot file written by saveAnimalsToSnapshotFile,
+     * applying the deltas appended by appendAnimalsToSnapshotDelta.
+     *
+     * @param filePath The path to the snapshot file.
+     * @return The animals in the file, in the order they were saved.
+     * @throws IOException If an I/O error occurs while reading the file, or if the file is corrupted.
+     */
+    public List<Animal> loadAnimalsFromSnapshotFile(String filePath) throws IOException {
+        long startTime = metrics.start(LOAD_ANIMALS_FROM_SNAPSHOT_FILE);
+        try {
+            return doLoadAnimalsFromSnapshotFile(filePath);
+        } finally {
+            metrics.stop(LOAD_ANIMALS_FROM_SNAPSHOT_FILE, startTime);
+        }
+    }
+
+    private List<Animal> doLoadAnimalsFromSnapshotFile(String filePath) throws IOException {
+        return loadSnapshotFileWithDeltas(
+            filePath,
+            SnapshotFormat.ANIMALS_RECORD_TYPE,
+            SnapshotFormat.ANIMALS_DELTA_RECORD_TYPE,
+            SnapshotReader::readAnimalRecord,
+            Animal::getId);
+    }
+
+    /**
+     * Appends a delta segment with the given animals to the delta file of a snapshot.
+     * When the snapshot is loaded, these animals replace the ones with the same id (or are added at the end).
+     * A last segment that was not completely written by a previous append is removed first.
+     *
+     * @param filePath       The path to the snapshot file.
+     * @param changedAnimals The animals that were added or changed since the last save.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    public void appendAnimalsToSnapshotDelta(String filePath, Iterable<Animal> changedAnimals) throws IOException {
+        long startTime = metrics.start(APPEND_ANIMALS_TO_SNAPSHOT_DELTA);
+        try {
+            doAppendAnimalsToSnapshotDelta(filePath, changedAnimals);
+        } finally {
+            metrics.stop(APPEND_ANIMALS_TO_SNAPSHOT_DELTA, startTime);
+        }
+    }
+
+    private void doAppendAnimalsToSnapshotDelta(String filePath, Iterable<Animal> changedAnimals) throws IOException {
+        truncateTornSnapshotDeltaSegment(new File(filePath + SnapshotFormat.DELTA_EXTENSION));
+
+        // FileOutputStream with append = true writes at the end of the file
+        try (SnapshotWriter writer = new SnapshotWriter(
+            new FileOutputStream(filePath + SnapshotFormat.DELTA_EXTENSION, true),
+            SnapshotFormat.ANIMALS_DELTA_RECORD_TYPE,
+            compression)) {
+
+            for (Animal animal : changedAnimals) {
+                writer.writeAnimal(animal);
+            }
+            writer.finish();
+        }
+    }
+
+    /**
+     * Folds the deltas of an animals snapshot file back into the snapshot, and deletes the delta file.
+     *
+     * @param filePath The path to the snapshot file.
+     * @throws IOException If an I/O error occurs while reading or writing the files.
+     */
+    public void mergeAnimalsSnapshotDeltas(String filePath) throws IOException {
+        long startTime = metrics.start(MERGE_ANIMALS_SNAPSHOT_DELTAS);
+        try {
+            doMergeAnimalsSnapshotDeltas(filePath);
+        } finally {
+            metrics.stop(MERGE_ANIMALS_SNAPSHOT_DELTAS, startTime);
+        }
+    }
+
+    private void doMergeAnimalsSnapshotDeltas(String filePath) throws IOException {
+        doSaveAnimalsToSnapshotFile(filePath, doLoadAnimalsFromSnapshotFile(filePath));
+    }
+
+    /**
+     * Saves owners to a snapshot file (see SnapshotFormat).
+     * The deltas appended to a previous version of the file are discarded.
+     *
+     * @param filePath The path to the snapshot file where the owners will be saved.
+     * @param owners   The owners to save.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    public void saveOwnersToSnapshotFile(String filePath, Iterable<Owner> owners) throws IOException {
+        long startTime = metrics.start(SAVE_OWNERS_TO_SNAPSHOT_FILE);
+        try {
+            doSaveOwnersToSnapshotFile(filePath, owners);
+        } finally {
+            metrics.stop(SAVE_OWNERS_TO_SNAPSHOT_FILE, startTime);
+        }
+    }
+
+    private void doSaveOwnersToSnapshotFile(String filePath, Iterable<Owner> owners) throws IOException {
+        File temporaryFile = new File(filePath + TEMPORARY_FILE_EXTENSION);
+        File temporaryIndexFile = new File(filePath + SnapshotFormat.INDEX_EXTENSION + TEMPORARY_FILE_EXTENSION);
+
+        SnapshotWriter writer = new SnapshotWriter(
+            new FileOutputStream(temporaryFile),
+            SnapshotFormat.OWNERS_RECORD_TYPE,
+            compression);
+
+        try (writer) {
+            for (Owner owner : owners) {
+                writer.writeOwner(owner);
+            }
+            writer.finish();
+        }
+
+        // The index is written once the snapshot is closed, it records the final size of the file
+        writer.writeIndexFile(temporaryIndexFile, temporaryFile);
+
+        replaceSnapshotFile(temporaryFile, temporaryIndexFile, filePath);
+    }
+
+    /**
+     * Loads owners from a snapshot file written by saveOwnersToSnapshotFile,
+     * applying the deltas appended by appendOwnersToSnapshotDelta.
+     *
+     * @param filePath The path to the snapshot file.
+     * @return The owners in the file, in the order they were saved.
+     * @throws IOException If an I/O error occurs while reading the file, or if the file is corrupted.
+     */
+    public List<Owner> loadOwnersFromSnapshotFile(String filePath) throws IOException {
+        long startTime = metrics.start(LOAD_OWNERS_FROM_SNAPSHOT_FILE);
+        try {
+            return doLoadOwnersFromSnapshotFile(filePath);
+        } finally {
+            metrics.stop(LOAD_OWNERS_FROM_SNAPSHOT_FILE, startTime);
+        }
+    }
+
+    private List<Owner> doLoadOwnersFromSnapshotFile(String filePath) throws IOException {
+        return loadSnapshotFileWithDeltas(
+            filePath,
+            SnapshotFormat.OWNERS_RECORD_TYPE,
+            SnapshotFormat.OWNERS_DELTA_RECORD_TYPE,
+            SnapshotReader::readOwnerRecord,
+            Owner::getId);
+    }
+
+    /**
+     * Appends a delta segment with the given owners and deleted owner ids to the delta file of a snapshot.
+     * A last segment that was not completely written by a previous append is removed first.
+     *
+     * @param filePath        The path to the snapshot file.
+     * @param changedOwners   The owners that were added or changed since the last save.
+     * @param deletedOwnerIds The ids of the owners deleted since the last save.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    public void appendOwnersToSnapshotDelta(String filePath,
+                                            Iterable<Owner> changedOwners,
+                                            Iterable<UUID> deletedOwnerIds) throws IOException {
+        long startTime = metrics.start(APPEND_OWNERS_TO_SNAPSHOT_DELTA);
+        try {
+            doAppendOwnersToSnapshotDelta(filePath, changedOwners, deletedOwnerIds);
+        } finally {
+            metrics.stop(APPEND_OWNERS_TO_SNAPSHOT_DELTA, startTime);
+        }
+    }
+
+    private void doAppendOwnersToSnapshotDelta(String filePath,
+                                               Iterable<Owner> changedOwners,
+                                               Iterable<UUID> deletedOwnerIds) throws IOException {
+        truncateTornSnapshotDeltaSegment(new File(filePath + SnapshotFormat.DELTA_EXTENSION));
+
+        try (SnapshotWriter writer = new SnapshotWriter(
+            new FileOutputStream(filePath + SnapshotFormat.DELTA_EXTENSION, true),
+            SnapshotFormat.OWNERS_DELTA_RECORD_TYPE,
+            compression)) {
+
+            // Deleted ids go first, so an owner deleted and added again in the same segment is kept
+            for (UUID ownerId : deletedOwnerIds) {
+                writer.writeDeletedId(ownerId);
+            }
+            for (Owner owner : changedOwners) {
+                writer.writeOwner(owner);
+            }
+            writer.finish();
+        }
+    }
+
+    /**
+     * Folds the deltas of an owners snapshot file back into the snapshot, and deletes the delta file.
+     *
+     * @param filePath The path to the snapshot file.
+     * @throws IOException If an I/O error occurs while reading or writing the files.
+     */
+    public void mergeOwnersSnapshotDeltas(String filePath) throws IOException {
+        long startTime = metrics.start(MERGE_OWNERS_SNAPSHOT_DELTAS);
+        try {
+            doMergeOwnersSnapshotDeltas(filePath);
+        } finally {
+            metrics.stop(MERGE_OWNERS_SNAPSHOT_DELTAS, startTime);
+        }
+    }
+
+    private void doMergeOwnersSnapshotDeltas(String filePath) throws IOException {
+        doSaveOwnersToSnapshotFile(filePath, doLoadOwnersFromSnapshotFile(filePath));
+    }
+
+    /**
+     * Checks if a snapshot file exists, so deltas can be appended to it.
+     *
+     * @param filePath The path to the snapshot file.
+     * @return True if the snapshot file exists.
+     */
+    public boolean snapshotFileExists(String filePath) {
+        long startTime = metrics.start(SNAPSHOT_FILE_EXISTS);
+        try {
+            return doSnapshotFileExists(filePath);
+        } finally {
+            metrics.stop(SNAPSHOT_FILE_EXISTS, startTime);
+        }
+    }
+
+    private boolean doSnapshotFileExists(String filePath) {
+        return new File(filePath).isFile();
+    }
+
+    /**
+     * Checks if the deltas of a snapshot grew enough to be merged back into the snapshot.
+     *
+     * @param filePath The path to the snapshot file.
+     * @return True if the delta file is bigger than MAX_DELTA_TO_SNAPSHOT_RATIO times the snapshot.
+     */
+    public boolean shouldMergeSnapshotDeltas(String filePath) {
+        long startTime = metrics.start(SHOULD_MERGE_SNAPSHOT_DELTAS);
+        try {
+            return doShouldMergeSnapshotDeltas(filePath);
+        } finally {
+            metrics.stop(SHOULD_MERGE_SNAPSHOT_DELTAS, startTime);
+        }
+    }
+
+    private boolean doShouldMergeSnapshotDeltas(String filePath) {
+        File snapshotFile = new File(filePath);
+        File deltaFile = new File(filePath + SnapshotFormat.DELTA_EXTENSION);
+
+        return deltaFile.length() > snapshotFile.length() * MAX_DELTA_TO_SNAPSHOT_RATIO;
+    }
+
+    private <T> List<T> loadSnapshotFileWithDeltas(String filePath,
+                                                   byte recordType,
+                                                   byte deltaRecordType,
+                                                   Function<SnapshotReader, T> recordReader,
+                                                   Function<T, UUID> idGetter) throws IOException {
+
+        // A LinkedHashMap keeps the order of the snapshot, a changed record keeps its position
+        // and a new record is added at the end.
+        Map<UUID, T> recordsById = new LinkedHashMap<>();
+
+        try (SnapshotReader reader = new SnapshotReader(new FileInputStream(filePath), recordType)) {
+            while (reader.nextRecord()) {
+                T record = recordReader.apply(reader);
+                recordsById.put(idGetter.apply(record), record);
+            }
+        }
+
+        // A null record means the id was deleted
+        forEachSnapshotDeltaChange(filePath, deltaRecordType, recordReader, idGetter, (id, record) -> {
+            if (record == null) {
+                recordsById.remove(id);
+            } else {
+                recordsById.put(id, record);
+            }
+        });
+
+        return new ArrayList<>(recordsById.values());
+    }
+
+    /**
+     * Opens an animals snapshot file to read its animals on demand, through the index saved with it.
+     *
+     * @param filePath The path to the snapshot file.
+     * @return The lazy snapshot, or null if the file has no index (or the index is outdated),
+     *         in which case the file must be loaded with loadAnimalsFromSnapshotFile.
+     * @throws IOException If an I/O error occurs while reading the files, or if they are corrupted.
+     */
+    LazySnapshotFile<Animal> openAnimalsSnapshotFileLazily(String filePath) throws IOException {
+
+        return openSnapshotFileLazily(
+            filePath,
+            SnapshotFormat.ANIMALS_RECORD_TYPE,
+            SnapshotFormat.ANIMALS_DELTA_RECORD_TYPE,
+            SnapshotReader::readAnimalRecord,
+            Animal::getId);
+    }
+
+    /**
+     * Opens an owners snapshot file to read its owners on demand, through the index saved with it.
+     *
+     * @param filePath The path to the snapshot file.
+     * @return The lazy snapshot, or null if the file has no index (or the index is outdated),
+     *         in which case the file must be loaded with loadOwnersFromSnapshotFile.
+     * @throws IOException If an I/O error occurs while reading the files, or if they are corrupted.
+     */
+    LazySnapshotFile<Owner> openOwnersSnapshotFileLazily(String filePath) throws IOException {
+
+        return openSnapshotFileLazily(
+            filePath,
+            SnapshotFormat.OWNERS_RECORD_TYPE,
+            SnapshotFormat.OWNERS_DELTA_RECORD_TYPE,
+            SnapshotReader::readOwnerRecord,
+            Owner::getId);
+    }
+
+    private <T> LazySnapshotFile<T> openSnapshotFileLazily(String filePath,
+                                                           byte recordType,
+                                                           byte deltaRecordType,
+                                                           Function<SnapshotReader, T> recordReader,
+                                                           Function<T, UUID> idGetter) throws IOException {
+
+        Path snapshotPath = new File(filePath).toPath();
+        SnapshotIndex index = SnapshotIndex.open(snapshotPath, recordType);
+
+        if (index == null) {
+            return null;
+        }
+
+        // Only the last change of every id matters, a null record means the id was deleted
+        Map<UUID, T> deltaChanges = new LinkedHashMap<>();
+        forEachSnapshotDeltaChange(filePath, deltaRecordType, recordReader, idGetter, deltaChanges::put);
+
+        return new LazySnapshotFile<>(snapshotPath, index, recordType, recordReader, idGetter, deltaChanges);
+    }
+
+    /**
+     * Reads the delta segments of a snapshot file and gives their changes to the consumer, in the order they were saved.
+     * The changes of a segment are given only once the whole segment was read.
+     */
+    private <T> void forEachSnapshotDeltaChange(String filePath,
+                                                byte deltaRecordType,
+                                                Function<SnapshotReader, T> recordReader,
+                                                Function<T, UUID> idGetter,
+                                                BiConsumer<UUID, T> changeConsumer) throws IOException {
+
+        File deltaFile = new File(filePath + SnapshotFormat.DELTA_EXTENSION);
+
+        if (!deltaFile.isFile()) {
+            return;
+        }
+
+        try (DataInputStream input =
+                 new DataInputStream(new BufferedInputStream(new FileInputStream(deltaFile)))) {
+
+            while (hasMoreBytes(input)) {
+                // The changes of a segment are applied only once the whole segment was read
+                // (a null record means the id was deleted)
+                List<Map.Entry<UUID, T>> segmentChanges = new ArrayList<>();
+
+                try {
+                    SnapshotReader segmentReader = new SnapshotReader(input, deltaRecordType);
+
+                    while (segmentReader.nextRecord()) {
+                        if (segmentReader.readOperation() == SnapshotFormat.DELETE_OPERATION) {
+                            segmentChanges.add(new AbstractMap.SimpleEntry<>(segmentReader.readDeletedId(), null));
+                        } else {
+                            T record = recordReader.apply(segmentReader);
+                            segmentChanges.add(new AbstractMap.SimpleEntry<>(idGetter.apply(record), record));
+                        }
+                    }
+                } catch (EOFException e) {
+                    // The last segment was not completely written (i.e. the program was closed while saving),
+                    // it was never confirmed as saved, so it is ignored.
+                    break;
+                }
+
+                for (Map.Entry<UUID, T> change : segmentChanges) {
+                    changeConsumer.accept(change.getKey(), change.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the last segment of a delta file if it was not completely written (i.e. the program was closed while saving).
+     * The segments appended after it would never be read, because the reader stops at the first incomplete segment.
+     * The blocks are skipped without reading their records, only their headers are needed to know their size.
+     */
+    private void truncateTornSnapshotDeltaSegment(File deltaFile) throws IOException {
+        if (!deltaFile.isFile()) {
+            return;
+        }
+
+        // The size of the segments that end with their end of file marker
+        long completeSegmentsSize = 0;
+
+        try (DataInputStream input =
+                 new DataInputStream(new BufferedInputStream(new FileInputStream(deltaFile)))) {
+
+            while (hasMoreBytes(input)) {
+                completeSegmentsSize += skipSnapshotDeltaSegment(input);
+            }
+        } catch (EOFException e) {
+            // The last segment is incomplete, it is removed below
+        }
+
+        if (completeSegmentsSize < deltaFile.length()) {
+            try (FileChannel channel = FileChannel.open(deltaFile.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(completeSegmentsSize);
+            }
+        }
+    }
+
+    /**
+     * @return The size of the segment, header and end of file marker included.
+     * @throws EOFException If the file ends before the end of file marker of the segment.
+     */
+    private long skipSnapshotDeltaSegment(DataInputStream input) throws IOException {
+        if (input.readInt() != SnapshotFormat.MAGIC) {
+            throw new IOException("Corrupted snapshot delta: invalid magic number");
+        }
+        short version = input.readShort();
+        input.readByte();
+
+        // Magic, version and record type
+        long segmentSize = Integer.BYTES + Short.BYTES + Byte.BYTES;
+
+        while (true) {
+            int storedSize = input.readInt();
+            int numberOfRecords = input.readInt();
+            segmentSize += 2 * Integer.BYTES;
+
+            // A block without records marks the end of the segment
+            if (storedSize == 0 && numberOfRecords == 0) {
+                return segmentSize;
+            }
+
+            if (storedSize < 0 || numberOfRecords < 0) {
+                throw new IOException("Corrupted snapshot delta: invalid block header");
+            }
+
+            if (version >= SnapshotFormat.COMPRESSED_BLOCKS_VERSION) {
+                // Compression and payload length
+                input.skipNBytes(Byte.BYTES + Integer.BYTES);
+                segmentSize += Byte.BYTES + Integer.BYTES;
+            }
+
+            // Stored payload and checksum
+            input.skipNBytes((long) storedSize + Integer.BYTES);
+            segmentSize += storedSize + Integer.BYTES;
+        }
+    }
+
+    private boolean hasMoreBytes(DataInputStream input) throws IOException {
+        input.mark(1);
+        boolean hasMoreBytes = input.read() != -1;
+        input.reset();
+        return hasMoreBytes;
+    }
+
+    /**
+     * Moves the new snapshot over the old one and deletes the deltas of the old snapshot.
+     */
+    private void replaceSnapshotFile(File temporaryFile, File temporaryIndexFile, String filePath) throws IOException {
+        replaceFile(temporaryFile, filePath);
+
+        // If the program stops before the index is moved, the old index does not match the new snapshot
+        // and it is ignored
+        replaceFile(temporaryIndexFile, filePath + SnapshotFormat.INDEX_EXTENSION);
+
+        Files.deleteIfExists(new File(filePath + SnapshotFormat.DELTA_EXTENSION).toPath());
+    }
+
+    private void replaceFile(File temporaryFile, String filePath) throws IOException {
+        Path path = new File(filePath).toPath();
+
+        // Reference: https://docs.oracle.com/javase/tutorial/essential/io/move.html
+        try {
+            Files.move(temporaryFile.toPath(), path,
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaryFile.toPath(), path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
 
+    /**
+     * Saves animals and owners to a paged archive file, see PagedArchiveFormat.
+     *
+     * Unlike the snapshot files, a paged archive has an index sorted by id at the end of the file,
+     * so openPagedArchiveFile can find a single animal or owner without reading the whole file.
+     *
+     * @param filePath The path to the archive file.
+     * @param animals  The animals to save.
+     * @param owners   The owners to save.
+     * @throws IOException If an I/O error occurs while writing the file.
+     * @throws IllegalArgumentException If there are two animals or two owners with the same id.
+     */
+    public void savePagedArchiveFile(String filePath, Iterable<Animal> animals, Iterable<Owner> owners)
+        throws IOException {
+        long startTime = metrics.start(SAVE_PAGED_ARCHIVE_FILE);
+        try {
+            doSavePagedArchiveFile(filePath, animals, owners);
+        } finally {
+            metrics.stop(SAVE_PAGED_ARCHIVE_FILE, startTime);
+        }
     }
 
+    private void doSavePagedArchiveFile(String filePath, Iterable<Animal> animals, Iterable<Owner> owners)
+        throws IOException {
+        File temporaryFile = new File(filePath + TEMPORARY_FILE_EXTENSION);
 
+        try (PagedArchiveWriter writer = new PagedArchiveWriter(new FileOutputStream(temporaryFile))) {
 
+            for (Animal animal : animals) {
+                writer.writeAnimal(animal);
+            }
+            for (Owner owner : owners) {
+                writer.writeOwner(owner);
+            }
+            writer.finish();
+        }
 
+        replaceFile(temporaryFile, filePath);
+    }
+
+    /**
+     * Opens a paged archive file to find animals, owners and vaccines by id,
+     * keeping the last PagedArchiveReader.DEFAULT_CACHED_PAGES pages read in memory.
+     * Remember to close the reader.
+     *
+     * @param filePath The path to the archive file.
+     * @return The reader of the archive.
+     * @throws IOException If the file is not a paged archive or an I/O error occurs while reading it.
+     */
+    public PagedArchiveReader openPagedArchiveFile(String filePath) throws IOException {
+        long startTime = metrics.start(OPEN_PAGED_ARCHIVE_FILE);
+        try {
+            return doOpenPagedArchiveFile(filePath, PagedArchiveReader.DEFAULT_CACHED_PAGES);
+        } finally {
+            metrics.stop(OPEN_PAGED_ARCHIVE_FILE, startTime);
+        }
+    }
+
+    /**
+     * Opens a paged archive file to find animals, owners and vaccines by id.
+     * Remember to close the reader.
+     *
+     * @param filePath    The path to the archive file.
+     * @param cachedPages The number of pages kept in memory.
+     * @return The reader of the archive.
+     * @throws IOException If the file is not a paged archive or an I/O error occurs while reading it.
+     * @throws IllegalArgumentException If cachedPages is lower than 1.
+     */
+    public PagedArchiveReader openPagedArchiveFile(String filePath, int cachedPages) throws IOException {
+        long startTime = metrics.start(OPEN_PAGED_ARCHIVE_FILE);
+        try {
+            return doOpenPagedArchiveFile(filePath, cachedPages);
+        } finally {
+            metrics.stop(OPEN_PAGED_ARCHIVE_FILE, startTime);
+        }
+    }
+
+    private PagedArchiveReader doOpenPagedArchiveFile(String filePath, int cachedPages) throws IOException {
+        return new PagedArchiveReader(new File(filePath).toPath(), cachedPages);
+    }
+
+    /**
+     * Saves animals to a columnar file, see ColumnarFormat. The vaccines are saved in their own file,
+     * see saveVaccinesToColumnarFile.
+     *
+     * Columns: id (UUID), name (PLAIN_STRING), age (VAR_INT), owners (UUID_LIST).
+     *
+     * @param filePath The path to the columnar file.
+     * @param animals  The animals to save.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    public void saveAnimalsToColumnarFile(String filePath, Iterable<Animal> animals) throws IOException {
+        long startTime = metrics.start(SAVE_ANIMALS_TO_COLUMNAR_FILE);
+        try {
+            doSaveAnimalsToColumnarFile(filePath, animals);
+        } finally {
+            metrics.stop(SAVE_ANIMALS_TO_COLUMNAR_FILE, startTime);
+        }
+    }
+
+    private void doSaveAnimalsToColumnarFile(String filePath, Iterable<Animal> animals) throws IOException {
+        saveColumnarFile(filePath, ColumnarFormat.ANIMALS_TABLE, animals, List.of(
+            ColumnarWriter.Column.uuid(AnimalAttributesEnum.ID.getHeaderName(), Animal::getId),
+            ColumnarWriter.Column.plainString(AnimalAttributesEnum.NAME.getHeaderName(), Animal::getName),
+            ColumnarWriter.Column.varInt(AnimalAttributesEnum.AGE.getHeaderName(), Animal::getAge),
+            ColumnarWriter.Column.uuidList(AnimalAttributesEnum.OWNERS.getHeaderName(), Animal::getOwnerIds)));
+    }
 
+    /**
+     * Saves the vaccines of the animals to a columnar file, one row per vaccine, see ColumnarFormat.
+     *
+     * Columns: id (UUID), volume (VAR_INT), brand (DICTIONARY), dateOfApplication (DELTA of epoch days),
+     * animalId (UUID).
+     *
+     * @param filePath The path to the columnar file.
+     * @param animals  The animals whose vaccines are saved.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    public void saveVaccinesToColumnarFile(String filePath, Iterable<Animal> animals) throws IOException {
+        long startTime = metrics.start(SAVE_VACCINES_TO_COLUMNAR_FILE);
+        try {
+            doSaveVaccinesToColumnarFile(filePath, animals);
+        } finally {
+            metrics.stop(SAVE_VACCINES_TO_COLUMNAR_FILE, startTime);
+        }
+    }
+
+    private void doSaveVaccinesToColumnarFile(String filePath, Iterable<Animal> animals) throws IOException {
+        // The vaccines are produced while the file is written, walking the animals and then their vaccines,
+        // so only the rows of one chunk are kept at a time (see ColumnarWriter)
+        Iterable<Map.Entry<UUID, Vaccine>> vaccinesWithAnimalId = () ->
+            StreamSupport.stream(animals.spliterator(), false)
+                .flatMap(animal -> animal.getVaccines().stream()
+                    .map(vaccine -> Map.entry(animal.getId(), vaccine)))
+                .iterator();
+
+        saveColumnarFile(filePath, ColumnarFormat.VACCINES_TABLE, vaccinesWithAnimalId, List.of(
+            ColumnarWriter.Column.uuid(VaccineAttributesEnum.ID.getHeaderName(),
+                entry -> entry.getValue().getID()),
+            ColumnarWriter.Column.varInt(VaccineAttributesEnum.VOLUME.getHeaderName(),
+                entry -> entry.getValue().getVolumeInMl()),
+            ColumnarWriter.Column.dictionary(VaccineAttributesEnum.BRAND.getHeaderName(),
+                entry -> entry.getValue().getBrand()),
+            ColumnarWriter.Column.delta(VaccineAttributesEnum.DATE_OF_APPLICATION.getHeaderName(),
+                entry -> entry.getValue().getDateOfApplicationEpochDay()),
+            ColumnarWriter.Column.uuid(VaccineAttributesEnum.ANIMAL_ID.getHeaderName(), Map.Entry::getKey)));
+    }
+
+    /**
+     * Saves owners to a columnar file, see ColumnarFormat. The file is meant for analysis, so the passwords are not saved.
+     *
+     * Columns: id (UUID), name, username, email (PLAIN_STRING), age (VAR_INT), phone, address (PLAIN_STRING),
+     * city, state, country (DICTIONARY), zipcode (PLAIN_STRING), animalIds (UUID_LIST).
+     *
+     * @param filePath The path to the columnar file.
+     * @param owners   The owners to save.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    public void saveOwnersToColumnarFile(String filePath, Iterable<Owner> owners) throws IOException {
+        long startTime = metrics.start(SAVE_OWNERS_TO_COLUMNAR_FILE);
+        try {
+            doSaveOwnersToColumnarFile(filePath, owners);
+        } finally {
+            metrics.stop(SAVE_OWNERS_TO_COLUMNAR_FILE, startTime);
+        }
+    }
+
+    private void doSaveOwnersToColumnarFile(String filePath, Iterable<Owner> owners) throws IOException {
+        saveColumnarFile(filePath, ColumnarFormat.OWNERS_TABLE, owners, List.of(
+            ColumnarWriter.Column.uuid(OwnerAttributesEnum.ID.getHeader(), Owner::getId),
+            ColumnarWriter.Column.plainString(OwnerAttributesEnum.NAME.getHeader(), Owner::getName),
+            ColumnarWriter.Column.plainString(OwnerAttributesEnum.USERNAME.getHeader(), Owner::getUsername),
+            ColumnarWriter.Column.plainString(OwnerAttributesEnum.EMAIL.getHeader(), Owner::getEmail),
+            ColumnarWriter.Column.varInt(OwnerAttributesEnum.AGE.getHeader(), Owner::getAge),
+            ColumnarWriter.Column.plainString(OwnerAttributesEnum.PHONE.getHeader(), Owner::getPhone),
+            ColumnarWriter.Column.plainString(OwnerAttributesEnum.ADDRESS.getHeader(), Owner::getAddress),
+            ColumnarWriter.Column.dictionary(OwnerAttributesEnum.CITY.getHeader(), Owner::getCity),
+            ColumnarWriter.Column.dictionary(OwnerAttributesEnum.STATE.getHeader(), Owner::getState),
+            ColumnarWriter.Column.dictionary(OwnerAttributesEnum.COUNTRY.getHeader(), Owner::getCountry),
+            ColumnarWriter.Column.plainString(OwnerAttributesEnum.ZIPCODE.getHeader(), Owner::getZip),
+            ColumnarWriter.Column.uuidList(OwnerAttributesEnum.ANIMAL_IDS.getHeader(), Owner::getAnimalIds)));
+    }
+
+    /**
+     * Opens a columnar file to scan some of its columns. Remember to close the reader.
+     *
+     * @param filePath The path to the columnar file.
+     * @return The reader of the file.
+     * @throws IOException If the file is not a columnar file or an I/O error occurs while reading it.
+     */
+    public ColumnarFileReader openColumnarFile(String filePath) throws IOException {
+        long startTime = metrics.start(OPEN_COLUMNAR_FILE);
+        try {
+            return doOpenColumnarFile(filePath);
+        } finally {
+            metrics.stop(OPEN_COLUMNAR_FILE, startTime);
+        }
+    }
+
+    private ColumnarFileReader doOpenColumnarFile(String filePath) throws IOException {
+        return new ColumnarFileReader(new File(filePath).toPath());
+    }
+
+    private <T> void saveColumnarFile(String filePath,
+                                      byte tableType,
+                                      Iterable<T> rows,
+                                      List<ColumnarWriter.Column<T>> columns) throws IOException {
+
+        File temporaryFile = new File(filePath + TEMPORARY_FILE_EXTENSION);
+
+        try (ColumnarWriter<T> writer = new ColumnarWriter<>(new FileOutputStream(temporaryFile), tableType, columns)) {
+            for (T row : rows) {
+                writer.writeRow(row);
+            }
+            writer.finish();
+        }
+
+        replaceFile(temporaryFile, filePath);
+    }
+
+    /**
+     * Checks if a file was written with the snapshot format or with Java serialization.
+     *
+     * @param filePath The path to the binary file.
+     * @return True if the file starts with the snapshot magic number.
+     * @throws IOException If an I/O error occurs while reading the file.
+     */
+    public boolean isSnapshotFile(String filePath) throws IOException {
+        long startTime = metrics.start(IS_SNAPSHOT_FILE);
+        try {
+            return doIsSnapshotFile(filePath);
+        } finally {
+            metrics.stop(IS_SNAPSHOT_FILE, startTime);
+        }
+    }
+
+    private boolean doIsSnapshotFile(String filePath) throws IOException {
+        try (DataInputStream dis = new DataInputStream(new FileInputStream(filePath))) {
+            return dis.readInt() == SnapshotFormat.MAGIC;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
 }
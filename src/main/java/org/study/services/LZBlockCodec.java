@@ -0,0 +1,192 @@
+package org.study.services;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A small LZ77 codec, with a block format similar to the one used by LZ4.
+ *
+ * The compressed block is a list of sequences. Every sequence has:
+ *  - a token byte: the high 4 bits are the number of literals, the low 4 bits are the match length minus 4
+ *    (when a value does not fit in 4 bits, the rest is written in the next bytes, 255 at a time)
+ *  - the literals, copied as they are
+ *  - the offset of the match (2 bytes, little endian): how many bytes back the repeated bytes start
+ * The last sequence only has literals.
+ *
+ * Repeated bytes are found with a hash table of the last position where each group of 4 bytes was seen,
+ * so the compressor does a single pass over the block.
+ *
+ * Reference: https://github.com/lz4/lz4/blob/dev/doc/lz4_Block_format.md
+ * Reference: https://en.wikipedia.org/wiki/LZ77_and_LZ78
+ */
+class LZBlockCodec {
+
+    private static final int MIN_MATCH = 4;
+    private static final int MAX_OFFSET = 65535;
+
+    // The last bytes of a block are always written as literals
+    private static final int LAST_LITERALS = 5;
+
+    private static final int HASH_BITS = 14;
+    private static final int RUN_MASK = 15;
+
+    private final int[] hashTable = new int[1 << HASH_BITS];
+
+    /**
+     * The biggest size a block of this length can have after being compressed.
+     */
+    static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compresses length bytes of source into destination.
+     *
+     * @param destination Must have at least maxCompressedLength(length) bytes.
+     * @return The number of bytes written into destination.
+     */
+    int compress(byte[] source, int length, byte[] destination) {
+        Arrays.fill(hashTable, -1);
+
+        int anchor = 0;
+        int position = 0;
+        int output = 0;
+        int matchLimit = length - LAST_LITERALS;
+
+        while (position + MIN_MATCH <= matchLimit) {
+            int sequence = readInt(source, position);
+            int hash = (sequence * -1640531535) >>> (Integer.SIZE - HASH_BITS);
+            int reference = hashTable[hash];
+            hashTable[hash] = position;
+
+            if (reference < 0
+                || position - reference > MAX_OFFSET
+                || readInt(source, reference) != sequence) {
+                position++;
+                continue;
+            }
+
+            int matchLength = MIN_MATCH;
+            while (position + matchLength < matchLimit
+                && source[reference + matchLength] == source[position + matchLength]) {
+                matchLength++;
+            }
+
+            output = writeSequence(source, anchor, position - anchor, matchLength - MIN_MATCH, destination, output);
+
+            // Offset, little endian
+            int offset = position - reference;
+            destination[output++] = (byte) offset;
+            destination[output++] = (byte) (offset >>> 8);
+
+            if (matchLength - MIN_MATCH >= RUN_MASK) {
+                output = writeLength(matchLength - MIN_MATCH - RUN_MASK, destination, output);
+            }
+
+            position += matchLength;
+            anchor = position;
+        }
+
+        // Last literals
+        return writeSequence(source, anchor, length - anchor, 0, destination, output);
+    }
+
+    /**
+     * Decompresses a block compressed with compress.
+     *
+     * @param destination Must have at least uncompressedLength bytes.
+     * @throws IOException If the block is corrupted.
+     */
+    void decompress(byte[] source, int length, byte[] destination, int uncompressedLength) throws IOException {
+        int position = 0;
+        int output = 0;
+
+        try {
+            while (true) {
+                int token = source[position++] & 0xFF;
+
+                int literals = token >>> 4;
+                if (literals == RUN_MASK) {
+                    int extra;
+                    do {
+                        extra = source[position++] & 0xFF;
+                        literals += extra;
+                    } while (extra == 255);
+                }
+
+                System.arraycopy(source, position, destination, output, literals);
+                position += literals;
+                output += literals;
+
+                if (position >= length) {
+                    break;
+                }
+
+                int offset = (source[position] & 0xFF) | (source[position + 1] & 0xFF) << 8;
+                position += 2;
+
+                int matchLength = token & RUN_MASK;
+                if (matchLength == RUN_MASK) {
+                    int extra;
+                    do {
+                        extra = source[position++] & 0xFF;
+                        matchLength += extra;
+                    } while (extra == 255);
+                }
+                matchLength += MIN_MATCH;
+
+                if (offset == 0 || offset > output || output + matchLength > uncompressedLength) {
+                    throw new IOException("Corrupted LZ block: invalid match");
+                }
+
+                // The match can overlap the bytes being written, so it is copied byte by byte
+                for (int i = 0; i < matchLength; i++) {
+                    destination[output] = destination[output - offset];
+                    output++;
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Corrupted LZ block", e);
+        }
+
+        if (output != uncompressedLength) {
+            throw new IOException("Corrupted LZ block: unexpected length");
+        }
+    }
+
+    /**
+     * Writes the token and the literals of a sequence.
+     */
+    private int writeSequence(byte[] source,
+                              int start,
+                              int literals,
+                              int matchLengthMinusMinMatch,
+                              byte[] destination,
+                              int output) {
+        destination[output++] =
+            (byte) (Math.min(literals, RUN_MASK) << 4 | Math.min(matchLengthMinusMinMatch, RUN_MASK));
+
+        if (literals >= RUN_MASK) {
+            output = writeLength(literals - RUN_MASK, destination, output);
+        }
+
+        System.arraycopy(source, start, destination, output, literals);
+        return output + literals;
+    }
+
+    private int writeLength(int length, byte[] destination, int output) {
+        while (length >= 255) {
+            destination[output++] = (byte) 255;
+            length -= 255;
+        }
+        destination[output++] = (byte) length;
+        return output;
+    }
+
+    private int readInt(byte[] bytes, int position) {
+        return (bytes[position] & 0xFF)
+            | (bytes[position + 1] & 0xFF) << 8
+            | (bytes[position + 2] & 0xFF) << 16
+            | (bytes[position + 3] & 0xFF) << 24;
+    }
+}
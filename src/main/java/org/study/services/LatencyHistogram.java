@@ -0,0 +1,172 @@
+package org.study.services;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The distribution of some durations in nanoseconds (see MetricsRegistry.histogram).
+ *
+ * The buckets are log-linear: every power of two is split in 8 buckets of the same width, so a duration is
+ * stored with an error under 12.5%, whether it is 100 nanoseconds or 10 seconds, and the whole range of a long
+ * needs 488 buckets. The bucket of a duration is found with a few bit operations, without searching.
+ * Every bucket is a LongAdder, created the first time a duration falls in it.
+ *
+ * Reference: https://hdrhistogram.github.io/HdrHistogram/
+ * Reference: https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/atomic/LongAdder.html
+ */
+public final class LatencyHistogram {
+
+    // Each power of two is split in 2^SUB_BUCKET_BITS buckets
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // The values under 2 * SUB_BUCKETS (16) have a bucket each, the other 59 powers of two (up to 2^62)
+    // have SUB_BUCKETS buckets each
+    static final int NUMBER_OF_BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicReferenceArray<LongAdder> buckets = new AtomicReferenceArray<>(NUMBER_OF_BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    LatencyHistogram() {
+    }
+
+    /**
+     * @param nanoseconds The duration. A negative duration (i.e. a clock that went back) is stored as 0.
+     */
+    public void record(long nanoseconds) {
+        record(nanoseconds, 1);
+    }
+
+    /**
+     * Records the same duration several times, i.e. for a timed call that stands for the calls that were not timed.
+     *
+     * @param nanoseconds The duration. A negative duration (i.e. a clock that went back) is stored as 0.
+     * @param count       How many times the duration is recorded.
+     */
+    public void record(long nanoseconds, long count) {
+        long value = Math.max(nanoseconds, 0);
+
+        int index = bucketIndex(value);
+        LongAdder bucket = buckets.get(index);
+        if (bucket == null) {
+            buckets.compareAndSet(index, null, new LongAdder());
+            bucket = buckets.get(index);
+        }
+
+        // The count is the sum of the buckets, so a call only adds to its bucket
+        bucket.add(count);
+        sum.add(value * count);
+        max.accumulate(value);
+    }
+
+    /**
+     * @return The number of durations recorded.
+     */
+    public long getCount() {
+        long count = 0;
+        for (long bucketCount : getBucketCounts()) {
+            count += bucketCount;
+        }
+        return count;
+    }
+
+    /**
+     * @return The sum of the durations recorded, in nanoseconds.
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * @return The longest duration recorded, in nanoseconds, or 0 if none was recorded.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param percentile From 0 to 100, i.e. 99 for the duration that 99% of the durations do not exceed.
+     * @return The upper bound of the bucket of that duration (at most 12.5% over it), or 0 if none was recorded.
+     * @throws IllegalArgumentException If the percentile is not between 0 and 100.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+
+        long[] counts = getBucketCounts();
+        long total = 0;
+        for (long bucketCount : counts) {
+            total += bucketCount;
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        // Step 1: The position of the duration in the sorted durations, from 1 to total
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+
+        // Step 2: The bucket where that position is
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * @return The number of durations of every bucket. It is not an atomic snapshot if durations are being recorded.
+     */
+    long[] getBucketCounts() {
+        long[] counts = new long[NUMBER_OF_BUCKETS];
+        for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+            LongAdder bucket = buckets.get(i);
+            if (bucket != null) {
+                counts[i] = bucket.sum();
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * The bucket of a value is its power of two (the position of its highest bit) and the next SUB_BUCKET_BITS bits.
+     */
+    static int bucketIndex(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) | subBucket;
+    }
+
+    /**
+     * @return The smallest value of the bucket.
+     */
+    static long bucketLowerBound(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+
+        int exponent = (index >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+        long subBucket = index & (SUB_BUCKETS - 1);
+        return (SUB_BUCKETS | subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    /**
+     * @return The largest value of the bucket.
+     */
+    static long bucketUpperBound(int index) {
+        if (index == NUMBER_OF_BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        return bucketLowerBound(index + 1) - 1;
+    }
+}
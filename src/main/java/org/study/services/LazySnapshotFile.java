@@ -0,0 +1,182 @@
+package org.study.services;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A snapshot file whose records are read on demand, through its index (see SnapshotIndex).
+ *
+ * Opening it only maps the index and reads the deltas, so the services can answer queries right away:
+ * the first time a record is needed, the whole block that contains it is read ("faulted in"),
+ * and the records of that block are given to the service. Operations that need every record
+ * (reports, full saves...) read the rest of the file once with readRemainingRecords.
+ *
+ * The records changed or deleted by the deltas are never returned from the snapshot,
+ * the changed ones are returned by getDeltaRecords when the file is opened.
+ *
+ * Reference: https://en.wikipedia.org/wiki/Page_fault
+ * Reference: https://en.wikipedia.org/wiki/Lazy_loading
+ */
+class LazySnapshotFile<T> implements Closeable {
+
+    private final FileChannel channel;
+    private final SnapshotIndex index;
+    private final int version;
+    private final byte recordType;
+    private final Function<SnapshotReader, T> recordReader;
+    private final Function<T, UUID> idGetter;
+
+    // Final changes of the deltas by id, a null record means the id was deleted
+    private final Map<UUID, T> deltaChanges;
+
+    // Offsets of the blocks that were already read, and ids of the records returned from them
+    private final Set<Long> faultedBlocks = new HashSet<>();
+    private final Set<UUID> faultedIds = new HashSet<>();
+
+    LazySnapshotFile(Path snapshotPath,
+                     SnapshotIndex index,
+                     byte recordType,
+                     Function<SnapshotReader, T> recordReader,
+                     Function<T, UUID> idGetter,
+                     Map<UUID, T> deltaChanges) throws IOException {
+        this.index = index;
+        this.recordType = recordType;
+        this.recordReader = recordReader;
+        this.idGetter = idGetter;
+        this.deltaChanges = deltaChanges;
+
+        this.channel = FileChannel.open(snapshotPath, StandardOpenOption.READ);
+
+        try (SnapshotReader header = new SnapshotReader(openStream(0), recordType)) {
+            this.version = header.getVersion();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The records added or changed by the deltas, they are not in the index.
+     */
+    List<T> getDeltaRecords() {
+        return deltaChanges.values().stream()
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+    /**
+     * @return True if a delta deleted the record with this id.
+     */
+    boolean isDeleted(UUID id) {
+        return deltaChanges.containsKey(id) && deltaChanges.get(id) == null;
+    }
+
+    /**
+     * Reads the block that contains the record with this id.
+     *
+     * @return The records of the block, or an empty list if the id is not in the snapshot
+     *         or its block was already read.
+     */
+    List<T> faultInBlockOf(UUID id) throws IOException {
+        return faultInBlock(index.findBlockOffset(id));
+    }
+
+    /**
+     * Reads the block that contains the owner with this username.
+     *
+     * @return The records of the block, or an empty list if the username is not in the snapshot
+     *         or its block was already read.
+     */
+    List<T> faultInBlockOfUsername(String username) throws IOException {
+        return faultInBlock(index.findBlockOffsetByUsername(username));
+    }
+
+    /**
+     * Tells that the record with this id was deleted after the file was opened, it will not be returned anymore.
+     */
+    void markDeleted(UUID id) {
+        deltaChanges.put(id, null);
+    }
+
+    /**
+     * Reads the whole snapshot and gives to the consumer every record that was not returned yet
+     * and was not changed by the deltas, in the order of the file.
+     */
+    void readRemainingRecords(Consumer<T> recordConsumer) throws IOException {
+        try (SnapshotReader reader = new SnapshotReader(openStream(0), recordType)) {
+            while (reader.nextRecord()) {
+                T record = recordReader.apply(reader);
+                UUID id = idGetter.apply(record);
+
+                if (!deltaChanges.containsKey(id) && !faultedIds.contains(id)) {
+                    recordConsumer.accept(record);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private List<T> faultInBlock(long blockOffset) throws IOException {
+        List<T> records = new ArrayList<>();
+
+        if (blockOffset < 0 || faultedBlocks.contains(blockOffset)) {
+            return records;
+        }
+
+        try (SnapshotReader reader = new SnapshotReader(openStream(blockOffset), version)) {
+            // Only the records of this block: nextRecord() would read the next block
+            boolean hasRecord = reader.nextRecord();
+
+            while (hasRecord) {
+                T record = recordReader.apply(reader);
+
+                UUID id = idGetter.apply(record);
+
+                if (!deltaChanges.containsKey(id)) {
+                    records.add(record);
+                    faultedIds.add(id);
+                }
+
+                hasRecord = reader.hasMoreRecordsInBlock() && reader.nextRecord();
+            }
+        }
+
+        faultedBlocks.add(blockOffset);
+        return records;
+    }
+
+    /**
+     * A stream that starts at a position of the snapshot file. Closing it does not close the channel.
+     */
+    private DataInputStream openStream(long position) throws IOException {
+        channel.position(position);
+
+        return new DataInputStream(new BufferedInputStream(
+            new FilterInputStream(Channels.newInputStream(channel)) {
+                @Override
+                public void close() {
+                    // The channel is closed by LazySnapshotFile.close()
+                }
+            }));
+    }
+}
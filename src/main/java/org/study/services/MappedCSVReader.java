@@ -0,0 +1,427 @@
+package org.study.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import org.study.model.EpochDays;
+
+/**
+ * Reads CSV files through a memory mapped buffer.
+ *
+ * Instead of reading every line into a String and splitting it with line.split(delimiter),
+ * this reader scans the delimiter and new line bytes directly on the mapped file and keeps,
+ * for every row, the byte offsets where each column starts and ends.
+ * Numbers, UUIDs and dates are parsed straight from those bytes, so only the text columns
+ * (names, brands, cities...) end up being converted into Strings.
+ *
+ * The file is mapped as it is, so compressed (gzip) CSV files cannot be read with this class,
+ * they must be read with the line based loaders of FileService.
+ *
+ * References:
+ * - Reference: https://docs.oracle.com/javase/8/docs/api/java/nio/channels/FileChannel.html#map-java.nio.channels.FileChannel.MapMode-long-long-
+ * - Reference: https://www.baeldung.com/java-mapped-byte-buffer
+ */
+class MappedCSVReader {
+
+    // A MappedByteBuffer is indexed with an int, so bigger files are mapped in several windows.
+    private static final long MAX_WINDOW_SIZE = Integer.MAX_VALUE;
+
+    // Files smaller than this are not worth splitting between several threads.
+    private static final long MIN_CHUNK_SIZE = 1024 * 1024;
+
+    // Size of the buffer used to look for the new line that closes a chunk.
+    private static final int BOUNDARY_SEARCH_BUFFER_SIZE = 4096;
+
+    private static final byte NEW_LINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    private static final int DATE_LENGTH = 10;
+
+    private MappedCSVReader() {
+    }
+
+    /**
+     * Maps the file and hands every non empty line to the consumer.
+     * The same Row object is reused for every line, so the consumer must not keep a reference to it.
+     *
+     * @param path            The path of the CSV file.
+     * @param delimiter       The byte used to separate the columns.
+     * @param numberOfColumns The number of columns to locate in each line.
+     * @param rowConsumer     The consumer that receives every parsed row.
+     * @throws IOException If an I/O error occurs while mapping the file.
+     */
+    static void readFile(Path path, byte delimiter, int numberOfColumns, Consumer<Row> rowConsumer)
+        throws IOException {
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            checkNotCompressed(channel, path);
+
+            long size = channel.size();
+            long position = 0;
+            Row row = new Row(delimiter, numberOfColumns);
+
+            while (position < size) {
+                long windowSize = Math.min(MAX_WINDOW_SIZE, size - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+
+                int end = (int) windowSize;
+
+                // If this is not the last window, stop after the last complete line,
+                // the next window will start with the line that was cut.
+                if (position + windowSize < size) {
+                    end = lastIndexOf(buffer, NEW_LINE, end) + 1;
+
+                    if (end == 0) {
+                        throw new IOException("Line too long to be memory mapped in " + path);
+                    }
+                }
+
+                readRange(buffer, 0, end, row, rowConsumer);
+                position += end;
+            }
+        }
+    }
+
+    /**
+     * Splits the file into byte ranges that start at the beginning of a line, parses each range
+     * on a different thread and returns the parsed rows in the same order they have in the file.
+     *
+     * Reference: https://docs.oracle.com/javase/tutorial/collections/streams/parallelism.html
+     *
+     * @param path            The path of the CSV file.
+     * @param delimiter       The byte used to separate the columns.
+     * @param numberOfColumns The number of columns to locate in each line.
+     * @param rowParser       Converts a row into an object, it is called from several threads at the same time.
+     * @return The parsed rows, in the order of the file.
+     * @throws IOException If an I/O error occurs while reading the file.
+     */
+    static <T> List<T> readFileInParallel(Path path,
+                                          byte delimiter,
+                                          int numberOfColumns,
+                                          Function<Row, T> rowParser) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            checkNotCompressed(channel, path);
+
+            long[] chunkBoundaries = splitIntoChunks(channel);
+
+            // The stream is ordered, so flatMap keeps the chunks (and their rows) in the order of the file
+            // even if they are parsed in parallel.
+            return IntStream.range(0, chunkBoundaries.length - 1)
+                .parallel()
+                .mapToObj(chunk -> readChunk(
+                    channel,
+                    chunkBoundaries[chunk],
+                    chunkBoundaries[chunk + 1],
+                    delimiter,
+                    numberOfColumns,
+                    rowParser))
+                .flatMap(List::stream)
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static <T> List<T> readChunk(FileChannel channel,
+                                         long start,
+                                         long end,
+                                         byte delimiter,
+                                         int numberOfColumns,
+                                         Function<Row, T> rowParser) {
+        List<T> parsedRows = new ArrayList<>();
+
+        if (start == end) {
+            return parsedRows;
+        }
+
+        try {
+            if (end - start > MAX_WINDOW_SIZE) {
+                throw new IOException("Line too long to be memory mapped");
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+
+            // Every chunk has its own Row, the rows are not thread safe
+            readRange(buffer, 0, (int) (end - start), new Row(delimiter, numberOfColumns),
+                row -> parsedRows.add(rowParser.apply(row)));
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return parsedRows;
+    }
+
+    /**
+     * Fails if the file starts with the gzip magic number, the compressed bytes would be parsed as text.
+     */
+    private static void checkNotCompressed(FileChannel channel, Path path) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(2);
+
+        if (channel.read(magic, 0) == 2
+            && ((magic.get(0) & 0xFF) | (magic.get(1) & 0xFF) << 8) == GZIPInputStream.GZIP_MAGIC) {
+            throw new IOException("The file " + path + " is compressed, it cannot be memory mapped");
+        }
+    }
+
+    /**
+     * Returns the positions where each chunk starts, plus the size of the file as the last element.
+     * Every position (but the first and the last) is moved forward to the start of the next line,
+     * so no line is split between two chunks.
+     */
+    private static long[] splitIntoChunks(FileChannel channel) throws IOException {
+        long size = channel.size();
+
+        long chunksByProcessors = Math.min(Runtime.getRuntime().availableProcessors(), size / MIN_CHUNK_SIZE);
+        long chunksByWindowSize = (size + MAX_WINDOW_SIZE - 1) / MAX_WINDOW_SIZE;
+        int numberOfChunks = (int) Math.max(1, Math.max(chunksByProcessors, chunksByWindowSize));
+
+        long[] chunkBoundaries = new long[numberOfChunks + 1];
+        chunkBoundaries[numberOfChunks] = size;
+
+        for (int chunk = 1; chunk < numberOfChunks; chunk++) {
+            long approximateStart = Math.max(size / numberOfChunks * chunk, chunkBoundaries[chunk - 1]);
+            chunkBoundaries[chunk] = findNextLineStart(channel, approximateStart, size);
+        }
+
+        return chunkBoundaries;
+    }
+
+    private static long findNextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SEARCH_BUFFER_SIZE);
+
+        while (position < size) {
+            buffer.clear();
+            int bytesRead = channel.read(buffer, position);
+
+            if (bytesRead <= 0) {
+                break;
+            }
+
+            int newLine = indexOf(buffer, NEW_LINE, 0, bytesRead);
+            if (newLine < bytesRead) {
+                return position + newLine + 1;
+            }
+
+            position += bytesRead;
+        }
+
+        return size;
+    }
+
+    /**
+     * Hands every non empty line between from (inclusive) and to (exclusive) to the consumer.
+     * The range must start at the beginning of a line.
+     */
+    static void readRange(ByteBuffer buffer, int from, int to, Row row, Consumer<Row> rowConsumer) {
+        int lineStart = from;
+
+        while (lineStart < to) {
+            int lineEnd = indexOf(buffer, NEW_LINE, lineStart, to);
+            int nextLineStart = lineEnd + 1;
+
+            // Support files written on Windows (\r\n)
+            if (lineEnd > lineStart && buffer.get(lineEnd - 1) == CARRIAGE_RETURN) {
+                lineEnd--;
+            }
+
+            // Files.readAllLines ignores the last new line of the file, we ignore every empty line.
+            if (lineEnd > lineStart) {
+                row.reset(buffer, lineStart, lineEnd);
+                rowConsumer.accept(row);
+            }
+
+            lineStart = nextLineStart;
+        }
+    }
+
+    /**
+     * Converts the delimiter into the single byte the reader scans for.
+     *
+     * @throws IllegalArgumentException If the delimiter is not exactly one byte long.
+     */
+    static byte toDelimiterByte(String delimiter) {
+        if (delimiter == null) {
+            throw new IllegalArgumentException("Delimiter cannot be null");
+        }
+
+        byte[] bytes = delimiter.getBytes(StandardCharsets.UTF_8);
+
+        if (bytes.length != 1) {
+            throw new IllegalArgumentException("Delimiter must be a single character, found: " + delimiter);
+        }
+
+        return bytes[0];
+    }
+
+    static int indexOf(ByteBuffer buffer, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    static int lastIndexOf(ByteBuffer buffer, byte value, int to) {
+        for (int i = to - 1; i >= 0; i--) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static int parseInt(ByteBuffer buffer, int start, int end) {
+        if (start >= end) {
+            throw new NumberFormatException("Cannot parse an empty number");
+        }
+
+        boolean negative = buffer.get(start) == '-';
+        int position = negative || buffer.get(start) == '+' ? start + 1 : start;
+
+        if (position == end) {
+            throw new NumberFormatException("Cannot parse a number without digits");
+        }
+
+        // We accumulate the value as a negative number so Integer.MIN_VALUE can be parsed too
+        int result = 0;
+        for (; position < end; position++) {
+            int digit = buffer.get(position) - '0';
+
+            if (digit < 0 || digit > 9 || result < (Integer.MIN_VALUE + digit) / 10) {
+                throw new NumberFormatException("Invalid number: " + decode(buffer, start, end));
+            }
+            result = result * 10 - digit;
+        }
+
+        if (!negative && result == Integer.MIN_VALUE) {
+            throw new NumberFormatException("Invalid number: " + decode(buffer, start, end));
+        }
+
+        return negative ? result : -result;
+    }
+
+    /**
+     * Parses a date with the dd/MM/yyyy format used in the vaccines file.
+     *
+     * @return The epoch day of the date (see EpochDays).
+     */
+    static int parseDate(ByteBuffer buffer, int start, int end) {
+        if (end - start != DATE_LENGTH
+            || buffer.get(start + 2) != '/'
+            || buffer.get(start + 5) != '/') {
+            throw new IllegalArgumentException("Date of application must be in the format dd/MM/yyyy");
+        }
+
+        int day = parseInt(buffer, start, start + 2);
+        int month = parseInt(buffer, start + 3, start + 5);
+        int year = parseInt(buffer, start + 6, end);
+
+        return EpochDays.resolve(year, month, day);
+    }
+
+    private static String decode(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A line of the CSV file, represented by the byte offsets where each column starts and ends.
+     */
+    static class Row {
+
+        private final byte delimiter;
+        private final int[] columnStarts;
+        private final int[] columnEnds;
+
+        private ByteBuffer buffer;
+        private int numberOfColumnsFound;
+
+        // Reused to decode the text columns, so we only allocate the resulting String
+        private byte[] textBuffer = new byte[64];
+
+        Row(byte delimiter, int numberOfColumns) {
+            this.delimiter = delimiter;
+            this.columnStarts = new int[numberOfColumns];
+            this.columnEnds = new int[numberOfColumns];
+        }
+
+        private void reset(ByteBuffer buffer, int lineStart, int lineEnd) {
+            this.buffer = buffer;
+            this.numberOfColumnsFound = 0;
+
+            int columnStart = lineStart;
+            while (numberOfColumnsFound < columnStarts.length) {
+                int columnEnd = indexOf(buffer, delimiter, columnStart, lineEnd);
+
+                columnStarts[numberOfColumnsFound] = columnStart;
+                columnEnds[numberOfColumnsFound] = columnEnd;
+                numberOfColumnsFound++;
+
+                if (columnEnd == lineEnd) {
+                    break;
+                }
+                columnStart = columnEnd + 1;
+            }
+        }
+
+        private void checkColumn(int column) {
+            if (column >= numberOfColumnsFound) {
+                throw new ArrayIndexOutOfBoundsException(
+                    String.format("Column %d not found, the line only has %d columns", column, numberOfColumnsFound));
+            }
+        }
+
+        String getString(int column) {
+            checkColumn(column);
+            int length = columnEnds[column] - columnStarts[column];
+
+            if (textBuffer.length < length) {
+                textBuffer = new byte[Math.max(length, textBuffer.length * 2)];
+            }
+
+            buffer.get(columnStarts[column], textBuffer, 0, length);
+            return new String(textBuffer, 0, length, StandardCharsets.UTF_8);
+        }
+
+        int getInt(int column) {
+            checkColumn(column);
+            return parseInt(buffer, columnStarts[column], columnEnds[column]);
+        }
+
+        UUID getUUID(int column) {
+            checkColumn(column);
+            return UUIDSetDecoder.decodeUUID(buffer, columnStarts[column], columnEnds[column]);
+        }
+
+        int getEpochDay(int column) {
+            checkColumn(column);
+            return parseDate(buffer, columnStarts[column], columnEnds[column]);
+        }
+
+        /**
+         * Decodes a set of ids with the format {id1, id2, id3} and hands each one to the consumer.
+         */
+        void forEachUUIDInSet(int column, UUIDSetDecoder.UUIDConsumer idConsumer) {
+            checkColumn(column);
+            UUIDSetDecoder.decode(buffer, columnStarts[column], columnEnds[column], idConsumer);
+        }
+    }
+}
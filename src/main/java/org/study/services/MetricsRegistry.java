@@ -0,0 +1,247 @@
+package org.study.services;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import org.study.services.enums.MetricTypeEnum;
+
+/**
+ * The counters, gauges and latency histograms of the program, exported as text.
+ *
+ * The services record how long their public methods take once a registry is given to them
+ * (see AnimalService.setMetricsRegistry), in the histogram "service_call_duration_nanoseconds" with the labels
+ * service and method. Until then they record nothing.
+ *
+ * Recording is lock free (see Counter and LatencyHistogram), the registry is only locked while registering a metric.
+ * The metrics are exported in the text exposition format of Prometheus, sorted by name and labels:
+ *
+ * # HELP animals_in_memory The animals in the list of the service.
+ * # TYPE animals_in_memory gauge
+ * animals_in_memory{service="AnimalService"} 200000
+ *
+ * Reference: https://prometheus.io/docs/instrumenting/exposition_formats/#text-based-format
+ * Reference: https://prometheus.io/docs/practices/naming/
+ */
+public final class MetricsRegistry {
+
+    // Reference: https://prometheus.io/docs/concepts/data_model/#metric-names-and-labels
+    private static final Pattern METRIC_NAME = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+    private static final Pattern LABEL_NAME = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*");
+
+    private static final String BUCKET_LABEL = "le";
+    private static final String INFINITY = "+Inf";
+
+    // Sorted by name, so the export is always in the same order
+    private final Map<String, MetricFamily> families = new ConcurrentSkipListMap<>();
+
+    /**
+     * Returns the counter with a name and labels, registering it the first time.
+     *
+     * @param name   The name of the counter, it should end with "_total".
+     * @param help   What the counter counts.
+     * @param labels The names and values of the labels, i.e. "service", "AnimalService".
+     * @return The counter.
+     * @throws IllegalArgumentException If the name or the labels are not valid,
+     * or the name is already used by a metric of another type.
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) register(name, help, MetricTypeEnum.COUNTER, labels, Counter::new, false);
+    }
+
+    /**
+     * Registers a gauge, replacing the gauge with the same name and labels.
+     *
+     * @param name   The name of the gauge.
+     * @param help   What the gauge measures.
+     * @param value  Gives the value of the gauge, it is called every time the metrics are exported.
+     * @param labels The names and values of the labels, i.e. "service", "AnimalService".
+     * @throws IllegalArgumentException If the name, the value or the labels are not valid,
+     * or the name is already used by a metric of another type.
+     */
+    public void gauge(String name, String help, LongSupplier value, String... labels) {
+        if (value == null) {
+            throw new IllegalArgumentException("Gauge value cannot be null");
+        }
+        register(name, help, MetricTypeEnum.GAUGE, labels, () -> value, true);
+    }
+
+    /**
+     * Returns the latency histogram with a name and labels, registering it the first time.
+     *
+     * @param name   The name of the histogram, it should end with "_nanoseconds".
+     * @param help   What the histogram measures.
+     * @param labels The names and values of the labels, i.e. "service", "AnimalService".
+     * @return The histogram.
+     * @throws IllegalArgumentException If the name or the labels are not valid,
+     * or the name is already used by a metric of another type.
+     */
+    public LatencyHistogram histogram(String name, String help, String... labels) {
+        return (LatencyHistogram) register(name, help, MetricTypeEnum.HISTOGRAM, labels, LatencyHistogram::new, false);
+    }
+
+    /**
+     * Generates the text exposition of the metrics, handing each line to the consumer as soon as it is produced.
+     * The values are read while they change, so the metrics of a line may include a call that the next line does not.
+     *
+     * @param lineConsumer Receives every line of the export.
+     */
+    public void writeTextExposition(Consumer<String> lineConsumer) {
+        for (MetricFamily family : families.values()) {
+            lineConsumer.accept("# HELP " + family.name + " " + escapeHelp(family.help));
+            lineConsumer.accept("# TYPE " + family.name + " " + family.type.getExpositionName());
+
+            for (Map.Entry<String, Object> metric : family.metricsByLabels.entrySet()) {
+                switch (family.type) {
+                    case COUNTER -> lineConsumer.accept(
+                        family.name + braces(metric.getKey()) + " " + ((Counter) metric.getValue()).getCount());
+                    case GAUGE -> lineConsumer.accept(
+                        family.name + braces(metric.getKey()) + " " + ((LongSupplier) metric.getValue()).getAsLong());
+                    case HISTOGRAM -> writeHistogram(
+                        family.name, metric.getKey(), (LatencyHistogram) metric.getValue(), lineConsumer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends the text exposition of the metrics, one line at a time.
+     *
+     * @param appendable Where the lines are appended (for example a Writer). It is not flushed nor closed.
+     * @throws IOException If the appendable throws an IOException.
+     */
+    public void writeTextExposition(Appendable appendable) throws IOException {
+        ReportAppender.appendLines(appendable, this::writeTextExposition);
+    }
+
+    /**
+     * Saves the text exposition of the metrics to a file, i.e. for the textfile collector of the node exporter.
+     *
+     * @param path        The path of the file.
+     * @param fileService The service used to write the file.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    public void saveToFile(String path, FileService fileService) throws IOException {
+        fileService.writeTextFileLineByLine(path, this::writeTextExposition);
+    }
+
+    /**
+     * Like Prometheus histograms, every bucket line counts the durations up to its bound (le), including the
+     * durations of the previous buckets. Only the buckets with durations are written.
+     */
+    private static void writeHistogram(String name,
+                                       String labels,
+                                       LatencyHistogram histogram,
+                                       Consumer<String> lineConsumer) {
+
+        String bucketLabelsPrefix = labels.isEmpty() ? "" : labels + ",";
+
+        long[] bucketCounts = histogram.getBucketCounts();
+        long cumulativeCount = 0;
+
+        for (int i = 0; i < bucketCounts.length; i++) {
+            if (bucketCounts[i] == 0) {
+                continue;
+            }
+            cumulativeCount += bucketCounts[i];
+            lineConsumer.accept(name + "_bucket{" + bucketLabelsPrefix + BUCKET_LABEL + "=\""
+                + LatencyHistogram.bucketUpperBound(i) + "\"} " + cumulativeCount);
+        }
+
+        // The count is the one of the buckets, so the +Inf bucket and the count always agree
+        lineConsumer.accept(name + "_bucket{" + bucketLabelsPrefix + BUCKET_LABEL + "=\"" + INFINITY + "\"} "
+            + cumulativeCount);
+        lineConsumer.accept(name + "_sum" + braces(labels) + " " + histogram.getSum());
+        lineConsumer.accept(name + "_count" + braces(labels) + " " + cumulativeCount);
+    }
+
+    private synchronized Object register(String name,
+                                         String help,
+                                         MetricTypeEnum type,
+                                         String[] labels,
+                                         Supplier<Object> newMetric,
+                                         boolean replace) {
+
+        if (name == null || !METRIC_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid metric name " + name);
+        }
+        if (help == null) {
+            throw new IllegalArgumentException("Metric help cannot be null");
+        }
+
+        String labelsText = formatLabels(labels);
+
+        MetricFamily family = families.computeIfAbsent(name, familyName -> new MetricFamily(familyName, help, type));
+        if (family.type != type) {
+            throw new IllegalArgumentException(String.format(
+                "Metric %s is a %s, not a %s", name, family.type.getExpositionName(), type.getExpositionName()));
+        }
+
+        if (replace) {
+            Object metric = newMetric.get();
+            family.metricsByLabels.put(labelsText, metric);
+            return metric;
+        }
+        return family.metricsByLabels.computeIfAbsent(labelsText, key -> newMetric.get());
+    }
+
+    /**
+     * @return The labels as they are written between the braces, i.e. service="AnimalService",method="findAnimalById"
+     */
+    private static String formatLabels(String[] labels) {
+        if (labels == null || labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be pairs of name and value");
+        }
+
+        StringBuilder labelsText = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            String labelName = labels[i];
+            String labelValue = labels[i + 1];
+
+            if (labelName == null || !LABEL_NAME.matcher(labelName).matches() || labelName.equals(BUCKET_LABEL)) {
+                throw new IllegalArgumentException("Invalid label name " + labelName);
+            }
+            if (labelValue == null) {
+                throw new IllegalArgumentException("Label value cannot be null");
+            }
+
+            if (i > 0) {
+                labelsText.append(',');
+            }
+            labelsText.append(labelName).append("=\"").append(escapeLabelValue(labelValue)).append('"');
+        }
+        return labelsText.toString();
+    }
+
+    private static String braces(String labels) {
+        return labels.isEmpty() ? "" : "{" + labels + "}";
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static String escapeLabelValue(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * The metrics with the same name, one per set of labels, sorted by labels.
+     */
+    private static final class MetricFamily {
+
+        private final String name;
+        private final String help;
+        private final MetricTypeEnum type;
+        private final Map<String, Object> metricsByLabels = new ConcurrentSkipListMap<>();
+
+        private MetricFamily(String name, String help, MetricTypeEnum type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+}
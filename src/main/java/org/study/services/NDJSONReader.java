@@ -0,0 +1,529 @@
+package org.study.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.study.model.Animal;
+import org.study.model.EpochDays;
+import org.study.model.Owner;
+import org.study.model.Vaccine;
+import org.study.services.enums.AnimalAttributesEnum;
+import org.study.services.enums.OwnerAttributesEnum;
+import org.study.services.enums.VaccineAttributesEnum;
+
+/**
+ * Reads animals, owners and the attention queue from newline delimited JSON, the format written by NDJSONWriter:
+ * one JSON object per line, with the CSV headers as member names.
+ *
+ *  Animal:  {"id":"...","name":"...","age":3,"owners":["..."],
+ *            "vaccines":[{"id":"...","volume":10,"brand":"...","dateOfApplication":"2023-08-31"}]}
+ *  Owner:   {"id":"...","name":"...","username":"...","email":"...","password":"...","age":30,"phone":"...",
+ *            "address":"...","city":"...","state":"...","country":"...","zipcode":"...","animalIds":["..."]}
+ *  Queue:   {"animalId":"..."}
+ *
+ * The reader is a pull parser: the characters are read into a fixed buffer and every member is decoded
+ * directly into the values of the model, without building a tree of JSON values or reading whole lines,
+ * so the memory used does not depend on the size of the file. Members with other names are skipped,
+ * and the members can be in any order.
+ *
+ * Reference: https://github.com/ndjson/ndjson-spec
+ * Reference: https://www.rfc-editor.org/rfc/rfc8259
+ */
+class NDJSONReader implements Closeable {
+
+    // The member of an animal with its vaccines
+    static final String VACCINES = "vaccines";
+
+    private static final int END_OF_FILE = -1;
+
+    private static final Map<String, OwnerAttributesEnum> OWNER_ATTRIBUTES_BY_HEADER = new HashMap<>();
+
+    static {
+        for (OwnerAttributesEnum attribute : OwnerAttributesEnum.values()) {
+            OWNER_ATTRIBUTES_BY_HEADER.put(attribute.getHeader(), attribute);
+        }
+    }
+
+    private final Reader reader;
+    private final char[] buffer = new char[64 * 1024];
+    private int position;
+    private int limit;
+
+    private int line = 1;
+    private int recordLine;
+
+    // Reused by every string that has escaped characters
+    private final StringBuilder escapedString = new StringBuilder();
+
+    NDJSONReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads a record of the current line, i.e. NDJSONReader::readAnimal.
+     */
+    @FunctionalInterface
+    interface RecordDecoder<T> {
+        T read(NDJSONReader reader) throws IOException;
+    }
+
+    /**
+     * Skips the blank lines before the next record.
+     *
+     * @return False if there are no more records.
+     */
+    boolean nextRecord() throws IOException {
+        skipWhitespace();
+        recordLine = line;
+        return peek() != END_OF_FILE;
+    }
+
+    /**
+     * @return The line where the current record starts, for the error messages.
+     */
+    int getRecordLine() {
+        return recordLine;
+    }
+
+    Animal readAnimal() throws IOException {
+        UUID id = null;
+        String name = null;
+        Integer age = null;
+        List<UUID> ownerIds = List.of();
+        List<Vaccine> vaccines = List.of();
+
+        expect('{');
+        for (boolean isFirst = true; nextMember(isFirst, '}'); isFirst = false) {
+            String member = readName();
+
+            if (member.equals(AnimalAttributesEnum.ID.getHeaderName())) {
+                id = readUUID();
+            } else if (member.equals(AnimalAttributesEnum.NAME.getHeaderName())) {
+                name = readString();
+            } else if (member.equals(AnimalAttributesEnum.AGE.getHeaderName())) {
+                age = readInt();
+            } else if (member.equals(AnimalAttributesEnum.OWNERS.getHeaderName())) {
+                ownerIds = readUUIDs();
+            } else if (member.equals(VACCINES)) {
+                vaccines = readVaccines();
+            } else {
+                skipValue();
+            }
+        }
+        endRecord();
+
+        Animal animal = new Animal(require(id, AnimalAttributesEnum.ID.getHeaderName()),
+            name, require(age, AnimalAttributesEnum.AGE.getHeaderName()));
+
+        for (UUID ownerId : ownerIds) {
+            animal.addOwnerId(ownerId);
+        }
+        animal.addVaccines(vaccines);
+
+        return animal;
+    }
+
+    Owner readOwner() throws IOException {
+        UUID id = null;
+        String name = null;
+        String username = null;
+        String email = null;
+        String password = null;
+        Integer age = null;
+        String phone = null;
+        String address = null;
+        String city = null;
+        String state = null;
+        String country = null;
+        String zip = null;
+        List<UUID> animalIds = List.of();
+
+        expect('{');
+        for (boolean isFirst = true; nextMember(isFirst, '}'); isFirst = false) {
+            OwnerAttributesEnum attribute = OWNER_ATTRIBUTES_BY_HEADER.get(readName());
+
+            if (attribute == null) {
+                skipValue();
+                continue;
+            }
+
+            switch (attribute) {
+                case ID -> id = readUUID();
+                case NAME -> name = readString();
+                case USERNAME -> username = readString();
+                case EMAIL -> email = readString();
+                case PASSWORD -> password = readString();
+                case AGE -> age = readInt();
+                case PHONE -> phone = readString();
+                case ADDRESS -> address = readString();
+                case CITY -> city = readString();
+                case STATE -> state = readString();
+                case COUNTRY -> country = readString();
+                case ZIPCODE -> zip = readString();
+                case ANIMAL_IDS -> animalIds = readUUIDs();
+            }
+        }
+        endRecord();
+
+        Owner owner = new Owner(require(id, OwnerAttributesEnum.ID.getHeader()),
+            name, username, email, password, require(age, OwnerAttributesEnum.AGE.getHeader()),
+            phone, address, city, state, country, zip);
+
+        for (UUID animalId : animalIds) {
+            owner.addAnimalId(animalId);
+        }
+
+        return owner;
+    }
+
+    /**
+     * @return The id of the animal of a line of the attention queue.
+     */
+    UUID readQueuedAnimalId() throws IOException {
+        UUID animalId = null;
+
+        expect('{');
+        for (boolean isFirst = true; nextMember(isFirst, '}'); isFirst = false) {
+            if (readName().equals(VaccineAttributesEnum.ANIMAL_ID.getHeaderName())) {
+                animalId = readUUID();
+            } else {
+                skipValue();
+            }
+        }
+        endRecord();
+
+        return require(animalId, VaccineAttributesEnum.ANIMAL_ID.getHeaderName());
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private List<Vaccine> readVaccines() throws IOException {
+        List<Vaccine> vaccines = new ArrayList<>();
+
+        expect('[');
+        for (boolean isFirst = true; nextMember(isFirst, ']'); isFirst = false) {
+            vaccines.add(readVaccine());
+        }
+
+        return vaccines;
+    }
+
+    private Vaccine readVaccine() throws IOException {
+        UUID id = null;
+        Integer volume = null;
+        String brand = null;
+        Integer dateOfApplication = null;
+
+        expect('{');
+        for (boolean isFirst = true; nextMember(isFirst, '}'); isFirst = false) {
+            String member = readName();
+
+            if (member.equals(VaccineAttributesEnum.ID.getHeaderName())) {
+                id = readUUID();
+            } else if (member.equals(VaccineAttributesEnum.VOLUME.getHeaderName())) {
+                volume = readInt();
+            } else if (member.equals(VaccineAttributesEnum.BRAND.getHeaderName())) {
+                brand = readString();
+            } else if (member.equals(VaccineAttributesEnum.DATE_OF_APPLICATION.getHeaderName())) {
+                dateOfApplication = EpochDays.parseIso(readString());
+            } else {
+                skipValue();
+            }
+        }
+
+        return new Vaccine(require(id, VaccineAttributesEnum.ID.getHeaderName()),
+            require(volume, VaccineAttributesEnum.VOLUME.getHeaderName()),
+            brand,
+            (int) require(dateOfApplication, VaccineAttributesEnum.DATE_OF_APPLICATION.getHeaderName()));
+    }
+
+    private <T> T require(T value, String member) throws IOException {
+        if (value == null) {
+            throw invalidJSON("the member " + member + " is missing");
+        }
+        return value;
+    }
+
+    /**
+     * Moves to the next member of an object (or element of an array), after the opening character
+     * or after the previous value.
+     *
+     * @param isFirst True if no member was read yet.
+     * @param end     The character that closes the object or the array.
+     * @return False if the object or the array ended.
+     */
+    private boolean nextMember(boolean isFirst, char end) throws IOException {
+        skipWhitespace();
+
+        if (peek() == end) {
+            position++;
+            return false;
+        }
+
+        if (!isFirst) {
+            expect(',');
+        }
+        return true;
+    }
+
+    private String readName() throws IOException {
+        String name = readString();
+        expect(':');
+        return name;
+    }
+
+    /**
+     * The record must be the only thing in its line.
+     */
+    private void endRecord() throws IOException {
+        while (true) {
+            int character = peek();
+
+            if (character == END_OF_FILE) {
+                return;
+            }
+            if (character == '\n') {
+                position++;
+                line++;
+                return;
+            }
+            if (character != ' ' && character != '\t' && character != '\r') {
+                throw invalidJSON("a record must be followed by a new line");
+            }
+            position++;
+        }
+    }
+
+    private List<UUID> readUUIDs() throws IOException {
+        List<UUID> ids = new ArrayList<>();
+
+        expect('[');
+        for (boolean isFirst = true; nextMember(isFirst, ']'); isFirst = false) {
+            ids.add(readUUID());
+        }
+
+        return ids;
+    }
+
+    private UUID readUUID() throws IOException {
+        String value = readString();
+
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw invalidJSON("invalid UUID " + value);
+        }
+    }
+
+    /**
+     * Reads a JSON number without fraction nor exponent that fits in an int.
+     */
+    private int readInt() throws IOException {
+        skipWhitespace();
+
+        boolean negative = peek() == '-';
+        if (negative) {
+            position++;
+        }
+
+        // We accumulate the value as a negative number so Integer.MIN_VALUE can be read too
+        long result = 0;
+        int digits = 0;
+
+        for (int character = peek(); character >= '0' && character <= '9'; character = peek()) {
+            result = result * 10 - (character - '0');
+            position++;
+            digits++;
+
+            if (result < Integer.MIN_VALUE) {
+                throw invalidJSON("the number does not fit in an int");
+            }
+        }
+
+        int next = peek();
+        if (digits == 0 || next == '.' || next == 'e' || next == 'E') {
+            throw invalidJSON("expected an integer");
+        }
+        if (!negative && result == Integer.MIN_VALUE) {
+            throw invalidJSON("the number does not fit in an int");
+        }
+
+        return (int) (negative ? result : -result);
+    }
+
+    /**
+     * Reads a JSON string. A string without escaped characters inside the buffer is created
+     * directly from the buffer, the other ones are copied to a reused StringBuilder.
+     */
+    private String readString() throws IOException {
+        skipWhitespace();
+        expect('"');
+
+        // Fast path: the whole string is in the buffer and has no escaped characters
+        for (int i = position; i < limit; i++) {
+            char character = buffer[i];
+
+            if (character == '"') {
+                String value = new String(buffer, position, i - position);
+                position = i + 1;
+                return value;
+            }
+            if (character == '\\' || character < ' ') {
+                break;
+            }
+        }
+
+        escapedString.setLength(0);
+
+        while (true) {
+            int character = read();
+
+            if (character == END_OF_FILE) {
+                throw invalidJSON("unterminated string");
+            }
+            if (character == '"') {
+                return escapedString.toString();
+            }
+            if (character < ' ') {
+                throw invalidJSON("control character in a string");
+            }
+            if (character != '\\') {
+                escapedString.append((char) character);
+                continue;
+            }
+
+            int escaped = read();
+            switch (escaped) {
+                case '"', '\\', '/' -> escapedString.append((char) escaped);
+                case 'n' -> escapedString.append('\n');
+                case 'r' -> escapedString.append('\r');
+                case 't' -> escapedString.append('\t');
+                case 'b' -> escapedString.append('\b');
+                case 'f' -> escapedString.append('\f');
+                case 'u' -> escapedString.append(readHexCharacter());
+                default -> throw invalidJSON("invalid escape sequence");
+            }
+        }
+    }
+
+    private char readHexCharacter() throws IOException {
+        int value = 0;
+
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(read(), 16);
+            if (digit < 0) {
+                throw invalidJSON("invalid unicode escape sequence");
+            }
+            value = value << 4 | digit;
+        }
+
+        return (char) value;
+    }
+
+    /**
+     * Skips the value of a member that is not used, whatever its type is.
+     */
+    private void skipValue() throws IOException {
+        skipWhitespace();
+        int character = peek();
+
+        switch (character) {
+            case '"' -> readString();
+            case '{' -> {
+                position++;
+                for (boolean isFirst = true; nextMember(isFirst, '}'); isFirst = false) {
+                    readName();
+                    skipValue();
+                }
+            }
+            case '[' -> {
+                position++;
+                for (boolean isFirst = true; nextMember(isFirst, ']'); isFirst = false) {
+                    skipValue();
+                }
+            }
+            case 't' -> expectWord("true");
+            case 'f' -> expectWord("false");
+            case 'n' -> expectWord("null");
+            default -> {
+                // A number: sign, digits, fraction and exponent
+                int start = position;
+                for (int next = peek(); next == '-' || next == '+' || next == '.' || next == 'e' || next == 'E'
+                    || (next >= '0' && next <= '9'); next = peek()) {
+                    position++;
+                }
+                if (position == start) {
+                    throw invalidJSON("unexpected character");
+                }
+            }
+        }
+    }
+
+    private void expectWord(String word) throws IOException {
+        for (int i = 0; i < word.length(); i++) {
+            if (read() != word.charAt(i)) {
+                throw invalidJSON("unexpected character");
+            }
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        skipWhitespace();
+
+        if (read() != expected) {
+            throw invalidJSON("expected '" + expected + "'");
+        }
+    }
+
+    private void skipWhitespace() throws IOException {
+        while (true) {
+            int character = peek();
+
+            if (character == '\n') {
+                line++;
+            } else if (character != ' ' && character != '\t' && character != '\r') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private int read() throws IOException {
+        int character = peek();
+        if (character != END_OF_FILE) {
+            position++;
+        }
+        return character;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fillBuffer()) {
+            return END_OF_FILE;
+        }
+        return buffer[position];
+    }
+
+    private boolean fillBuffer() throws IOException {
+        int read = reader.read(buffer);
+
+        if (read <= 0) {
+            return false;
+        }
+
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    private IOException invalidJSON(String message) {
+        return new IOException(String.format("Invalid JSON at line %d: %s", line, message));
+    }
+}
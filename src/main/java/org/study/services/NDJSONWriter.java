@@ -0,0 +1,214 @@
+package org.study.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.UUID;
+import org.study.model.Animal;
+import org.study.model.EpochDays;
+import org.study.model.Owner;
+import org.study.model.Vaccine;
+import org.study.services.enums.AnimalAttributesEnum;
+import org.study.services.enums.OwnerAttributesEnum;
+import org.study.services.enums.VaccineAttributesEnum;
+
+/**
+ * Writes animals, owners and the attention queue as newline delimited JSON (one JSON object per line)
+ * into a Writer (usually a BufferedWriter).
+ *
+ * Like CSVRecordWriter, every object is encoded directly into the writer, without building the line
+ * or any tree of JSON values first. The member names are the CSV headers (see NDJSONReader for the layout).
+ *
+ * Reference: https://github.com/ndjson/ndjson-spec
+ * Reference: https://www.rfc-editor.org/rfc/rfc8259#section-7
+ */
+class NDJSONWriter implements Closeable {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    // Enough for the 36 characters of a UUID and for the 11 characters of Integer.MIN_VALUE
+    private final char[] valueBuffer = new char[36];
+
+    private final Writer writer;
+
+    private boolean isFirstMember;
+
+    NDJSONWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * {"id":"...","name":"...","age":3,"owners":["..."],
+     *  "vaccines":[{"id":"...","volume":10,"brand":"...","dateOfApplication":"2023-08-31"}]}
+     */
+    void writeAnimal(Animal animal) throws IOException {
+        beginObject();
+        writeMember(AnimalAttributesEnum.ID.getHeaderName(), animal.getId());
+        writeMember(AnimalAttributesEnum.NAME.getHeaderName(), animal.getName());
+        writeMember(AnimalAttributesEnum.AGE.getHeaderName(), animal.getAge());
+        writeMember(AnimalAttributesEnum.OWNERS.getHeaderName(), animal.getOwnerIds());
+
+        writeName(NDJSONReader.VACCINES);
+        writer.write('[');
+
+        boolean isFirstVaccine = true;
+        for (Vaccine vaccine : animal.getVaccines()) {
+            if (!isFirstVaccine) {
+                writer.write(',');
+            }
+            isFirstVaccine = false;
+
+            beginObject();
+            writeMember(VaccineAttributesEnum.ID.getHeaderName(), vaccine.getID());
+            writeMember(VaccineAttributesEnum.VOLUME.getHeaderName(), vaccine.getVolumeInMl());
+            writeMember(VaccineAttributesEnum.BRAND.getHeaderName(), vaccine.getBrand());
+            writeMember(VaccineAttributesEnum.DATE_OF_APPLICATION.getHeaderName(),
+                EpochDays.formatIso(vaccine.getDateOfApplicationEpochDay()));
+            writer.write('}');
+        }
+
+        writer.write(']');
+        endRecord();
+    }
+
+    /**
+     * {"id":"...","name":"...","username":"...","email":"...","password":"...","age":30,"phone":"...",
+     *  "address":"...","city":"...","state":"...","country":"...","zipcode":"...","animalIds":["..."]}
+     */
+    void writeOwner(Owner owner) throws IOException {
+        beginObject();
+        writeMember(OwnerAttributesEnum.ID.getHeader(), owner.getId());
+        writeMember(OwnerAttributesEnum.NAME.getHeader(), owner.getName());
+        writeMember(OwnerAttributesEnum.USERNAME.getHeader(), owner.getUsername());
+        writeMember(OwnerAttributesEnum.EMAIL.getHeader(), owner.getEmail());
+        writeMember(OwnerAttributesEnum.PASSWORD.getHeader(), owner.getPassword());
+        writeMember(OwnerAttributesEnum.AGE.getHeader(), owner.getAge());
+        writeMember(OwnerAttributesEnum.PHONE.getHeader(), owner.getPhone());
+        writeMember(OwnerAttributesEnum.ADDRESS.getHeader(), owner.getAddress());
+        writeMember(OwnerAttributesEnum.CITY.getHeader(), owner.getCity());
+        writeMember(OwnerAttributesEnum.STATE.getHeader(), owner.getState());
+        writeMember(OwnerAttributesEnum.COUNTRY.getHeader(), owner.getCountry());
+        writeMember(OwnerAttributesEnum.ZIPCODE.getHeader(), owner.getZip());
+        writeMember(OwnerAttributesEnum.ANIMAL_IDS.getHeader(), owner.getAnimalIds());
+        endRecord();
+    }
+
+    /**
+     * {"animalId":"..."}, one line per animal in the order they are attended.
+     */
+    void writeQueuedAnimal(Animal animal) throws IOException {
+        beginObject();
+        writeMember(VaccineAttributesEnum.ANIMAL_ID.getHeaderName(), animal.getId());
+        endRecord();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void beginObject() throws IOException {
+        writer.write('{');
+        isFirstMember = true;
+    }
+
+    /**
+     * Ends the object and the line. NDJSON always uses \n, whatever the line separator of the system is.
+     */
+    private void endRecord() throws IOException {
+        writer.write('}');
+        writer.write('\n');
+    }
+
+    private void writeName(String name) throws IOException {
+        if (!isFirstMember) {
+            writer.write(',');
+        }
+        isFirstMember = false;
+
+        writeString(name);
+        writer.write(':');
+    }
+
+    private void writeMember(String name, String value) throws IOException {
+        writeName(name);
+        writeString(value);
+    }
+
+    private void writeMember(String name, int value) throws IOException {
+        writeName(name);
+
+        int position = CSVRecordWriter.encodeInt(value, valueBuffer);
+        writer.write(valueBuffer, position, valueBuffer.length - position);
+    }
+
+    private void writeMember(String name, UUID value) throws IOException {
+        writeName(name);
+        writeUUID(value);
+    }
+
+    private void writeMember(String name, Collection<UUID> values) throws IOException {
+        writeName(name);
+        writer.write('[');
+
+        boolean isFirstValue = true;
+        for (UUID value : values) {
+            if (!isFirstValue) {
+                writer.write(',');
+            }
+            isFirstValue = false;
+            writeUUID(value);
+        }
+
+        writer.write(']');
+    }
+
+    private void writeUUID(UUID value) throws IOException {
+        // A UUID never needs escaping
+        writer.write('"');
+        CSVRecordWriter.encodeUUID(value, valueBuffer);
+        writer.write(valueBuffer, 0, 36);
+        writer.write('"');
+    }
+
+    /**
+     * Writes a JSON string. The characters that do not need escaping are written in runs,
+     * so a string without quotes, backslashes or control characters is written with a single call.
+     */
+    private void writeString(String value) throws IOException {
+        writer.write('"');
+
+        int runStart = 0;
+        int length = value.length();
+
+        for (int i = 0; i < length; i++) {
+            char character = value.charAt(i);
+
+            if (character >= ' ' && character != '"' && character != '\\') {
+                continue;
+            }
+
+            writer.write(value, runStart, i - runStart);
+            runStart = i + 1;
+
+            switch (character) {
+                case '"' -> writer.write("\\\"");
+                case '\\' -> writer.write("\\\\");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                case '\t' -> writer.write("\\t");
+                case '\b' -> writer.write("\\b");
+                case '\f' -> writer.write("\\f");
+                default -> {
+                    writer.write("\\u00");
+                    writer.write(HEX_DIGITS[character >> 4]);
+                    writer.write(HEX_DIGITS[character & 0xF]);
+                }
+            }
+        }
+
+        writer.write(value, runStart, length - runStart);
+        writer.write('"');
+    }
+}
@@ -0,0 +1,45 @@
+package org.study.services;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import org.study.model.Owner;
+
+/**
+ * The indexes of the owners of an OwnerService, used by the owner queries (see OwnerQuery) and by the animal queries
+ * by owner city. The indexes by id and by username are the maps of the service, the others are built from them
+ * and must be built again after any change to the owners (see OwnerService.getDataVersion).
+ */
+final class OwnerIndexes {
+
+    final Map<UUID, Owner> byId;
+    final NavigableMap<String, Owner> byUsername;
+    final NavigableMap<String, List<Owner>> byName = new TreeMap<>();
+    final Map<String, List<Owner>> byCity = new HashMap<>();
+    final NavigableMap<Integer, List<Owner>> byAge = new TreeMap<>();
+
+    private final long serviceModificationCount;
+
+    OwnerIndexes(Map<UUID, Owner> byId, NavigableMap<String, Owner> byUsername, long serviceModificationCount) {
+        this.byId = byId;
+        this.byUsername = byUsername;
+        this.serviceModificationCount = serviceModificationCount;
+
+        for (Owner owner : byId.values()) {
+            QueryIndexes.addToBucket(byName, owner.getName(), owner);
+            QueryIndexes.addToBucket(byCity, owner.getCity(), owner);
+            QueryIndexes.addToBucket(byAge, owner.getAge(), owner);
+        }
+    }
+
+    /**
+     * @param serviceModificationCount The number of owners added to, deleted from or changed in the service.
+     * @return False if an owner was added, deleted or changed since the indexes were built.
+     */
+    boolean isValidFor(long serviceModificationCount) {
+        return this.serviceModificationCount == serviceModificationCount;
+    }
+}
@@ -0,0 +1,158 @@
+package org.study.services;
+
+import java.util.Collection;
+import java.util.List;
+import org.study.model.Owner;
+
+/**
+ * The conditions of the owner queries (see OwnerService.findOwners), combined with QueryPredicate.and/or:
+ *
+ *  ownerService.findOwners(OwnerQuery.cityEquals("Chicago").and(OwnerQuery.ageBetween(30, 40)))
+ *
+ * Every condition has an index, so a query reads the owners of its most selective condition instead of all of them.
+ */
+public final class OwnerQuery {
+
+    private OwnerQuery() {
+    }
+
+    /**
+     * @throws IllegalArgumentException If the username is null.
+     */
+    public static QueryPredicate<Owner> usernameEquals(String username) {
+        if (username == null) {
+            throw new IllegalArgumentException("Username cannot be null");
+        }
+        return new UsernameStartsWith(username, true);
+    }
+
+    /**
+     * @param prefix The start of the username, case sensitive.
+     * @throws IllegalArgumentException If the prefix is null.
+     */
+    public static QueryPredicate<Owner> usernameStartsWith(String prefix) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("Prefix cannot be null");
+        }
+        return new UsernameStartsWith(prefix, false);
+    }
+
+    /**
+     * @param prefix The start of the name, case sensitive.
+     * @throws IllegalArgumentException If the prefix is null.
+     */
+    public static QueryPredicate<Owner> nameStartsWith(String prefix) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("Prefix cannot be null");
+        }
+        return new NameStartsWith(prefix);
+    }
+
+    /**
+     * @throws IllegalArgumentException If the city is null.
+     */
+    public static QueryPredicate<Owner> cityEquals(String city) {
+        if (city == null) {
+            throw new IllegalArgumentException("City cannot be null");
+        }
+        return new CityEquals(city);
+    }
+
+    /**
+     * @param min The minimum age, included.
+     * @param max The maximum age, included.
+     * @throws IllegalArgumentException If min is greater than max.
+     */
+    public static QueryPredicate<Owner> ageBetween(int min, int max) {
+        if (min > max) {
+            throw new IllegalArgumentException("The minimum age cannot be greater than the maximum age");
+        }
+        return new AgeBetween(min, max);
+    }
+
+    private static final class UsernameStartsWith extends QueryPredicate.Indexed<Owner> {
+
+        private final String prefix;
+        private final boolean wholeUsername;
+
+        private UsernameStartsWith(String prefix, boolean wholeUsername) {
+            this.prefix = prefix;
+            this.wholeUsername = wholeUsername;
+        }
+
+        @Override
+        boolean matches(Owner owner, QueryIndexes indexes) {
+            return wholeUsername ? owner.getUsername().equals(prefix) : owner.getUsername().startsWith(prefix);
+        }
+
+        @Override
+        Collection<Collection<Owner>> buckets(QueryIndexes indexes) {
+            if (wholeUsername) {
+                Owner owner = indexes.owners().byUsername.get(prefix);
+                return owner == null ? List.of() : List.of(List.of(owner));
+            }
+            // One username per owner, so all the owners of the prefix are a single bucket
+            return List.of(QueryIndexes.valuesWithPrefix(indexes.owners().byUsername, prefix));
+        }
+    }
+
+    private static final class NameStartsWith extends QueryPredicate.Indexed<Owner> {
+
+        private final String prefix;
+
+        private NameStartsWith(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        boolean matches(Owner owner, QueryIndexes indexes) {
+            return owner.getName().startsWith(prefix);
+        }
+
+        @Override
+        Collection<List<Owner>> buckets(QueryIndexes indexes) {
+            return QueryIndexes.valuesWithPrefix(indexes.owners().byName, prefix);
+        }
+    }
+
+    private static final class CityEquals extends QueryPredicate.Indexed<Owner> {
+
+        private final String city;
+
+        private CityEquals(String city) {
+            this.city = city;
+        }
+
+        @Override
+        boolean matches(Owner owner, QueryIndexes indexes) {
+            return city.equals(owner.getCity());
+        }
+
+        @Override
+        Collection<List<Owner>> buckets(QueryIndexes indexes) {
+            List<Owner> owners = indexes.owners().byCity.get(city);
+            return owners == null ? List.of() : List.of(owners);
+        }
+    }
+
+    private static final class AgeBetween extends QueryPredicate.Indexed<Owner> {
+
+        private final int min;
+        private final int max;
+
+        private AgeBetween(int min, int max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        boolean matches(Owner owner, QueryIndexes indexes) {
+            return owner.getAge() >= min && owner.getAge() <= max;
+        }
+
+        @Override
+        Collection<List<Owner>> buckets(QueryIndexes indexes) {
+            return indexes.owners().byAge.subMap(min, true, max, true).values();
+        }
+    }
+}
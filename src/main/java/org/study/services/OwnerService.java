@@ -1,24 +1,125 @@
 package org.study.services;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.study.exceptions.NotFoundException;
+import org.study.model.Animal;
 import org.study.model.Owner;
 import org.study.exceptions.UserNameAlreadyTakenException;
 
 public class OwnerService {
 
     Map<UUID, Owner> ownersById;
-    Map<String, Owner> ownersByUsername;
+    // Sorted by username, so the owners can be listed in pages (see getOwnersPage)
+    NavigableMap<String, Owner> ownersByUsername;
+
+    // Owners deleted since the last save to a snapshot file
+    Set<UUID> deletedOwnerIds;
+
+    // The snapshot file the owners were last saved to (or loaded from), deltas can only be appended to it
+    // Volatile: a failed background save resets it from another thread
+    private volatile String snapshotFilePath;
+
+    // The snapshot file opened lazily, with the owners that were not read yet (null when every owner is in the maps)
+    private LazySnapshotFile<Owner> lazySnapshot;
+
+    // The number of owners added to or deleted from the maps, plus the changes made to the owners in them,
+    // so the indexes of the queries and the cached reports know when they are old (see getDataVersion)
+    private long modificationCount;
+
+    // Set on every owner added to the maps (see Owner.setChangeListener)
+    private final Runnable ownerChanged = () -> modificationCount++;
+
+    // The indexes of the owner queries (see findOwners), built by the first query that needs them
+    private OwnerIndexes ownerIndexes;
+
+    // How long the public methods take, nothing is recorded until a registry is set (see setMetricsRegistry)
+    private ServiceMetrics metrics = ServiceMetrics.DISABLED;
+
+    // The timed methods (see setMetricsRegistry), overloads share their histogram
+    private static final ServiceMetrics.TimedMethods TIMED_METHODS =
+        new ServiceMetrics.TimedMethods("OwnerService");
+    private static final ServiceMetrics.TimedMethod ADD_OWNER_TO_DATABASE = TIMED_METHODS.add("addOwnerToDatabase");
+    private static final ServiceMetrics.TimedMethod GET_OWNER_BY_ID = TIMED_METHODS.add("getOwnerById");
+    private static final ServiceMetrics.TimedMethod GET_OWNER_BY_USERNAME = TIMED_METHODS.add("getOwnerByUsername");
+    private static final ServiceMetrics.TimedMethod DELETE_OWNER_BY_ID = TIMED_METHODS.add("deleteOwnerById");
+    private static final ServiceMetrics.TimedMethod ADD_ANIMAL_ID_TO_OWNER = TIMED_METHODS.add("addAnimalIdToOwner");
+    private static final ServiceMetrics.TimedMethod REMOVE_OWNER_FROM_OWNER_BY_USERNAME =
+        TIMED_METHODS.add("removeOwnerFromOwnerByUsername");
+    private static final ServiceMetrics.TimedMethod GET_OWNERS_BY_ID = TIMED_METHODS.add("getOwnersById");
+    private static final ServiceMetrics.TimedMethod GET_OWNERS_BY_USERNAME = TIMED_METHODS.add("getOwnersByUsername");
+    private static final ServiceMetrics.TimedMethod FIND_OWNERS = TIMED_METHODS.add("findOwners");
+    private static final ServiceMetrics.TimedMethod GET_OWNERS_WITH_MOST_ANIMALS =
+        TIMED_METHODS.add("getOwnersWithMostAnimals");
+    private static final ServiceMetrics.TimedMethod GET_OWNERS_PAGE = TIMED_METHODS.add("getOwnersPage");
+    private static final ServiceMetrics.TimedMethod LOAD_OWNERS_FROM_CSV_FILE =
+        TIMED_METHODS.add("loadOwnersFromCSVFile");
+    private static final ServiceMetrics.TimedMethod LOAD_OWNERS_FROM_CSV_FILE_IN_PARALLEL =
+        TIMED_METHODS.add("loadOwnersFromCSVFileInParallel");
+    private static final ServiceMetrics.TimedMethod LOAD_OWNERS_FROM_BINARY_FILE_USING_THE_ENTIRE_LIST =
+        TIMED_METHODS.add("loadOwnersFromBinaryFileUsingTheEntireList");
+    private static final ServiceMetrics.TimedMethod LOAD_OWNERS_FROM_SNAPSHOT_FILE =
+        TIMED_METHODS.add("loadOwnersFromSnapshotFile");
+    private static final ServiceMetrics.TimedMethod OPEN_OWNERS_SNAPSHOT_FILE_LAZILY =
+        TIMED_METHODS.add("openOwnersSnapshotFileLazily");
+    private static final ServiceMetrics.TimedMethod SAVE_OWNERS_TO_SNAPSHOT_FILE =
+        TIMED_METHODS.add("saveOwnersToSnapshotFile");
+    private static final ServiceMetrics.TimedMethod SAVE_OWNERS_TO_SNAPSHOT_FILE_INCREMENTALLY =
+        TIMED_METHODS.add("saveOwnersToSnapshotFileIncrementally");
+    private static final ServiceMetrics.TimedMethod SAVE_OWNERS_TO_BINARY_FILE_USING_THE_ENTIRE_LIST =
+        TIMED_METHODS.add("saveOwnersToBinaryFileUsingTheEntireList");
+    private static final ServiceMetrics.TimedMethod SAVE_OWNERS_TO_CSV_FILE = TIMED_METHODS.add("saveOwnersToCSVFile");
+    private static final ServiceMetrics.TimedMethod SAVE_OWNERS_TO_NDJSON_FILE =
+        TIMED_METHODS.add("saveOwnersToNDJSONFile");
+    private static final ServiceMetrics.TimedMethod LOAD_OWNERS_FROM_NDJSON_FILE =
+        TIMED_METHODS.add("loadOwnersFromNDJSONFile");
+    private static final ServiceMetrics.TimedMethod SAVE_OWNERS_TO_COLUMNAR_FILE =
+        TIMED_METHODS.add("saveOwnersToColumnarFile");
+    private static final ServiceMetrics.TimedMethod GET_OWNERS_AND_THEIR_ANIMALS_REPORT =
+        TIMED_METHODS.add("getOwnersAndTheirAnimalsReport");
+    private static final ServiceMetrics.TimedMethod WRITE_OWNERS_AND_THEIR_ANIMALS_REPORT =
+        TIMED_METHODS.add("writeOwnersAndTheirAnimalsReport");
+
+    // The number of animals is kept by each owner, so comparing two owners does not copy their animal ids
+    private static final Comparator<Owner> MOST_ANIMALS_FIRST =
+        Comparator.comparingInt(Owner::getNumberOfAnimals).reversed()
+            .thenComparing(Owner::getUsername);
+
+    // Shown in the reports for an animal id without animal
+    static final String UNKNOWN_ANIMAL = "Unknown animal ";
 
     public OwnerService() {
         this.ownersById = new HashMap<>();
-        this.ownersByUsername = new HashMap<>();
+        this.ownersByUsername = new TreeMap<>();
+        this.deletedOwnerIds = new HashSet<>();
+    }
+
+    /**
+     * Records how long the public methods of this service take in a registry (see MetricsRegistry),
+     * and the number of owners read (a lazy snapshot may have more) as the gauge owners_in_memory.
+     *
+     * @param metricsRegistry The registry, or null to stop recording.
+     */
+    public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        this.metrics = ServiceMetrics.of(metricsRegistry, TIMED_METHODS);
+        if (metricsRegistry != null) {
+            metricsRegistry.gauge("owners_in_memory", "The owners in the maps of the service.",
+                () -> ownersById.size(), "service", "OwnerService");
+        }
     }
 
 
@@ -35,6 +136,29 @@ public class OwnerService {
         String zip,
         String country
 
+    ) throws UserNameAlreadyTakenException, IllegalArgumentException {
+        long startTime = metrics.start(ADD_OWNER_TO_DATABASE);
+        try {
+            return doAddOwnerToDatabase(
+                name, username, email, password, age, phone, address, city, state, zip, country);
+        } finally {
+            metrics.stop(ADD_OWNER_TO_DATABASE, startTime);
+        }
+    }
+
+    private boolean doAddOwnerToDatabase(
+        String name,
+        String username,
+        String email,
+        String password,
+        int age,
+        String phone,
+        String address,
+        String city,
+        String state,
+        String zip,
+        String country
+
     ) throws UserNameAlreadyTakenException, IllegalArgumentException {
         if (usernameIsTaken(username)) {
             throw new UserNameAlreadyTakenException(String.format("Username %s is already taken", username));
@@ -43,26 +167,49 @@ public class OwnerService {
         Owner owner = new Owner(name, username, email, password, age, phone, address, city, state, zip, country);
         //put method returns null if the key is not present in the map
         return addOwnerToDatabase(owner);
-
     }
 
     private boolean addOwnerToDatabase(Owner owner) throws IllegalArgumentException {
         if (owner == null) {
             throw new IllegalArgumentException("Owner cannot be null");
         }
+        deletedOwnerIds.remove(owner.getId());
+        owner.setChangeListener(ownerChanged);
+        modificationCount++;
         return ownersById.put(owner.getId(), owner) == null && ownersByUsername.put(owner.getUsername(), owner) == null;
     }
 
     private boolean usernameIsTaken(String username) {
+        faultInAllOwners();
         return ownersById.values().stream()
             .noneMatch(owner -> owner.getUsername().equalsIgnoreCase(username));
     }
 
     public Owner getOwnerById(UUID ownerId) throws NullPointerException {
+        long startTime = metrics.start(GET_OWNER_BY_ID);
+        try {
+            return doGetOwnerById(ownerId);
+        } finally {
+            metrics.stop(GET_OWNER_BY_ID, startTime);
+        }
+    }
+
+    private Owner doGetOwnerById(UUID ownerId) throws NullPointerException {
+        faultInOwnerById(ownerId);
         return ownersById.get(ownerId);
     }
 
     public Owner getOwnerByUsername(String username) throws NullPointerException, NotFoundException {
+        long startTime = metrics.start(GET_OWNER_BY_USERNAME);
+        try {
+            return doGetOwnerByUsername(username);
+        } finally {
+            metrics.stop(GET_OWNER_BY_USERNAME, startTime);
+        }
+    }
+
+    private Owner doGetOwnerByUsername(String username) throws NullPointerException, NotFoundException {
+        faultInOwnerByUsername(username);
         if(!ownersByUsername.containsKey(username)){
             throw new NotFoundException(String.format("Owner with username %s not found", username));
         }
@@ -70,39 +217,209 @@ public class OwnerService {
     }
 
     public boolean deleteOwnerById(UUID ownerId) throws NullPointerException, NotFoundException {
+        long startTime = metrics.start(DELETE_OWNER_BY_ID);
+        try {
+            return doDeleteOwnerById(ownerId);
+        } finally {
+            metrics.stop(DELETE_OWNER_BY_ID, startTime);
+        }
+    }
+
+    private boolean doDeleteOwnerById(UUID ownerId) throws NullPointerException, NotFoundException {
+        faultInOwnerById(ownerId);
 
         if (!ownersById.containsKey(ownerId)) {
             throw new NotFoundException(String.format("Owner with id %s not found", ownerId));
         }
 
         Owner owner = ownersById.get(ownerId);
+        deletedOwnerIds.add(ownerId);
+        modificationCount++;
+        if (lazySnapshot != null) {
+            // So reading the rest of the snapshot does not bring it back
+            lazySnapshot.markDeleted(ownerId);
+        }
         return ownersById.remove(ownerId) != null && ownersByUsername.remove(owner.getUsername()) != null;
     }
 
     public void addAnimalIdToOwner(String username, UUID animalId) throws NotFoundException {
-        Owner owner = getOwnerByUsername(username);
-        owner.addAnimalId(animalId);
+        long startTime = metrics.start(ADD_ANIMAL_ID_TO_OWNER);
+        try {
+            doAddAnimalIdToOwner(username, animalId);
+        } finally {
+            metrics.stop(ADD_ANIMAL_ID_TO_OWNER, startTime);
+        }
+    }
 
+    private void doAddAnimalIdToOwner(String username, UUID animalId) throws NotFoundException {
+        Owner owner = doGetOwnerByUsername(username);
+        owner.addAnimalId(animalId);
     }
 
     public void removeOwnerFromOwnerByUsername(String username, UUID ownerId) throws NotFoundException {
-        Owner owner = getOwnerByUsername(username);
+        long startTime = metrics.start(REMOVE_OWNER_FROM_OWNER_BY_USERNAME);
+        try {
+            doRemoveOwnerFromOwnerByUsername(username, ownerId);
+        } finally {
+            metrics.stop(REMOVE_OWNER_FROM_OWNER_BY_USERNAME, startTime);
+        }
+    }
+
+    private void doRemoveOwnerFromOwnerByUsername(String username, UUID ownerId) throws NotFoundException {
+        Owner owner = doGetOwnerByUsername(username);
         owner.removeAnimalId(ownerId);
     }
 
     protected void clearDatabase() {
+        closeLazySnapshot();
         ownersById.clear();
         ownersByUsername.clear();
+        modificationCount++;
     }
 
     public Map<UUID, Owner> getOwnersById() {
+        long startTime = metrics.start(GET_OWNERS_BY_ID);
+        try {
+            return doGetOwnersById();
+        } finally {
+            metrics.stop(GET_OWNERS_BY_ID, startTime);
+        }
+    }
+
+    private Map<UUID, Owner> doGetOwnersById() {
+        faultInAllOwners();
         return new HashMap<>(ownersById);
     }
 
     public Map<String, Owner> getOwnersByUsername() {
+        long startTime = metrics.start(GET_OWNERS_BY_USERNAME);
+        try {
+            return doGetOwnersByUsername();
+        } finally {
+            metrics.stop(GET_OWNERS_BY_USERNAME, startTime);
+        }
+    }
+
+    private Map<String, Owner> doGetOwnersByUsername() {
+        faultInAllOwners();
         return new HashMap<>(ownersByUsername);
     }
 
+    /**
+     * The version of the data of the service: it grows every time one of its owners is added, deleted or changed
+     * (see Owner.setChangeListener), so two reports generated with the same version have the same lines.
+     * Each service has its own version, the changes made to the owners of another service do not change it.
+     *
+     * @return The data version.
+     */
+    public long getDataVersion() {
+        return modificationCount;
+    }
+
+    /**
+     * Finds the owners that match a query, reading only the owners of its most selective index
+     * (see QueryPredicate and OwnerQuery).
+     *
+     * @param predicate The query, i.e. OwnerQuery.cityEquals("Chicago").and(OwnerQuery.ageBetween(30, 40)).
+     * @return The owners that match the query, sorted by username.
+     * @throws IllegalArgumentException If the predicate is null.
+     */
+    public List<Owner> findOwners(QueryPredicate<Owner> predicate) {
+        long startTime = metrics.start(FIND_OWNERS);
+        try {
+            return doFindOwners(predicate);
+        } finally {
+            metrics.stop(FIND_OWNERS, startTime);
+        }
+    }
+
+    private List<Owner> doFindOwners(QueryPredicate<Owner> predicate) {
+        QueryIndexes indexes = new QueryIndexes(null, ownerIndexes());
+        return QueryPredicate.select(predicate, indexes, ownersByUsername.values(),
+            Comparator.comparing(Owner::getUsername));
+    }
+
+    /**
+     * The indexes of the owners, built again if an owner changed since the last query.
+     */
+    OwnerIndexes ownerIndexes() {
+        faultInAllOwners();
+        if (ownerIndexes == null || !ownerIndexes.isValidFor(modificationCount)) {
+            ownerIndexes = new OwnerIndexes(ownersById, ownersByUsername, modificationCount);
+        }
+        return ownerIndexes;
+    }
+
+    /**
+     * Gets the owners with the most animals, without sorting all the owners (see TopK).
+     *
+     * @param k The maximum number of owners to return.
+     * @return The owners, the one with the most animals first. Owners with the same number of animals
+     * are sorted by username.
+     * @throws IllegalArgumentException If k is not positive.
+     */
+    public List<Owner> getOwnersWithMostAnimals(int k) {
+        long startTime = metrics.start(GET_OWNERS_WITH_MOST_ANIMALS);
+        try {
+            return doGetOwnersWithMostAnimals(k);
+        } finally {
+            metrics.stop(GET_OWNERS_WITH_MOST_ANIMALS, startTime);
+        }
+    }
+
+    private List<Owner> doGetOwnersWithMostAnimals(int k) {
+        faultInAllOwners();
+        return TopK.select(ownersById.values(), k, MOST_ANIMALS_FIRST);
+    }
+
+    /**
+     * Gets a page of the owners, sorted by username.
+     * Each call only reads the owners of the page, and the owners added or deleted after a page was read
+     * do not make the next page skip or repeat owners.
+     *
+     * @param pageToken The token of the previous page (see Page.getNextPageToken), or null for the first page.
+     * @param pageSize  The maximum number of owners in the page.
+     * @return The page of owners.
+     * @throws IllegalArgumentException If the page size is not positive, or the token is not a token of owners.
+     */
+    public Page<Owner> getOwnersPage(String pageToken, int pageSize) {
+        long startTime = metrics.start(GET_OWNERS_PAGE);
+        try {
+            return doGetOwnersPage(pageToken, pageSize);
+        } finally {
+            metrics.stop(GET_OWNERS_PAGE, startTime);
+        }
+    }
+
+    private Page<Owner> doGetOwnersPage(String pageToken, int pageSize) {
+        Page.checkPageSize(pageSize);
+        faultInAllOwners();
+
+        // The page starts right after the username where the previous page ended
+        Map<String, Owner> ownersInOrder = pageToken == null
+            ? ownersByUsername
+            : ownersByUsername.tailMap(decodeOwnersPageToken(pageToken), false);
+
+        List<Owner> owners = new ArrayList<>(Math.min(pageSize, ownersInOrder.size()));
+        String nextPageToken = null;
+
+        for (Owner owner : ownersInOrder.values()) {
+            if (owners.size() == pageSize) {
+                nextPageToken = Page.encodeToken(Page.OWNERS_TOKEN,
+                    owners.get(pageSize - 1).getUsername().getBytes(StandardCharsets.UTF_8));
+                break;
+            }
+            owners.add(owner);
+        }
+
+        return new Page<>(owners, nextPageToken);
+    }
+
+    private static String decodeOwnersPageToken(String pageToken) {
+        ByteBuffer key = Page.decodeToken(Page.OWNERS_TOKEN, pageToken);
+        return StandardCharsets.UTF_8.decode(key).toString();
+    }
+
     /**
      * Loads owners data from a CSV file with the specified format.
      *  THIS METHOD DOES NOT OVERWRITE THE OWNERS LIST. IT ADDS TO THE EXISTING Database.
@@ -116,13 +433,55 @@ public class OwnerService {
                                           String delimiter,
                                           FileService fileService)
         throws IOException, NotFoundException {
+        long startTime = metrics.start(LOAD_OWNERS_FROM_CSV_FILE);
+        try {
+            return doLoadOwnersFromCSVFile(path, delimiter, fileService);
+        } finally {
+            metrics.stop(LOAD_OWNERS_FROM_CSV_FILE, startTime);
+        }
+    }
 
+    private boolean doLoadOwnersFromCSVFile(String path,
+                                             String delimiter,
+                                             FileService fileService)
+        throws IOException, NotFoundException {
         List<Owner> owners = fileService.loadOwnersFromCSVFile(path, delimiter);
 
         return addOwnersToDatabase(owners);
     }
 
+    /**
+     * Loads owners data from a CSV file, parsing and validating the owners in parallel.
+     *  THIS METHOD DOES NOT OVERWRITE THE OWNERS LIST. IT ADDS TO THE EXISTING Database.
+     * @param path      The file path to the CSV file containing owners data.
+     * @param delimiter The delimiter used in the CSV file to separate values, it must be a single character.
+     * @param fileService The FileService object used to read the file.
+     * @return True if ALL owners were added to the database, false if at least one of them already existed.
+     * @throws IOException If an I/O error occurs while reading the file.
+     */
+    public boolean loadOwnersFromCSVFileInParallel(String path,
+                                                   String delimiter,
+                                                   FileService fileService)
+        throws IOException {
+        long startTime = metrics.start(LOAD_OWNERS_FROM_CSV_FILE_IN_PARALLEL);
+        try {
+            return doLoadOwnersFromCSVFileInParallel(path, delimiter, fileService);
+        } finally {
+            metrics.stop(LOAD_OWNERS_FROM_CSV_FILE_IN_PARALLEL, startTime);
+        }
+    }
+
+    private boolean doLoadOwnersFromCSVFileInParallel(String path,
+                                                      String delimiter,
+                                                      FileService fileService)
+        throws IOException {
+        List<Owner> owners = fileService.loadOwnersFromCSVFileInParallel(path, delimiter);
+
+        return addOwnersToDatabase(owners);
+    }
+
     private boolean addOwnersToDatabase(List<Owner> owners) {
+        faultInAllOwners();
 
         return owners.stream().allMatch(
             owner -> addOwnerToDatabase(owner)
@@ -140,15 +499,192 @@ public class OwnerService {
      */
     public void loadOwnersFromBinaryFileUsingTheEntireList(String filePath,
                                                            FileService fileService) throws IOException, ClassNotFoundException {
+        long startTime = metrics.start(LOAD_OWNERS_FROM_BINARY_FILE_USING_THE_ENTIRE_LIST);
+        try {
+            doLoadOwnersFromBinaryFileUsingTheEntireList(filePath, fileService);
+        } finally {
+            metrics.stop(LOAD_OWNERS_FROM_BINARY_FILE_USING_THE_ENTIRE_LIST, startTime);
+        }
+    }
 
+    private void doLoadOwnersFromBinaryFileUsingTheEntireList(String filePath,
+                                                              FileService fileService) throws IOException, ClassNotFoundException {
         List<Owner> owners =
             fileService.loadOwnersFromBinaryFileUsingTheEntireList(filePath);
         clearDatabase();
 
         addOwnersToDatabase(owners);
 
+        // The owners are not synchronized with any snapshot file anymore
+        snapshotFilePath = null;
+    }
+
+
+    /**
+     * Loads owners from a snapshot file, replacing the current owners.
+     *
+     * @param filePath The path to the snapshot file containing the owners.
+     * @param fileService The FileService object used to read the file.
+     * @throws IOException If an I/O error occurs while reading the file, or if the file is corrupted.
+     */
+    public void loadOwnersFromSnapshotFile(String filePath, FileService fileService) throws IOException {
+        long startTime = metrics.start(LOAD_OWNERS_FROM_SNAPSHOT_FILE);
+        try {
+            doLoadOwnersFromSnapshotFile(filePath, fileService);
+        } finally {
+            metrics.stop(LOAD_OWNERS_FROM_SNAPSHOT_FILE, startTime);
+        }
     }
 
+    private void doLoadOwnersFromSnapshotFile(String filePath, FileService fileService) throws IOException {
+        List<Owner> owners = fileService.loadOwnersFromSnapshotFile(filePath);
+        clearDatabase();
+
+        addOwnersToDatabase(owners);
+
+        markOwnersAsSaved(filePath);
+    }
+
+    /**
+     * Opens a snapshot file without reading all its owners, replacing the current owners.
+     *
+     * Only the index saved with the snapshot and the deltas are read, so the owners can be used right away.
+     * getOwnerById and getOwnerByUsername read the block of the snapshot that has the owner the first time
+     * it is needed, the methods that need every owner (reports, saves...) read the rest of the snapshot
+     * the first time they are called.
+     * If the snapshot has no index, all the owners are loaded, as loadOwnersFromSnapshotFile does.
+     *
+     * @param filePath The path to the snapshot file containing the owners.
+     * @param fileService The FileService object used to read the file.
+     * @throws IOException If an I/O error occurs while reading the file, or if the file is corrupted.
+     */
+    public void openOwnersSnapshotFileLazily(String filePath, FileService fileService) throws IOException {
+        long startTime = metrics.start(OPEN_OWNERS_SNAPSHOT_FILE_LAZILY);
+        try {
+            doOpenOwnersSnapshotFileLazily(filePath, fileService);
+        } finally {
+            metrics.stop(OPEN_OWNERS_SNAPSHOT_FILE_LAZILY, startTime);
+        }
+    }
+
+    private void doOpenOwnersSnapshotFileLazily(String filePath, FileService fileService) throws IOException {
+        LazySnapshotFile<Owner> snapshot = fileService.openOwnersSnapshotFileLazily(filePath);
+
+        if (snapshot == null) {
+            doLoadOwnersFromSnapshotFile(filePath, fileService);
+            return;
+        }
+
+        clearDatabase();
+        addOwnersToDatabase(snapshot.getDeltaRecords());
+        lazySnapshot = snapshot;
+
+        markOwnersAsSaved(filePath);
+    }
+
+    /**
+     * Saves the owners to a snapshot file.
+     *
+     * @param filePath The path to the snapshot file where the owners will be saved.
+     * @param fileService The FileService object used to write the file.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    public void saveOwnersToSnapshotFile(String filePath, FileService fileService) throws IOException {
+        long startTime = metrics.start(SAVE_OWNERS_TO_SNAPSHOT_FILE);
+        try {
+            doSaveOwnersToSnapshotFile(filePath, fileService);
+        } finally {
+            metrics.stop(SAVE_OWNERS_TO_SNAPSHOT_FILE, startTime);
+        }
+    }
+
+    private void doSaveOwnersToSnapshotFile(String filePath, FileService fileService) throws IOException {
+        faultInAllOwners();
+        fileService.saveOwnersToSnapshotFile(filePath, ownersById.values());
+
+        markOwnersAsSaved(filePath);
+    }
+
+    /**
+     * Saves only the owners that were added, changed or deleted since the last save, as a delta of the snapshot file.
+     * If the owners were not saved to (or loaded from) this file before, all the owners are saved.
+     * When the deltas grow too much, all the owners are saved again, so the deltas are merged into the snapshot.
+     *
+     * @param filePath The path to the snapshot file where the owners will be saved.
+     * @param fileService The FileService object used to write the file.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    public void saveOwnersToSnapshotFileIncrementally(String filePath, FileService fileService) throws IOException {
+        long startTime = metrics.start(SAVE_OWNERS_TO_SNAPSHOT_FILE_INCREMENTALLY);
+        try {
+            doSaveOwnersToSnapshotFileIncrementally(filePath, fileService);
+        } finally {
+            metrics.stop(SAVE_OWNERS_TO_SNAPSHOT_FILE_INCREMENTALLY, startTime);
+        }
+    }
+
+    private void doSaveOwnersToSnapshotFileIncrementally(String filePath, FileService fileService) throws IOException {
+        if (!filePath.equals(snapshotFilePath) || !fileService.snapshotFileExists(filePath)) {
+            doSaveOwnersToSnapshotFile(filePath, fileService);
+            return;
+        }
+
+        List<Owner> changedOwners = ownersById.values().stream()
+            .filter(Owner::isDirty)
+            .toList();
+
+        if (changedOwners.isEmpty() && deletedOwnerIds.isEmpty()) {
+            return;
+        }
+
+        fileService.appendOwnersToSnapshotDelta(filePath, changedOwners, deletedOwnerIds);
+        changedOwners.forEach(Owner::markClean);
+        deletedOwnerIds.clear();
+
+        if (fileService.shouldMergeSnapshotDeltas(filePath)) {
+            // Writing the owners we already have in memory gives the same result as merging the files,
+            // without reading them again.
+            doSaveOwnersToSnapshotFile(filePath, fileService);
+        }
+    }
+
+    /**
+     * Copies the owners so they can be saved to a snapshot file from another thread
+     * while the owners keeps changing (see BackgroundSaveService).
+     * The owners are marked as saved to that file. If the save fails, snapshotSaveFailed must be called,
+     * so the next incremental save writes all the owners again.
+     *
+     * @param filePath The path to the snapshot file where the copies will be saved.
+     * @return Independent copies of the owners.
+     */
+    List<Owner> captureOwnersForSnapshotSave(String filePath) {
+
+        faultInAllOwners();
+        List<Owner> copies = new ArrayList<>();
+        for (Owner owner : ownersById.values()) {
+            copies.add(new Owner(owner));
+        }
+
+        markOwnersAsSaved(filePath);
+        return copies;
+    }
+
+    /**
+     * Called when saving the copies returned by captureOwnersForSnapshotSave failed.
+     *
+     * @param filePath The path to the snapshot file that could not be saved.
+     */
+    void snapshotSaveFailed(String filePath) {
+        if (filePath.equals(snapshotFilePath)) {
+            snapshotFilePath = null;
+        }
+    }
+
+    private void markOwnersAsSaved(String filePath) {
+        ownersById.values().forEach(Owner::markClean);
+        deletedOwnerIds.clear();
+        snapshotFilePath = filePath;
+    }
 
     /**
      * Saves the list of owners to a binary file.
@@ -159,40 +695,264 @@ public class OwnerService {
      */
     public void saveOwnersToBinaryFileUsingTheEntireList(String filePath,
                                                          FileService fileService) throws IOException {
+        long startTime = metrics.start(SAVE_OWNERS_TO_BINARY_FILE_USING_THE_ENTIRE_LIST);
+        try {
+            doSaveOwnersToBinaryFileUsingTheEntireList(filePath, fileService);
+        } finally {
+            metrics.stop(SAVE_OWNERS_TO_BINARY_FILE_USING_THE_ENTIRE_LIST, startTime);
+        }
+    }
 
+    private void doSaveOwnersToBinaryFileUsingTheEntireList(String filePath,
+                                                            FileService fileService) throws IOException {
+        faultInAllOwners();
         List<Owner> owners = new ArrayList<>(ownersById.values());
         fileService.saveOwnersToBinaryFileUsingTheEntireList(filePath, owners);
-
     }
 
     /**
-     * Saves the list of owners to a binary file.
+     * Saves the list of owners to a CSV file.
+     * The owners are written one by one, without building the list of lines first.
      *
-     * @param filePath The path to the binary file where the list of owners will be saved.
+     * @param filePath The path to the CSV file where the list of owners will be saved.
      * @param fileService The FileService object used to write the file.
      * @throws IOException If an I/O error occurs while writing the file.
      */
     public void saveOwnersToCSVFile(String filePath, FileService fileService) throws IOException {
+        long startTime = metrics.start(SAVE_OWNERS_TO_CSV_FILE);
+        try {
+            doSaveOwnersToCSVFile(filePath, fileService);
+        } finally {
+            metrics.stop(SAVE_OWNERS_TO_CSV_FILE, startTime);
+        }
+    }
 
+    private void doSaveOwnersToCSVFile(String filePath, FileService fileService) throws IOException {
+        faultInAllOwners();
+        fileService.saveOwnersToCSVFile(filePath, ";", this.ownersById.values());
+    }
 
-        List<String> ownersListToCSV = this.ownersById.values().stream()
-            .map(owner -> owner.toCSV(";"))
-            .toList();
+    /**
+     * Saves the owners to a newline delimited JSON file (one owner per line).
+     *
+     * @param filePath    The path of the file.
+     * @param fileService The service used to write the file.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    public void saveOwnersToNDJSONFile(String filePath, FileService fileService) throws IOException {
+        long startTime = metrics.start(SAVE_OWNERS_TO_NDJSON_FILE);
+        try {
+            doSaveOwnersToNDJSONFile(filePath, fileService);
+        } finally {
+            metrics.stop(SAVE_OWNERS_TO_NDJSON_FILE, startTime);
+        }
+    }
+
+    private void doSaveOwnersToNDJSONFile(String filePath, FileService fileService) throws IOException {
+        faultInAllOwners();
+        fileService.saveOwnersToNDJSONFile(filePath, this.ownersById.values());
+    }
 
-        fileService.writeTextFile(filePath, ownersListToCSV);
+    /**
+     * Loads owners from a newline delimited JSON file.
+     *  THIS METHOD DOES NOT OVERWRITE THE OWNERS LIST. IT ADDS TO THE EXISTING Database.
+     * Each owner is added as soon as its line is read.
+     *
+     * @param filePath    The path of the file.
+     * @param fileService The service used to read the file.
+     * @return True if ALL owners were added to the database, false if at least one of them already existed.
+     * @throws IOException If an I/O error occurs while reading the file, or the file is not valid JSON.
+     */
+    public boolean loadOwnersFromNDJSONFile(String filePath, FileService fileService) throws IOException {
+        long startTime = metrics.start(LOAD_OWNERS_FROM_NDJSON_FILE);
+        try {
+            return doLoadOwnersFromNDJSONFile(filePath, fileService);
+        } finally {
+            metrics.stop(LOAD_OWNERS_FROM_NDJSON_FILE, startTime);
+        }
+    }
+
+    private boolean doLoadOwnersFromNDJSONFile(String filePath, FileService fileService) throws IOException {
+        faultInAllOwners();
+
+        int[] ownersAlreadyInDatabase = {0};
+        fileService.loadOwnersFromNDJSONFile(filePath, owner -> {
+            if (!addOwnerToDatabase(owner)) {
+                ownersAlreadyInDatabase[0]++;
+            }
+        });
+
+        return ownersAlreadyInDatabase[0] == 0;
+    }
+
+    /**
+     * Exports the owners to a columnar file for analysis, see FileService.openColumnarFile.
+     *
+     * @param filePath    The path of the file.
+     * @param fileService The service used to write the file.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    public void saveOwnersToColumnarFile(String filePath, FileService fileService) throws IOException {
+        long startTime = metrics.start(SAVE_OWNERS_TO_COLUMNAR_FILE);
+        try {
+            doSaveOwnersToColumnarFile(filePath, fileService);
+        } finally {
+            metrics.stop(SAVE_OWNERS_TO_COLUMNAR_FILE, startTime);
+        }
+    }
 
+    private void doSaveOwnersToColumnarFile(String filePath, FileService fileService) throws IOException {
+        faultInAllOwners();
+        fileService.saveOwnersToColumnarFile(filePath, this.ownersById.values());
     }
 
 
     public List<String> getOwnersAndTheirAnimalsReport(AnimalService animalService) {
-        return ownersById.values().stream()
+        long startTime = metrics.start(GET_OWNERS_AND_THEIR_ANIMALS_REPORT);
+        try {
+            return doGetOwnersAndTheirAnimalsReport(animalService);
+        } finally {
+            metrics.stop(GET_OWNERS_AND_THEIR_ANIMALS_REPORT, startTime);
+        }
+    }
+
+    private List<String> doGetOwnersAndTheirAnimalsReport(AnimalService animalService) {
+        List<String> ownersAndTheirAnimalsReport = new ArrayList<>();
+
+        doWriteOwnersAndTheirAnimalsReport(animalService, ownersAndTheirAnimalsReport::add);
+
+        return ownersAndTheirAnimalsReport;
+    }
+
+    /**
+     * Generates the report of getOwnersAndTheirAnimalsReport, handing each line to the consumer
+     * as soon as it is produced.
+     *
+     * The owners and the animals are joined with a hash join: the animals are put in a map by id once
+     * (the build side) and every animal id of every owner is looked up in it (the probe side), so the report
+     * reads every animal once instead of scanning the animal list for every animal id of every owner.
+     * An animal id without animal (i.e. removed from the animal list) is shown as "Unknown animal " + id.
+     *
+     * Reference: https://en.wikipedia.org/wiki/Hash_join
+     *
+     * @param animalService      The service with the animals of the owners.
+     * @param reportLineConsumer Receives every line of the report.
+     */
+    public void writeOwnersAndTheirAnimalsReport(AnimalService animalService, Consumer<String> reportLineConsumer) {
+        long startTime = metrics.start(WRITE_OWNERS_AND_THEIR_ANIMALS_REPORT);
+        try {
+            doWriteOwnersAndTheirAnimalsReport(animalService, reportLineConsumer);
+        } finally {
+            metrics.stop(WRITE_OWNERS_AND_THEIR_ANIMALS_REPORT, startTime);
+        }
+    }
+
+    private void doWriteOwnersAndTheirAnimalsReport(AnimalService animalService, Consumer<String> reportLineConsumer) {
+        faultInAllOwners();
+
+        // Step 1: The map of the animals by id, kept by the animal service
+        Map<UUID, Animal> animalsById = animalService.getAnimalsById();
+
+        // Step 2: Stream the owners through it
+        ownersById.values().stream()
             .map(owner -> owner.getName()
                         + owner.getUsername() + " owns :"
                         + owner.getAnimalIds().stream()
-                            .map(animalId -> animalService.findAnimalById(animalId).getName())
+                            .map(animalId -> {
+                                Animal animal = animalsById.get(animalId);
+                                return animal == null ? UNKNOWN_ANIMAL + animalId : animal.getName();
+                            })
                             .collect(Collectors.joining(", "))
             )
-            .toList();
+            .forEachOrdered(reportLineConsumer);
+    }
+
+    /**
+     * Appends the report of getOwnersAndTheirAnimalsReport, one line at a time.
+     *
+     * @param animalService The service with the animals of the owners.
+     * @param appendable    Where the lines are appended (for example a Writer). It is not flushed nor closed.
+     * @throws IOException If the appendable throws an IOException.
+     */
+    public void writeOwnersAndTheirAnimalsReport(AnimalService animalService, Appendable appendable)
+        throws IOException {
+        long startTime = metrics.start(WRITE_OWNERS_AND_THEIR_ANIMALS_REPORT);
+        try {
+            doWriteOwnersAndTheirAnimalsReport(animalService, appendable);
+        } finally {
+            metrics.stop(WRITE_OWNERS_AND_THEIR_ANIMALS_REPORT, startTime);
+        }
+    }
+
+    private void doWriteOwnersAndTheirAnimalsReport(AnimalService animalService, Appendable appendable)
+        throws IOException {
+
+        ReportAppender.appendLines(appendable,
+            reportLineConsumer -> doWriteOwnersAndTheirAnimalsReport(animalService, reportLineConsumer));
+    }
+
+    /**
+     * Adds to the maps the owners of the block of the lazy snapshot that has this owner, if it was not read yet.
+     * The methods of the service do not declare IOException, so an I/O error is thrown as an UncheckedIOException.
+     */
+    private void faultInOwnerById(UUID ownerId) {
+        if (lazySnapshot != null && !ownersById.containsKey(ownerId)) {
+            try {
+                addFaultedOwners(lazySnapshot.faultInBlockOf(ownerId));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void faultInOwnerByUsername(String username) {
+        if (lazySnapshot != null && !ownersByUsername.containsKey(username)) {
+            try {
+                addFaultedOwners(lazySnapshot.faultInBlockOfUsername(username));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Adds to the maps the owners of the lazy snapshot that were not read yet, and closes it.
+     */
+    private void faultInAllOwners() {
+        if (lazySnapshot != null) {
+            List<Owner> owners = new ArrayList<>();
+            try {
+                lazySnapshot.readRemainingRecords(owners::add);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            addFaultedOwners(owners);
+            closeLazySnapshot();
+        }
+    }
 
+    // The owners read from the snapshot are already saved in it, they are not dirty
+    private void addFaultedOwners(List<Owner> owners) {
+        for (Owner owner : owners) {
+            if (!ownersById.containsKey(owner.getId()) && !deletedOwnerIds.contains(owner.getId())) {
+                ownersById.put(owner.getId(), owner);
+                ownersByUsername.put(owner.getUsername(), owner);
+                owner.setChangeListener(ownerChanged);
+                owner.markClean();
+                modificationCount++;
+            }
+        }
+    }
+
+    private void closeLazySnapshot() {
+        if (lazySnapshot != null) {
+            try {
+                lazySnapshot.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                lazySnapshot = null;
+            }
+        }
     }
 }
@@ -0,0 +1,91 @@
+package org.study.services;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A page of a listing (see AnimalService.getAnimalsPage and OwnerService.getOwnersPage).
+ *
+ * The next page is asked with the token of this page. The token is opaque: it stores where the page ended
+ * (the key of its last item), not the number of the page, so reading a page only costs the items of the page
+ * and the items added after the page was read do not move the next pages.
+ *
+ * Reference: https://use-the-index-luke.com/no-offset
+ *
+ * @param <T> The type of the items.
+ */
+public final class Page<T> {
+
+    // The first byte of a token says which listing it belongs to
+    static final byte ANIMALS_TOKEN = 'A';
+    static final byte OWNERS_TOKEN = 'O';
+
+    private final List<T> items;
+    private final String nextPageToken;
+
+    Page(List<T> items, String nextPageToken) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextPageToken = nextPageToken;
+    }
+
+    /**
+     * @return The items of the page, in the order of the listing.
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return The token to ask for the next page, or null if this is the last page.
+     */
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public boolean hasNextPage() {
+        return nextPageToken != null;
+    }
+
+    /**
+     * @throws IllegalArgumentException If the page size is not positive.
+     */
+    static void checkPageSize(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than 0");
+        }
+    }
+
+    /**
+     * Encodes the key where a page ended as a URL safe Base64 string, so it can be shown or sent as it is.
+     *
+     * Reference: https://docs.oracle.com/javase/8/docs/api/java/util/Base64.html#getUrlEncoder--
+     */
+    static String encodeToken(byte listing, byte[] key) {
+        byte[] token = new byte[1 + key.length];
+        token[0] = listing;
+        System.arraycopy(key, 0, token, 1, key.length);
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+    }
+
+    /**
+     * @return The key stored in the token, as a buffer.
+     * @throws IllegalArgumentException If the token was not created for this listing.
+     */
+    static ByteBuffer decodeToken(byte listing, String token) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page token " + token);
+        }
+
+        if (bytes.length == 0 || bytes[0] != listing) {
+            throw new IllegalArgumentException("Invalid page token " + token);
+        }
+
+        return ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+    }
+}
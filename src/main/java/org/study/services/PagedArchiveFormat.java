@@ -0,0 +1,54 @@
+package org.study.services;
+
+/**
+ * Constants of the paged archive format, a read-only file of animals and owners that can be
+ * queried by id without reading the whole file.
+ *
+ * The file is divided into pages of PAGE_SIZE bytes:
+ *
+ *  HEADER PAGE: MAGIC (int) VERSION (short) PAGE SIZE (int), padded with zeros
+ *  DATA PAGES: the records, one after the other
+ *  ANIMAL INDEX PAGES: (MOST SIGNIFICANT BITS (long) LEAST SIGNIFICANT BITS (long) OFFSET (long))*
+ *  OWNER INDEX PAGES: same as the animal index
+ *  FENCES: the first id (two longs) of every animal index page, then of every owner index page
+ *  TRAILER: ANIMAL INDEX OFFSET (long) NUMBER OF ANIMALS (int)
+ *           OWNER INDEX OFFSET (long) NUMBER OF OWNERS (int) FENCES OFFSET (long) MAGIC (int)
+ *
+ * Every record is written as its length (int) followed by its bytes. A record that fits in a page
+ * never crosses the end of a page, so most records are read with a single page read.
+ * Bigger records start at the beginning of a page and take several consecutive pages.
+ *
+ * The indexes are sorted by id and no index entry crosses the end of a page. The fences are small
+ * enough to be kept in memory, so finding an id takes one read of an index page and one read of a data page.
+ *
+ * Reference: https://en.wikipedia.org/wiki/Page_(computer_memory)
+ * Reference: https://en.wikipedia.org/wiki/B-tree
+ */
+final class PagedArchiveFormat {
+
+    // "PAGE" in ASCII
+    static final int MAGIC = 0x50414745;
+
+    static final int VERSION = 1;
+
+    static final int PAGE_SIZE = 8 * 1024;
+
+    // Two longs for the id and one long for the offset of the record
+    static final int INDEX_ENTRY_SIZE = 3 * Long.BYTES;
+
+    static final int TRAILER_SIZE = 3 * Long.BYTES + 3 * Integer.BYTES;
+
+    static final int RECORD_LENGTH_SIZE = Integer.BYTES;
+
+    private PagedArchiveFormat() {
+    }
+
+    static int entriesPerIndexPage(int pageSize) {
+        return pageSize / INDEX_ENTRY_SIZE;
+    }
+
+    static int numberOfIndexPages(int numberOfEntries, int pageSize) {
+        int entriesPerPage = entriesPerIndexPage(pageSize);
+        return (numberOfEntries + entriesPerPage - 1) / entriesPerPage;
+    }
+}
@@ -0,0 +1,345 @@
+package org.study.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.study.exceptions.NotFoundException;
+import org.study.model.Animal;
+import org.study.model.Owner;
+import org.study.model.Vaccine;
+
+/**
+ * Finds animals, owners and vaccine histories by id in a paged archive file, see PagedArchiveFormat.
+ *
+ * Only the header, the trailer and the fences (the first id of every index page) are read when the file is opened.
+ * A lookup reads one index page and one data page, and the last pages read are kept in a small LRU cache,
+ * so archives much bigger than the memory can be queried.
+ *
+ * The reader can be used from several threads at the same time.
+ *
+ * Reference: https://docs.oracle.com/javase/8/docs/api/java/nio/channels/FileChannel.html#read-java.nio.ByteBuffer-long-
+ * Reference: https://docs.oracle.com/javase/8/docs/api/java/util/LinkedHashMap.html#removeEldestEntry-java.util.Map.Entry-
+ */
+public class PagedArchiveReader implements Closeable {
+
+    public static final int DEFAULT_CACHED_PAGES = 64;
+
+    private final FileChannel channel;
+    private final int pageSize;
+
+    private final long animalIndexOffset;
+    private final int numberOfAnimals;
+    private final long[] animalFences;
+
+    private final long ownerIndexOffset;
+    private final int numberOfOwners;
+    private final long[] ownerFences;
+
+    // Page number -> page bytes, in access order so the eldest entry is the least recently used page
+    private final Map<Long, byte[]> pageCache;
+
+    PagedArchiveReader(Path path, int cachedPages) throws IOException {
+        if (cachedPages < 1) {
+            throw new IllegalArgumentException("At least one page must be cached");
+        }
+
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            ByteBuffer header = readFully(0, Integer.BYTES + Short.BYTES + Integer.BYTES);
+            if (header.getInt() != PagedArchiveFormat.MAGIC) {
+                throw new IOException("The file is not a paged archive file");
+            }
+
+            int version = header.getShort() & 0xFFFF;
+            if (version > PagedArchiveFormat.VERSION) {
+                throw new IOException(String.format(
+                    "Paged archive version %d is not supported, the latest supported version is %d",
+                    version, PagedArchiveFormat.VERSION));
+            }
+
+            this.pageSize = header.getInt();
+            if (pageSize < PagedArchiveFormat.INDEX_ENTRY_SIZE) {
+                throw new IOException("Corrupted paged archive: invalid page size " + pageSize);
+            }
+
+            ByteBuffer trailer = readFully(
+                channel.size() - PagedArchiveFormat.TRAILER_SIZE, PagedArchiveFormat.TRAILER_SIZE);
+
+            this.animalIndexOffset = trailer.getLong();
+            this.numberOfAnimals = trailer.getInt();
+            this.ownerIndexOffset = trailer.getLong();
+            this.numberOfOwners = trailer.getInt();
+            long fencesOffset = trailer.getLong();
+
+            if (trailer.getInt() != PagedArchiveFormat.MAGIC) {
+                throw new IOException("Corrupted paged archive: the file is truncated");
+            }
+
+            int animalIndexPages = PagedArchiveFormat.numberOfIndexPages(numberOfAnimals, pageSize);
+            int ownerIndexPages = PagedArchiveFormat.numberOfIndexPages(numberOfOwners, pageSize);
+
+            ByteBuffer fences = readFully(fencesOffset, (animalIndexPages + ownerIndexPages) * 2 * Long.BYTES);
+            this.animalFences = readFences(fences, animalIndexPages);
+            this.ownerFences = readFences(fences, ownerIndexPages);
+
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+
+        this.pageCache = new LinkedHashMap<>(cachedPages, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+                return size() > cachedPages;
+            }
+        };
+    }
+
+    public int getNumberOfAnimals() {
+        return numberOfAnimals;
+    }
+
+    public int getNumberOfOwners() {
+        return numberOfOwners;
+    }
+
+    /**
+     * Finds an animal (with its owner ids and its vaccines) by its id.
+     *
+     * @param id The id of the animal.
+     * @return The animal with that id.
+     * @throws NotFoundException If the archive has no animal with that id.
+     * @throws IOException If an I/O error occurs while reading the file.
+     */
+    public Animal findAnimalById(UUID id) throws IOException, NotFoundException {
+        long offset = findOffset(id, animalIndexOffset, numberOfAnimals, animalFences);
+
+        if (offset < 0) {
+            throw new NotFoundException(String.format("Animal with id %s not found", id));
+        }
+
+        DataInputStream record = readRecord(offset);
+
+        Animal animal = new Animal(readUUID(record), record.readUTF(), record.readInt());
+
+        int numberOfOwnerIds = record.readInt();
+        for (int i = 0; i < numberOfOwnerIds; i++) {
+            animal.addOwnerId(readUUID(record));
+        }
+
+        int numberOfVaccines = record.readInt();
+        List<Vaccine> vaccines = new ArrayList<>(numberOfVaccines);
+
+        for (int i = 0; i < numberOfVaccines; i++) {
+            vaccines.add(new Vaccine(
+                readUUID(record),
+                record.readInt(),
+                record.readUTF(),
+                record.readInt()));
+        }
+        animal.addVaccines(vaccines);
+
+        return animal;
+    }
+
+    /**
+     * Finds the vaccines applied to an animal.
+     *
+     * @param animalId The id of the animal.
+     * @return The vaccines of the animal, in the order they were saved.
+     * @throws NotFoundException If the archive has no animal with that id.
+     * @throws IOException If an I/O error occurs while reading the file.
+     */
+    public List<Vaccine> findVaccinesByAnimalId(UUID animalId) throws IOException, NotFoundException {
+        return findAnimalById(animalId).getVaccines();
+    }
+
+    /**
+     * Finds an owner (with its animal ids) by its id.
+     *
+     * @param id The id of the owner.
+     * @return The owner with that id.
+     * @throws NotFoundException If the archive has no owner with that id.
+     * @throws IOException If an I/O error occurs while reading the file.
+     */
+    public Owner findOwnerById(UUID id) throws IOException, NotFoundException {
+        long offset = findOffset(id, ownerIndexOffset, numberOfOwners, ownerFences);
+
+        if (offset < 0) {
+            throw new NotFoundException(String.format("Owner with id %s not found", id));
+        }
+
+        DataInputStream record = readRecord(offset);
+
+        Owner owner = new Owner(
+            readUUID(record),
+            record.readUTF(),
+            record.readUTF(),
+            record.readUTF(),
+            record.readUTF(),
+            record.readInt(),
+            record.readUTF(),
+            record.readUTF(),
+            record.readUTF(),
+            record.readUTF(),
+            record.readUTF(),
+            record.readUTF());
+
+        int numberOfAnimalIds = record.readInt();
+        for (int i = 0; i < numberOfAnimalIds; i++) {
+            owner.addAnimalId(readUUID(record));
+        }
+
+        return owner;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Step 1: binary search of the fences (in memory) to find the index page that could have the id.
+     * Step 2: binary search of the entries of that index page.
+     *
+     * @return The offset of the record, or -1 if the id is not in the index.
+     */
+    private long findOffset(UUID id, long indexOffset, int numberOfEntries, long[] fences) throws IOException {
+        long mostSignificantBits = id.getMostSignificantBits();
+        long leastSignificantBits = id.getLeastSignificantBits();
+
+        // Step 1: last index page whose first id is lower or equal than the id
+        int low = 0;
+        int high = fences.length / 2 - 1;
+        int indexPage = -1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+
+            if (compare(fences[2 * middle], fences[2 * middle + 1], mostSignificantBits, leastSignificantBits) <= 0) {
+                indexPage = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        if (indexPage < 0) {
+            return -1;
+        }
+
+        // Step 2: the entries of the index page
+        int entriesPerPage = PagedArchiveFormat.entriesPerIndexPage(pageSize);
+        int entriesInPage = Math.min(entriesPerPage, numberOfEntries - indexPage * entriesPerPage);
+        ByteBuffer page = ByteBuffer.wrap(readPage(indexOffset / pageSize + indexPage));
+
+        low = 0;
+        high = entriesInPage - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int entry = middle * PagedArchiveFormat.INDEX_ENTRY_SIZE;
+            int comparison = compare(page.getLong(entry), page.getLong(entry + Long.BYTES),
+                mostSignificantBits, leastSignificantBits);
+
+            if (comparison == 0) {
+                return page.getLong(entry + 2 * Long.BYTES);
+            } else if (comparison < 0) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Same order as the one used by PagedArchiveWriter to sort the index.
+     */
+    private static int compare(long mostSignificantBits1, long leastSignificantBits1,
+                               long mostSignificantBits2, long leastSignificantBits2) {
+        int comparison = Long.compare(mostSignificantBits1, mostSignificantBits2);
+        return comparison != 0 ? comparison : Long.compare(leastSignificantBits1, leastSignificantBits2);
+    }
+
+    private DataInputStream readRecord(long offset) throws IOException {
+        long pageNumber = offset / pageSize;
+        int offsetInPage = (int) (offset % pageSize);
+
+        byte[] page = readPage(pageNumber);
+        int length = ByteBuffer.wrap(page).getInt(offsetInPage);
+        int start = offsetInPage + PagedArchiveFormat.RECORD_LENGTH_SIZE;
+
+        if (length < 0) {
+            throw new IOException("Corrupted paged archive: invalid record length");
+        }
+
+        // Most records fit in their page
+        if (start + length <= pageSize) {
+            return new DataInputStream(new ByteArrayInputStream(page, start, length));
+        }
+
+        // Records bigger than a page are read directly, they would fill the cache
+        ByteBuffer record = readFully(offset + PagedArchiveFormat.RECORD_LENGTH_SIZE, length);
+        return new DataInputStream(new ByteArrayInputStream(record.array()));
+    }
+
+    private byte[] readPage(long pageNumber) throws IOException {
+        synchronized (pageCache) {
+            byte[] page = pageCache.get(pageNumber);
+            if (page != null) {
+                return page;
+            }
+        }
+
+        // Two threads may read the same page at the same time, both get the same bytes
+        byte[] page = readFully(pageNumber * pageSize, pageSize).array();
+
+        synchronized (pageCache) {
+            pageCache.put(pageNumber, page);
+        }
+        return page;
+    }
+
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        if (position < 0 || position + length > channel.size()) {
+            throw new EOFException("Corrupted paged archive: read outside of the file");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Corrupted paged archive: the file is truncated");
+            }
+        }
+
+        return buffer.flip();
+    }
+
+    private static long[] readFences(ByteBuffer fences, int numberOfIndexPages) {
+        long[] ids = new long[2 * numberOfIndexPages];
+
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = fences.getLong();
+        }
+        return ids;
+    }
+
+    private static UUID readUUID(DataInputStream record) throws IOException {
+        return new UUID(record.readLong(), record.readLong());
+    }
+}
@@ -0,0 +1,226 @@
+package org.study.services;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import org.study.model.Animal;
+import org.study.model.Owner;
+import org.study.model.Vaccine;
+
+/**
+ * Writes animals and owners with the paged archive format described in PagedArchiveFormat.
+ *
+ * The records are written as they come, the offset of every record is kept in memory
+ * and the sorted indexes are written by finish(), after the last record.
+ */
+class PagedArchiveWriter implements Closeable {
+
+    private final DataOutputStream output;
+    private final int pageSize;
+    private long position;
+
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+    private final DataOutputStream record = new DataOutputStream(recordBytes);
+
+    private final List<IndexEntry> animalIndex = new ArrayList<>();
+    private final List<IndexEntry> ownerIndex = new ArrayList<>();
+
+    PagedArchiveWriter(OutputStream outputStream) throws IOException {
+        this.output = new DataOutputStream(new BufferedOutputStream(outputStream));
+        this.pageSize = PagedArchiveFormat.PAGE_SIZE;
+
+        output.writeInt(PagedArchiveFormat.MAGIC);
+        output.writeShort(PagedArchiveFormat.VERSION);
+        output.writeInt(pageSize);
+        position = Integer.BYTES + Short.BYTES + Integer.BYTES;
+
+        padToNextPage();
+    }
+
+    void writeAnimal(Animal animal) throws IOException {
+        recordBytes.reset();
+
+        writeUUID(animal.getId());
+        record.writeUTF(animal.getName());
+        record.writeInt(animal.getAge());
+        writeUUIDs(animal.getOwnerIds());
+
+        List<Vaccine> vaccines = animal.getVaccines();
+        record.writeInt(vaccines.size());
+
+        for (Vaccine vaccine : vaccines) {
+            writeUUID(vaccine.getID());
+            record.writeInt(vaccine.getVolumeInMl());
+            record.writeUTF(vaccine.getBrand());
+            record.writeInt(vaccine.getDateOfApplicationEpochDay());
+        }
+
+        animalIndex.add(new IndexEntry(animal.getId(), writeRecord()));
+    }
+
+    void writeOwner(Owner owner) throws IOException {
+        recordBytes.reset();
+
+        writeUUID(owner.getId());
+        record.writeUTF(owner.getName());
+        record.writeUTF(owner.getUsername());
+        record.writeUTF(owner.getEmail());
+        record.writeUTF(owner.getPassword());
+        record.writeInt(owner.getAge());
+        record.writeUTF(owner.getPhone());
+        record.writeUTF(owner.getAddress());
+        record.writeUTF(owner.getCity());
+        record.writeUTF(owner.getState());
+        record.writeUTF(owner.getCountry());
+        record.writeUTF(owner.getZip());
+        writeUUIDs(owner.getAnimalIds());
+
+        ownerIndex.add(new IndexEntry(owner.getId(), writeRecord()));
+    }
+
+    /**
+     * Writes the indexes, the fences and the trailer.
+     *
+     * @throws IllegalArgumentException If the same animal or owner id was written twice.
+     */
+    void finish() throws IOException {
+        padToNextPage();
+
+        long animalIndexOffset = position;
+        writeIndex(animalIndex, "animal");
+
+        long ownerIndexOffset = position;
+        writeIndex(ownerIndex, "owner");
+
+        long fencesOffset = position;
+        writeFences(animalIndex);
+        writeFences(ownerIndex);
+
+        output.writeLong(animalIndexOffset);
+        output.writeInt(animalIndex.size());
+        output.writeLong(ownerIndexOffset);
+        output.writeInt(ownerIndex.size());
+        output.writeLong(fencesOffset);
+        output.writeInt(PagedArchiveFormat.MAGIC);
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+
+    /**
+     * Writes the encoded record, moving to the next page first if the record does not fit in the current one.
+     *
+     * @return The offset of the record in the file.
+     */
+    private long writeRecord() throws IOException {
+        int length = PagedArchiveFormat.RECORD_LENGTH_SIZE + recordBytes.size();
+        int usedInPage = (int) (position % pageSize);
+
+        // Records bigger than a page start at the beginning of a page
+        if (usedInPage != 0 && (usedInPage + length > pageSize || length > pageSize)) {
+            padToNextPage();
+        }
+
+        long offset = position;
+        output.writeInt(recordBytes.size());
+        recordBytes.writeTo(output);
+        position += length;
+
+        return offset;
+    }
+
+    private void writeIndex(List<IndexEntry> index, String recordName) throws IOException {
+        index.sort(IndexEntry.BY_ID);
+
+        for (int i = 1; i < index.size(); i++) {
+            if (IndexEntry.BY_ID.compare(index.get(i - 1), index.get(i)) == 0) {
+                throw new IllegalArgumentException(String.format(
+                    "The %s with id %s was written twice", recordName, index.get(i).toUUID()));
+            }
+        }
+
+        int entriesPerPage = PagedArchiveFormat.entriesPerIndexPage(pageSize);
+
+        for (int i = 0; i < index.size(); i++) {
+            // No entry crosses the end of a page
+            if (i > 0 && i % entriesPerPage == 0) {
+                padToNextPage();
+            }
+
+            IndexEntry entry = index.get(i);
+            output.writeLong(entry.mostSignificantBits);
+            output.writeLong(entry.leastSignificantBits);
+            output.writeLong(entry.offset);
+            position += PagedArchiveFormat.INDEX_ENTRY_SIZE;
+        }
+
+        padToNextPage();
+    }
+
+    private void writeFences(List<IndexEntry> index) throws IOException {
+        int entriesPerPage = PagedArchiveFormat.entriesPerIndexPage(pageSize);
+
+        for (int i = 0; i < index.size(); i += entriesPerPage) {
+            output.writeLong(index.get(i).mostSignificantBits);
+            output.writeLong(index.get(i).leastSignificantBits);
+            position += 2 * Long.BYTES;
+        }
+    }
+
+    private void padToNextPage() throws IOException {
+        int usedInPage = (int) (position % pageSize);
+
+        if (usedInPage != 0) {
+            output.write(new byte[pageSize - usedInPage]);
+            position += pageSize - usedInPage;
+        }
+    }
+
+    private void writeUUIDs(Collection<UUID> ids) throws IOException {
+        record.writeInt(ids.size());
+        for (UUID id : ids) {
+            writeUUID(id);
+        }
+    }
+
+    private void writeUUID(UUID id) throws IOException {
+        record.writeLong(id.getMostSignificantBits());
+        record.writeLong(id.getLeastSignificantBits());
+    }
+
+    /**
+     * Position of a record in the file.
+     */
+    private static final class IndexEntry {
+
+        // The same order used by the reader to search the index
+        static final Comparator<IndexEntry> BY_ID = Comparator
+            .<IndexEntry>comparingLong(entry -> entry.mostSignificantBits)
+            .thenComparingLong(entry -> entry.leastSignificantBits);
+
+        final long mostSignificantBits;
+        final long leastSignificantBits;
+        final long offset;
+
+        IndexEntry(UUID id, long offset) {
+            this.mostSignificantBits = id.getMostSignificantBits();
+            this.leastSignificantBits = id.getLeastSignificantBits();
+            this.offset = offset;
+        }
+
+        UUID toUUID() {
+            return new UUID(mostSignificantBits, leastSignificantBits);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.study.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * The indexes a query can use (see QueryPredicate): the indexes of the animals, of the owners, or both
+ * (the animals of the owners of a city).
+ */
+final class QueryIndexes {
+
+    private final AnimalIndexes animals;
+    private final OwnerIndexes owners;
+
+    QueryIndexes(AnimalIndexes animals, OwnerIndexes owners) {
+        this.animals = animals;
+        this.owners = owners;
+    }
+
+    AnimalIndexes animals() {
+        return animals;
+    }
+
+    /**
+     * @throws IllegalArgumentException If the query has no owners (i.e. an animal query run without the OwnerService).
+     */
+    OwnerIndexes owners() {
+        if (owners == null) {
+            throw new IllegalArgumentException("The owners are needed to run this query");
+        }
+        return owners;
+    }
+
+    /**
+     * Adds an item to the bucket of its key, in an index with many items per key.
+     */
+    static <K, T> void addToBucket(Map<K, List<T>> index, K key, T item) {
+        index.computeIfAbsent(key, newKey -> new ArrayList<>()).add(item);
+    }
+
+    /**
+     * @return The values of the keys that start with the prefix, without reading the other keys.
+     */
+    static <V> Collection<V> valuesWithPrefix(NavigableMap<String, V> index, String prefix) {
+        if (prefix.isEmpty()) {
+            return index.values();
+        }
+
+        // The keys that start with the prefix are the keys from the prefix (included)
+        // to the prefix with its last character incremented (excluded)
+        char lastCharacter = prefix.charAt(prefix.length() - 1);
+        if (lastCharacter == Character.MAX_VALUE) {
+            // It cannot be incremented, the query checks the values of the keys after the prefix anyway
+            return index.tailMap(prefix, true).values();
+        }
+        String end = prefix.substring(0, prefix.length() - 1) + (char) (lastCharacter + 1);
+        return index.subMap(prefix, true, end, false).values();
+    }
+}
@@ -0,0 +1,224 @@
+package org.study.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A condition of a query of animals (see AnimalQuery and AnimalService.findAnimals)
+ * or owners (see OwnerQuery and OwnerService.findOwners).
+ *
+ * The conditions are combined with and/or. Before reading anything, the query is planned: every condition that can
+ * be answered by an index (i.e. the animals with a brand) says how many items the index would return, the smallest
+ * of them is read, and only those items are checked against the whole query. The cost of the query is then
+ * the number of items of the most selective index, instead of the number of items of the service.
+ * A query without any indexed condition checks every item (a full scan).
+ *
+ * Reference: https://use-the-index-luke.com/sql/explain-plan
+ * Reference: https://en.wikipedia.org/wiki/Query_optimization
+ *
+ * @param <T> The type of the items (Animal or Owner).
+ */
+public abstract class QueryPredicate<T> {
+
+    // The estimate of a condition without index: reading it is reading everything
+    static final int NOT_INDEXED = Integer.MAX_VALUE;
+
+    QueryPredicate() {
+    }
+
+    /**
+     * @return A condition that matches the items matched by both conditions.
+     * @throws IllegalArgumentException If the other condition is null.
+     */
+    public QueryPredicate<T> and(QueryPredicate<T> other) {
+        if (other == null) {
+            throw new IllegalArgumentException("Predicate cannot be null");
+        }
+        return new And<>(this, other);
+    }
+
+    /**
+     * @return A condition that matches the items matched by any of the conditions.
+     * @throws IllegalArgumentException If the other condition is null.
+     */
+    public QueryPredicate<T> or(QueryPredicate<T> other) {
+        if (other == null) {
+            throw new IllegalArgumentException("Predicate cannot be null");
+        }
+        return new Or<>(this, other);
+    }
+
+    abstract boolean matches(T item, QueryIndexes indexes);
+
+    /**
+     * @param limit Counting stops once the count is over the limit, the plan only needs to know it is worse.
+     * @return The number of items read from the indexes to answer the condition (it may have duplicates),
+     * a number over the limit, or NOT_INDEXED.
+     */
+    abstract int estimate(QueryIndexes indexes, int limit);
+
+    /**
+     * Adds the items of the indexes that may match the condition.
+     * Only called if estimate(indexes, limit) is under the limit.
+     */
+    abstract void addCandidates(QueryIndexes indexes, int limit, Collection<T> candidates);
+
+    /**
+     * Runs a query.
+     *
+     * @param predicate The query.
+     * @param indexes   The indexes of the items.
+     * @param items     All the items, in the order of the result.
+     * @param order     The order of the items, to sort the items read from an index.
+     * @return The items that match the query, in the order of the items.
+     */
+    static <T> List<T> select(QueryPredicate<T> predicate,
+                              QueryIndexes indexes,
+                              Collection<T> items,
+                              Comparator<? super T> order) {
+
+        if (predicate == null) {
+            throw new IllegalArgumentException("Predicate cannot be null");
+        }
+
+        List<T> result = new ArrayList<>();
+
+        // Step 1: Plan. An index is only worth it if it returns fewer items than the full scan.
+        if (predicate.estimate(indexes, items.size()) >= items.size()) {
+            for (T item : items) {
+                if (predicate.matches(item, indexes)) {
+                    result.add(item);
+                }
+            }
+            return result;
+        }
+
+        // Step 2: Read the candidates of the most selective index, without duplicates
+        Set<T> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+        predicate.addCandidates(indexes, items.size(), candidates);
+
+        // Step 3: Check the whole query on the candidates and sort them
+        for (T candidate : candidates) {
+            if (predicate.matches(candidate, indexes)) {
+                result.add(candidate);
+            }
+        }
+        result.sort(order);
+
+        return result;
+    }
+
+    /**
+     * A condition answered by reading some buckets of an index (the items with a key, or in a range of keys).
+     */
+    abstract static class Indexed<T> extends QueryPredicate<T> {
+
+        /**
+         * @return The buckets of the index with the items that may match, or null if there is no index.
+         */
+        abstract Collection<? extends Collection<T>> buckets(QueryIndexes indexes);
+
+        @Override
+        int estimate(QueryIndexes indexes, int limit) {
+            Collection<? extends Collection<T>> buckets = buckets(indexes);
+            if (buckets == null) {
+                return NOT_INDEXED;
+            }
+
+            int count = 0;
+            for (Collection<T> bucket : buckets) {
+                count += bucket.size();
+                if (count > limit) {
+                    break;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        void addCandidates(QueryIndexes indexes, int limit, Collection<T> candidates) {
+            for (Collection<T> bucket : buckets(indexes)) {
+                candidates.addAll(bucket);
+            }
+        }
+    }
+
+    private static final class And<T> extends QueryPredicate<T> {
+
+        private final QueryPredicate<T> first;
+        private final QueryPredicate<T> second;
+
+        private And(QueryPredicate<T> first, QueryPredicate<T> second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        boolean matches(T item, QueryIndexes indexes) {
+            return first.matches(item, indexes) && second.matches(item, indexes);
+        }
+
+        /**
+         * Both conditions must match, so the candidates of either one are enough: the smallest is used.
+         */
+        @Override
+        int estimate(QueryIndexes indexes, int limit) {
+            int firstEstimate = first.estimate(indexes, limit);
+            return Math.min(firstEstimate, second.estimate(indexes, Math.min(limit, firstEstimate)));
+        }
+
+        @Override
+        void addCandidates(QueryIndexes indexes, int limit, Collection<T> candidates) {
+            int firstEstimate = first.estimate(indexes, limit);
+            if (second.estimate(indexes, Math.min(limit, firstEstimate)) < firstEstimate) {
+                second.addCandidates(indexes, limit, candidates);
+            } else {
+                first.addCandidates(indexes, limit, candidates);
+            }
+        }
+    }
+
+    private static final class Or<T> extends QueryPredicate<T> {
+
+        private final QueryPredicate<T> first;
+        private final QueryPredicate<T> second;
+
+        private Or(QueryPredicate<T> first, QueryPredicate<T> second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        boolean matches(T item, QueryIndexes indexes) {
+            return first.matches(item, indexes) || second.matches(item, indexes);
+        }
+
+        /**
+         * Either condition can match, so the candidates of both are needed, and both need an index.
+         */
+        @Override
+        int estimate(QueryIndexes indexes, int limit) {
+            int firstEstimate = first.estimate(indexes, limit);
+            if (firstEstimate == NOT_INDEXED) {
+                return NOT_INDEXED;
+            }
+
+            int secondEstimate = second.estimate(indexes, limit);
+            if (secondEstimate == NOT_INDEXED) {
+                return NOT_INDEXED;
+            }
+            return (int) Math.min((long) firstEstimate + secondEstimate, NOT_INDEXED - 1);
+        }
+
+        @Override
+        void addCandidates(QueryIndexes indexes, int limit, Collection<T> candidates) {
+            first.addCandidates(indexes, limit, candidates);
+            second.addCandidates(indexes, limit, candidates);
+        }
+    }
+}
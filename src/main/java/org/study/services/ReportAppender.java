@@ -0,0 +1,43 @@
+package org.study.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Appends the lines of a report to an Appendable (a Writer, a StringBuilder, System.out...) as they are produced,
+ * so the report is never stored in a list. Each line ends with the line separator of the system.
+ *
+ * Reference: https://docs.oracle.com/javase/8/docs/api/java/lang/Appendable.html
+ */
+final class ReportAppender {
+
+    private ReportAppender() {
+    }
+
+    /**
+     * @param appendable   Where the lines are appended. It is not flushed nor closed.
+     * @param lineProducer Receives the consumer to call for every line of the report.
+     * @throws IOException If the appendable throws an IOException.
+     */
+    static void appendLines(Appendable appendable, Consumer<Consumer<String>> lineProducer) throws IOException {
+        if (appendable == null) {
+            throw new IllegalArgumentException("Appendable cannot be null");
+        }
+
+        String lineSeparator = System.lineSeparator();
+
+        // A Consumer cannot throw IOException, so it travels as an UncheckedIOException until here
+        try {
+            lineProducer.accept(line -> {
+                try {
+                    appendable.append(line).append(lineSeparator);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package org.study.services;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.study.services.enums.ReportTypeEnum;
+
+/**
+ * Keeps the last reports generated by AnimalService and OwnerService, so asking again for a report whose data did not
+ * change returns the same lines in O(1) instead of generating the report again.
+ *
+ * Every report is stored with the data version of its services (see AnimalService.getDataVersion), and it is only
+ * returned while the version is the same: any change to the animals or the owners makes it generate the report again.
+ * When the cache is full, the report that was not read for the longest time is removed (LRU).
+ *
+ * The cache keeps a reference to the services of its reports. The returned lists cannot be modified.
+ *
+ * Reference: https://docs.oracle.com/javase/8/docs/api/java/util/LinkedHashMap.html#removeEldestEntry-java.util.Map.Entry-
+ * Reference: https://en.wikipedia.org/wiki/Cache_replacement_policies#LRU
+ */
+public class ReportCache {
+
+    private final Map<List<Object>, CachedReport> reports;
+
+    private long hits;
+    private long misses;
+
+    /**
+     * @param maximumNumberOfReports The number of reports kept, a report is one report type with some parameters.
+     * @throws IllegalArgumentException If the maximum number of reports is not positive.
+     */
+    public ReportCache(int maximumNumberOfReports) {
+        if (maximumNumberOfReports <= 0) {
+            throw new IllegalArgumentException("Maximum number of reports must be greater than 0");
+        }
+
+        // Access order: every get moves the report to the end, so the first one is the least recently used
+        this.reports = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, CachedReport> eldest) {
+                return size() > maximumNumberOfReports;
+            }
+        };
+    }
+
+    /**
+     * @return The lines of AnimalService.getAnimalReport.
+     */
+    public synchronized List<String> getAnimalReport(AnimalService animalService) {
+        checkNotNull(animalService);
+        return get(List.of(ReportTypeEnum.ANIMAL_VACCINES, animalService),
+            animalService::getDataVersion,
+            animalService::getAnimalReport);
+    }
+
+    /**
+     * @return The lines of AnimalService.getUniqueBrandsReport.
+     */
+    public synchronized List<String> getUniqueBrandsReport(AnimalService animalService) {
+        checkNotNull(animalService);
+        return get(List.of(ReportTypeEnum.UNIQUE_BRANDS, animalService),
+            animalService::getDataVersion,
+            animalService::getUniqueBrandsReport);
+    }
+
+    /**
+     * @return The lines of AnimalService.getAnimalsPendingOnNextApplicationReport, for the current date of its clock.
+     * The report of each date is a different report, so a new day generates the report again.
+     */
+    public synchronized List<String> getAnimalsPendingOnNextApplicationReport(AnimalService animalService) {
+        checkNotNull(animalService);
+        return getAnimalsPendingOnNextApplicationReport(animalService, animalService.today());
+    }
+
+    /**
+     * @return The lines of AnimalService.getAnimalsPendingOnNextApplicationReport(asOf).
+     * @throws IllegalArgumentException If the date is null.
+     */
+    public synchronized List<String> getAnimalsPendingOnNextApplicationReport(AnimalService animalService,
+                                                                              LocalDate asOf) {
+        checkNotNull(animalService);
+        if (asOf == null) {
+            throw new IllegalArgumentException("Date cannot be null");
+        }
+        return get(List.of(ReportTypeEnum.ANIMALS_PENDING_ON_NEXT_APPLICATION, animalService, asOf),
+            animalService::getDataVersion,
+            () -> animalService.getAnimalsPendingOnNextApplicationReport(asOf));
+    }
+
+    /**
+     * @return The lines of AnimalService.getAnimalsAndTheirOwnersReport.
+     */
+    public synchronized List<String> getAnimalsAndTheirOwnersReport(AnimalService animalService,
+                                                                    OwnerService ownerService) {
+        checkNotNull(animalService);
+        checkNotNull(ownerService);
+        // Each version only grows, so their sum changes if either of them changes
+        return get(List.of(ReportTypeEnum.ANIMALS_AND_THEIR_OWNERS, animalService, ownerService),
+            () -> animalService.getDataVersion() + ownerService.getDataVersion(),
+            () -> animalService.getAnimalsAndTheirOwnersReport(ownerService));
+    }
+
+    /**
+     * @return The lines of OwnerService.getOwnersAndTheirAnimalsReport.
+     */
+    public synchronized List<String> getOwnersAndTheirAnimalsReport(OwnerService ownerService,
+                                                                    AnimalService animalService) {
+        checkNotNull(animalService);
+        checkNotNull(ownerService);
+        return get(List.of(ReportTypeEnum.OWNERS_AND_THEIR_ANIMALS, ownerService, animalService),
+            () -> animalService.getDataVersion() + ownerService.getDataVersion(),
+            () -> ownerService.getOwnersAndTheirAnimalsReport(animalService));
+    }
+
+    /**
+     * @return The number of reports in the cache.
+     */
+    public synchronized int size() {
+        return reports.size();
+    }
+
+    public synchronized void clear() {
+        reports.clear();
+    }
+
+    /**
+     * @return The number of reports returned from the cache.
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * @return The number of reports that had to be generated.
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Exports the hits, the misses and the number of reports of the cache as gauges of a registry
+     * (see MetricsRegistry). They are read when the metrics are exported.
+     *
+     * @param metricsRegistry The registry.
+     * @throws IllegalArgumentException If the registry is null.
+     */
+    public void registerMetrics(MetricsRegistry metricsRegistry) {
+        if (metricsRegistry == null) {
+            throw new IllegalArgumentException("Metrics registry cannot be null");
+        }
+        metricsRegistry.gauge("report_cache_hits", "The reports returned from the cache.", this::getHitCount);
+        metricsRegistry.gauge("report_cache_misses", "The reports that had to be generated.", this::getMissCount);
+        metricsRegistry.gauge("report_cache_reports", "The reports in the cache.", this::size);
+    }
+
+    private List<String> get(List<Object> key, LongSupplier dataVersion, Supplier<List<String>> report) {
+        CachedReport cachedReport = reports.get(key);
+        if (cachedReport != null && cachedReport.dataVersion == dataVersion.getAsLong()) {
+            hits++;
+            return cachedReport.lines;
+        }
+
+        misses++;
+        List<String> lines = List.copyOf(report.get());
+
+        // The version is read after generating the report: reading the animals of a lazy snapshot file
+        // changes the version, and the report has those animals
+        reports.put(key, new CachedReport(dataVersion.getAsLong(), lines));
+        return lines;
+    }
+
+    private static void checkNotNull(Object service) {
+        if (service == null) {
+            throw new IllegalArgumentException("Service cannot be null");
+        }
+    }
+
+    private static final class CachedReport {
+
+        private final long dataVersion;
+        private final List<String> lines;
+
+        private CachedReport(long dataVersion, List<String> lines) {
+            this.dataVersion = dataVersion;
+            this.lines = lines;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package org.study.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records how long the public methods of a service take, in the histograms of a MetricsRegistry.
+ *
+ * Every timed method is declared once, in a static field of its service, and the public method only times
+ * the private method that does the work:
+ *
+ * private static final ServiceMetrics.TimedMethods TIMED_METHODS = new ServiceMetrics.TimedMethods("AnimalService");
+ * private static final ServiceMetrics.TimedMethod FIND_ANIMAL_BY_ID = TIMED_METHODS.add("findAnimalById");
+ *
+ * public Animal findAnimalById(UUID id) {
+ *     long startTime = metrics.start(FIND_ANIMAL_BY_ID);
+ *     try {
+ *         return doFindAnimalById(id);
+ *     } finally {
+ *         metrics.stop(FIND_ANIMAL_BY_ID, startTime);
+ *     }
+ * }
+ *
+ * The private methods call each other, never the public ones, so a call is recorded once and only
+ * in the histogram of the method that was called from outside the service.
+ *
+ * Reading the clock and updating a histogram takes longer than many of the methods, so only one call
+ * of every SAMPLE_INTERVAL is timed (and the first one, so a method called once is in the metrics).
+ * A timed call is recorded as the SAMPLE_INTERVAL calls since the previous one: the count and the sum
+ * are estimates, behind by less than SAMPLE_INTERVAL calls, and the percentiles are the ones of the timed calls.
+ * The other calls only decrement a counter of their method, which is kept at the position of the method
+ * in an array, so a call is not looked up by name. The counters are not synchronized: two threads may
+ * time the same call or skip one, which moves the next timed call a little.
+ * Without a registry (DISABLED, the default of every service) start and stop only check a field.
+ *
+ * Reference: https://docs.oracle.com/javase/8/docs/api/java/lang/System.html#nanoTime--
+ */
+final class ServiceMetrics {
+
+    static final String CALL_DURATION = "service_call_duration_nanoseconds";
+    private static final String CALL_DURATION_HELP = "How long the calls to the public methods of the services take.";
+
+    // One call of every SAMPLE_INTERVAL is timed
+    static final int SAMPLE_INTERVAL = 64;
+
+    // Returned by start when the call is not timed
+    private static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    static final ServiceMetrics DISABLED = new ServiceMetrics(null, null);
+
+    private final MetricsRegistry registry;
+    private final TimedMethods methods;
+
+    // The histogram of every method, by position, registered the first time the method is called
+    private final LatencyHistogram[] histograms;
+
+    // The calls of every method, by position, until the next one that is timed (0 times the next call)
+    private final int[] callsUntilSample;
+
+    private ServiceMetrics(MetricsRegistry registry, TimedMethods methods) {
+        this.registry = registry;
+        this.methods = methods;
+        this.histograms = methods == null ? null : new LatencyHistogram[methods.names.size()];
+        this.callsUntilSample = methods == null ? null : new int[methods.names.size()];
+    }
+
+    /**
+     * @param registry The registry of the histograms, or null to record nothing.
+     * @param methods  The timed methods of the service.
+     */
+    static ServiceMetrics of(MetricsRegistry registry, TimedMethods methods) {
+        return registry == null ? DISABLED : new ServiceMetrics(registry, methods);
+    }
+
+    /**
+     * @param method The method, declared in the TimedMethods of the service.
+     * @return The time the call started, or a marker if the call is not timed, to pass to stop.
+     */
+    long start(TimedMethod method) {
+        if (registry == null) {
+            return NOT_SAMPLED;
+        }
+
+        int remainingCalls = callsUntilSample[method.index] - 1;
+        if (remainingCalls > 0) {
+            callsUntilSample[method.index] = remainingCalls;
+            return NOT_SAMPLED;
+        }
+
+        callsUntilSample[method.index] = SAMPLE_INTERVAL;
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the duration of a timed call, whether it returned or threw an exception.
+     *
+     * @param method    The method, declared in the TimedMethods of the service.
+     * @param startTime The value returned by start.
+     */
+    void stop(TimedMethod method, long startTime) {
+        if (startTime == NOT_SAMPLED) {
+            return;
+        }
+
+        long duration = System.nanoTime() - startTime;
+
+        LatencyHistogram histogram = histograms[method.index];
+        if (histogram == null) {
+            // Two threads may get here at the same time, the registry gives both the same histogram
+            histogram = registry.histogram(CALL_DURATION, CALL_DURATION_HELP,
+                "service", methods.service, "method", method.name);
+            histograms[method.index] = histogram;
+
+            // The first call of the method is only itself
+            histogram.record(duration);
+            return;
+        }
+        histogram.record(duration, SAMPLE_INTERVAL);
+    }
+
+    /**
+     * The timed methods of a service, the "service" label of their histograms.
+     */
+    static final class TimedMethods {
+
+        private final String service;
+        private final List<String> names = new ArrayList<>();
+
+        TimedMethods(String service) {
+            this.service = service;
+        }
+
+        /**
+         * @param name The name of the method, the "method" label of its histogram. Overloads share the method.
+         */
+        TimedMethod add(String name) {
+            names.add(name);
+            return new TimedMethod(name, names.size() - 1);
+        }
+    }
+
+    /**
+     * A timed method, see TimedMethods.add.
+     */
+    static final class TimedMethod {
+
+        private final String name;
+        private final int index;
+
+        private TimedMethod(String name, int index) {
+            this.name = name;
+            this.index = index;
+        }
+    }
+}
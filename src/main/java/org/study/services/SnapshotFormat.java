@@ -0,0 +1,81 @@
+package org.study.services;
+
+/**
+ * Constants of the binary snapshot format used to save animals and owners.
+ *
+ * A snapshot file looks like this:
+ *
+ *  MAGIC (int) VERSION (short) RECORD TYPE (byte)
+ *  BLOCK*
+ *  END OF FILE MARKER (a block header with length 0 and 0 records)
+ *
+ * And every block:
+ *
+ *  STORED LENGTH (int) NUMBER OF RECORDS (int) COMPRESSION (byte) PAYLOAD LENGTH (int)
+ *  STORED PAYLOAD (bytes) CRC32C OF THE PAYLOAD (int)
+ *
+ * The stored payload is the payload compressed with the codec of the COMPRESSION byte (see CompressionEnum),
+ * or the payload itself when the block is not compressed. Every block is compressed on its own,
+ * and the checksum is computed over the uncompressed payload, so a wrong codec is detected too.
+ * Version 1 files have no COMPRESSION and PAYLOAD LENGTH fields, their blocks are never compressed.
+ *
+ * Inside the payload the records are written one after the other:
+ *  - UUIDs are written as their two raw longs.
+ *  - Dates are written as epoch days (int).
+ *  - Small positive numbers (ages, volumes, sizes) are written as variable length ints.
+ *  - Strings are written as UTF-8 bytes prefixed by their length. Strings that repeat a lot
+ *    (brands, cities, states, countries) are written only once per block, and afterwards
+ *    they are written as a reference to the first time they appeared in the block.
+ *
+ * Each block has its own dictionary of strings, so a block can be read without reading the previous ones.
+ *
+ * Incremental saves append delta segments to a second file (the snapshot path plus DELTA_EXTENSION).
+ * Every segment is a complete snapshot stream with a delta record type, and every record
+ * starts with an operation byte: UPSERT_OPERATION followed by the whole record,
+ * or DELETE_OPERATION followed by the id of the deleted record.
+ *
+ * Full saves also write an index file (the snapshot path plus INDEX_EXTENSION) with the block
+ * of every record, see SnapshotIndex. The deltas are not indexed, they are small enough to be read completely.
+ *
+ * Reference: https://docs.oracle.com/javase/8/docs/api/java/io/DataOutputStream.html
+ * Reference: https://protobuf.dev/programming-guides/encoding/#varints
+ */
+final class SnapshotFormat {
+
+    // "PETS" in ASCII
+    static final int MAGIC = 0x50455453;
+
+    static final int VERSION = 2;
+
+    // First version with compressed blocks
+    static final int COMPRESSED_BLOCKS_VERSION = 2;
+
+    static final byte ANIMALS_RECORD_TYPE = 1;
+    static final byte OWNERS_RECORD_TYPE = 2;
+    static final byte ANIMALS_DELTA_RECORD_TYPE = 3;
+    static final byte OWNERS_DELTA_RECORD_TYPE = 4;
+
+    static final byte UPSERT_OPERATION = 0;
+    static final byte DELETE_OPERATION = 1;
+
+    static final String DELTA_EXTENSION = ".delta";
+
+    static final String INDEX_EXTENSION = ".idx";
+
+    // "PIDX" in ASCII
+    static final int INDEX_MAGIC = 0x50494458;
+
+    static final short INDEX_VERSION = 1;
+
+    // Two longs for the id and one long for the offset of the block
+    static final int INDEX_ENTRY_SIZE = 3 * Long.BYTES;
+
+    // A block is closed as soon as its payload is bigger than this
+    static final int TARGET_BLOCK_SIZE = 64 * 1024;
+
+    // Written instead of a dictionary reference when the string is written for the first time in the block
+    static final int NEW_DICTIONARY_STRING = 0;
+
+    private SnapshotFormat() {
+    }
+}
@@ -0,0 +1,209 @@
+package org.study.services;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The index file saved alongside a snapshot file (the snapshot path plus SnapshotFormat.INDEX_EXTENSION).
+ *
+ * It tells in which block of the snapshot each record is, by id and, for owners, by username:
+ *
+ *  INDEX MAGIC (int) VERSION (short) RECORD TYPE (byte)
+ *  SNAPSHOT LENGTH (long) SNAPSHOT LAST MODIFIED TIME (long) NUMBER OF IDS (int) NUMBER OF USERNAMES (int)
+ *  ID ENTRIES: (MOST SIGNIFICANT BITS (long) LEAST SIGNIFICANT BITS (long) BLOCK OFFSET (long))*
+ *  USERNAME ENTRIES: the same, with the key of the username instead of an id
+ *
+ * The entries are sorted, so the file is memory mapped and searched directly, without reading it first:
+ * only the pages touched by the binary search are loaded by the operating system.
+ * Usernames are turned into a 128 bits key with UUID.nameUUIDFromBytes, so their entries have the same size as the ids.
+ *
+ * The length and the last modified time of the snapshot are checked when the index is opened,
+ * an index that does not belong to the current snapshot file is ignored.
+ *
+ * Reference: https://docs.oracle.com/javase/8/docs/api/java/nio/channels/FileChannel.html#map-java.nio.channels.FileChannel.MapMode-long-long-
+ * Reference: https://en.wikipedia.org/wiki/Binary_search_algorithm
+ */
+final class SnapshotIndex {
+
+    private static final int HEADER_SIZE =
+        Integer.BYTES + Short.BYTES + Byte.BYTES + 2 * Long.BYTES + 2 * Integer.BYTES;
+
+    private final MappedByteBuffer entries;
+    private final int numberOfIds;
+    private final int numberOfUsernames;
+
+    private SnapshotIndex(MappedByteBuffer entries, int numberOfIds, int numberOfUsernames) {
+        this.entries = entries;
+        this.numberOfIds = numberOfIds;
+        this.numberOfUsernames = numberOfUsernames;
+    }
+
+    /**
+     * Maps the index of a snapshot file.
+     *
+     * @return The index, or null if the snapshot has no index or the index belongs to another version of the snapshot.
+     * @throws IOException If an I/O error occurs while reading the index.
+     */
+    static SnapshotIndex open(Path snapshotPath, byte recordType) throws IOException {
+        Path indexPath = Path.of(snapshotPath + SnapshotFormat.INDEX_EXTENSION);
+
+        if (!Files.isRegularFile(indexPath) || !Files.isRegularFile(snapshotPath)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (index.getInt() != SnapshotFormat.INDEX_MAGIC
+                || index.getShort() != SnapshotFormat.INDEX_VERSION
+                || index.get() != recordType
+                || index.getLong() != Files.size(snapshotPath)
+                || index.getLong() != Files.getLastModifiedTime(snapshotPath).toMillis()) {
+                return null;
+            }
+
+            int numberOfIds = index.getInt();
+            int numberOfUsernames = index.getInt();
+
+            if (numberOfIds < 0 || numberOfUsernames < 0
+                || HEADER_SIZE + (long) (numberOfIds + numberOfUsernames) * SnapshotFormat.INDEX_ENTRY_SIZE
+                   != channel.size()) {
+                return null;
+            }
+
+            return new SnapshotIndex(index, numberOfIds, numberOfUsernames);
+        }
+    }
+
+    /**
+     * @return The offset of the block with the record that has this id, or -1 if it is not in the index.
+     */
+    long findBlockOffset(UUID id) {
+        return find(HEADER_SIZE, numberOfIds, id);
+    }
+
+    /**
+     * @return The offset of the block with the owner that has this username, or -1 if it is not in the index.
+     */
+    long findBlockOffsetByUsername(String username) {
+        return find(HEADER_SIZE + numberOfIds * SnapshotFormat.INDEX_ENTRY_SIZE, numberOfUsernames, usernameKey(username));
+    }
+
+    private long find(int start, int numberOfEntries, UUID key) {
+        long mostSignificantBits = key.getMostSignificantBits();
+        long leastSignificantBits = key.getLeastSignificantBits();
+
+        int low = 0;
+        int high = numberOfEntries - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int entry = start + middle * SnapshotFormat.INDEX_ENTRY_SIZE;
+
+            int comparison = Long.compare(entries.getLong(entry), mostSignificantBits);
+            if (comparison == 0) {
+                comparison = Long.compare(entries.getLong(entry + Long.BYTES), leastSignificantBits);
+            }
+
+            if (comparison == 0) {
+                return entries.getLong(entry + 2 * Long.BYTES);
+            } else if (comparison < 0) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        return -1;
+    }
+
+    private static UUID usernameKey(String username) {
+        return UUID.nameUUIDFromBytes(username.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Collects the block of every record while a snapshot is written, and writes the sorted index at the end.
+     */
+    static final class Builder {
+
+        private final List<Entry> ids = new ArrayList<>();
+        private final List<Entry> usernames = new ArrayList<>();
+
+        void addId(UUID id, long blockOffset) {
+            ids.add(new Entry(id, blockOffset));
+        }
+
+        void addUsername(String username, long blockOffset) {
+            usernames.add(new Entry(usernameKey(username), blockOffset));
+        }
+
+        /**
+         * Writes the index of a snapshot file, once the snapshot file is complete and closed.
+         */
+        void write(File indexFile, byte recordType, File snapshotFile) throws IOException {
+            ids.sort(Entry.BY_KEY);
+            usernames.sort(Entry.BY_KEY);
+
+            try (DataOutputStream output =
+                     new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+
+                output.writeInt(SnapshotFormat.INDEX_MAGIC);
+                output.writeShort(SnapshotFormat.INDEX_VERSION);
+                output.writeByte(recordType);
+                output.writeLong(snapshotFile.length());
+                output.writeLong(snapshotFile.lastModified());
+                output.writeInt(ids.size());
+                output.writeInt(usernames.size());
+
+                for (Entry entry : ids) {
+                    entry.write(output);
+                }
+                for (Entry entry : usernames) {
+                    entry.write(output);
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        // The same order used by find
+        static final Comparator<Entry> BY_KEY = Comparator
+            .<Entry>comparingLong(entry -> entry.mostSignificantBits)
+            .thenComparingLong(entry -> entry.leastSignificantBits);
+
+        final long mostSignificantBits;
+        final long leastSignificantBits;
+        final long blockOffset;
+
+        Entry(UUID key, long blockOffset) {
+            this.mostSignificantBits = key.getMostSignificantBits();
+            this.leastSignificantBits = key.getLeastSignificantBits();
+            this.blockOffset = blockOffset;
+        }
+
+        void write(DataOutputStream output) throws IOException {
+            output.writeLong(mostSignificantBits);
+            output.writeLong(leastSignificantBits);
+            output.writeLong(blockOffset);
+        }
+    }
+}
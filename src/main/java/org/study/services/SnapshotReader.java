@@ -0,0 +1,305 @@
+package org.study.services;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+import org.study.model.Animal;
+import org.study.model.Owner;
+import org.study.model.Vaccine;
+import org.study.services.enums.CompressionEnum;
+
+/**
+ * Reads animals or owners written by SnapshotWriter.
+ *
+ * Each block is read completely, decompressed and its checksum is verified before any record of the block is decoded.
+ */
+class SnapshotReader implements Closeable {
+
+    private final DataInputStream input;
+    private final CRC32C checksum = new CRC32C();
+    private final BlockCompressor compressor = new BlockCompressor();
+    private final int version;
+
+    private byte[] blockBytes = new byte[SnapshotFormat.TARGET_BLOCK_SIZE * 2];
+    private byte[] storedBytes = new byte[0];
+    private ByteBuffer block = ByteBuffer.allocate(0);
+    private int remainingRecordsInBlock;
+    private boolean endOfFile;
+
+    // Dictionary strings of the current block, in the order they appeared
+    private final List<String> dictionary = new ArrayList<>();
+
+    SnapshotReader(InputStream inputStream, byte expectedRecordType) throws IOException {
+        this(new DataInputStream(new BufferedInputStream(inputStream)), expectedRecordType);
+    }
+
+    /**
+     * Reads a snapshot stream that starts at the current position of the input,
+     * i.e. one of the segments of a delta file.
+     */
+    SnapshotReader(DataInputStream input, byte expectedRecordType) throws IOException {
+        this.input = input;
+
+        if (input.readInt() != SnapshotFormat.MAGIC) {
+            throw new IOException("The file is not a snapshot file");
+        }
+
+        this.version = input.readUnsignedShort();
+        if (version > SnapshotFormat.VERSION) {
+            throw new IOException(String.format(
+                "Snapshot version %d is not supported, the latest supported version is %d",
+                version, SnapshotFormat.VERSION));
+        }
+
+        byte recordType = input.readByte();
+        if (recordType != expectedRecordType) {
+            throw new IOException(String.format(
+                "The snapshot contains records of type %d instead of %d", recordType, expectedRecordType));
+        }
+    }
+
+    /**
+     * Reads blocks that start at the current position of the input, without a header,
+     * i.e. a single block of a snapshot file found through its index.
+     *
+     * @param version The version written in the header of the snapshot file.
+     */
+    SnapshotReader(DataInputStream input, int version) {
+        this.input = input;
+        this.version = version;
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    /**
+     * Reads the next animal of the file.
+     *
+     * @return The next animal, or null if there are no more animals.
+     */
+    Animal readAnimal() throws IOException {
+        if (!nextRecord()) {
+            return null;
+        }
+
+        return readAnimalRecord();
+    }
+
+    /**
+     * Reads the animal of the current record, after nextRecord() (and readOperation() in a delta) was called.
+     */
+    Animal readAnimalRecord() {
+        Animal animal = new Animal(readUUID(), readString(), readVarInt());
+
+        int numberOfOwners = readVarInt();
+        for (int i = 0; i < numberOfOwners; i++) {
+            animal.addOwnerId(readUUID());
+        }
+
+        int numberOfVaccines = readVarInt();
+        List<Vaccine> vaccines = new ArrayList<>(numberOfVaccines);
+
+        for (int i = 0; i < numberOfVaccines; i++) {
+            vaccines.add(new Vaccine(
+                readUUID(),
+                readVarInt(),
+                readDictionaryString(),
+                block.getInt()));
+        }
+        animal.addVaccines(vaccines);
+
+        return animal;
+    }
+
+    /**
+     * Reads the next owner of the file.
+     *
+     * @return The next owner, or null if there are no more owners.
+     */
+    Owner readOwner() throws IOException {
+        if (!nextRecord()) {
+            return null;
+        }
+
+        return readOwnerRecord();
+    }
+
+    /**
+     * Reads the owner of the current record, after nextRecord() (and readOperation() in a delta) was called.
+     */
+    Owner readOwnerRecord() {
+        Owner owner = new Owner(
+            readUUID(),
+            readString(),
+            readString(),
+            readString(),
+            readString(),
+            readVarInt(),
+            readString(),
+            readString(),
+            readDictionaryString(),
+            readDictionaryString(),
+            readDictionaryString(),
+            readString());
+
+        int numberOfAnimals = readVarInt();
+        for (int i = 0; i < numberOfAnimals; i++) {
+            owner.addAnimalId(readUUID());
+        }
+
+        return owner;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            input.close();
+        } finally {
+            compressor.end();
+        }
+    }
+
+    /**
+     * Reads the operation (upsert or delete) of the current record of a delta segment.
+     */
+    byte readOperation() {
+        return block.get();
+    }
+
+    /**
+     * Reads the id of a deleted record, after readOperation() returned DELETE_OPERATION.
+     */
+    UUID readDeletedId() {
+        return readUUID();
+    }
+
+    /**
+     * @return True if the block that is being read has more records, so nextRecord() will not read another block.
+     */
+    boolean hasMoreRecordsInBlock() {
+        return remainingRecordsInBlock > 0;
+    }
+
+    /**
+     * Moves to the next record, reading the next block if the current one has no more records.
+     *
+     * @return False if there are no more records.
+     */
+    boolean nextRecord() throws IOException {
+        while (remainingRecordsInBlock == 0) {
+            if (endOfFile || !readBlock()) {
+                return false;
+            }
+        }
+
+        remainingRecordsInBlock--;
+        return true;
+    }
+
+    private boolean readBlock() throws IOException {
+        int storedSize = input.readInt();
+        int numberOfRecords = input.readInt();
+
+        // A block without records marks the end of the file
+        if (storedSize == 0 && numberOfRecords == 0) {
+            endOfFile = true;
+            return false;
+        }
+
+        if (storedSize < 0 || numberOfRecords < 0) {
+            throw new IOException("Corrupted snapshot: invalid block header");
+        }
+
+        // Version 1 blocks are never compressed
+        CompressionEnum compression = CompressionEnum.NONE;
+        int blockSize = storedSize;
+
+        if (version >= SnapshotFormat.COMPRESSED_BLOCKS_VERSION) {
+            try {
+                compression = CompressionEnum.fromCode(input.readByte());
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Corrupted snapshot: " + e.getMessage(), e);
+            }
+            blockSize = input.readInt();
+
+            if (blockSize < 0) {
+                throw new IOException("Corrupted snapshot: invalid block header");
+            }
+        }
+
+        if (blockBytes.length < blockSize) {
+            blockBytes = new byte[blockSize];
+        }
+
+        if (compression == CompressionEnum.NONE) {
+            if (storedSize != blockSize) {
+                throw new IOException("Corrupted snapshot: invalid block header");
+            }
+            input.readFully(blockBytes, 0, blockSize);
+        } else {
+            if (storedBytes.length < storedSize) {
+                storedBytes = new byte[storedSize];
+            }
+            input.readFully(storedBytes, 0, storedSize);
+            compressor.decompress(compression, storedBytes, storedSize, blockBytes, blockSize);
+        }
+
+        checksum.reset();
+        checksum.update(blockBytes, 0, blockSize);
+
+        if (input.readInt() != (int) checksum.getValue()) {
+            throw new IOException("Corrupted snapshot: the checksum of a block does not match");
+        }
+
+        block = ByteBuffer.wrap(blockBytes, 0, blockSize);
+        remainingRecordsInBlock = numberOfRecords;
+        dictionary.clear();
+        return true;
+    }
+
+    private UUID readUUID() {
+        return new UUID(block.getLong(), block.getLong());
+    }
+
+    private int readVarInt() {
+        int value = 0;
+        int shift = 0;
+        byte current;
+
+        do {
+            current = block.get();
+            value |= (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+
+        return value;
+    }
+
+    private String readString() {
+        int length = readVarInt();
+        String value = new String(blockBytes, block.position(), length, StandardCharsets.UTF_8);
+        block.position(block.position() + length);
+        return value;
+    }
+
+    private String readDictionaryString() {
+        int reference = readVarInt();
+
+        if (reference == SnapshotFormat.NEW_DICTIONARY_STRING) {
+            String value = readString();
+            dictionary.add(value);
+            return value;
+        }
+
+        return dictionary.get(reference - 1);
+    }
+}
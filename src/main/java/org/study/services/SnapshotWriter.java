@@ -0,0 +1,299 @@
+package org.study.services;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+import org.study.model.Animal;
+import org.study.model.Owner;
+import org.study.model.Vaccine;
+import org.study.services.enums.CompressionEnum;
+
+/**
+ * Writes animals or owners with the binary snapshot format described in SnapshotFormat.
+ *
+ * The records are encoded into a block buffer, when the block is big enough it is written
+ * to the file (compressed, if a compression was chosen) with its length and its checksum, and a new block is started.
+ * Remember to call finish() after the last record, otherwise the file will be detected as truncated.
+ *
+ * For full snapshots the writer also remembers the block of every record, writeIndexFile saves
+ * that index once the file is closed (see SnapshotIndex).
+ */
+class SnapshotWriter implements Closeable {
+
+    private final DataOutputStream output;
+    private final byte recordType;
+    private final boolean isDelta;
+    private final CRC32C checksum = new CRC32C();
+    private final CompressionEnum compression;
+    private final BlockCompressor compressor = new BlockCompressor();
+
+    private byte[] block = new byte[SnapshotFormat.TARGET_BLOCK_SIZE * 2];
+    private int blockSize;
+    private int recordsInBlock;
+
+    // Position of each dictionary string in the current block, starting at 1
+    private final Map<String, Integer> dictionary = new HashMap<>();
+
+    // Bytes written to the file so far, it is the offset of the next block
+    private long position;
+
+    // Ids (and usernames) of the records of the current block, they are added to the index when the block is written.
+    // Delta segments are not indexed.
+    private final List<UUID> idsInBlock = new ArrayList<>();
+    private final List<String> usernamesInBlock = new ArrayList<>();
+    private final SnapshotIndex.Builder index;
+
+    SnapshotWriter(OutputStream outputStream, byte recordType) throws IOException {
+        this(outputStream, recordType, CompressionEnum.NONE);
+    }
+
+    SnapshotWriter(OutputStream outputStream, byte recordType, CompressionEnum compression) throws IOException {
+        this.output = new DataOutputStream(new BufferedOutputStream(outputStream));
+        this.compression = compression;
+        this.recordType = recordType;
+        this.isDelta = recordType == SnapshotFormat.ANIMALS_DELTA_RECORD_TYPE
+            || recordType == SnapshotFormat.OWNERS_DELTA_RECORD_TYPE;
+        this.index = isDelta ? null : new SnapshotIndex.Builder();
+
+        output.writeInt(SnapshotFormat.MAGIC);
+        output.writeShort(SnapshotFormat.VERSION);
+        output.writeByte(recordType);
+        position = Integer.BYTES + Short.BYTES + Byte.BYTES;
+    }
+
+    void writeAnimal(Animal animal) throws IOException {
+        writeOperationIfDelta(SnapshotFormat.UPSERT_OPERATION);
+        addToIndex(animal.getId(), null);
+        writeUUID(animal.getId());
+        writeString(animal.getName());
+        writeVarInt(animal.getAge());
+        writeUUIDs(animal.getOwnerIds());
+
+        List<Vaccine> vaccines = animal.getVaccines();
+        writeVarInt(vaccines.size());
+
+        for (Vaccine vaccine : vaccines) {
+            writeUUID(vaccine.getID());
+            writeVarInt(vaccine.getVolumeInMl());
+            writeDictionaryString(vaccine.getBrand());
+            writeInt(vaccine.getDateOfApplicationEpochDay());
+        }
+
+        endRecord();
+    }
+
+    void writeOwner(Owner owner) throws IOException {
+        writeOperationIfDelta(SnapshotFormat.UPSERT_OPERATION);
+        addToIndex(owner.getId(), owner.getUsername());
+        writeUUID(owner.getId());
+        writeString(owner.getName());
+        writeString(owner.getUsername());
+        writeString(owner.getEmail());
+        writeString(owner.getPassword());
+        writeVarInt(owner.getAge());
+        writeString(owner.getPhone());
+        writeString(owner.getAddress());
+        writeDictionaryString(owner.getCity());
+        writeDictionaryString(owner.getState());
+        writeDictionaryString(owner.getCountry());
+        writeString(owner.getZip());
+        writeUUIDs(owner.getAnimalIds());
+
+        endRecord();
+    }
+
+    /**
+     * Writes a record telling that the record with this id was deleted. Only valid in delta segments.
+     */
+    void writeDeletedId(UUID id) throws IOException {
+        if (!isDelta) {
+            throw new IllegalStateException("Deleted ids can only be written in delta segments");
+        }
+
+        writeOperationIfDelta(SnapshotFormat.DELETE_OPERATION);
+        writeUUID(id);
+
+        endRecord();
+    }
+
+    /**
+     * Writes the last block and the end of file marker.
+     */
+    void finish() throws IOException {
+        flushBlock();
+
+        output.writeInt(0);
+        output.writeInt(0);
+        output.flush();
+    }
+
+    /**
+     * Writes the index of the snapshot, after finish() and close(), so the index knows the final size of the file.
+     *
+     * @param indexFile    The file where the index is written.
+     * @param snapshotFile The file written by this writer.
+     */
+    void writeIndexFile(File indexFile, File snapshotFile) throws IOException {
+        if (isDelta) {
+            throw new IllegalStateException("Delta segments are not indexed");
+        }
+
+        index.write(indexFile, recordType, snapshotFile);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            output.close();
+        } finally {
+            compressor.end();
+        }
+    }
+
+    private void endRecord() throws IOException {
+        recordsInBlock++;
+
+        if (blockSize >= SnapshotFormat.TARGET_BLOCK_SIZE) {
+            flushBlock();
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (recordsInBlock == 0) {
+            return;
+        }
+
+        checksum.reset();
+        checksum.update(block, 0, blockSize);
+
+        // The compressor falls back to NONE when the compressed block is not smaller
+        CompressionEnum blockCompression = compressor.compress(compression, block, blockSize);
+        boolean isCompressed = blockCompression != CompressionEnum.NONE;
+
+        int storedSize = isCompressed ? compressor.getCompressedLength() : blockSize;
+
+        output.writeInt(storedSize);
+        output.writeInt(recordsInBlock);
+        output.writeByte(blockCompression.getCode());
+        output.writeInt(blockSize);
+
+        if (isCompressed) {
+            output.write(compressor.getCompressedBytes(), 0, storedSize);
+        } else {
+            output.write(block, 0, blockSize);
+        }
+        output.writeInt((int) checksum.getValue());
+
+        if (index != null) {
+            for (UUID id : idsInBlock) {
+                index.addId(id, position);
+            }
+            for (String username : usernamesInBlock) {
+                index.addUsername(username, position);
+            }
+            idsInBlock.clear();
+            usernamesInBlock.clear();
+        }
+
+        position += 3 * Integer.BYTES + Byte.BYTES + storedSize + Integer.BYTES;
+
+        blockSize = 0;
+        recordsInBlock = 0;
+        dictionary.clear();
+    }
+
+    private void addToIndex(UUID id, String username) {
+        if (index != null) {
+            idsInBlock.add(id);
+            if (username != null) {
+                usernamesInBlock.add(username);
+            }
+        }
+    }
+
+    private void writeOperationIfDelta(byte operation) {
+        if (isDelta) {
+            ensureCapacity(1);
+            block[blockSize++] = operation;
+        }
+    }
+
+    private void ensureCapacity(int extraBytes) {
+        if (blockSize + extraBytes > block.length) {
+            block = Arrays.copyOf(block, Math.max(block.length * 2, blockSize + extraBytes));
+        }
+    }
+
+    private void writeUUIDs(Collection<UUID> ids) {
+        writeVarInt(ids.size());
+        for (UUID id : ids) {
+            writeUUID(id);
+        }
+    }
+
+    private void writeUUID(UUID id) {
+        writeLong(id.getMostSignificantBits());
+        writeLong(id.getLeastSignificantBits());
+    }
+
+    private void writeLong(long value) {
+        ensureCapacity(Long.BYTES);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            block[blockSize++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void writeInt(int value) {
+        ensureCapacity(Integer.BYTES);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            block[blockSize++] = (byte) (value >>> shift);
+        }
+    }
+
+    /**
+     * Writes 7 bits per byte, the highest bit tells if there are more bytes.
+     * Values lower than 128 take a single byte.
+     */
+    private void writeVarInt(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            block[blockSize++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        block[blockSize++] = (byte) value;
+    }
+
+    private void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length);
+
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, block, blockSize, bytes.length);
+        blockSize += bytes.length;
+    }
+
+    private void writeDictionaryString(String value) {
+        Integer reference = dictionary.get(value);
+
+        if (reference != null) {
+            writeVarInt(reference);
+            return;
+        }
+
+        dictionary.put(value, dictionary.size() + 1);
+        writeVarInt(SnapshotFormat.NEW_DICTIONARY_STRING);
+        writeString(value);
+    }
+}
@@ -0,0 +1,53 @@
+package org.study.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Selects the K best items of a collection without sorting the whole collection.
+ *
+ * The K best items seen so far are kept in a min-heap whose head is the worst of them, so every other item
+ * is compared with the head and only replaces it if it is better. That takes O(n log K) time and O(K) memory,
+ * instead of the O(n log n) time and O(n) memory of sorting everything and keeping the first K.
+ *
+ * Reference: https://en.wikipedia.org/wiki/Partial_sorting
+ * Reference: https://docs.oracle.com/javase/8/docs/api/java/util/PriorityQueue.html
+ */
+final class TopK {
+
+    private TopK() {
+    }
+
+    /**
+     * @param items The items.
+     * @param k     The maximum number of items to return.
+     * @param order The order of the items, the best first. Ties should be broken, so the result is always the same.
+     * @return The K best items, the best first.
+     * @throws IllegalArgumentException If K is not positive.
+     */
+    static <T> List<T> select(Iterable<T> items, int k, Comparator<? super T> order) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("K must be greater than 0");
+        }
+
+        // Step 1: The reversed order puts the worst of the kept items at the head of the heap
+        PriorityQueue<T> best = new PriorityQueue<>(order.reversed());
+
+        // Step 2: Keep an item while there are less than K, or if it is better than the worst kept item
+        for (T item : items) {
+            if (best.size() < k) {
+                best.add(item);
+            } else if (order.compare(item, best.peek()) < 0) {
+                best.poll();
+                best.add(item);
+            }
+        }
+
+        // Step 3: Only the K kept items are sorted
+        List<T> sortedBest = new ArrayList<>(best);
+        sortedBest.sort(order);
+        return sortedBest;
+    }
+}
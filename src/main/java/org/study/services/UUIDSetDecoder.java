@@ -0,0 +1,210 @@
+package org.study.services;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Decodes the columns that contain a set of ids, with the format {id1, id2, id3}.
+ *
+ * The hexadecimal digits of every id are read directly from the characters (or bytes) of the column
+ * and accumulated into the two longs of the UUID, so no substrings, arrays or trimmed copies are created.
+ * The only object created per id is the UUID that ends up in the relationship set.
+ *
+ * Reference: https://docs.oracle.com/javase/8/docs/api/java/util/UUID.html#UUID-long-long-
+ */
+final class UUIDSetDecoder {
+
+    static final int UUID_LENGTH = 36;
+
+    // Positions of the dashes in the canonical form 8-4-4-4-12
+    private static final int FIRST_DASH = 8;
+    private static final int SECOND_DASH = 13;
+    private static final int THIRD_DASH = 18;
+    private static final int FOURTH_DASH = 23;
+
+    private UUIDSetDecoder() {
+    }
+
+    /**
+     * Receives the two halves of every decoded id.
+     */
+    @FunctionalInterface
+    interface UUIDConsumer {
+        void accept(long mostSignificantBits, long leastSignificantBits);
+    }
+
+    /**
+     * Decodes every id of the set contained in the whole text.
+     */
+    static void decode(CharSequence text, UUIDConsumer consumer) {
+        decode(text, 0, text.length(), consumer);
+    }
+
+    /**
+     * Decodes every id of the set between start (inclusive) and end (exclusive).
+     * Curly braces and white space around the ids are skipped, and the ids must be separated by commas.
+     */
+    static void decode(CharSequence text, int start, int end, UUIDConsumer consumer) {
+        int position = start;
+        boolean commaPending = false;
+
+        while (position < end) {
+            char character = text.charAt(position);
+            if (character == ',') {
+                commaPending = false;
+                position++;
+                continue;
+            }
+            if (isSeparator(character)) {
+                position++;
+                continue;
+            }
+
+            if (commaPending) {
+                throw new IllegalArgumentException(
+                    "Missing comma before id: " + text.subSequence(position, Math.min(position + UUID_LENGTH, end)));
+            }
+            checkFormat(text, position, end);
+            consumer.accept(mostSignificantBits(text, position), leastSignificantBits(text, position));
+            position += UUID_LENGTH;
+            commaPending = true;
+        }
+    }
+
+    /**
+     * Same as decode(CharSequence...) but reading the bytes of a (memory mapped) buffer.
+     */
+    static void decode(ByteBuffer buffer, int start, int end, UUIDConsumer consumer) {
+        int position = start;
+        boolean commaPending = false;
+
+        while (position < end) {
+            int character = buffer.get(position) & 0xFF;
+            if (character == ',') {
+                commaPending = false;
+                position++;
+                continue;
+            }
+            if (isSeparator(character)) {
+                position++;
+                continue;
+            }
+
+            if (commaPending) {
+                throw new IllegalArgumentException(
+                    "Missing comma before id: " + text(buffer, position, Math.min(position + UUID_LENGTH, end)));
+            }
+            checkFormat(buffer, position, end);
+            consumer.accept(mostSignificantBits(buffer, position), leastSignificantBits(buffer, position));
+            position += UUID_LENGTH;
+            commaPending = true;
+        }
+    }
+
+    /**
+     * Decodes a single id that fills the whole range between start and end.
+     */
+    static UUID decodeUUID(ByteBuffer buffer, int start, int end) {
+        if (end - start != UUID_LENGTH) {
+            throw invalidUUID(buffer, start, end);
+        }
+
+        checkFormat(buffer, start, end);
+        return new UUID(mostSignificantBits(buffer, start), leastSignificantBits(buffer, start));
+    }
+
+    /**
+     * Curly braces and ASCII white space may appear anywhere around the ids. The comma is handled
+     * by the callers because exactly one is required between two ids.
+     * Any other character (including bytes over 0x7F) starts an id and is validated as such.
+     */
+    private static boolean isSeparator(int character) {
+        return character == '{' || character == '}'
+            || character == ' ' || character == '\t' || character == '\n'
+            || character == '\r' || character == '\f' || character == 0x0B;
+    }
+
+    private static void checkFormat(CharSequence text, int start, int end) {
+        if (start + UUID_LENGTH > end
+            || text.charAt(start + FIRST_DASH) != '-'
+            || text.charAt(start + SECOND_DASH) != '-'
+            || text.charAt(start + THIRD_DASH) != '-'
+            || text.charAt(start + FOURTH_DASH) != '-') {
+            throw new IllegalArgumentException(
+                "Invalid UUID string: " + text.subSequence(start, Math.min(start + UUID_LENGTH, end)));
+        }
+    }
+
+    private static void checkFormat(ByteBuffer buffer, int start, int end) {
+        if (start + UUID_LENGTH > end
+            || buffer.get(start + FIRST_DASH) != '-'
+            || buffer.get(start + SECOND_DASH) != '-'
+            || buffer.get(start + THIRD_DASH) != '-'
+            || buffer.get(start + FOURTH_DASH) != '-') {
+            throw invalidUUID(buffer, start, Math.min(start + UUID_LENGTH, end));
+        }
+    }
+
+    private static long mostSignificantBits(CharSequence text, int start) {
+        return (hex(text, start, start + FIRST_DASH) << 32)
+            | (hex(text, start + FIRST_DASH + 1, start + SECOND_DASH) << 16)
+            | hex(text, start + SECOND_DASH + 1, start + THIRD_DASH);
+    }
+
+    private static long leastSignificantBits(CharSequence text, int start) {
+        return (hex(text, start + THIRD_DASH + 1, start + FOURTH_DASH) << 48)
+            | hex(text, start + FOURTH_DASH + 1, start + UUID_LENGTH);
+    }
+
+    private static long mostSignificantBits(ByteBuffer buffer, int start) {
+        return (hex(buffer, start, start + FIRST_DASH) << 32)
+            | (hex(buffer, start + FIRST_DASH + 1, start + SECOND_DASH) << 16)
+            | hex(buffer, start + SECOND_DASH + 1, start + THIRD_DASH);
+    }
+
+    private static long leastSignificantBits(ByteBuffer buffer, int start) {
+        return (hex(buffer, start + THIRD_DASH + 1, start + FOURTH_DASH) << 48)
+            | hex(buffer, start + FOURTH_DASH + 1, start + UUID_LENGTH);
+    }
+
+    private static long hex(CharSequence text, int start, int end) {
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            result = (result << 4) | hexDigit(text.charAt(i));
+        }
+        return result;
+    }
+
+    private static long hex(ByteBuffer buffer, int start, int end) {
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            result = (result << 4) | hexDigit(buffer.get(i) & 0xFF);
+        }
+        return result;
+    }
+
+    private static int hexDigit(int character) {
+        if (character >= '0' && character <= '9') {
+            return character - '0';
+        }
+        if (character >= 'a' && character <= 'f') {
+            return character - 'a' + 10;
+        }
+        if (character >= 'A' && character <= 'F') {
+            return character - 'A' + 10;
+        }
+        throw new IllegalArgumentException("Invalid hexadecimal digit in UUID: " + (char) character);
+    }
+
+    private static IllegalArgumentException invalidUUID(ByteBuffer buffer, int start, int end) {
+        return new IllegalArgumentException("Invalid UUID string: " + text(buffer, start, end));
+    }
+
+    private static String text(ByteBuffer buffer, int start, int end) {
+        StringBuilder value = new StringBuilder();
+        for (int i = start; i < end; i++) {
+            value.append((char) (buffer.get(i) & 0xFF));
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,72 @@
+package org.study.services;
+
+import java.time.LocalDate;
+import org.study.model.EpochDays;
+
+/**
+ * The totals of a group of vaccines (see AnimalService.aggregateVaccines).
+ *
+ * The totals are kept in primitive fields, so adding a vaccine does not create any object, and two aggregates
+ * of the same group computed on different threads are merged by adding their fields.
+ */
+public final class VaccineAggregate {
+
+    private long count;
+    private long totalVolumeInMl;
+    private int firstDateOfApplication = Integer.MAX_VALUE;
+    private int lastDateOfApplication = Integer.MIN_VALUE;
+
+    VaccineAggregate() {
+    }
+
+    void add(int volumeInMl, int dateOfApplication) {
+        count++;
+        totalVolumeInMl += volumeInMl;
+        firstDateOfApplication = Math.min(firstDateOfApplication, dateOfApplication);
+        lastDateOfApplication = Math.max(lastDateOfApplication, dateOfApplication);
+    }
+
+    void merge(VaccineAggregate other) {
+        count += other.count;
+        totalVolumeInMl += other.totalVolumeInMl;
+        firstDateOfApplication = Math.min(firstDateOfApplication, other.firstDateOfApplication);
+        lastDateOfApplication = Math.max(lastDateOfApplication, other.lastDateOfApplication);
+    }
+
+    /**
+     * @return The number of vaccines of the group.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalVolumeInMl() {
+        return totalVolumeInMl;
+    }
+
+    public double getAverageVolumeInMl() {
+        return (double) totalVolumeInMl / count;
+    }
+
+    /**
+     * @return The date of application of the first vaccine of the group.
+     */
+    public LocalDate getFirstDateOfApplication() {
+        return EpochDays.toLocalDate(firstDateOfApplication);
+    }
+
+    /**
+     * @return The date of application of the last vaccine of the group.
+     */
+    public LocalDate getLastDateOfApplication() {
+        return EpochDays.toLocalDate(lastDateOfApplication);
+    }
+
+    @Override
+    public String toString() {
+        return count + " vaccines, "
+            + totalVolumeInMl + " ml (average " + String.format("%.2f", getAverageVolumeInMl()) + " ml), "
+            + "applied from " + EpochDays.formatIso(firstDateOfApplication)
+            + " to " + EpochDays.formatIso(lastDateOfApplication);
+    }
+}
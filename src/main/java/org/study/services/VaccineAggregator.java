@@ -0,0 +1,148 @@
+package org.study.services;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.study.model.Animal;
+import org.study.model.EpochDays;
+import org.study.model.Vaccine;
+import org.study.services.enums.VaccineGroupingEnum;
+
+/**
+ * Groups the vaccines of the animals and computes the totals of each group in a single pass (hash aggregation).
+ *
+ * The animals are split between the threads of a parallel stream. Each thread adds the vaccines of its animals
+ * to its own map of partial aggregates, without any locking, and the maps are merged at the end.
+ *
+ * Reference: https://docs.oracle.com/javase/tutorial/collections/streams/reduction.html#collect
+ * Reference: https://en.wikipedia.org/wiki/Hash_aggregate
+ */
+final class VaccineAggregator {
+
+    static final String NO_OWNER_CITY = "No owner";
+
+    private static final int[] AGE_BUCKET_LOWER_BOUNDS = {0, 2, 5, 10, 15};
+    private static final String[] AGE_BUCKET_NAMES = {"0-1", "2-4", "5-9", "10-14", "15+"};
+
+    private final VaccineGroupingEnum grouping;
+
+    // Only used to group by OWNER_CITY. It is never modified, so all the threads can read it
+    private final Map<UUID, String> cityByOwnerId;
+
+    VaccineAggregator(VaccineGroupingEnum grouping, Map<UUID, String> cityByOwnerId) {
+        this.grouping = grouping;
+        this.cityByOwnerId = cityByOwnerId;
+    }
+
+    /**
+     * @return The aggregate of each group, sorted by group.
+     */
+    Map<String, VaccineAggregate> aggregate(List<Animal> animals) {
+
+        // Step 1: Aggregate the animals of each thread into its own map, and merge the maps.
+        // The keys are the brand or the city (a String), or the month or the age bucket (an Integer).
+        Map<Object, VaccineAggregate> aggregatesByKey = animals.parallelStream()
+            .collect(HashMap::new, this::addVaccinesOf, VaccineAggregator::merge);
+
+        // Step 2: Sort the groups, the months and the age buckets by their number and not by their name
+        List<Map.Entry<Object, VaccineAggregate>> groups = new ArrayList<>(aggregatesByKey.entrySet());
+        groups.sort(Map.Entry.comparingByKey(VaccineAggregator::compareKeys));
+
+        Map<String, VaccineAggregate> aggregatesByGroup = new LinkedHashMap<>();
+        for (Map.Entry<Object, VaccineAggregate> group : groups) {
+            aggregatesByGroup.put(nameOf(group.getKey()), group.getValue());
+        }
+
+        return aggregatesByGroup;
+    }
+
+    private void addVaccinesOf(Map<Object, VaccineAggregate> aggregatesByKey, Animal animal) {
+        List<Vaccine> vaccines = animal.getVaccines();
+
+        switch (grouping) {
+            case BRAND -> {
+                for (Vaccine vaccine : vaccines) {
+                    add(aggregatesByKey, vaccine.getBrand(), vaccine);
+                }
+            }
+            case MONTH -> {
+                for (Vaccine vaccine : vaccines) {
+                    add(aggregatesByKey, EpochDays.toEpochMonth(vaccine.getDateOfApplicationEpochDay()), vaccine);
+                }
+            }
+            case AGE_BUCKET -> {
+                // The key is the same for all the vaccines of the animal
+                Integer ageBucket = ageBucketOf(animal.getAge());
+                for (Vaccine vaccine : vaccines) {
+                    add(aggregatesByKey, ageBucket, vaccine);
+                }
+            }
+            case OWNER_CITY -> {
+                for (String city : citiesOfOwnersOf(animal)) {
+                    for (Vaccine vaccine : vaccines) {
+                        add(aggregatesByKey, city, vaccine);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void add(Map<Object, VaccineAggregate> aggregatesByKey, Object key, Vaccine vaccine) {
+        aggregatesByKey.computeIfAbsent(key, newKey -> new VaccineAggregate())
+            .add(vaccine.getVolumeInMl(), vaccine.getDateOfApplicationEpochDay());
+    }
+
+    private static void merge(Map<Object, VaccineAggregate> aggregatesByKey, Map<Object, VaccineAggregate> other) {
+        other.forEach((key, aggregate) -> aggregatesByKey.merge(key, aggregate, (first, second) -> {
+            first.merge(second);
+            return first;
+        }));
+    }
+
+    private Set<String> citiesOfOwnersOf(Animal animal) {
+        Set<String> cities = new HashSet<>();
+        for (UUID ownerId : animal.getOwnerIds()) {
+            String city = cityByOwnerId.get(ownerId);
+            if (city != null) {
+                cities.add(city);
+            }
+        }
+
+        if (cities.isEmpty()) {
+            cities.add(NO_OWNER_CITY);
+        }
+        return cities;
+    }
+
+    private static int ageBucketOf(int age) {
+        int bucket = AGE_BUCKET_LOWER_BOUNDS.length - 1;
+        while (bucket > 0 && age < AGE_BUCKET_LOWER_BOUNDS[bucket]) {
+            bucket--;
+        }
+        return bucket;
+    }
+
+    private static int compareKeys(Object key1, Object key2) {
+        if (key1 instanceof Integer number1) {
+            return Integer.compare(number1, (Integer) key2);
+        }
+        return ((String) key1).compareTo((String) key2);
+    }
+
+    private String nameOf(Object key) {
+        return switch (grouping) {
+            case MONTH -> {
+                int epochMonth = (Integer) key;
+                yield YearMonth.of(Math.floorDiv(epochMonth, 12), Math.floorMod(epochMonth, 12) + 1).toString();
+            }
+            case AGE_BUCKET -> AGE_BUCKET_NAMES[(Integer) key];
+            default -> (String) key;
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package org.study.services;
+
+/**
+ * An invalid value found by ValidationService in a row of a batch.
+ */
+public class ValidationError {
+
+    private final int row;
+    private final String column;
+    private final String value;
+    private final String message;
+
+    /**
+     * @param row     The position of the row in the batch, starting at 0.
+     * @param column  The header of the column with the invalid value, or null if the whole row is invalid.
+     * @param value   The invalid value, or null if the whole row is invalid.
+     * @param message Why the value is invalid.
+     */
+    public ValidationError(int row, String column, String value, String message) {
+        this.row = row;
+        this.column = column;
+        this.value = value;
+        this.message = message;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        if (column == null) {
+            return "Row " + row + ": " + message;
+        }
+        return "Row " + row + ", column " + column + " (" + value + "): " + message.strip();
+    }
+}
@@ -0,0 +1,216 @@
+package org.study.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.study.model.EpochDays;
+import org.study.model.Validators;
+import org.study.services.enums.AnimalAttributesEnum;
+import org.study.services.enums.OwnerAttributesEnum;
+import org.study.services.enums.VaccineAttributesEnum;
+
+/**
+ * Validates whole batches of parsed rows (the values of CSV lines split by the delimiter)
+ * before creating Owners, Animals or Vaccines with them.
+ *
+ * Unlike the constructors, that throw an exception with the first invalid value, every row is checked completely
+ * and all the invalid values are returned, with their row and column, so a file can be fixed at once.
+ * The rules are the same ones used by the constructors (see Validators).
+ *
+ * Big batches are validated in parallel, the rows are independent of each other.
+ *
+ * Reference: https://docs.oracle.com/javase/tutorial/collections/streams/parallelism.html
+ */
+public class ValidationService {
+
+    // Below this number of rows, splitting the batch between threads costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 10_000;
+
+    /**
+     * Validates rows with the columns defined in OwnerAttributesEnum.
+     *
+     * @param rows The values of each row.
+     * @return The invalid values, ordered by row and column. Empty if all the rows are valid.
+     */
+    public List<ValidationError> validateOwnerRows(List<String[]> rows) {
+        return validateRows(rows, OwnerAttributesEnum.values().length, row -> {
+            row.checkUUID(OwnerAttributesEnum.ID.getIndex(), OwnerAttributesEnum.ID.getHeader());
+            row.check(OwnerAttributesEnum.NAME.getIndex(), OwnerAttributesEnum.NAME.getHeader(),
+                Validators::checkName);
+            row.check(OwnerAttributesEnum.USERNAME.getIndex(), OwnerAttributesEnum.USERNAME.getHeader(),
+                Validators::checkUsername);
+            row.check(OwnerAttributesEnum.EMAIL.getIndex(), OwnerAttributesEnum.EMAIL.getHeader(),
+                Validators::checkEmail);
+            row.check(OwnerAttributesEnum.PASSWORD.getIndex(), OwnerAttributesEnum.PASSWORD.getHeader(),
+                Validators::checkPassword);
+            row.checkInt(OwnerAttributesEnum.AGE.getIndex(), OwnerAttributesEnum.AGE.getHeader(),
+                age -> Validators.checkAge(age, Validators.MINIMUM_OWNER_AGE));
+            row.check(OwnerAttributesEnum.PHONE.getIndex(), OwnerAttributesEnum.PHONE.getHeader(),
+                Validators::checkPhone);
+            row.check(OwnerAttributesEnum.ADDRESS.getIndex(), OwnerAttributesEnum.ADDRESS.getHeader(),
+                Validators::checkAddress);
+            row.check(OwnerAttributesEnum.CITY.getIndex(), OwnerAttributesEnum.CITY.getHeader(),
+                Validators::checkCity);
+            row.check(OwnerAttributesEnum.STATE.getIndex(), OwnerAttributesEnum.STATE.getHeader(),
+                Validators::checkState);
+            row.check(OwnerAttributesEnum.COUNTRY.getIndex(), OwnerAttributesEnum.COUNTRY.getHeader(),
+                Validators::checkCountry);
+            row.check(OwnerAttributesEnum.ZIPCODE.getIndex(), OwnerAttributesEnum.ZIPCODE.getHeader(),
+                Validators::checkZip);
+        });
+    }
+
+    /**
+     * Validates rows with the columns defined in AnimalAttributesEnum.
+     *
+     * @param rows The values of each row.
+     * @return The invalid values, ordered by row and column. Empty if all the rows are valid.
+     */
+    public List<ValidationError> validateAnimalRows(List<String[]> rows) {
+        return validateRows(rows, AnimalAttributesEnum.values().length, row -> {
+            row.checkUUID(AnimalAttributesEnum.ID.getIndex(), AnimalAttributesEnum.ID.getHeaderName());
+            row.check(AnimalAttributesEnum.NAME.getIndex(), AnimalAttributesEnum.NAME.getHeaderName(),
+                Validators::checkName);
+            row.checkInt(AnimalAttributesEnum.AGE.getIndex(), AnimalAttributesEnum.AGE.getHeaderName(),
+                age -> Validators.checkAge(age, Validators.MINIMUM_ANIMAL_AGE));
+        });
+    }
+
+    /**
+     * Validates rows with the columns defined in VaccineAttributesEnum.
+     * The id of the animal is only checked to be a UUID, not to belong to an existing animal.
+     *
+     * @param rows The values of each row.
+     * @return The invalid values, ordered by row and column. Empty if all the rows are valid.
+     */
+    public List<ValidationError> validateVaccineRows(List<String[]> rows) {
+        return validateRows(rows, VaccineAttributesEnum.values().length, row -> {
+            row.checkUUID(VaccineAttributesEnum.ID.getIndex(), VaccineAttributesEnum.ID.getHeaderName());
+            row.checkInt(VaccineAttributesEnum.VOLUME.getIndex(), VaccineAttributesEnum.VOLUME.getHeaderName(),
+                Validators::checkVolumeInMl);
+            row.check(VaccineAttributesEnum.BRAND.getIndex(), VaccineAttributesEnum.BRAND.getHeaderName(),
+                Validators::checkBrand);
+            row.check(VaccineAttributesEnum.DATE_OF_APPLICATION.getIndex(),
+                VaccineAttributesEnum.DATE_OF_APPLICATION.getHeaderName(),
+                ValidationService::checkDate);
+            row.checkUUID(VaccineAttributesEnum.ANIMAL_ID.getIndex(), VaccineAttributesEnum.ANIMAL_ID.getHeaderName());
+        });
+    }
+
+    private List<ValidationError> validateRows(List<String[]> rows,
+                                               int numberOfColumns,
+                                               Consumer<RowValidator> rowChecks) {
+        if (rows == null) {
+            throw new IllegalArgumentException("Rows cannot be null");
+        }
+
+        IntStream rowIndexes = IntStream.range(0, rows.size());
+        if (rows.size() >= PARALLEL_THRESHOLD) {
+            rowIndexes = rowIndexes.parallel();
+        }
+
+        // The stream keeps the order of the rows, also in parallel
+        return rowIndexes
+            .mapToObj(index -> {
+                RowValidator row = new RowValidator(index, rows.get(index));
+
+                if (row.hasColumns(numberOfColumns)) {
+                    rowChecks.accept(row);
+                }
+                return row.errors;
+            })
+            .filter(errors -> !errors.isEmpty())
+            .flatMap(List::stream)
+            .collect(Collectors.toList());
+    }
+
+    // The format is checked first, so the parser only throws an exception for impossible dates (i.e. 45/01/2023)
+    private static String checkDate(String date) {
+        String error = Validators.checkDateOfApplication(date);
+        if (error != null) {
+            return error;
+        }
+
+        try {
+            EpochDays.parse(date);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return "Date of application is not a valid date";
+        }
+    }
+
+    /**
+     * The values of a row and the errors found in them.
+     */
+    private static final class RowValidator {
+
+        private final int index;
+        private final String[] values;
+
+        // Most rows are valid, the list is only created for the first error
+        private List<ValidationError> errors = List.of();
+
+        private RowValidator(int index, String[] values) {
+            this.index = index;
+            this.values = values;
+        }
+
+        private boolean hasColumns(int numberOfColumns) {
+            if (values == null || values.length < numberOfColumns) {
+                addError(null, null, "The row must have at least " + numberOfColumns + " columns");
+                return false;
+            }
+            return true;
+        }
+
+        private void check(int column, String header, Function<String, String> check) {
+            String error = check.apply(values[column]);
+            if (error != null) {
+                addError(header, values[column], error);
+            }
+        }
+
+        private void checkInt(int column, String header, IntFunction<String> check) {
+            int value;
+            try {
+                value = Integer.parseInt(values[column]);
+            } catch (NumberFormatException e) {
+                addError(header, values[column], header + " must be a number");
+                return;
+            }
+
+            String error = check.apply(value);
+            if (error != null) {
+                addError(header, values[column], error);
+            }
+        }
+
+        private void checkUUID(int column, String header) {
+            String error = Validators.checkId(values[column]);
+
+            if (error == null) {
+                try {
+                    UUID.fromString(values[column]);
+                } catch (IllegalArgumentException e) {
+                    error = header + " must be a UUID";
+                }
+            }
+
+            if (error != null) {
+                addError(header, values[column], error);
+            }
+        }
+
+        private void addError(String column, String value, String message) {
+            if (errors.isEmpty()) {
+                errors = new ArrayList<>();
+            }
+            errors.add(new ValidationError(index, column, value, message));
+        }
+    }
+}
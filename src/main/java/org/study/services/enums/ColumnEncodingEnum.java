@@ -0,0 +1,73 @@
+package org.study.services.enums;
+
+/**
+ * Enum representing how the values of a column are encoded in a columnar file (see FileService.saveAnimalsToColumnarFile).
+ *
+ * Each constant has the code that is written in the footer of the file for every column,
+ * so the reader knows how to decode the chunks of the column.
+ */
+public enum ColumnEncodingEnum {
+
+    // Two raw longs per value (the most and the least significant bits of the UUID)
+    UUID((byte) 1),
+    // Variable length ints, 1 byte for values between -64 and 63 (ages, volumes)
+    VAR_INT((byte) 2),
+    // The first value, then the difference with the previous value as variable length ints (sorted or close dates)
+    DELTA((byte) 3),
+    // UTF-8 bytes prefixed by their length
+    PLAIN_STRING((byte) 4),
+    // The different strings of the chunk once, then the position of each value in that list (brands, cities)
+    DICTIONARY((byte) 5),
+    // The number of UUIDs of each value, then the UUIDs as raw longs
+    UUID_LIST((byte) 6);
+
+    private final byte code;
+
+    /**
+     * Constructor for ColumnEncodingEnum enum.
+     *
+     * @param code The code written in the footer of the file.
+     */
+    ColumnEncodingEnum(byte code) {
+        this.code = code;
+    }
+
+    /**
+     * Get the code written in the footer of the file.
+     *
+     * @return The code of the encoding.
+     */
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * @return True if the values are ints (they can be filtered with ColumnarPredicate.intBetween).
+     */
+    public boolean isInt() {
+        return this == VAR_INT || this == DELTA;
+    }
+
+    /**
+     * @return True if the values are strings (they can be filtered with ColumnarPredicate.stringEquals).
+     */
+    public boolean isString() {
+        return this == PLAIN_STRING || this == DICTIONARY;
+    }
+
+    /**
+     * Get the encoding of a code read from the footer of a file.
+     *
+     * @param code The code read from the file.
+     * @return The encoding with that code.
+     * @throws IllegalArgumentException If there is no encoding with that code.
+     */
+    public static ColumnEncodingEnum fromCode(byte code) {
+        for (ColumnEncodingEnum encoding : values()) {
+            if (encoding.code == code) {
+                return encoding;
+            }
+        }
+        throw new IllegalArgumentException("Unknown column encoding code: " + code);
+    }
+}
@@ -0,0 +1,53 @@
+package org.study.services.enums;
+
+/**
+ * Enum representing the compression used by FileService when saving snapshots and exports.
+ *
+ * Each constant has the code that is written in every compressed block,
+ * so the reader knows how to decompress it.
+ */
+public enum CompressionEnum {
+
+    // The blocks are written as they are
+    NONE((byte) 0),
+    // JDK Deflater / Inflater (the algorithm used by zip and gzip), smaller files
+    DEFLATE((byte) 1),
+    // A simple LZ77 codec, bigger files than DEFLATE but much faster
+    LZ((byte) 2);
+
+    private final byte code;
+
+    /**
+     * Constructor for CompressionEnum enum.
+     *
+     * @param code The code written in the compressed blocks.
+     */
+    CompressionEnum(byte code) {
+        this.code = code;
+    }
+
+    /**
+     * Get the code written in the compressed blocks.
+     *
+     * @return The code of the compression.
+     */
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * Get the compression of a code read from a compressed block.
+     *
+     * @param code The code read from the block.
+     * @return The compression with that code.
+     * @throws IllegalArgumentException If there is no compression with that code.
+     */
+    public static CompressionEnum fromCode(byte code) {
+        for (CompressionEnum compression : values()) {
+            if (compression.code == code) {
+                return compression;
+            }
+        }
+        throw new IllegalArgumentException("Unknown compression code: " + code);
+    }
+}
@@ -0,0 +1,36 @@
+package org.study.services.enums;
+
+/**
+ * Enum representing the types of the metrics of a MetricsRegistry.
+ *
+ * Each constant has the name of the type in the text exposition format (the "# TYPE" line).
+ */
+public enum MetricTypeEnum {
+
+    // Counter: a number that only grows
+    COUNTER("counter"),
+    // LongSupplier: a number read when the metrics are exported, i.e. the number of animals
+    GAUGE("gauge"),
+    // LatencyHistogram: the distribution of some durations
+    HISTOGRAM("histogram");
+
+    private final String expositionName;
+
+    /**
+     * Constructor for MetricTypeEnum enum.
+     *
+     * @param expositionName The name of the type in the text exposition format.
+     */
+    MetricTypeEnum(String expositionName) {
+        this.expositionName = expositionName;
+    }
+
+    /**
+     * Get the name of the type in the text exposition format.
+     *
+     * @return The name of the type.
+     */
+    public String getExpositionName() {
+        return expositionName;
+    }
+}
@@ -0,0 +1,15 @@
+package org.study.services.enums;
+
+/**
+ * Enum representing what is done with the rows of a vaccines CSV file whose animal does not exist
+ * when the vaccines are added to the animals (see AnimalService.loadVaccinesFromCSVFile).
+ */
+public enum MissingAnimalPolicyEnum {
+
+    // Stop the load with a NotFoundException, the vaccines of the previous rows stay added
+    FAIL,
+    // Ignore the row
+    SKIP,
+    // Write the row, as it is, to a quarantine file, so it can be fixed and loaded later
+    QUARANTINE
+}
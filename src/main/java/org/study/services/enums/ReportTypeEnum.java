@@ -0,0 +1,18 @@
+package org.study.services.enums;
+
+/**
+ * Enum representing the reports kept by a ReportCache.
+ */
+public enum ReportTypeEnum {
+
+    // AnimalService.getAnimalReport
+    ANIMAL_VACCINES,
+    // AnimalService.getUniqueBrandsReport
+    UNIQUE_BRANDS,
+    // AnimalService.getAnimalsPendingOnNextApplicationReport
+    ANIMALS_PENDING_ON_NEXT_APPLICATION,
+    // AnimalService.getAnimalsAndTheirOwnersReport
+    ANIMALS_AND_THEIR_OWNERS,
+    // OwnerService.getOwnersAndTheirAnimalsReport
+    OWNERS_AND_THEIR_ANIMALS
+}
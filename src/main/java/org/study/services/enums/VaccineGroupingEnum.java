@@ -0,0 +1,17 @@
+package org.study.services.enums;
+
+/**
+ * Enum representing how the vaccines are grouped by AnimalService.aggregateVaccines.
+ */
+public enum VaccineGroupingEnum {
+
+    // The brand of the vaccine
+    BRAND,
+    // The month the vaccine was applied, as yyyy-MM
+    MONTH,
+    // The age of the animal, in the buckets 0-1, 2-4, 5-9, 10-14 and 15+ years
+    AGE_BUCKET,
+    // The cities of the owners of the animal. A vaccine is counted once in each city of the owners of its animal,
+    // and the vaccines of animals without known owners are grouped under "No owner"
+    OWNER_CITY
+}
@@ -0,0 +1,80 @@
+package org.study.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import org.junit.jupiter.api.Test;
+
+class EpochDaysTest {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    @Test
+    void parsesTheSameEpochDayAsLocalDate() {
+        // Every day from 1899 to 2101, including the leap days of 1900 (not leap), 2000 (leap) and 2100 (not leap)
+        for (LocalDate date = LocalDate.of(1899, 1, 1); date.getYear() <= 2100; date = date.plusDays(1)) {
+            assertEquals(date.toEpochDay(), EpochDays.parse(date.format(DATE_FORMAT)), date.toString());
+            assertEquals(date.toEpochDay(), EpochDays.parseIso(date.toString()), date.toString());
+            assertEquals(date.toString(), EpochDays.formatIso((int) date.toEpochDay()));
+        }
+    }
+
+    @Test
+    void parsesADayThatDoesNotExistInTheMonthAsTheLastDayOfTheMonth() {
+        assertEquals(LocalDate.of(2023, 4, 30).toEpochDay(), EpochDays.parse("31/04/2023"));
+        assertEquals(LocalDate.of(2023, 2, 28).toEpochDay(), EpochDays.parse("30/02/2023"));
+        assertEquals(LocalDate.of(2024, 2, 29).toEpochDay(), EpochDays.parse("31/02/2024"));
+        assertEquals(LocalDate.parse("31/04/2023", DATE_FORMAT).toEpochDay(), EpochDays.parse("31/04/2023"));
+    }
+
+    @Test
+    void rejectsDatesThatAreNotInTheFormat() {
+        assertThrows(IllegalArgumentException.class, () -> EpochDays.parse("1/04/2023"));
+        assertThrows(IllegalArgumentException.class, () -> EpochDays.parse("01-04-2023"));
+        assertThrows(IllegalArgumentException.class, () -> EpochDays.parse("01/13/2023"));
+        assertThrows(IllegalArgumentException.class, () -> EpochDays.parse("32/01/2023"));
+        assertThrows(IllegalArgumentException.class, () -> EpochDays.parse("0a/01/2023"));
+        assertThrows(IllegalArgumentException.class, () -> EpochDays.parseIso("2023-02-30"));
+        assertThrows(IllegalArgumentException.class, () -> EpochDays.parseIso("2023/02/01"));
+    }
+
+    @Test
+    void addsMonthsLikeLocalDate() {
+        LocalDate date = LocalDate.of(2023, 8, 31);
+
+        for (int months = -30; months <= 30; months++) {
+            assertEquals(date.plusMonths(months).toEpochDay(),
+                EpochDays.plusMonths((int) date.toEpochDay(), months), "plus " + months + " months");
+        }
+    }
+
+    @Test
+    void givesTheSameMonthNumberToAllTheDaysOfAMonth() {
+        int march = EpochDays.toEpochMonth(EpochDays.of(2024, 3, 1));
+
+        assertEquals(2024 * 12 + 2, march);
+        assertEquals(march, EpochDays.toEpochMonth(EpochDays.of(2024, 3, 31)));
+        assertEquals(march - 1, EpochDays.toEpochMonth(EpochDays.of(2024, 2, 29)));
+        assertEquals(march + 10, EpochDays.toEpochMonth(EpochDays.of(2025, 1, 1)));
+    }
+
+    @Test
+    void convertsFromAndToLocalDate() {
+        LocalDate date = LocalDate.of(1969, 12, 31);
+
+        assertEquals(-1, EpochDays.fromLocalDate(date));
+        assertEquals(date, EpochDays.toLocalDate(-1));
+    }
+
+    @Test
+    void readsTodayFromTheClock() {
+        Clock clock = Clock.fixed(Instant.parse("2024-02-29T23:59:59Z"), ZoneOffset.UTC);
+
+        assertEquals(LocalDate.of(2024, 2, 29).toEpochDay(), EpochDays.today(clock));
+    }
+}
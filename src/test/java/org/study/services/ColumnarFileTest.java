@@ -0,0 +1,96 @@
+package org.study.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.study.model.Animal;
+import org.study.model.Owner;
+import org.study.services.enums.AnimalAttributesEnum;
+import org.study.services.enums.OwnerAttributesEnum;
+
+class ColumnarFileTest {
+
+    @TempDir
+    Path directory;
+
+    private final FileService fileService = new FileService();
+
+    @Test
+    void skipsTheChunksWhoseStatisticsCannotMatch() throws IOException {
+        // The first chunk has only animals of age 1, the second one only animals of age 5
+        List<Animal> animals = new ArrayList<>();
+        for (int i = 0; i < ColumnarFormat.ROWS_PER_CHUNK + 100; i++) {
+            animals.add(new Animal("Animal " + i, i < ColumnarFormat.ROWS_PER_CHUNK ? 1 : 5));
+        }
+        String path = directory.resolve("animals.col").toString();
+        fileService.saveAnimalsToColumnarFile(path, animals);
+
+        String age = AnimalAttributesEnum.AGE.getHeaderName();
+        String name = AnimalAttributesEnum.NAME.getHeaderName();
+        try (ColumnarFileReader reader = fileService.openColumnarFile(path)) {
+            assertEquals(animals.size(), reader.getNumberOfRows());
+            assertEquals(2, reader.getNumberOfChunks());
+            assertEquals(1, reader.countChunksToRead(ColumnarPredicate.intBetween(age, 5, 9)));
+            assertEquals(0, reader.countChunksToRead(ColumnarPredicate.intBetween(age, 2, 4)));
+
+            List<String> names = new ArrayList<>();
+            int matches = reader.scan(List.of(name), ColumnarPredicate.intBetween(age, 5, 9),
+                row -> names.add(row.getString(name)));
+
+            assertEquals(100, matches);
+            assertEquals("Animal " + ColumnarFormat.ROWS_PER_CHUNK, names.get(0));
+        }
+    }
+
+    @Test
+    void findsTheRowsOfAStringOutsideTheBasicMultilingualPlane() throws IOException {
+        // U+1F334 is written as a surrogate pair, U+FF21 is a single char that sorts after the surrogates
+        String palmTreeCity = "Cartagena 🌴";
+        String fullwidthCity = "Ａrmenia";
+        List<Owner> owners = List.of(
+            TestData.owner("first_owner", palmTreeCity),
+            TestData.owner("second_owner", fullwidthCity),
+            TestData.owner("third_owner", "Cali"));
+        String path = directory.resolve("owners.col").toString();
+        fileService.saveOwnersToColumnarFile(path, owners);
+
+        String city = OwnerAttributesEnum.CITY.getHeader();
+        String id = OwnerAttributesEnum.ID.getHeader();
+        try (ColumnarFileReader reader = fileService.openColumnarFile(path)) {
+            for (Owner owner : owners) {
+                ColumnarPredicate sameCity = ColumnarPredicate.stringEquals(city, owner.getCity());
+                assertEquals(1, reader.countChunksToRead(sameCity), owner.getCity());
+
+                List<UUID> ids = new ArrayList<>();
+                List<String> cities = new ArrayList<>();
+                reader.scan(List.of(id, city), sameCity, row -> {
+                    ids.add(row.getUUID(id));
+                    cities.add(row.getString(city));
+                });
+
+                assertEquals(List.of(owner.getId()), ids);
+                assertEquals(List.of(owner.getCity()), cities);
+            }
+        }
+    }
+
+    @Test
+    void savesOneRowPerVaccine() throws IOException {
+        List<Animal> animals = TestData.animals(8);
+        String path = directory.resolve("vaccines.col").toString();
+        fileService.saveVaccinesToColumnarFile(path, animals);
+
+        int vaccines = animals.stream().mapToInt(animal -> animal.getVaccines().size()).sum();
+        try (ColumnarFileReader reader = fileService.openColumnarFile(path)) {
+            assertTrue(reader.isVaccinesFile());
+            assertEquals(vaccines, reader.getNumberOfRows());
+        }
+    }
+}
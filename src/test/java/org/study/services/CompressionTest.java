@@ -0,0 +1,96 @@
+package org.study.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.study.model.Animal;
+import org.study.services.enums.CompressionEnum;
+
+class CompressionTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void loadsTheSnapshotsSavedWithEveryCompression() throws IOException {
+        List<Animal> animals = TestData.animals(5_000);
+
+        for (CompressionEnum compression : CompressionEnum.values()) {
+            FileService fileService = new FileService(compression);
+            String path = directory.resolve("animals-" + compression + ".bin").toString();
+
+            fileService.saveAnimalsToSnapshotFile(path, animals);
+
+            assertEquals(TestData.describeAnimals(animals),
+                TestData.describeAnimals(fileService.loadAnimalsFromSnapshotFile(path)), compression.name());
+        }
+    }
+
+    @Test
+    void compressedSnapshotsAreSmaller() throws IOException {
+        List<Animal> animals = TestData.animals(5_000);
+        Path plainPath = directory.resolve("plain.bin");
+        Path compressedPath = directory.resolve("compressed.bin");
+
+        new FileService().saveAnimalsToSnapshotFile(plainPath.toString(), animals);
+        new FileService(CompressionEnum.DEFLATE).saveAnimalsToSnapshotFile(compressedPath.toString(), animals);
+
+        assertTrue(Files.size(compressedPath) < Files.size(plainPath));
+    }
+
+    @Test
+    void savesTheCSVExportsAsGzipFiles() throws IOException {
+        List<Animal> animals = TestData.animals(100);
+        FileService fileService = new FileService(CompressionEnum.LZ);
+        Path path = directory.resolve("animals.csv.gz");
+
+        fileService.saveAnimalsToCSVFile(path.toString(), ";", animals);
+
+        assertTrue(startsWithGzipMagic(path));
+        try (InputStream input = new GZIPInputStream(Files.newInputStream(path))) {
+            String content = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(content.contains(animals.get(0).getId().toString()));
+        }
+        assertEquals(describeWithoutVaccines(animals),
+            describeWithoutVaccines(fileService.loadAnimalsFromCSVFile(path.toString(), ";")));
+    }
+
+    @Test
+    void savesTheTextFilesAsPlainText() throws IOException {
+        FileService fileService = new FileService(CompressionEnum.DEFLATE);
+        Path reportPath = directory.resolve("report.txt");
+        Path ndjsonPath = directory.resolve("animals.ndjson");
+
+        fileService.writeTextFileLineByLine(reportPath.toString(), line -> {
+            line.accept("first line");
+            line.accept("second line");
+        });
+        fileService.saveAnimalsToNDJSONFile(ndjsonPath.toString(), TestData.animals(3));
+
+        assertEquals(List.of("first line", "second line"), Files.readAllLines(reportPath, StandardCharsets.UTF_8));
+        assertEquals(3, Files.readAllLines(ndjsonPath, StandardCharsets.UTF_8).size());
+    }
+
+    private static boolean startsWithGzipMagic(Path path) throws IOException {
+        byte[] content = Files.readAllBytes(path);
+        return content.length >= 2 && (content[0] & 0xff) == 0x1f && (content[1] & 0xff) == 0x8b;
+    }
+
+    // loadAnimalsFromCSVFile does not load the vaccines, they are saved in their own file
+    private static List<String> describeWithoutVaccines(List<Animal> animals) {
+        return animals.stream()
+            .map(animal -> animal.getId() + "|" + animal.getName() + "|" + animal.getAge()
+                + "|" + animal.getOwnerIds().stream().sorted().collect(Collectors.toList()))
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,118 @@
+package org.study.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void everyValueIsBetweenTheBoundsOfItsBucket() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            // Values of every magnitude, from 0 to Long.MAX_VALUE
+            long value = random.nextLong() >>> (1 + random.nextInt(Long.SIZE - 1));
+            int index = LatencyHistogram.bucketIndex(value);
+
+            assertTrue(index >= 0 && index < LatencyHistogram.NUMBER_OF_BUCKETS, "index of " + value);
+            assertTrue(LatencyHistogram.bucketLowerBound(index) <= value, "lower bound of " + value);
+            assertTrue(LatencyHistogram.bucketUpperBound(index) >= value, "upper bound of " + value);
+        }
+
+        assertEquals(0, LatencyHistogram.bucketIndex(0));
+        assertEquals(LatencyHistogram.NUMBER_OF_BUCKETS - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    void theBucketsFollowEachOtherWithoutGaps() {
+        for (int index = 1; index < LatencyHistogram.NUMBER_OF_BUCKETS; index++) {
+            long lowerBound = LatencyHistogram.bucketLowerBound(index);
+
+            assertEquals(LatencyHistogram.bucketUpperBound(index - 1) + 1, lowerBound, "bucket " + index);
+            assertEquals(index, LatencyHistogram.bucketIndex(lowerBound), "bucket " + index);
+            // A bucket is at most 12.5% of its values wide
+            assertTrue(LatencyHistogram.bucketUpperBound(index) - lowerBound <= lowerBound / 8, "bucket " + index);
+        }
+    }
+
+    @Test
+    void getsThePercentilesOfTheRecordedDurations() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanoseconds = 1; nanoseconds <= 1_000; nanoseconds++) {
+            histogram.record(nanoseconds * 1_000);
+        }
+
+        assertEquals(1_000, histogram.getCount());
+        assertEquals(500_500_000L, histogram.getSum());
+        assertEquals(1_000_000, histogram.getMax());
+        assertWithinABucket(500_000, histogram.getValueAtPercentile(50));
+        assertWithinABucket(990_000, histogram.getValueAtPercentile(99));
+        assertEquals(1_000_000, histogram.getValueAtPercentile(100));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(101));
+    }
+
+    @Test
+    void recordsADurationSeveralTimes() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        histogram.record(200, 64);
+        histogram.record(-5);
+
+        assertEquals(65, histogram.getCount());
+        assertEquals(200 * 64, histogram.getSum());
+        assertEquals(0, histogram.getValueAtPercentile(1));
+        assertWithinABucket(200, histogram.getValueAtPercentile(50));
+    }
+
+    @Test
+    void timesTheFirstCallAndThenOneCallOfEverySampleInterval() {
+        MetricsRegistry registry = new MetricsRegistry();
+        ServiceMetrics.TimedMethods methods = new ServiceMetrics.TimedMethods("TestService");
+        ServiceMetrics.TimedMethod method = methods.add("call");
+        ServiceMetrics.TimedMethod otherMethod = methods.add("otherCall");
+        ServiceMetrics metrics = ServiceMetrics.of(registry, methods);
+
+        call(metrics, method, 1);
+        call(metrics, otherMethod, 1);
+        assertEquals(1, count(registry, "call"));
+        assertEquals(1, count(registry, "otherCall"));
+
+        // The calls until the next timed call are not recorded yet
+        call(metrics, method, ServiceMetrics.SAMPLE_INTERVAL - 1);
+        assertEquals(1, count(registry, "call"));
+
+        // The next timed call stands for itself and the calls that were not timed
+        call(metrics, method, 1);
+        assertEquals(1 + ServiceMetrics.SAMPLE_INTERVAL, count(registry, "call"));
+        assertEquals(1, count(registry, "otherCall"));
+    }
+
+    @Test
+    void recordsNothingWithoutARegistry() {
+        ServiceMetrics.TimedMethod method = new ServiceMetrics.TimedMethods("TestService").add("call");
+
+        long startTime = ServiceMetrics.DISABLED.start(method);
+        ServiceMetrics.DISABLED.stop(method, startTime);
+
+        assertEquals(ServiceMetrics.DISABLED, ServiceMetrics.of(null, new ServiceMetrics.TimedMethods("TestService")));
+    }
+
+    private static void call(ServiceMetrics metrics, ServiceMetrics.TimedMethod method, int times) {
+        for (int i = 0; i < times; i++) {
+            long startTime = metrics.start(method);
+            metrics.stop(method, startTime);
+        }
+    }
+
+    private static long count(MetricsRegistry registry, String method) {
+        return registry.histogram(ServiceMetrics.CALL_DURATION, "",
+            "service", "TestService", "method", method).getCount();
+    }
+
+    private static void assertWithinABucket(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected + expected / 8, expected + " vs " + actual);
+    }
+}
@@ -0,0 +1,88 @@
+package org.study.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.study.model.Animal;
+import org.study.model.Owner;
+
+class NDJSONFileTest {
+
+    @TempDir
+    Path directory;
+
+    private final FileService fileService = new FileService();
+
+    @Test
+    void findsTheLoadedAnimalsById() throws IOException {
+        AnimalService savedAnimalService = new AnimalService();
+        savedAnimalService.addAnimalToDatabase("Firulais", 3);
+        savedAnimalService.addAnimalToDatabase("Michi", 2);
+        String path = directory.resolve("animals.ndjson").toString();
+        savedAnimalService.saveAnimalsToNDJSONFile(path, fileService);
+
+        AnimalService animalService = new AnimalService();
+        animalService.addAnimalToDatabase("Lassie", 5);
+        Animal existingAnimal = animalService.getAnimalList().get(0);
+        int loadedAnimals = animalService.loadAnimalsFromNDJSONFile(path, fileService);
+
+        assertEquals(2, loadedAnimals);
+        assertEquals(3, animalService.getAnimalList().size());
+        assertSame(existingAnimal, animalService.findAnimalById(existingAnimal.getId()));
+        for (Animal savedAnimal : savedAnimalService.getAnimalList()) {
+            Animal loadedAnimal = animalService.findAnimalById(savedAnimal.getId());
+            assertEquals(TestData.describe(savedAnimal), TestData.describe(loadedAnimal));
+        }
+    }
+
+    @Test
+    void loadsTheAnimalsThatWereSaved() throws IOException {
+        List<Animal> animals = TestData.animals(20);
+        animals.get(0).setName("Quote \" backslash \\ tab \t new line \n");
+        animals.get(1).setName("Ñandú 🐾 \u0001");
+        animals.get(2).addOwnerId(TestData.owner("first_owner", "Bogota").getId());
+        String path = directory.resolve("animals.ndjson").toString();
+
+        fileService.saveAnimalsToNDJSONFile(path, animals);
+
+        List<Animal> loadedAnimals = new ArrayList<>();
+        fileService.loadAnimalsFromNDJSONFile(path, loadedAnimals::add);
+        assertEquals(TestData.describeAnimals(animals), TestData.describeAnimals(loadedAnimals));
+    }
+
+    @Test
+    void loadsTheOwnersThatWereSaved() throws IOException {
+        Owner owner = TestData.owner("first_owner", "Bogotá");
+        owner.addAnimalId(TestData.animals(1).get(0).getId());
+        String path = directory.resolve("owners.ndjson").toString();
+
+        fileService.saveOwnersToNDJSONFile(path, List.of(owner));
+
+        List<Owner> loadedOwners = new ArrayList<>();
+        fileService.loadOwnersFromNDJSONFile(path, loadedOwners::add);
+        assertEquals(TestData.describeOwners(List.of(owner)), TestData.describeOwners(loadedOwners));
+    }
+
+    @Test
+    void rejectsALineThatIsNotValidJSON() throws IOException {
+        Path path = directory.resolve("animals.ndjson");
+        fileService.saveAnimalsToNDJSONFile(path.toString(), TestData.animals(1));
+        Files.writeString(path, "{\"id\": true]\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        IOException exception = assertThrows(IOException.class,
+            () -> fileService.loadAnimalsFromNDJSONFile(path.toString(), animal -> { }));
+
+        assertTrue(exception.getMessage().contains("line 2"), exception.getMessage());
+    }
+}
@@ -0,0 +1,83 @@
+package org.study.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.study.model.Animal;
+import org.study.model.Owner;
+
+class OwnersReportTest {
+
+    @TempDir
+    Path directory;
+
+    private final FileService fileService = new FileService();
+    private final AnimalService animalService = new AnimalService();
+    private final OwnerService ownerService = new OwnerService();
+
+    private final UUID removedAnimalId = UUID.randomUUID();
+    private final UUID removedOwnerId = UUID.randomUUID();
+
+    @BeforeEach
+    void loadAnimalsAndOwners() throws IOException {
+        List<Animal> animals = TestData.animals(3);
+        Owner firstOwner = TestData.owner("first_owner", "Bogota");
+        Owner secondOwner = TestData.owner("second_owner", "Cali");
+
+        firstOwner.addAnimalId(animals.get(0).getId());
+        firstOwner.addAnimalId(removedAnimalId);
+        firstOwner.addAnimalId(animals.get(2).getId());
+        // The owner ids of an animal are a set, so every animal has at most one to keep the lines in order
+        animals.get(0).addOwnerId(removedOwnerId);
+        animals.get(2).addOwnerId(firstOwner.getId());
+
+        String animalsPath = directory.resolve("animals.ndjson").toString();
+        fileService.saveAnimalsToNDJSONFile(animalsPath, animals);
+        animalService.loadAnimalsFromNDJSONFile(animalsPath, fileService);
+
+        String ownersPath = directory.resolve("owners.ndjson").toString();
+        fileService.saveOwnersToNDJSONFile(ownersPath, List.of(firstOwner, secondOwner));
+        ownerService.loadOwnersFromNDJSONFile(ownersPath, fileService);
+    }
+
+    @Test
+    void joinsEveryOwnerWithTheNamesOfTheirAnimals() {
+        List<String> report = ownerService.getOwnersAndTheirAnimalsReport(animalService);
+
+        // The owners are in the order of the map of owners by id
+        assertEquals(Set.of(
+                "Name of first_ownerfirst_owner owns :Animal 0, Unknown animal " + removedAnimalId + ", Animal 2",
+                "Name of second_ownersecond_owner owns :"),
+            Set.copyOf(report));
+        assertEquals(2, report.size());
+    }
+
+    @Test
+    void appendsTheSameLinesAsTheListReport() throws IOException {
+        StringBuilder appendedReport = new StringBuilder();
+
+        ownerService.writeOwnersAndTheirAnimalsReport(animalService, appendedReport);
+
+        assertEquals(ownerService.getOwnersAndTheirAnimalsReport(animalService),
+            appendedReport.toString().lines().collect(Collectors.toList()));
+    }
+
+    @Test
+    void showsTheOwnersOfEveryAnimal() {
+        List<String> report = animalService.getAnimalsAndTheirOwnersReport(ownerService);
+
+        assertEquals(List.of(
+                "Animal 0 Owners: Unknown owner " + removedOwnerId,
+                "Animal 1 Owners: ",
+                "Animal 2 Owners: Name of first_owner"),
+            report);
+    }
+}
@@ -0,0 +1,135 @@
+package org.study.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.study.model.Animal;
+import org.study.model.Owner;
+
+class PageTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsEveryAnimalOnceInTheOrderTheyWereAdded() {
+        AnimalService animalService = animalServiceWith(25);
+
+        List<Animal> animals = new ArrayList<>();
+        Page<Animal> page = animalService.getAnimalsPage(null, 10);
+        animals.addAll(page.getItems());
+        while (page.hasNextPage()) {
+            page = animalService.getAnimalsPage(page.getNextPageToken(), 10);
+            animals.addAll(page.getItems());
+        }
+
+        assertEquals(5, page.getItems().size());
+        assertNull(page.getNextPageToken());
+        assertEquals(TestData.describeAnimals(animalService.getAnimalList()), TestData.describeAnimals(animals));
+    }
+
+    @Test
+    void continuesWithTheAnimalsAddedAfterThePreviousPage() {
+        AnimalService animalService = animalServiceWith(10);
+        Page<Animal> firstPage = animalService.getAnimalsPage(null, 9);
+
+        animalService.addAnimalToDatabase("Added later", 4);
+        Page<Animal> secondPage = animalService.getAnimalsPage(firstPage.getNextPageToken(), 9);
+
+        assertEquals(List.of("Animal 9", "Added later"), names(secondPage.getItems()));
+        assertFalse(secondPage.hasNextPage());
+    }
+
+    @Test
+    void rejectsATokenOfAnotherListOfAnimals() throws IOException {
+        AnimalService animalService = animalServiceWith(10);
+        String path = directory.resolve("animals.bin").toString();
+        new FileService().saveAnimalsToSnapshotFile(path, TestData.animals(10));
+        String pageToken = animalService.getAnimalsPage(null, 5).getNextPageToken();
+
+        animalService.loadAnimalsFromSnapshotFile(path, new FileService());
+
+        assertThrows(IllegalArgumentException.class, () -> animalService.getAnimalsPage(pageToken, 5));
+    }
+
+    @Test
+    void readsTheOwnersSortedByUsername() throws IOException {
+        OwnerService ownerService = ownerServiceWith("carol_owner", "alice_owner", "erin_owner", "bob_the_owner");
+
+        Page<Owner> firstPage = ownerService.getOwnersPage(null, 2);
+        Page<Owner> secondPage = ownerService.getOwnersPage(firstPage.getNextPageToken(), 2);
+
+        assertEquals(List.of("alice_owner", "bob_the_owner"), usernames(firstPage.getItems()));
+        assertEquals(List.of("carol_owner", "erin_owner"), usernames(secondPage.getItems()));
+        assertFalse(secondPage.hasNextPage());
+    }
+
+    @Test
+    void doesNotSkipOrRepeatOwnersWhenOwnersAreAddedBetweenPages() throws IOException {
+        OwnerService ownerService = ownerServiceWith("alice_owner", "bob_the_owner", "erin_owner");
+        Page<Owner> firstPage = ownerService.getOwnersPage(null, 2);
+
+        // One before the end of the first page and one after it
+        addOwner(ownerService, "aaron_owner");
+        addOwner(ownerService, "dave_owner");
+        Page<Owner> secondPage = ownerService.getOwnersPage(firstPage.getNextPageToken(), 2);
+
+        assertEquals(List.of("dave_owner", "erin_owner"), usernames(secondPage.getItems()));
+    }
+
+    @Test
+    void rejectsAnAnimalsTokenWhenReadingOwners() throws IOException {
+        String animalsToken = animalServiceWith(3).getAnimalsPage(null, 1).getNextPageToken();
+        OwnerService ownerService = ownerServiceWith("alice_owner");
+
+        assertThrows(IllegalArgumentException.class, () -> ownerService.getOwnersPage(animalsToken, 1));
+    }
+
+    @Test
+    void rejectsAPageSizeThatIsNotPositive() {
+        AnimalService animalService = animalServiceWith(3);
+
+        assertThrows(IllegalArgumentException.class, () -> animalService.getAnimalsPage(null, 0));
+    }
+
+    private static AnimalService animalServiceWith(int numberOfAnimals) {
+        AnimalService animalService = new AnimalService();
+        for (int i = 0; i < numberOfAnimals; i++) {
+            animalService.addAnimalToDatabase("Animal " + i, i % 20);
+        }
+        return animalService;
+    }
+
+    private OwnerService ownerServiceWith(String... usernames) throws IOException {
+        OwnerService ownerService = new OwnerService();
+        for (String username : usernames) {
+            addOwner(ownerService, username);
+        }
+        return ownerService;
+    }
+
+    // Every owner is loaded from its own NDJSON file, added to the owners already in the service
+    private void addOwner(OwnerService ownerService, String username) throws IOException {
+        FileService fileService = new FileService();
+        String path = directory.resolve(username + ".ndjson").toString();
+        fileService.saveOwnersToNDJSONFile(path, List.of(TestData.owner(username, "Bogota")));
+        ownerService.loadOwnersFromNDJSONFile(path, fileService);
+    }
+
+    private static List<String> names(List<Animal> animals) {
+        return animals.stream().map(Animal::getName).collect(Collectors.toList());
+    }
+
+    private static List<String> usernames(List<Owner> owners) {
+        return owners.stream().map(Owner::getUsername).collect(Collectors.toList());
+    }
+}
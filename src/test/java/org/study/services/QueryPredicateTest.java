@@ -0,0 +1,108 @@
+package org.study.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.study.model.Animal;
+import org.study.model.Owner;
+
+class QueryPredicateTest {
+
+    private static final LocalDate AS_OF = LocalDate.of(2024, 1, 1);
+
+    @TempDir
+    Path directory;
+
+    private final FileService fileService = new FileService();
+    private final AnimalService animalService = new AnimalService();
+    private final OwnerService ownerService = new OwnerService();
+
+    private Owner bogotaOwner;
+    private Owner caliOwner;
+
+    @BeforeEach
+    void loadAnimalsAndOwners() throws IOException {
+        bogotaOwner = TestData.owner("bogota_owner", "Bogota");
+        caliOwner = TestData.owner("cali_owner", "Cali");
+        List<Animal> animals = TestData.animals(500);
+        for (int i = 0; i < animals.size(); i += 3) {
+            animals.get(i).addOwnerId(i % 2 == 0 ? bogotaOwner.getId() : caliOwner.getId());
+        }
+
+        String animalsPath = directory.resolve("animals.ndjson").toString();
+        fileService.saveAnimalsToNDJSONFile(animalsPath, animals);
+        animalService.loadAnimalsFromNDJSONFile(animalsPath, fileService);
+
+        String ownersPath = directory.resolve("owners.ndjson").toString();
+        fileService.saveOwnersToNDJSONFile(ownersPath, List.of(bogotaOwner, caliOwner));
+        ownerService.loadOwnersFromNDJSONFile(ownersPath, fileService);
+    }
+
+    @Test
+    void findsTheSameAnimalsAsCheckingEveryAnimal() {
+        assertFound(AnimalQuery.hasBrand("Pfizer"), animal -> animal.getUniqueBrands().contains("Pfizer"));
+        assertFound(AnimalQuery.ageBetween(3, 5), animal -> animal.getAge() >= 3 && animal.getAge() <= 5);
+        assertFound(AnimalQuery.nameStartsWith("Animal 4"), animal -> animal.getName().startsWith("Animal 4"));
+        assertFound(AnimalQuery.hasExpiredVaccine(AS_OF),
+            animal -> animal.getVaccines().stream().anyMatch(vaccine -> vaccine.isExpiredOn(AS_OF)));
+
+        assertFound(AnimalQuery.hasBrand("Merck").and(AnimalQuery.ageBetween(0, 9)),
+            animal -> animal.getUniqueBrands().contains("Merck") && animal.getAge() <= 9);
+        assertFound(AnimalQuery.ageBetween(19, 19).or(AnimalQuery.nameStartsWith("Animal 1")),
+            animal -> animal.getAge() == 19 || animal.getName().startsWith("Animal 1"));
+    }
+
+    @Test
+    void findsTheAnimalsOfTheOwnersOfACity() {
+        List<Animal> animals = animalService.findAnimals(
+            AnimalQuery.ownerCity("Bogota").and(AnimalQuery.ageBetween(0, 10)), ownerService);
+
+        assertEquals(expected(animal -> animal.getOwnerIds().contains(bogotaOwner.getId()) && animal.getAge() <= 10),
+            names(animals));
+        assertThrows(IllegalArgumentException.class, () -> animalService.findAnimals(AnimalQuery.ownerCity("Bogota")));
+    }
+
+    @Test
+    void findsTheAnimalsThatChangedAfterTheFirstQuery() {
+        assertFound(AnimalQuery.hasBrand("Novavax"), animal -> false);
+
+        Animal animal = animalService.getAnimalList().get(10);
+        animal.addVaccine(UUID.randomUUID().toString(), 1, "Novavax", "01/02/2023");
+        animalService.addAnimalToDatabase("Animal new", 4);
+
+        assertEquals(List.of("Animal 10"), names(animalService.findAnimals(AnimalQuery.hasBrand("Novavax"))));
+        assertTrue(names(animalService.findAnimals(AnimalQuery.ageBetween(4, 4))).contains("Animal new"));
+    }
+
+    @Test
+    void findsTheOwnersSortedByUsername() {
+        List<Owner> owners = ownerService.findOwners(OwnerQuery.cityEquals("Cali").or(OwnerQuery.ageBetween(18, 40)));
+
+        assertEquals(List.of("bogota_owner", "cali_owner"),
+            owners.stream().map(Owner::getUsername).collect(Collectors.toList()));
+        assertEquals(List.of(), ownerService.findOwners(OwnerQuery.cityEquals("Medellin")));
+    }
+
+    private void assertFound(QueryPredicate<Animal> predicate, Predicate<Animal> condition) {
+        assertEquals(expected(condition), names(animalService.findAnimals(predicate)));
+    }
+
+    private List<String> expected(Predicate<Animal> condition) {
+        return names(animalService.getAnimalList().stream().filter(condition).collect(Collectors.toList()));
+    }
+
+    private static List<String> names(List<Animal> animals) {
+        return animals.stream().map(Animal::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,171 @@
+package org.study.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.study.model.Animal;
+import org.study.model.Owner;
+
+class SnapshotDeltaTest {
+
+    @TempDir
+    Path directory;
+
+    private final FileService fileService = new FileService();
+
+    @Test
+    void appliesTheDeltasInTheOrderTheyWereAppended() throws IOException {
+        List<Animal> animals = TestData.animals(10);
+        String path = directory.resolve("animals.bin").toString();
+        fileService.saveAnimalsToSnapshotFile(path, animals);
+
+        Animal changedAnimal = animals.get(3);
+        changedAnimal.setName("Changed once");
+        fileService.appendAnimalsToSnapshotDelta(path, List.of(changedAnimal));
+        changedAnimal.setName("Changed twice");
+        Animal newAnimal = new Animal("New animal", 2);
+        fileService.appendAnimalsToSnapshotDelta(path, List.of(changedAnimal, newAnimal));
+
+        // A changed animal keeps its position, a new one goes at the end
+        List<Animal> expected = new ArrayList<>(animals);
+        expected.add(newAnimal);
+        assertEquals(TestData.describeAnimals(expected),
+            TestData.describeAnimals(fileService.loadAnimalsFromSnapshotFile(path)));
+    }
+
+    @Test
+    void removesTheDeletedOwners() throws IOException {
+        Owner keptOwner = TestData.owner("kept_owner", "Bogota");
+        Owner deletedOwner = TestData.owner("deleted_owner", "Cali");
+        String path = directory.resolve("owners.bin").toString();
+        fileService.saveOwnersToSnapshotFile(path, List.of(keptOwner, deletedOwner));
+
+        Owner addedOwner = TestData.owner("added_owner", "Medellin");
+        fileService.appendOwnersToSnapshotDelta(path, List.of(addedOwner), Set.of(deletedOwner.getId()));
+
+        assertEquals(TestData.describeOwners(List.of(keptOwner, addedOwner)),
+            TestData.describeOwners(fileService.loadOwnersFromSnapshotFile(path)));
+    }
+
+    @Test
+    void ignoresALastSegmentThatWasNotCompletelyWritten() throws IOException {
+        List<Animal> animals = TestData.animals(10);
+        String path = directory.resolve("animals.bin").toString();
+        fileService.saveAnimalsToSnapshotFile(path, animals);
+
+        fileService.appendAnimalsToSnapshotDelta(path, List.of(new Animal("Torn animal", 1)));
+        tearLastBytes(path, 6);
+
+        assertEquals(TestData.describeAnimals(animals),
+            TestData.describeAnimals(fileService.loadAnimalsFromSnapshotFile(path)));
+    }
+
+    @Test
+    void loadsTheSegmentsAppendedAfterATornSegment() throws IOException {
+        List<Animal> animals = TestData.animals(10);
+        String path = directory.resolve("animals.bin").toString();
+        fileService.saveAnimalsToSnapshotFile(path, animals);
+
+        Animal firstAnimal = new Animal("First delta", 1);
+        fileService.appendAnimalsToSnapshotDelta(path, List.of(firstAnimal));
+        long completeLength = new File(path + SnapshotFormat.DELTA_EXTENSION).length();
+
+        fileService.appendAnimalsToSnapshotDelta(path, List.of(new Animal("Torn delta", 2)));
+        tearLastBytes(path, 6);
+
+        Animal lastAnimal = new Animal("Third delta", 3);
+        fileService.appendAnimalsToSnapshotDelta(path, List.of(lastAnimal));
+
+        List<Animal> expected = new ArrayList<>(animals);
+        expected.add(firstAnimal);
+        expected.add(lastAnimal);
+        assertEquals(TestData.describeAnimals(expected),
+            TestData.describeAnimals(fileService.loadAnimalsFromSnapshotFile(path)));
+
+        // The torn segment was removed before appending, so the last segment follows the first one
+        File deltaFile = new File(path + SnapshotFormat.DELTA_EXTENSION);
+        assertEquals(2 * completeLength, deltaFile.length());
+    }
+
+    @Test
+    void mergesTheDeltasIntoTheSnapshot() throws IOException {
+        List<Animal> animals = TestData.animals(10);
+        String path = directory.resolve("animals.bin").toString();
+        fileService.saveAnimalsToSnapshotFile(path, animals);
+        animals.get(0).setAge(15);
+        fileService.appendAnimalsToSnapshotDelta(path, List.of(animals.get(0)));
+
+        fileService.mergeAnimalsSnapshotDeltas(path);
+
+        assertFalse(new File(path + SnapshotFormat.DELTA_EXTENSION).exists());
+        assertEquals(TestData.describeAnimals(animals),
+            TestData.describeAnimals(fileService.loadAnimalsFromSnapshotFile(path)));
+    }
+
+    @Test
+    void savesOnlyTheChangedAnimalsOnceTheSnapshotExists() throws IOException {
+        AnimalService animalService = new AnimalService();
+        for (int i = 0; i < 50; i++) {
+            animalService.addAnimalToDatabase("Animal " + i, i % 20);
+        }
+        String path = directory.resolve("animals.bin").toString();
+        File deltaFile = new File(path + SnapshotFormat.DELTA_EXTENSION);
+
+        animalService.saveAnimalsToSnapshotFileIncrementally(path, fileService);
+        assertFalse(deltaFile.exists());
+
+        // One new animal is small next to the snapshot, so it is appended without merging
+        animalService.addAnimalToDatabase("Lassie", 5);
+        animalService.saveAnimalsToSnapshotFileIncrementally(path, fileService);
+        assertTrue(deltaFile.exists());
+        assertFalse(fileService.shouldMergeSnapshotDeltas(path));
+
+        AnimalService loadedAnimalService = new AnimalService();
+        loadedAnimalService.loadAnimalsFromSnapshotFile(path, fileService);
+        assertEquals(TestData.describeAnimals(animalService.getAnimalList()),
+            TestData.describeAnimals(loadedAnimalService.getAnimalList()));
+    }
+
+    @Test
+    void asksToMergeOnceTheDeltasAreBigComparedToTheSnapshot() throws IOException {
+        List<Animal> animals = TestData.animals(100);
+        String path = directory.resolve("animals.bin").toString();
+        fileService.saveAnimalsToSnapshotFile(path, animals);
+
+        fileService.appendAnimalsToSnapshotDelta(path, animals.subList(0, 5));
+        assertFalse(fileService.shouldMergeSnapshotDeltas(path));
+
+        fileService.appendAnimalsToSnapshotDelta(path, animals);
+        assertTrue(fileService.shouldMergeSnapshotDeltas(path));
+    }
+
+    @Test
+    void keepsTheIdOfADeletedOwnerThatIsAddedAgain() throws IOException {
+        Owner owner = TestData.owner("returning_owner", "Bogota");
+        String path = directory.resolve("owners.bin").toString();
+        fileService.saveOwnersToSnapshotFile(path, List.of());
+
+        UUID ownerId = owner.getId();
+        fileService.appendOwnersToSnapshotDelta(path, List.of(owner), Set.of(ownerId));
+
+        assertEquals(TestData.describeOwners(List.of(owner)),
+            TestData.describeOwners(fileService.loadOwnersFromSnapshotFile(path)));
+    }
+
+    private static void tearLastBytes(String path, int bytes) throws IOException {
+        try (RandomAccessFile deltaFile = new RandomAccessFile(path + SnapshotFormat.DELTA_EXTENSION, "rw")) {
+            deltaFile.setLength(deltaFile.length() - bytes);
+        }
+    }
+}
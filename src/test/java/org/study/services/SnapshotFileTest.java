@@ -0,0 +1,95 @@
+package org.study.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.study.model.Animal;
+import org.study.model.Owner;
+
+class SnapshotFileTest {
+
+    @TempDir
+    Path directory;
+
+    private final FileService fileService = new FileService();
+
+    @Test
+    void loadsTheAnimalsThatWereSaved() throws IOException {
+        // Enough animals for several blocks
+        List<Animal> animals = TestData.animals(5_000);
+        animals.get(1).addOwnerId(TestData.owner("first_owner", "Bogota").getId());
+        String path = directory.resolve("animals.bin").toString();
+
+        fileService.saveAnimalsToSnapshotFile(path, animals);
+
+        assertTrue(fileService.isSnapshotFile(path));
+        assertEquals(TestData.describeAnimals(animals),
+            TestData.describeAnimals(fileService.loadAnimalsFromSnapshotFile(path)));
+    }
+
+    @Test
+    void loadsTheOwnersThatWereSaved() throws IOException {
+        Owner firstOwner = TestData.owner("first_owner", "Bogota");
+        Owner secondOwner = TestData.owner("second_owner", "Medellin");
+        firstOwner.addAnimalId(TestData.animals(1).get(0).getId());
+        String path = directory.resolve("owners.bin").toString();
+
+        fileService.saveOwnersToSnapshotFile(path, List.of(firstOwner, secondOwner));
+
+        assertEquals(TestData.describeOwners(List.of(firstOwner, secondOwner)),
+            TestData.describeOwners(fileService.loadOwnersFromSnapshotFile(path)));
+    }
+
+    @Test
+    void isNotASnapshotFileIfItWasSavedWithJavaSerialization() throws IOException {
+        String path = directory.resolve("animals.ser").toString();
+
+        fileService.saveAnimalsToBinaryFileUsingTheEntireList(path, TestData.animals(3));
+
+        assertFalse(fileService.isSnapshotFile(path));
+    }
+
+    @Test
+    void rejectsABlockWhoseChecksumDoesNotMatch() throws IOException {
+        String path = directory.resolve("animals.bin").toString();
+        fileService.saveAnimalsToSnapshotFile(path, TestData.animals(100));
+
+        // A byte of the payload of the first block, after the header of the file and of the block
+        try (RandomAccessFile file = new RandomAccessFile(path, "rw")) {
+            file.seek(40);
+            int value = file.read();
+            file.seek(40);
+            file.write(value ^ 0xFF);
+        }
+
+        IOException exception = assertThrows(IOException.class, () -> fileService.loadAnimalsFromSnapshotFile(path));
+        assertTrue(exception.getMessage().contains("checksum"), exception.getMessage());
+    }
+
+    @Test
+    void rejectsAFileOfOtherRecords() throws IOException {
+        String path = directory.resolve("owners.bin").toString();
+        fileService.saveOwnersToSnapshotFile(path, List.of(TestData.owner("first_owner", "Bogota")));
+
+        assertThrows(IOException.class, () -> fileService.loadAnimalsFromSnapshotFile(path));
+    }
+
+    @Test
+    void writesAnIndexWithTheSnapshot() throws IOException {
+        Path path = directory.resolve("animals.bin");
+
+        fileService.saveAnimalsToSnapshotFile(path.toString(), TestData.animals(10));
+
+        assertTrue(Files.isRegularFile(Path.of(path + SnapshotFormat.INDEX_EXTENSION)));
+        assertTrue(fileService.snapshotFileExists(path.toString()));
+    }
+}
@@ -0,0 +1,73 @@
+package org.study.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.study.model.Animal;
+import org.study.model.Owner;
+import org.study.model.Vaccine;
+
+/**
+ * Animals and owners for the tests, and a description of them to compare what was saved with what was loaded
+ * (the model classes do not override equals).
+ */
+final class TestData {
+
+    static final String[] BRANDS = {"Pfizer", "Moderna", "Zoetis", "Merck", "Bayer"};
+
+    private TestData() {
+    }
+
+    /**
+     * @return The animals "Animal 0" to "Animal (count - 1)", the animal i with i % 4 vaccines applied in 2023.
+     */
+    static List<Animal> animals(int count) {
+        List<Animal> animals = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            Animal animal = new Animal("Animal " + i, i % 20);
+            for (int j = 0; j < i % 4; j++) {
+                String date = String.format("%02d/%02d/2023", 1 + (i + j) % 28, 1 + (i + j) % 12);
+                animal.addVaccine(UUID.randomUUID().toString(), 1 + j, BRANDS[(i + j) % BRANDS.length], date);
+            }
+            animals.add(animal);
+        }
+
+        return animals;
+    }
+
+    /**
+     * @return An owner with valid attributes, the username must be 8 to 31 letters, digits or underscores.
+     */
+    static Owner owner(String username, String city) {
+        return new Owner(UUID.randomUUID(), "Name of " + username, username, username + "@example.com", "Passw0rd!",
+            30, "3001234567", "Street 1 # 2-3", city, "State", "Country", "12345");
+    }
+
+    static List<String> describeAnimals(List<Animal> animals) {
+        return animals.stream().map(TestData::describe).collect(Collectors.toList());
+    }
+
+    static List<String> describeOwners(List<Owner> owners) {
+        return owners.stream().map(TestData::describe).collect(Collectors.toList());
+    }
+
+    static String describe(Animal animal) {
+        return animal.getId() + "|" + animal.getName() + "|" + animal.getAge()
+            + "|" + animal.getOwnerIds().stream().sorted().collect(Collectors.toList())
+            + "|" + animal.getVaccines().stream().map(TestData::describe).collect(Collectors.toList());
+    }
+
+    static String describe(Vaccine vaccine) {
+        return vaccine.getID() + "|" + vaccine.getBrand() + "|" + vaccine.getVolumeInMl()
+            + "|" + vaccine.getDateOfApplication();
+    }
+
+    static String describe(Owner owner) {
+        return owner.getId() + "|" + owner.getName() + "|" + owner.getUsername() + "|" + owner.getEmail()
+            + "|" + owner.getPassword() + "|" + owner.getAge() + "|" + owner.getPhone() + "|" + owner.getAddress()
+            + "|" + owner.getCity() + "|" + owner.getState() + "|" + owner.getZip() + "|" + owner.getCountry()
+            + "|" + owner.getAnimalIds();
+    }
+}
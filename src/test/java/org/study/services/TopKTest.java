@@ -0,0 +1,67 @@
+package org.study.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.study.model.Animal;
+
+class TopKTest {
+
+    @Test
+    void selectsTheSameItemsAsSortingEverything() {
+        Random random = new Random(42);
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            items.add(random.nextInt(1_000));
+        }
+
+        for (int k : new int[] {1, 7, 100, 10_000}) {
+            List<Integer> sorted = new ArrayList<>(items);
+            sorted.sort(Comparator.reverseOrder());
+
+            assertEquals(sorted.subList(0, k), TopK.select(items, k, Comparator.reverseOrder()), "k = " + k);
+        }
+    }
+
+    @Test
+    void returnsEveryItemIfThereAreLessThanK() {
+        List<Integer> items = List.of(3, 1, 2);
+
+        assertEquals(List.of(1, 2, 3), TopK.select(items, 10, Comparator.naturalOrder()));
+        assertEquals(Collections.emptyList(), TopK.select(List.<Integer>of(), 10, Comparator.naturalOrder()));
+    }
+
+    @Test
+    void rejectsAKThatIsNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> TopK.select(List.of(1), 0, Comparator.naturalOrder()));
+    }
+
+    @Test
+    void getsTheAnimalsWithMostVaccinesBreakingTiesByName() {
+        AnimalService animalService = new AnimalService();
+        for (int i = 0; i < 12; i++) {
+            animalService.addAnimalToDatabase("Animal " + i, 2);
+        }
+        // The animal i has i % 4 vaccines
+        List<Animal> animals = animalService.getAnimalList();
+        for (int i = 0; i < animals.size(); i++) {
+            for (int j = 0; j < i % 4; j++) {
+                animals.get(i).addVaccine(UUID.randomUUID().toString(), 1, "Pfizer", "01/02/2023");
+            }
+        }
+
+        List<String> names = animalService.getAnimalsWithMostVaccines(4).stream()
+            .map(Animal::getName)
+            .collect(Collectors.toList());
+
+        assertEquals(List.of("Animal 11", "Animal 3", "Animal 7", "Animal 10"), names);
+    }
+}
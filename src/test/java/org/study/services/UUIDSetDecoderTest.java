@@ -0,0 +1,78 @@
+package org.study.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class UUIDSetDecoderTest {
+
+    private static final UUID FIRST_ID = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+    private static final UUID SECOND_ID = UUID.fromString("FFFFFFFF-0000-4000-8000-ABCDEFabcdef");
+
+    @Test
+    void decodesTheIdsOfASetWithBracesAndSpaces() {
+        String text = "{ " + FIRST_ID + " ,\t" + SECOND_ID.toString().toUpperCase() + " }";
+
+        assertEquals(List.of(FIRST_ID, SECOND_ID), decode(text));
+    }
+
+    @Test
+    void decodesTheSameIdsFromTheBytesOfABuffer() {
+        String text = "{" + FIRST_ID + "," + SECOND_ID + "}";
+        ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+
+        List<UUID> ids = new ArrayList<>();
+        UUIDSetDecoder.decode(buffer, 0, buffer.limit(), (most, least) -> ids.add(new UUID(most, least)));
+
+        assertEquals(List.of(FIRST_ID, SECOND_ID), ids);
+    }
+
+    @Test
+    void decodesOnlyTheRangeBetweenStartAndEnd() {
+        String text = "id;{" + FIRST_ID + "};name";
+
+        List<UUID> ids = new ArrayList<>();
+        UUIDSetDecoder.decode(text, 3, text.indexOf("};") + 1, (most, least) -> ids.add(new UUID(most, least)));
+
+        assertEquals(List.of(FIRST_ID), ids);
+    }
+
+    @Test
+    void decodesAnEmptySet() {
+        assertTrue(decode("{}").isEmpty());
+        assertTrue(decode("  ").isEmpty());
+    }
+
+    @Test
+    void rejectsIdsWithoutACommaBetweenThem() {
+        assertThrows(IllegalArgumentException.class, () -> decode("{" + FIRST_ID + " " + SECOND_ID + "}"));
+    }
+
+    @Test
+    void rejectsMalformedIds() {
+        assertThrows(IllegalArgumentException.class, () -> decode("{123e4567e89b12d3a456426614174000}"));
+        assertThrows(IllegalArgumentException.class, () -> decode("{123e4567-e89b-12d3-a456-42661417400g}"));
+        assertThrows(IllegalArgumentException.class, () -> decode("{123e4567-e89b-12d3}"));
+    }
+
+    @Test
+    void decodesASingleIdOfABuffer() {
+        ByteBuffer buffer = ByteBuffer.wrap(("x" + FIRST_ID + "x").getBytes(StandardCharsets.US_ASCII));
+
+        assertEquals(FIRST_ID, UUIDSetDecoder.decodeUUID(buffer, 1, 1 + UUIDSetDecoder.UUID_LENGTH));
+        assertThrows(IllegalArgumentException.class, () -> UUIDSetDecoder.decodeUUID(buffer, 0, buffer.limit()));
+    }
+
+    private static List<UUID> decode(String text) {
+        List<UUID> ids = new ArrayList<>();
+        UUIDSetDecoder.decode(text, (most, least) -> ids.add(new UUID(most, least)));
+        return ids;
+    }
+}
@@ -0,0 +1,66 @@
+package org.study.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.study.exceptions.NotFoundException;
+import org.study.model.Animal;
+import org.study.services.enums.CompressionEnum;
+import org.study.services.enums.MissingAnimalPolicyEnum;
+
+class VaccineQuarantineTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writesTheRowsOfMissingAnimalsToAPlainTextFile() throws IOException, NotFoundException {
+        // The quarantine file must be readable as it is even when the exports are compressed
+        FileService fileService = new FileService(CompressionEnum.DEFLATE);
+        Animal animal = TestData.animals(1).get(0);
+        Map<UUID, Animal> animals = Map.of(animal.getId(), animal);
+
+        String knownRow = vaccineRow(animal.getId());
+        String firstMissingRow = vaccineRow(UUID.randomUUID());
+        String secondMissingRow = vaccineRow(UUID.randomUUID());
+        Path vaccinesPath = directory.resolve("vaccines.csv");
+        Files.write(vaccinesPath, List.of(firstMissingRow, knownRow, secondMissingRow), StandardCharsets.UTF_8);
+        Path quarantinePath = directory.resolve("quarantine.csv");
+
+        int vaccinesAdded = fileService.loadVaccinesFromCSVFileIntoAnimals(vaccinesPath.toString(), ";",
+            animals::get, MissingAnimalPolicyEnum.QUARANTINE, quarantinePath.toString());
+
+        assertEquals(1, vaccinesAdded);
+        assertEquals(1, animal.getVaccines().size());
+        assertEquals(List.of(firstMissingRow, secondMissingRow),
+            Files.readAllLines(quarantinePath, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void doesNotCreateTheQuarantineFileIfEveryAnimalExists() throws IOException, NotFoundException {
+        FileService fileService = new FileService();
+        Animal animal = TestData.animals(1).get(0);
+        Path vaccinesPath = directory.resolve("vaccines.csv");
+        Files.write(vaccinesPath, List.of(vaccineRow(animal.getId())), StandardCharsets.UTF_8);
+        Path quarantinePath = directory.resolve("quarantine.csv");
+
+        Map<UUID, Animal> animals = Map.of(animal.getId(), animal);
+        fileService.loadVaccinesFromCSVFileIntoAnimals(vaccinesPath.toString(), ";",
+            animals::get, MissingAnimalPolicyEnum.QUARANTINE, quarantinePath.toString());
+
+        assertFalse(Files.exists(quarantinePath));
+    }
+
+    private static String vaccineRow(UUID animalId) {
+        return UUID.randomUUID() + ";2;Pfizer;15/03/2023;" + animalId;
+    }
+}